@@ -0,0 +1,140 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.io.ASN1;
+import org.forgerock.opendj.io.ASN1Reader;
+import org.forgerock.opendj.io.ASN1Writer;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the {@link ASN1Writer} and {@link ASN1Reader} implementations of
+ * {@code org.forgerock.opendj.io} with a PDU shaped like an LDAP search result entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ASN1Benchmark
+{
+  private static final byte OP_TYPE_SEARCH_RESULT_ENTRY = 0x64;
+
+  private final ByteStringBuilder buffer = new ByteStringBuilder(1024);
+  private final ASN1Writer writer = ASN1.getWriter(buffer);
+  private String[][] attributes;
+  private ByteString encodedEntry;
+
+  /**
+   * Builds the attributes to encode and a pre-encoded PDU to decode.
+   *
+   * @throws IOException
+   *           if the PDU could not be encoded
+   */
+  @Setup
+  public void setup() throws IOException
+  {
+    final String[] ldif = BenchmarkSupport.userEntryLdif(42);
+    attributes = new String[ldif.length - 1][];
+    for (int i = 1; i < ldif.length; i++)
+    {
+      final int colon = ldif[i].indexOf(':');
+      attributes[i - 1] = new String[] { ldif[i].substring(0, colon), ldif[i].substring(colon + 2) };
+    }
+    encodedEntry = encodeSearchResultEntry();
+  }
+
+  /**
+   * Encodes a search result entry PDU.
+   *
+   * @return the encoded PDU
+   * @throws IOException
+   *           if the PDU could not be encoded
+   */
+  @Benchmark
+  public ByteString encodeSearchResultEntry() throws IOException
+  {
+    buffer.clear();
+    writer.writeStartSequence();
+    writer.writeInteger(42);
+    writer.writeStartSequence(OP_TYPE_SEARCH_RESULT_ENTRY);
+    writer.writeOctetString("uid=user.42,ou=People,dc=example,dc=com");
+    writer.writeStartSequence();
+    for (String[] attribute : attributes)
+    {
+      writer.writeStartSequence();
+      writer.writeOctetString(attribute[0]);
+      writer.writeStartSet();
+      writer.writeOctetString(attribute[1]);
+      writer.writeEndSet();
+      writer.writeEndSequence();
+    }
+    writer.writeEndSequence();
+    writer.writeEndSequence();
+    writer.writeEndSequence();
+    return buffer.toByteString();
+  }
+
+  /**
+   * Decodes a search result entry PDU.
+   *
+   * @param bh
+   *          consumes the decoded values
+   * @throws IOException
+   *           if the PDU could not be decoded
+   */
+  @Benchmark
+  public void decodeSearchResultEntry(Blackhole bh) throws IOException
+  {
+    final ASN1Reader reader = ASN1.getReader(encodedEntry);
+    reader.readStartSequence();
+    bh.consume(reader.readInteger());
+    reader.readStartSequence(OP_TYPE_SEARCH_RESULT_ENTRY);
+    bh.consume(reader.readOctetStringAsString());
+    reader.readStartSequence();
+    while (reader.hasNextElement())
+    {
+      reader.readStartSequence();
+      bh.consume(reader.readOctetStringAsString());
+      reader.readStartSet();
+      while (reader.hasNextElement())
+      {
+        bh.consume(reader.readOctetString());
+      }
+      reader.readEndSet();
+      reader.readEndSequence();
+    }
+    reader.readEndSequence();
+    reader.readEndSequence();
+    reader.readEndSequence();
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * The results of a benchmark run, which can be saved to a file and later used as the baseline
+ * that another run is compared with.
+ * <p>
+ * Results are stored as one tab separated line per benchmark: key, mode, score, score error and
+ * unit. The key is the fully qualified benchmark method name followed by its parameters.
+ */
+final class BaselineReport
+{
+  /** A single benchmark score. */
+  static final class Score
+  {
+    private final String mode;
+    private final double score;
+    private final double error;
+    private final String unit;
+
+    Score(String mode, double score, double error, String unit)
+    {
+      this.mode = mode;
+      this.score = score;
+      this.error = Double.isNaN(error) ? 0 : error;
+      this.unit = unit;
+    }
+
+    /**
+     * Returns whether a higher score is better for this score's mode: throughput is better when
+     * higher, times are better when lower.
+     */
+    boolean isHigherBetter()
+    {
+      return "thrpt".equals(mode);
+    }
+  }
+
+  private final Map<String, Score> scores = new TreeMap<>();
+
+  static BaselineReport fromRunResults(Collection<RunResult> results)
+  {
+    final BaselineReport report = new BaselineReport();
+    for (RunResult result : results)
+    {
+      final BenchmarkParams params = result.getParams();
+      final Result<?> primary = result.getPrimaryResult();
+      report.scores.put(keyOf(params),
+          new Score(params.getMode().shortLabel(), primary.getScore(), primary.getScoreError(), primary.getScoreUnit()));
+    }
+    return report;
+  }
+
+  static BaselineReport load(File file) throws IOException
+  {
+    final BaselineReport report = new BaselineReport();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)))
+    {
+      String line;
+      while ((line = reader.readLine()) != null)
+      {
+        if (line.isEmpty() || line.startsWith("#"))
+        {
+          continue;
+        }
+        final String[] fields = line.split("\t");
+        if (fields.length != 5)
+        {
+          throw new IOException("Malformed baseline line in " + file + ": " + line);
+        }
+        report.scores.put(fields[0],
+            new Score(fields[1], Double.parseDouble(fields[2]), Double.parseDouble(fields[3]), fields[4]));
+      }
+    }
+    return report;
+  }
+
+  void save(File file) throws IOException
+  {
+    try (Writer writer =
+        new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))
+    {
+      writer.write("# benchmark\tmode\tscore\terror\tunit\n");
+      for (Map.Entry<String, Score> entry : scores.entrySet())
+      {
+        final Score s = entry.getValue();
+        writer.write(entry.getKey() + "\t" + s.mode + "\t" + s.score + "\t" + s.error + "\t" + s.unit + "\n");
+      }
+    }
+  }
+
+  /**
+   * Prints a comparison of this report against the provided baseline. A benchmark is flagged as
+   * faster or slower only when the difference exceeds both scores' error margins and the provided
+   * threshold.
+   *
+   * @return the number of benchmarks which regressed
+   */
+  int printComparison(BaselineReport baseline, double thresholdPercent, PrintStream out)
+  {
+    int regressions = 0;
+    out.println();
+    out.println(String.format(Locale.ROOT, "%-90s %14s %14s %9s  %s",
+        "Benchmark", "Baseline", "Current", "Speedup", "Verdict"));
+    for (Map.Entry<String, Score> entry : scores.entrySet())
+    {
+      final Score current = entry.getValue();
+      final Score base = baseline.scores.get(entry.getKey());
+      if (base == null || !base.mode.equals(current.mode) || !base.unit.equals(current.unit))
+      {
+        out.println(String.format(Locale.ROOT, "%-90s %14s %14.3f %9s  %s",
+            entry.getKey(), "-", current.score, "-", "NEW"));
+        continue;
+      }
+
+      final double speedup = current.isHigherBetter() ? current.score / base.score : base.score / current.score;
+      final boolean significant = Math.abs(current.score - base.score) > current.error + base.error
+          && Math.abs(speedup - 1) * 100 > thresholdPercent;
+      final String verdict;
+      if (!significant)
+      {
+        verdict = "same";
+      }
+      else if (speedup > 1)
+      {
+        verdict = "FASTER";
+      }
+      else
+      {
+        verdict = "SLOWER";
+        regressions++;
+      }
+      out.println(String.format(Locale.ROOT, "%-90s %14.3f %14.3f %8.2fx  %s",
+          entry.getKey(), base.score, current.score, speedup, verdict));
+    }
+    for (String key : baseline.scores.keySet())
+    {
+      if (!scores.containsKey(key))
+      {
+        out.println(String.format(Locale.ROOT, "%-90s %14.3f %14s %9s  %s",
+            key, baseline.scores.get(key).score, "-", "-", "NOT RUN"));
+      }
+    }
+    out.println();
+    return regressions;
+  }
+
+  private static String keyOf(BenchmarkParams params)
+  {
+    final StringBuilder key = new StringBuilder(params.getBenchmark());
+    final Collection<String> paramKeys = params.getParamsKeys();
+    if (!paramKeys.isEmpty())
+    {
+      key.append('{');
+      boolean first = true;
+      for (String paramKey : paramKeys)
+      {
+        if (!first)
+        {
+          key.append(',');
+        }
+        key.append(paramKey).append('=').append(params.getParam(paramKey));
+        first = false;
+      }
+      key.append('}');
+    }
+    return key.toString();
+  }
+}
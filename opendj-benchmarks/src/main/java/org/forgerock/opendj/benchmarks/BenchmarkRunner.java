@@ -0,0 +1,122 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+/**
+ * Runs the JMH benchmarks and optionally compares their results with a previously saved baseline.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * java -jar opendj-benchmarks.jar [-output file] [-baseline file] [-threshold percent] [JMH options] [regexp...]
+ * </pre>
+ *
+ * A typical workflow for proving a speedup is:
+ * <ol>
+ * <li>build and run the benchmarks on the unmodified tree with {@code -output before.tsv},</li>
+ * <li>apply the change, rebuild and run them again with {@code -baseline before.tsv}.</li>
+ * </ol>
+ * The second run prints, for each benchmark, the baseline and current scores along with the
+ * speedup, and exits with a non zero status if a benchmark regressed by more than the threshold
+ * (5% by default) and the score error margins. All the other arguments are passed unchanged to
+ * JMH, e.g. {@code EntryIDSet -p size=100000} only runs the {@code EntryIDSet} benchmarks with
+ * 100000 IDs.
+ */
+public final class BenchmarkRunner
+{
+  private static final double DEFAULT_THRESHOLD_PERCENT = 5;
+
+  private BenchmarkRunner()
+  {
+    // Prevent instantiation.
+  }
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args
+   *          the command line arguments
+   * @throws Exception
+   *           if the benchmarks could not be run or the reports could not be read or written
+   */
+  public static void main(String[] args) throws Exception
+  {
+    File output = null;
+    File baseline = null;
+    double threshold = DEFAULT_THRESHOLD_PERCENT;
+    final List<String> jmhArgs = new ArrayList<>();
+    for (Iterator<String> it = Arrays.asList(args).iterator(); it.hasNext();)
+    {
+      final String arg = it.next();
+      if ("-output".equals(arg))
+      {
+        output = new File(nextValue(arg, it));
+      }
+      else if ("-baseline".equals(arg))
+      {
+        baseline = new File(nextValue(arg, it));
+      }
+      else if ("-threshold".equals(arg))
+      {
+        threshold = Double.parseDouble(nextValue(arg, it));
+      }
+      else
+      {
+        jmhArgs.add(arg);
+      }
+    }
+
+    // Load the baseline first so that a typo does not waste a whole run.
+    final BaselineReport baselineReport = baseline != null ? BaselineReport.load(baseline) : null;
+    final Collection<RunResult> results =
+        new Runner(new CommandLineOptions(jmhArgs.toArray(new String[jmhArgs.size()]))).run();
+    final BaselineReport report = BaselineReport.fromRunResults(results);
+    if (output != null)
+    {
+      report.save(output);
+      System.out.println("Benchmark results saved to " + output.getAbsolutePath());
+    }
+    if (baselineReport != null)
+    {
+      final int regressions = report.printComparison(baselineReport, threshold, System.out);
+      if (regressions > 0)
+      {
+        System.out.println(regressions + " benchmark(s) regressed compared with " + baseline);
+        System.exit(1);
+      }
+    }
+  }
+
+  private static String nextValue(String option, Iterator<String> it)
+  {
+    if (!it.hasNext())
+    {
+      throw new IllegalArgumentException("Missing value for option " + option);
+    }
+    return it.next();
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.benchmarks;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.forgerock.opendj.ldap.schema.Schema;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Entry;
+import org.opends.server.types.LDIFImportConfig;
+import org.opends.server.util.LDIFReader;
+
+/** Utility methods shared by the benchmarks which need the server-side types. */
+public final class BenchmarkSupport
+{
+  private static boolean bootstrapped;
+
+  private BenchmarkSupport()
+  {
+    // Prevent instantiation.
+  }
+
+  /**
+   * Sets up the minimal in-memory server structures needed by server-side types such as
+   * {@link Entry} and {@link org.opends.server.types.SearchFilter}, using the default schema.
+   *
+   * @throws Exception
+   *           If the schema could not be installed
+   */
+  public static synchronized void bootstrapServer() throws Exception
+  {
+    if (!bootstrapped)
+    {
+      DirectoryServer.bootstrapClient();
+      DirectoryServer.getInstance().getServerContext().getSchemaHandler().updateSchema(Schema.getDefaultSchema());
+      bootstrapped = true;
+    }
+  }
+
+  /**
+   * Builds a server entry from the provided LDIF lines.
+   *
+   * @param lines
+   *          The LDIF lines of a single entry
+   * @return The decoded entry
+   * @throws Exception
+   *           If the LDIF cannot be parsed
+   */
+  public static Entry makeEntry(String... lines) throws Exception
+  {
+    final StringBuilder ldif = new StringBuilder();
+    for (String line : lines)
+    {
+      ldif.append(line).append('\n');
+    }
+    final LDIFImportConfig importConfig = new LDIFImportConfig(new StringReader(ldif.toString()));
+    importConfig.setValidateSchema(false);
+    try (LDIFReader reader = new LDIFReader(importConfig))
+    {
+      return reader.readEntry(false);
+    }
+  }
+
+  /**
+   * Returns the LDIF lines of a typical inetOrgPerson user entry.
+   *
+   * @param uid
+   *          The user identifier, used to build the RDN and the attribute values
+   * @return The LDIF lines of the user entry
+   */
+  public static String[] userEntryLdif(int uid)
+  {
+    final List<String> lines = new ArrayList<>();
+    lines.add("dn: uid=user." + uid + ",ou=People,dc=example,dc=com");
+    lines.add("objectClass: top");
+    lines.add("objectClass: person");
+    lines.add("objectClass: organizationalPerson");
+    lines.add("objectClass: inetOrgPerson");
+    lines.add("uid: user." + uid);
+    lines.add("cn: Aaren Atp " + uid);
+    lines.add("sn: Atp");
+    lines.add("givenName: Aaren");
+    lines.add("initials: AA");
+    lines.add("mail: user." + uid + "@example.com");
+    lines.add("telephoneNumber: +1 685 622 " + String.format("%04d", uid % 10000));
+    lines.add("employeeNumber: " + uid);
+    lines.add("street: 01251 Chestnut Street");
+    lines.add("l: Panama City");
+    lines.add("st: DE");
+    lines.add("postalCode: 50369");
+    lines.add("description: This is the description for Aaren Atp " + uid + ".");
+    lines.add("userPassword: {SSHA}AuL+Dwcu8lX3nsRNBRkDMIjHcQNzOBDn4UXxVg==");
+    return lines.toArray(new String[lines.size()]);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link DN} parsing and normalization.
+ * <p>
+ * {@link DN#valueOf(String)} keeps a small per-thread cache of recently decoded DNs: the
+ * "uncached" benchmarks cycle through more distinct DNs than the cache can hold so that every
+ * call really decodes its input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DNBenchmark
+{
+  private static final int NB_DNS = 1024;
+
+  private final String[] dnStrings = new String[NB_DNS];
+  private final DN[] dns = new DN[NB_DNS];
+  private int index;
+
+  /** Generates the DNs used by the benchmarks. */
+  @Setup
+  public void setup()
+  {
+    for (int i = 0; i < NB_DNS; i++)
+    {
+      dnStrings[i] = "uid=User." + i + ",ou=People,dc=Example,dc=COM";
+      dns[i] = DN.valueOf(dnStrings[i]);
+    }
+  }
+
+  private int nextIndex()
+  {
+    index = (index + 1) & (NB_DNS - 1);
+    return index;
+  }
+
+  /**
+   * Parses a DN which is not in the per-thread DN cache.
+   *
+   * @return the parsed DN
+   */
+  @Benchmark
+  public DN valueOfUncached()
+  {
+    return DN.valueOf(dnStrings[nextIndex()]);
+  }
+
+  /**
+   * Parses the same DN over and over, hitting the per-thread DN cache.
+   *
+   * @return the parsed DN
+   */
+  @Benchmark
+  public DN valueOfCached()
+  {
+    return DN.valueOf(dnStrings[0]);
+  }
+
+  /**
+   * Parses and normalizes a DN, as done when a DN is used as an index or a tree key.
+   *
+   * @return the normalized DN
+   */
+  @Benchmark
+  public ByteString valueOfAndNormalize()
+  {
+    return DN.valueOf(dnStrings[nextIndex()]).toNormalizedByteString();
+  }
+
+  /**
+   * Compares two already parsed DNs.
+   *
+   * @return the comparison result
+   */
+  @Benchmark
+  public int compareTo()
+  {
+    final int i = nextIndex();
+    return dns[i].compareTo(dns[(i + 1) & (NB_DNS - 1)]);
+  }
+
+  /**
+   * Checks subordination of an already parsed DN, as done for every entry of a subtree search.
+   *
+   * @return whether the DN is subordinate to its grand parent
+   */
+  @Benchmark
+  public boolean isSubordinateOrEqualTo()
+  {
+    final DN dn = dns[nextIndex()];
+    return dn.isSubordinateOrEqualTo(dn.parent(2));
+  }
+}
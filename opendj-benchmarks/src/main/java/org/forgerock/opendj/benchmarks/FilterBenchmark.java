@@ -0,0 +1,120 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.ConditionResult;
+import org.forgerock.opendj.ldap.Filter;
+import org.forgerock.opendj.ldap.LinkedHashMapEntry;
+import org.forgerock.opendj.ldap.Matcher;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks filter evaluation against an entry, both with the SDK {@link Filter} / {@link Matcher}
+ * and with the server {@link SearchFilter#matchesEntry(Entry)} used when returning search results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FilterBenchmark
+{
+  /** The filters to evaluate, covering the most common filter types. */
+  @Param({
+    "(uid=user.42)",
+    "(objectClass=inetOrgPerson)",
+    "(&(objectClass=person)(mail=user.42@example.com))",
+    "(|(cn=nobody)(sn=Atp)(givenName=nobody))",
+    "(cn=*Atp 4*)",
+    "(employeeNumber>=40)",
+    "(!(description=*disabled*))"
+  })
+  public String filter;
+
+  private Matcher matcher;
+  private org.forgerock.opendj.ldap.Entry sdkEntry;
+  private SearchFilter searchFilter;
+  private Entry serverEntry;
+
+  /**
+   * Parses the filter and builds the entry to match.
+   *
+   * @throws Exception
+   *           if the server could not be bootstrapped
+   */
+  @Setup
+  public void setup() throws Exception
+  {
+    BenchmarkSupport.bootstrapServer();
+    final String[] ldif = BenchmarkSupport.userEntryLdif(42);
+    matcher = Filter.valueOf(filter).matcher();
+    sdkEntry = new LinkedHashMapEntry(ldif);
+    searchFilter = SearchFilter.createFilterFromString(filter);
+    serverEntry = BenchmarkSupport.makeEntry(ldif);
+  }
+
+  /**
+   * Evaluates the SDK filter matcher.
+   *
+   * @return the match result
+   */
+  @Benchmark
+  public ConditionResult sdkMatcher()
+  {
+    return matcher.matches(sdkEntry);
+  }
+
+  /**
+   * Evaluates the server search filter.
+   *
+   * @return the match result
+   * @throws Exception
+   *           if the filter could not be evaluated
+   */
+  @Benchmark
+  public boolean searchFilterMatchesEntry() throws Exception
+  {
+    return searchFilter.matchesEntry(serverEntry);
+  }
+
+  /**
+   * Parses the server search filter, as done for every incoming search request.
+   *
+   * @return the parsed filter
+   * @throws Exception
+   *           if the filter could not be parsed
+   */
+  @Benchmark
+  public SearchFilter searchFilterParse() throws Exception
+  {
+    return SearchFilter.createFilterFromString(filter);
+  }
+}
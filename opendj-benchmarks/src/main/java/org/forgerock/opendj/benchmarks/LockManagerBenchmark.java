@@ -0,0 +1,132 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.types.LockManager;
+import org.opends.server.types.LockManager.DNLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link LockManager} lock / unlock cycles, as performed for every read and write
+ * operation. The benchmarks run with several threads sharing one lock manager so that contention
+ * on the lock table is measured too.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class LockManagerBenchmark
+{
+  private static final int NB_DNS = 4096;
+
+  /** The lock manager shared by all the benchmark threads. */
+  @State(Scope.Benchmark)
+  public static class SharedLockManager
+  {
+    final LockManager lockManager = new LockManager();
+    final DN[] dns = new DN[NB_DNS];
+
+    /** Generates the DNs to lock. */
+    @Setup
+    public void setup()
+    {
+      for (int i = 0; i < NB_DNS; i++)
+      {
+        dns[i] = DN.valueOf("uid=user." + i + ",ou=People,dc=example,dc=com");
+      }
+    }
+  }
+
+  /** The position of each thread in the DNs array. */
+  @State(Scope.Thread)
+  public static class Cursor
+  {
+    int index;
+
+    int next()
+    {
+      index = (index + 1) & (NB_DNS - 1);
+      return index;
+    }
+  }
+
+  /**
+   * Read locks then unlocks distinct entries, like concurrent searches and compares do.
+   *
+   * @param shared
+   *          the shared lock manager
+   * @param cursor
+   *          the per thread cursor
+   * @return the lock which was taken
+   */
+  @Benchmark
+  public DNLock readLockUnlock(SharedLockManager shared, Cursor cursor)
+  {
+    final DNLock lock = shared.lockManager.tryReadLockEntry(shared.dns[cursor.next()]);
+    lock.unlock();
+    return lock;
+  }
+
+  /**
+   * Write locks then unlocks distinct entries, like concurrent modifies do.
+   *
+   * @param shared
+   *          the shared lock manager
+   * @param cursor
+   *          the per thread cursor
+   * @return the lock which was taken, or {@code null} if another thread holds it
+   */
+  @Benchmark
+  public DNLock writeLockUnlock(SharedLockManager shared, Cursor cursor)
+  {
+    final DNLock lock = shared.lockManager.tryWriteLockEntry(shared.dns[cursor.next()]);
+    if (lock != null)
+    {
+      lock.unlock();
+    }
+    return lock;
+  }
+
+  /**
+   * Read locks then unlocks the same entry from every thread, the worst case for the lock table.
+   *
+   * @param shared
+   *          the shared lock manager
+   * @return the lock which was taken
+   */
+  @Benchmark
+  public DNLock readLockUnlockSameEntry(SharedLockManager shared)
+  {
+    final DNLock lock = shared.lockManager.tryReadLockEntry(shared.dns[0]);
+    lock.unlock();
+    return lock;
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.opends.server.backends.pluggable.EntryIDSet.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@link EntryIDSet} operations performed while evaluating indexed filters
+ * (intersection for AND, union for OR) and while reading / writing index records (codecs). The V4 variants
+ * work on the compressed bitmaps produced by the bitmap codec for large sets.
+ * <p>
+ * This benchmark lives in the pluggable backend package because {@link EntryIDSet} is package
+ * private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntryIDSetBenchmark
+{
+  /** Number of IDs in each of the sets. */
+  @Param({ "1000", "100000" })
+  public int size;
+
+  /** Proportion of the ID space covered by each set: 1 means a dense range of IDs. */
+  @Param({ "1", "10" })
+  public int sparseness;
+
+  private long[] ids1;
+  private long[] ids2;
+  private ByteString encodedV1;
+  private ByteString encodedV2;
+  private ByteString encodedV4;
+  private EntryIDSet decodedV4Set1;
+  private EntryIDSet decodedV4Set2;
+
+  /** Generates two random sets of IDs over the same ID space and encodes the first one. */
+  @Setup
+  public void setup()
+  {
+    final Random random = new Random(0);
+    ids1 = randomIDs(random);
+    ids2 = randomIDs(random);
+    encodedV1 = CODEC_V1.encode(newDefinedSet(ids1));
+    encodedV2 = CODEC_V2.encode(newDefinedSet(ids1));
+    encodedV4 = CODEC_V4.encode(newDefinedSet(ids1));
+    decodedV4Set1 = CODEC_V4.decode(ByteString.empty(), encodedV4);
+    decodedV4Set2 = CODEC_V4.decode(ByteString.empty(), CODEC_V4.encode(newDefinedSet(ids2)));
+  }
+
+  private long[] randomIDs(Random random)
+  {
+    final long idSpace = (long) size * sparseness;
+    final long[] ids = new long[size];
+    for (int i = 0; i < size; i++)
+    {
+      ids[i] = sparseness == 1 ? i + 1 : 1 + (long) (random.nextDouble() * idSpace);
+    }
+    Arrays.sort(ids);
+    return dedup(ids);
+  }
+
+  private static long[] dedup(long[] sortedIDs)
+  {
+    int j = 0;
+    for (int i = 0; i < sortedIDs.length; i++)
+    {
+      if (j == 0 || sortedIDs[i] != sortedIDs[j - 1])
+      {
+        sortedIDs[j++] = sortedIDs[i];
+      }
+    }
+    return Arrays.copyOf(sortedIDs, j);
+  }
+
+  /**
+   * Intersects two sets, as done for each component of an AND filter.
+   *
+   * @return the intersection
+   */
+  @Benchmark
+  public EntryIDSet retainAll()
+  {
+    final EntryIDSet set = newDefinedSet(ids1);
+    set.retainAll(newDefinedSet(ids2));
+    return set;
+  }
+
+  /**
+   * Intersects two sets decoded by the bitmap codec, which are bitmaps when large enough.
+   *
+   * @return the intersection
+   */
+  @Benchmark
+  public EntryIDSet retainAllV4()
+  {
+    final EntryIDSet set = CODEC_V4.decode(ByteString.empty(), encodedV4);
+    set.retainAll(decodedV4Set2);
+    return set;
+  }
+
+  /**
+   * Computes the union of two sets decoded by the bitmap codec.
+   *
+   * @return the union
+   */
+  @Benchmark
+  public EntryIDSet newSetFromUnionV4()
+  {
+    return EntryIDSet.newSetFromUnion(Arrays.asList(decodedV4Set1, decodedV4Set2));
+  }
+
+  /**
+   * Merges a set into another one, as done when updating an index key.
+   *
+   * @return the union
+   */
+  @Benchmark
+  public EntryIDSet addAll()
+  {
+    final EntryIDSet set = newDefinedSet(ids1);
+    set.addAll(newDefinedSet(ids2));
+    return set;
+  }
+
+  /**
+   * Computes the union of two sets, as done for each component of an OR filter.
+   *
+   * @return the union
+   */
+  @Benchmark
+  public EntryIDSet newSetFromUnion()
+  {
+    return EntryIDSet.newSetFromUnion(Arrays.asList(newDefinedSet(ids1), newDefinedSet(ids2)));
+  }
+
+  /**
+   * Removes a set from another one.
+   *
+   * @return the difference
+   */
+  @Benchmark
+  public EntryIDSet removeAll()
+  {
+    final EntryIDSet set = newDefinedSet(ids1);
+    set.removeAll(newDefinedSet(ids2));
+    return set;
+  }
+
+  /**
+   * Encodes a set with the legacy codec.
+   *
+   * @return the encoded set
+   */
+  @Benchmark
+  public ByteString encodeV1()
+  {
+    return CODEC_V1.encode(newDefinedSet(ids1));
+  }
+
+  /**
+   * Decodes a set encoded with the legacy codec.
+   *
+   * @return the decoded set
+   */
+  @Benchmark
+  public EntryIDSet decodeV1()
+  {
+    return CODEC_V1.decode(ByteString.empty(), encodedV1);
+  }
+
+  /**
+   * Encodes a set with the compact codec.
+   *
+   * @return the encoded set
+   */
+  @Benchmark
+  public ByteString encodeV2()
+  {
+    return CODEC_V2.encode(newDefinedSet(ids1));
+  }
+
+  /**
+   * Decodes a set encoded with the compact codec.
+   *
+   * @return the decoded set
+   */
+  @Benchmark
+  public EntryIDSet decodeV2()
+  {
+    return CODEC_V2.decode(ByteString.empty(), encodedV2);
+  }
+
+  /**
+   * Encodes a set with the bitmap codec.
+   *
+   * @return the encoded set
+   */
+  @Benchmark
+  public ByteString encodeV4()
+  {
+    return CODEC_V4.encode(newDefinedSet(ids1));
+  }
+
+  /**
+   * Decodes a set encoded with the bitmap codec.
+   *
+   * @return the decoded set
+   */
+  @Benchmark
+  public EntryIDSet decodeV4()
+  {
+    return CODEC_V4.decode(ByteString.empty(), encodedV4);
+  }
+}
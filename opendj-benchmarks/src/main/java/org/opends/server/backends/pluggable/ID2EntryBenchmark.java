@@ -0,0 +1,102 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.benchmarks.BenchmarkSupport;
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.backends.pluggable.spi.TreeName;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Entry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the encoding and decoding of entries by {@link ID2Entry}, which goes through its
+ * cached entry codec and {@link Entry#encode} / {@link Entry#decode}.
+ * <p>
+ * This benchmark lives in the pluggable backend package because {@link ID2Entry} is package
+ * private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ID2EntryBenchmark
+{
+  /** Whether entries are compressed before being written to the tree. */
+  @Param({ "false", "true" })
+  public boolean compressed;
+
+  private DataConfig dataConfig;
+  private ID2Entry id2entry;
+  private Entry entry;
+  private ByteString encodedEntry;
+
+  /**
+   * Builds the entry to encode and its encoded form to decode.
+   *
+   * @throws Exception
+   *           if the server could not be bootstrapped or the entry could not be encoded
+   */
+  @Setup
+  public void setup() throws Exception
+  {
+    BenchmarkSupport.bootstrapServer();
+    dataConfig = new DataConfig.Builder().compress(compressed).encode(false).build();
+    id2entry = new ID2Entry(new TreeName("dc=example,dc=com", "id2entry"), dataConfig);
+    entry = BenchmarkSupport.makeEntry(BenchmarkSupport.userEntryLdif(42));
+    encodedEntry = id2entry.entryToDatabase(entry, dataConfig);
+  }
+
+  /**
+   * Encodes an entry to its tree representation.
+   *
+   * @return the encoded entry
+   * @throws Exception
+   *           if the entry could not be encoded
+   */
+  @Benchmark
+  public ByteString encode() throws Exception
+  {
+    return id2entry.entryToDatabase(entry, dataConfig);
+  }
+
+  /**
+   * Decodes an entry from its tree representation.
+   *
+   * @return the decoded entry
+   * @throws Exception
+   *           if the entry could not be decoded
+   */
+  @Benchmark
+  public Entry decode() throws Exception
+  {
+    return id2entry.entryFromDatabase(encodedEntry, DirectoryServer.getDefaultCompressedSchema());
+  }
+}
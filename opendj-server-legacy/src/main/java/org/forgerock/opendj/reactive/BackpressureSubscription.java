@@ -0,0 +1,279 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.reactive;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.opendj.ldap.responses.Response;
+import org.forgerock.util.Reject;
+import org.reactivestreams.Processor;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Upstream -> BackpressureSubscription -> Downstream.
+ * <p>
+ * Keeps the responses of an operation until the client is ready to read them. The thread producing the responses
+ * never waits for the client while fewer than {@code maxPendingResponses} responses are pending. Beyond it, it
+ * waits until half of them have been written, so that a slow client cannot make the server keep an unbounded
+ * number of responses in memory. The wait uses a {@link ReentrantLock} rather than a monitor so that it does not
+ * pin virtual threads.
+ */
+final class BackpressureSubscription implements Subscription, Processor<Response, Response> {
+    private final AtomicLong pendingRequests = new AtomicLong();
+    private final AtomicInteger missedDrain = new AtomicInteger();
+    private final Queue<Response> queue = new ConcurrentLinkedQueue<>();
+    /** The number of responses added to the queue and not yet removed from it. */
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final int maxPendingResponses;
+    private final int resumeThreshold;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition resumed = lock.newCondition();
+    private final Publisher<Response> upstream;
+    /** The number of responses pending on the connection, shared by the operations of the connection. */
+    private final AtomicInteger pendingResponses;
+    /** The number of times the operations of the connection waited for the client, shared by the operations. */
+    private final AtomicLong backpressureWaits;
+    private final long writeTimeoutMillis;
+    private Subscription subscription;
+    private Subscriber<? super Response> downstream;
+    private volatile boolean done;
+    private Throwable error;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a new backpressure subscription.
+     *
+     * @param maxBlockedWriteTimeLimit
+     *            the maximum time in milliseconds the producer waits for the client, or 0 for the default
+     * @param maxPendingResponses
+     *            the number of pending responses beyond which the producer waits for the client
+     * @param pendingResponses
+     *            the number of responses pending on the connection, updated by this subscription
+     * @param backpressureWaits
+     *            the number of times the producers waited for the client, updated by this subscription
+     * @param upstream
+     *            the publisher of the responses
+     */
+    BackpressureSubscription(final long maxBlockedWriteTimeLimit, final int maxPendingResponses,
+            final AtomicInteger pendingResponses, final AtomicLong backpressureWaits,
+            final Publisher<Response> upstream) {
+        this.upstream = upstream;
+        this.pendingResponses = pendingResponses;
+        this.backpressureWaits = backpressureWaits;
+        this.maxPendingResponses = maxPendingResponses;
+        this.resumeThreshold = maxPendingResponses / 2;
+        this.writeTimeoutMillis = maxBlockedWriteTimeLimit == 0
+                ? 30000 // Do not wait indefinitely,
+                : maxBlockedWriteTimeLimit;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super Response> subscriber) {
+        Reject.ifNull(subscriber);
+        if (downstream != null) {
+            // This publisher only support one subscriber.
+            return;
+        }
+        downstream = subscriber;
+        subscriber.onSubscribe(/* Subscription */ this);
+        upstream.subscribe(/* Subscriber */ this);
+    }
+
+    @Override
+    public void onSubscribe(final Subscription s) {
+        if (subscription != null) {
+            s.cancel();
+            return;
+        }
+        subscription = s;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void request(final long n) {
+        if (n == Long.MAX_VALUE) {
+            pendingRequests.set(Long.MAX_VALUE);
+        } else {
+            // There is a known and accepted problem here regarding reactive-stream contract in the sense that
+            // we're not supporting pendingRequests overflow (pendingRequests + n > Long.MAX_VALUE) for performance
+            // reason since this should never happen in the context we're using it.
+            pendingRequests.addAndGet(n);
+        }
+        drain();
+    }
+
+    // Taken from
+    // https://github.com/ReactiveX/RxJava/wiki/Writing-operators-for-2.0#backpressure-and-cancellation
+    private void drain() {
+        if (missedDrain.getAndIncrement() != 0) {
+            // Another thread is already executing this drain method.
+            return;
+        }
+
+        int missed = 1;
+
+        for (;;) {
+            final long immutablePendingRequests = pendingRequests.get();
+            long emitted = 0L;
+            while (emitted != immutablePendingRequests) {
+                // Check if we should early exit because of cancellation
+                if (cancelled) {
+                    return;
+                }
+
+                final Response response = queue.poll();
+                if (response != null) {
+                    responseRemoved();
+                    downstream.onNext(response);
+                    emitted++;
+                } else if (done) {
+                    // queue is empty and we received a completion (onError/onComplete) notification from upstream
+                    forwardDoneEvent();
+                    return;
+                } else {
+                    // Queue is empty but upstream is not done yet.
+                    break;
+                }
+            }
+
+            // Check if an onError/onComplete from upstream arrived.
+            if (emitted == immutablePendingRequests) {
+                if (cancelled) {
+                    return;
+                }
+
+                if (done && queue.isEmpty()) {
+                    forwardDoneEvent();
+                    return;
+                }
+            }
+
+            if (emitted != 0) {
+                pendingRequests.addAndGet(-emitted);
+            }
+
+            // Check to see if another thread asked for drain
+            missed = missedDrain.addAndGet(-missed);
+            if (missed == 0) {
+                // Nop, we can exit.
+                break;
+            }
+        }
+    }
+
+    private void forwardDoneEvent() {
+        final Throwable immutableError = error;
+        if (immutableError != null) {
+            downstream.onError(immutableError);
+        } else {
+            downstream.onComplete();
+        }
+    }
+
+    @Override
+    public void onNext(final Response response) {
+        if (done || cancelled) {
+            // The client will not read this response.
+            return;
+        }
+        // Counted before being queued, so that the size never misses a removed response.
+        final int size = queueSize.incrementAndGet();
+        pendingResponses.incrementAndGet();
+        queue.offer(response);
+        drain();
+        if (size >= maxPendingResponses && queueSize.get() > resumeThreshold && !awaitClient()) {
+            // If we've gotten here, then the write timed out: the pending responses will never be read.
+            error = new ClosedChannelException().fillInStackTrace();
+            done = true;
+            discardPendingResponses();
+            drain();
+        }
+    }
+
+    /** Waits until the client has read enough pending responses, returns false if it did not in time. */
+    private boolean awaitClient() {
+        backpressureWaits.incrementAndGet();
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        lock.lock();
+        try {
+            while (queueSize.get() > resumeThreshold && !cancelled) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = resumed.awaitNanos(remainingNanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void responseRemoved() {
+        pendingResponses.decrementAndGet();
+        if (queueSize.decrementAndGet() == resumeThreshold) {
+            signalResumed();
+        }
+    }
+
+    private void signalResumed() {
+        lock.lock();
+        try {
+            resumed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discardPendingResponses() {
+        while (queue.poll() != null) {
+            responseRemoved();
+        }
+    }
+
+    @Override
+    public void onError(final Throwable error) {
+        this.error = error;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        subscription.cancel();
+        discardPendingResponses();
+        // Do not leave the producer waiting for a client which is gone.
+        signalResumed();
+    }
+}
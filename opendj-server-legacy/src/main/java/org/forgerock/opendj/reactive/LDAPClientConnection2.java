@@ -26,7 +26,6 @@ import static org.opends.server.util.ServerConstants.OID_START_TLS_REQUEST;
 import static org.opends.server.util.StaticUtils.*;
 
 import java.net.InetAddress;
-import java.nio.channels.ClosedChannelException;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.security.cert.Certificate;
@@ -34,10 +33,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -62,7 +58,6 @@ import org.forgerock.opendj.ldap.responses.Response;
 import org.forgerock.opendj.ldap.responses.Responses;
 import org.forgerock.opendj.ldap.responses.Result;
 import org.forgerock.opendj.ldap.spi.LdapMessages.LdapRequestEnvelope;
-import org.forgerock.util.Reject;
 import org.opends.server.api.ClientConnection;
 import org.opends.server.api.ConnectionHandler;
 import org.opends.server.core.AbandonOperationBasis;
@@ -106,10 +101,6 @@ import org.opends.server.types.OperationType;
 import org.opends.server.types.SearchResultEntry;
 import org.opends.server.types.SearchResultReference;
 import org.opends.server.util.TimeThread;
-import org.reactivestreams.Processor;
-import org.reactivestreams.Publisher;
-import org.reactivestreams.Subscriber;
-import org.reactivestreams.Subscription;
 
 import com.forgerock.reactive.Consumer;
 import com.forgerock.reactive.ReactiveHandler;
@@ -190,6 +181,11 @@ public final class LDAPClientConnection2 extends ClientConnection implements TLS
     /** The string representation of the address of the server to which the client has connected. */
     private final String serverAddress;
 
+    /** The number of responses produced for this connection and not yet written to the client. */
+    private final AtomicInteger pendingResponses = new AtomicInteger();
+    /** The number of times an operation had to wait for the client to read its responses. */
+    private final AtomicLong backpressureWaits = new AtomicLong();
+
     /**
      * Creates a new LDAP client connection with the provided information.
      *
@@ -959,7 +955,8 @@ public final class LDAPClientConnection2 extends ClientConnection implements TLS
     @Override
     public Stream<Response> handle(final QueueingStrategy queueingStrategy, final LdapRequestEnvelope message) {
         return streamFromPublisher(
-                new BlockingBackpressureSubscription(connectionHandler.getMaxBlockedWriteTimeLimit(),
+                new BackpressureSubscription(connectionHandler.getMaxBlockedWriteTimeLimit(),
+                        connectionHandler.getMaxPendingResponsesPerOperation(), pendingResponses, backpressureWaits,
                         Flowable.create(new FlowableOnSubscribe<Response>() {
                             @Override
                             public void subscribe(FlowableEmitter<Response> emitter) throws Exception {
@@ -1575,6 +1572,10 @@ public final class LDAPClientConnection2 extends ClientConnection implements TLS
 
         buffer.append("\" opsInProgress=\"");
         buffer.append(operationsInProgress.size());
+        buffer.append("\" pendingResponses=\"");
+        buffer.append(pendingResponses.get());
+        buffer.append("\" backpressureWaits=\"");
+        buffer.append(backpressureWaits.get());
         buffer.append("\"");
 
         int countPSearch = getPersistentSearches().size();
@@ -1674,161 +1675,4 @@ public final class LDAPClientConnection2 extends ClientConnection implements TLS
     public int getSSF() {
         return clientContext.getSecurityStrengthFactor();
     }
-
-    /** Upstream -> BlockingBackpressureSubscription -> Downstream. */
-    private final class BlockingBackpressureSubscription implements Subscription, Processor<Response, Response> {
-        private final AtomicLong pendingRequests = new AtomicLong();
-        private final AtomicInteger missedDrain = new AtomicInteger();
-        private final BlockingQueue<Response> queue = new LinkedBlockingQueue<>(32);
-        private final Publisher<Response> upstream;
-        private final long writeTimeoutMillis;
-        private Subscription subscription;
-        private Subscriber<? super Response> downstream;
-        private volatile boolean done;
-        private Throwable error;
-        private volatile boolean cancelled;
-
-        BlockingBackpressureSubscription(final long maxBlockedWriteTimeLimit, final Publisher<Response> upstream) {
-            this.upstream = upstream;
-            this.writeTimeoutMillis = maxBlockedWriteTimeLimit == 0
-                    ? 30000 // Do not wait indefinitely,
-                    : maxBlockedWriteTimeLimit;
-        }
-
-        @Override
-        public void subscribe(final Subscriber<? super Response> subscriber) {
-            Reject.ifNull(subscriber);
-            if (downstream != null) {
-                // This publisher only support one subscriber.
-                return;
-            }
-            downstream = subscriber;
-            subscriber.onSubscribe(/* Subscription */ this);
-            upstream.subscribe(/* Subscriber */ this);
-        }
-
-        @Override
-        public void onSubscribe(final Subscription s) {
-            if (subscription != null) {
-                s.cancel();
-                return;
-            }
-            subscription = s;
-            subscription.request(Long.MAX_VALUE);
-        }
-
-        @Override
-        public void request(final long n) {
-            if (n == Long.MAX_VALUE) {
-                pendingRequests.set(Long.MAX_VALUE);
-            } else {
-                // There is a known and accepted problem here regarding reactive-stream contract in the sense that
-                // we're not supporting pendingRequests overflow (pendingRequests + n > Long.MAX_VALUE) for performance
-                // reason since this should never happen in the context we're using it.
-                pendingRequests.addAndGet(n);
-            }
-            drain();
-        }
-
-        // Taken from
-        // https://github.com/ReactiveX/RxJava/wiki/Writing-operators-for-2.0#backpressure-and-cancellation
-        private void drain() {
-            if (missedDrain.getAndIncrement() != 0) {
-                // Another thread is already executing this drain method.
-                return;
-            }
-
-            int missed = 1;
-
-            for (;;) {
-                final long immutablePendingRequests = pendingRequests.get();
-                long emitted = 0L;
-                while (emitted != immutablePendingRequests) {
-                    // Check if we should early exit because of cancellation
-                    if (cancelled) {
-                        return;
-                    }
-
-                    final Response response = queue.poll();
-                    if (response != null) {
-                        downstream.onNext(response);
-                        emitted++;
-                    } else if (done) {
-                        // queue is empty and we received a completion (onError/onComplete) notification from upstream
-                        forwardDoneEvent();
-                        return;
-                    } else {
-                        // Queue is empty but upstream is not done yet.
-                        break;
-                    }
-                }
-
-                // Check if an onError/onComplete from upstream arrived.
-                if (emitted == immutablePendingRequests) {
-                    if (cancelled) {
-                        return;
-                    }
-
-                    if (done && queue.isEmpty()) {
-                        forwardDoneEvent();
-                        return;
-                    }
-                }
-
-                if (emitted != 0) {
-                    pendingRequests.addAndGet(-emitted);
-                }
-
-                // Check to see if another thread asked for drain
-                missed = missedDrain.addAndGet(-missed);
-                if (missed == 0) {
-                    // Nop, we can exit.
-                    break;
-                }
-            }
-        }
-
-        private void forwardDoneEvent() {
-            final Throwable immutableError = error;
-            if (immutableError != null) {
-                downstream.onError(immutableError);
-            } else {
-                downstream.onComplete();
-            }
-        }
-
-        @Override
-        public void onNext(final Response response) {
-            try {
-                if (queue.offer(response, writeTimeoutMillis, TimeUnit.MILLISECONDS)) {
-                    drain();
-                } else {
-                    // If we've gotten here, then the write timed out.
-                    onError(new ClosedChannelException().fillInStackTrace());
-                    return;
-                }
-            } catch (InterruptedException e) {
-                onError(e);
-            }
-        }
-
-        @Override
-        public void onError(final Throwable error) {
-            this.error = error;
-            done = true;
-            drain();
-        }
-
-        @Override
-        public void onComplete() {
-            done = true;
-            drain();
-        }
-
-        @Override
-        public void cancel() {
-            cancelled = true;
-            subscription.cancel();
-        }
-    }
 }
@@ -428,6 +428,17 @@ public final class LDAPConnectionHandler2 extends ConnectionHandler<LDAPConnecti
         return currentConfig.getMaxBlockedWriteTimeLimit();
     }
 
+    /**
+     * Retrieves the maximum number of responses of an operation that are kept in memory while the client does not
+     * read them.
+     *
+     * @return The maximum number of responses of an operation that are kept in memory while the client does not read
+     *         them.
+     */
+    public int getMaxPendingResponsesPerOperation() {
+        return currentConfig.getMaxPendingResponsesPerOperation();
+    }
+
     /**
      * Retrieves the maximum ASN.1 element value length that will be allowed by this connection handler.
      *
@@ -669,7 +680,9 @@ public final class LDAPConnectionHandler2 extends ConnectionHandler<LDAPConnecti
                     }
                 }, Options.defaultOptions()
                           .set(LDAPListener.CONNECT_MAX_BACKLOG, backlog)
-                          .set(LDAPListener.REQUEST_MAX_SIZE_IN_BYTES, (int) currentConfig.getMaxRequestSize()));
+                          .set(LDAPListener.REQUEST_MAX_SIZE_IN_BYTES, (int) currentConfig.getMaxRequestSize())
+                          .set(LDAPListener.MAX_CONCURRENT_REQUESTS,
+                               currentConfig.getMaxConcurrentOpsPerConnection()));
         logger.info(NOTE_CONNHANDLER_STARTED_LISTENING, handlerName);
     }
 
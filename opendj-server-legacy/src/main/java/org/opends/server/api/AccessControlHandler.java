@@ -429,6 +429,27 @@ public abstract class AccessControlHandler
 
 
 
+  /**
+   * Indicates whether the entries returned by the provided search are
+   * neither rejected nor filtered by the access control configuration,
+   * so that {@link #maySend(Operation, SearchResultEntry)} and
+   * {@link #filterEntry(Operation, SearchResultEntry, SearchResultEntry)}
+   * do not need to be invoked for them. This method is invoked once
+   * per search, and the default implementation returns {@code false}.
+   *
+   * @param searchOperation
+   *          The search operation returning the entries.
+   * @return {@code true} if the entries returned by the search may be
+   *         sent to the client without access control evaluation, or
+   *         {@code false} if not.
+   */
+  public boolean mayReturnUnfilteredEntries(SearchOperation searchOperation)
+  {
+    return false;
+  }
+
+
+
   /**
    * Indicates if the specified proxy user entry can proxy, or act on
    * the behalf of the specified proxied user entry. The operation
@@ -37,6 +37,7 @@ import org.opends.server.api.plugin.PluginResult;
 import org.opends.server.core.AuthenticatedUsers;
 import org.opends.server.core.CoreConfigManager;
 import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.GroupManager;
 import org.opends.server.core.PersistentSearch;
 import org.opends.server.core.PluginConfigManager;
 import org.opends.server.core.SearchOperation;
@@ -433,6 +434,26 @@ public abstract class ClientConnection
     return 0L;
   }
 
+  /**
+   * Writes the responses of the provided operation that this
+   * connection keeps buffered in the current thread, so that they are
+   * not delayed while the operation has nothing more to send. It is
+   * called regularly while an operation is processed, each time it
+   * checks whether it has been canceled, and when its thread is about
+   * to wait. The default implementation does nothing, since responses
+   * are not buffered.
+   *
+   * @param  messageID  The message ID of the operation.
+   * @param  force      Indicates whether the buffered responses must be
+   *                    written now, rather than only when they have
+   *                    been buffered for longer than the connection
+   *                    allows.
+   */
+  public void flushBufferedResponses(int messageID, boolean force)
+  {
+    // No responses are buffered by default.
+  }
+
   /**
    * Retrieves the total number of operations performed
    * on this connection.
@@ -1347,13 +1368,14 @@ public abstract class ClientConnection
   public boolean isMemberOf(Group<?> group, Operation operation)
          throws DirectoryException
   {
+    GroupManager groupManager = DirectoryServer.getGroupManager();
     if (operation == null)
     {
-      return group.isMember(authenticationInfo.getAuthorizationDN());
+      return groupManager.isMember(group, authenticationInfo.getAuthorizationDN());
     }
     else
     {
-      return group.isMember(operation.getAuthorizationDN());
+      return groupManager.isMember(group, operation.getAuthorizationDN());
     }
   }
 
@@ -1384,7 +1406,6 @@ public abstract class ClientConnection
   public Set<Group<?>> getGroups(Operation operation)
          throws DirectoryException
   {
-    // FIXME -- This probably isn't the most efficient implementation.
     DN authzDN;
     if (operation == null)
     {
@@ -1413,10 +1434,12 @@ public abstract class ClientConnection
       return Collections.<Group<?>>emptySet();
     }
 
+    GroupManager groupManager = DirectoryServer.getGroupManager();
     HashSet<Group<?>> groupSet = new HashSet<>();
-    for (Group<?> g : DirectoryServer.getGroupManager().getGroupInstances())
+    for (DN groupDN : groupManager.getGroupDNsOfMember(userEntry))
     {
-      if (g.isMember(userEntry))
+      Group<?> g = groupManager.getGroupInstance(groupDN);
+      if (g != null)
       {
         groupSet.add(g);
       }
@@ -16,6 +16,7 @@
  */
 package org.opends.server.api;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
@@ -415,6 +416,100 @@ public abstract class Group<T extends GroupImplementationCfg>
    */
   public abstract boolean mayAlterMemberList();
 
+  /**
+   * Indicates whether the membership of this group is only determined
+   * by the DNs of its members, so that it can only change when the
+   * group itself is updated. Callers may then safely cache the result
+   * of the membership checks until the group manager reports a
+   * membership change.
+   *
+   * @return  {@code true} if the membership of this group only
+   *          depends on the DNs of its members, or {@code false} if
+   *          it may depend on the contents of other entries.
+   *
+   * @see org.opends.server.core.GroupManager#membershipToken()
+   */
+  public boolean isMembershipDNBased()
+  {
+    return false;
+  }
+
+  /**
+   * Indicates whether the members of this group, including its nested
+   * groups, are explicitly listed by DN. The group manager indexes the
+   * members of such groups to efficiently find the groups of an
+   * entry, so these groups must report all the changes to their member
+   * list to the group manager.
+   *
+   * @return  {@code true} if the members of this group are explicitly
+   *          listed by DN, or {@code false} if not.
+   *
+   * @see org.opends.server.core.GroupManager#memberAdded(Group, DN)
+   * @see org.opends.server.core.GroupManager#memberRemoved(Group, DN)
+   */
+  public boolean hasExplicitMemberList()
+  {
+    return false;
+  }
+
+  /**
+   * Indicates whether this group keeps the DNs of its members in
+   * memory. The membership checks by DN of such groups are lookups
+   * which neither read nor evaluate the user entry.
+   *
+   * @return  {@code true} if this group keeps the DNs of its members
+   *          in memory, or {@code false} if not.
+   */
+  public boolean hasCachedMembers()
+  {
+    return false;
+  }
+
+  /**
+   * Retrieves the DNs explicitly listed as members of this group,
+   * including the DNs of its nested groups.
+   *
+   * @return  The DNs explicitly listed as members of this group.
+   *
+   * @throws  UnsupportedOperationException  If the members of this
+   *                                         group are not explicitly
+   *                                         listed.
+   */
+  public Collection<DN> getExplicitMemberDNs()
+         throws UnsupportedOperationException
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Notifies this group that an entry has been added, deleted,
+   * modified or renamed. The group manager calls this method for the
+   * groups which do not have an explicit member list, so that the
+   * groups computing their members from the contents of the entries
+   * can keep them up to date.
+   *
+   * @param  oldEntry  The entry before the change, or {@code null} if
+   *                   the entry has been added.
+   * @param  newEntry  The entry after the change, or {@code null} if
+   *                   the entry has been deleted.
+   */
+  public void entryChanged(Entry oldEntry, Entry newEntry)
+  {
+    // No implementation required by default.
+  }
+
+  /**
+   * Discards the members kept in memory by this group, if any. The
+   * group manager calls this method when the contents of a backend
+   * are replaced without notifying the changes to the entries.
+   *
+   * @see #entryChanged(Entry, Entry)
+   */
+  public void clearMemberCache()
+  {
+    // No implementation required by default.
+  }
+
   /**
    * Attempt to make multiple changes to the group's member list.
    *
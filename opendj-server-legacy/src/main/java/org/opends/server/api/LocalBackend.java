@@ -18,11 +18,14 @@ package org.opends.server.api;
 
 import static org.opends.messages.BackendMessages.*;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.config.Configuration;
 import org.forgerock.opendj.config.server.ConfigException;
 import org.forgerock.opendj.ldap.ConditionResult;
@@ -71,6 +74,11 @@ import org.opends.server.types.WritabilityMode;
 public abstract class LocalBackend<C extends Configuration> extends Backend<C>
 // should have been BackendCfg instead of Configuration
 {
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The actions to run once the write batch run by a thread has been committed. */
+  private static final ThreadLocal<List<Runnable>> postCommitActions = new ThreadLocal<>();
+
   /** Indicates whether this is a private backend or one that holds user data. */
   private boolean isPrivateBackend;
 
@@ -441,6 +449,109 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
   public abstract void renameEntry(DN currentDN, Entry entry, ModifyDNOperation modifyDNOperation)
          throws DirectoryException, CanceledOperationException;
 
+  /**
+   * Indicates whether this backend can commit several updates in a single
+   * write transaction with {@link #executeWriteBatch(Runnable)}.
+   *
+   * @return {@code true} if the updates of a write batch are committed
+   *         atomically, {@code false} if they are committed one by one.
+   */
+  public boolean supportsWriteBatches()
+  {
+    return false;
+  }
+
+  /**
+   * Runs the provided updates in a single write transaction. All the
+   * add, delete, modify and modify DN operations performed on this backend
+   * by the calling thread while the updates run are committed together
+   * once they complete, and the reads performed by this thread see their
+   * uncommitted changes. The other operations writing the same entries or
+   * index records wait for the transaction locks until the whole batch has
+   * been committed.
+   * <p>
+   * The actions registered with {@link #runAfterWriteBatch(Runnable)} by
+   * the updates are run once the batch has been committed. If any of the
+   * updates fails in the backend, or if the transaction cannot be
+   * committed, none of the updates is committed, their registered actions
+   * are discarded, and the caller should perform them again one by one.
+   *
+   * @param updates
+   *          The updates to run in a single write transaction.
+   * @throws DirectoryException
+   *           If the write batch has been rolled back.
+   */
+  public final void executeWriteBatch(Runnable updates) throws DirectoryException
+  {
+    if (postCommitActions.get() != null)
+    {
+      // Join the batch already run by the calling thread
+      runWriteBatch(updates);
+      return;
+    }
+
+    final List<Runnable> actions = new ArrayList<>();
+    postCommitActions.set(actions);
+    try
+    {
+      runWriteBatch(updates);
+    }
+    finally
+    {
+      postCommitActions.remove();
+    }
+    for (Runnable action : actions)
+    {
+      try
+      {
+        action.run();
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+      }
+    }
+  }
+
+  /**
+   * Runs the provided updates in a single write transaction, as described
+   * by {@link #executeWriteBatch(Runnable)}. Backends which do not support
+   * write batches simply run the updates.
+   *
+   * @param updates
+   *          The updates to run in a single write transaction.
+   * @throws DirectoryException
+   *           If the write batch has been rolled back.
+   */
+  protected void runWriteBatch(Runnable updates) throws DirectoryException
+  {
+    updates.run();
+  }
+
+  /**
+   * Runs the provided action once the write batch run by the calling
+   * thread has been committed, or right away if the calling thread does
+   * not run a write batch. The action is discarded if the batch is rolled
+   * back. This is used for the side effects of an update which must not be
+   * seen before it is committed, such as the notification of the persistent
+   * searches or the update of in-memory state.
+   *
+   * @param action
+   *          The action to run once the update has been committed.
+   */
+  public static void runAfterWriteBatch(Runnable action)
+  {
+    final List<Runnable> actions = postCommitActions.get();
+    if (actions != null)
+    {
+      actions.add(action);
+    }
+    else
+    {
+      action.run();
+    }
+  }
+
   /**
    * Processes the specified search in this backend.  Matching entries
    * should be provided back to the core server using the
@@ -668,6 +779,7 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
   public void registerPersistentSearch(PersistentSearch persistentSearch) throws DirectoryException
   {
     persistentSearches.add(persistentSearch);
+    DirectoryServer.getPersistentSearchDispatcher().register(persistentSearch, this);
 
     persistentSearch.registerCancellationCallback(new CancellationCallback()
     {
@@ -675,6 +787,7 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
       public void persistentSearchCancelled(PersistentSearch psearch)
       {
         persistentSearches.remove(psearch);
+        DirectoryServer.getPersistentSearchDispatcher().deregister(psearch);
       }
     });
   }
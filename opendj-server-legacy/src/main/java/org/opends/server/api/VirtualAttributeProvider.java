@@ -25,6 +25,7 @@ import org.forgerock.opendj.config.server.ConfigException;
 import org.forgerock.opendj.ldap.Assertion;
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ConditionResult;
+import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.DecodeException;
 import org.forgerock.opendj.ldap.schema.MatchingRule;
 import org.forgerock.opendj.server.config.server.VirtualAttributeCfg;
@@ -512,5 +513,32 @@ public abstract class VirtualAttributeProvider
    */
   public abstract void processSearch(VirtualAttributeRule rule,
                                      SearchOperation searchOperation);
+
+
+
+  /**
+   * Retrieves the DNs of the entries which may have the provided
+   * value for this virtual attribute, so that equality filters
+   * targeting this virtual attribute can be evaluated by the backends
+   * along with the other indexed filter components.  The returned
+   * DNs may include entries which do not have the provided value,
+   * but must include all the entries which have it.
+   *
+   * @param  rule   The virtual attribute rule which defines the
+   *                constraints for the virtual attribute.
+   * @param  value  The asserted value.
+   * @param  limit  The maximum number of DNs to return.
+   *
+   * @return  The DNs of the entries which may have the provided
+   *          value, or {@code null} if they cannot be determined
+   *          without examining every entry or if there are more than
+   *          {@code limit} of them.
+   */
+  public Collection<DN> getEntryDNsWithValue(VirtualAttributeRule rule,
+                                             ByteString value, int limit)
+  {
+    // By default, the entries must be examined.
+    return null;
+  }
 }
 
@@ -353,13 +353,13 @@ public class Aci implements Comparable<Aci>
       }
     }
 
-    private static boolean hasNoExtOpOrTargetControl(AciTargets aciTargets)
+    static boolean hasNoExtOpOrTargetControl(AciTargets aciTargets)
     {
       return aciTargets.getExtOp() == null
           && aciTargets.getTargetControl() == null;
     }
 
-    private static boolean haveSimilarRights(Aci aci,
+    static boolean haveSimilarRights(Aci aci,
         AciTargetMatchContext matchCtx)
     {
       return aci.hasRights(matchCtx.getRights())
@@ -408,6 +408,16 @@ public class Aci implements Comparable<Aci>
         return aci.evaluate(evalCtx);
     }
 
+    /**
+     * Indicates whether the result of the evaluation of this ACI can be cached
+     * for the client being evaluated.
+     * @return {@code true} if the evaluation result can be cached.
+     * @see AciEvaluationCache
+     */
+    boolean hasCacheableResult() {
+        return body.hasCacheableResult();
+    }
+
     /**
      * Returns the name string of this ACI.
      * @return The name string.
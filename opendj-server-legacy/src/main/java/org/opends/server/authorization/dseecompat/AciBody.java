@@ -273,6 +273,21 @@ public class AciBody {
         return res;
     }
 
+    /**
+     * Indicates whether the result of the evaluation of this ACI body can be
+     * cached for the client being evaluated, that is if all the bind rules
+     * of the permission-bind rule pairs only depend on the client identity.
+     * @return {@code true} if the evaluation result can be cached.
+     */
+    boolean hasCacheableResult() {
+        for (PermBindRulePair p : getPermBindRulePairs()) {
+            if (!p.getBindRule().hasCacheableResult()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
   /**
    * Returns the name string.
    * @return The name string.
@@ -0,0 +1,284 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.GroupManager;
+
+/**
+ * Caches the results of the ACI evaluations, keyed by ACI, client DN and
+ * requested rights. Since the ACI identifies the target subtree, a cached
+ * result is a decision for an (authorization DN, target subtree, rights)
+ * tuple.
+ * <p>
+ * Only the ACIs whose bind rules solely depend on the client identity are
+ * cached, see {@link Aci#hasCacheableResult()}. The other bind rules depend
+ * on the resource entry, the client entry or the client connection and are
+ * evaluated each time.
+ * <p>
+ * The cached results are invalidated whenever the ACI list changes or the
+ * group manager reports a membership change. The results are only cached in
+ * the compiled ACI evaluation mode, otherwise each ACI is evaluated every
+ * time. This class also keeps the statistics of the access control
+ * evaluations which are exposed by the {@link AciEvaluationMonitor}.
+ */
+final class AciEvaluationCache
+{
+  /** The maximum number of cached results, the cache is cleared when it is reached. */
+  static final int MAX_CACHED_RESULTS = 100000;
+
+  /** The key of a cached evaluation result. */
+  private static final class Key
+  {
+    private final Aci aci;
+    private final DN clientDN;
+    private final boolean isAnonymous;
+    private final int rights;
+    private final boolean isDenyEval;
+
+    private Key(Aci aci, AciEvalContext evalCtx)
+    {
+      this.aci = aci;
+      this.clientDN = evalCtx.getClientDN();
+      this.isAnonymous = evalCtx.isAnonymousUser();
+      this.rights = evalCtx.getRights();
+      this.isDenyEval = evalCtx.isDenyEval();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (this == obj)
+      {
+        return true;
+      }
+      if (!(obj instanceof Key))
+      {
+        return false;
+      }
+      final Key other = (Key) obj;
+      // ACIs are immutable and re-decoded when they change: compare them by reference
+      return aci == other.aci
+          && rights == other.rights
+          && isAnonymous == other.isAnonymous
+          && isDenyEval == other.isDenyEval
+          && clientDN.equals(other.clientDN);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      int hash = System.identityHashCode(aci);
+      hash = 31 * hash + clientDN.hashCode();
+      hash = 31 * hash + rights;
+      hash = 31 * hash + (isAnonymous ? 1 : 0);
+      return 31 * hash + (isDenyEval ? 1 : 0);
+    }
+  }
+
+  /** A cached evaluation result, along with the tokens it was computed with. */
+  private static final class CachedResult
+  {
+    private final EnumEvalResult result;
+    private final long aciGeneration;
+    private final long membershipToken;
+
+    private CachedResult(EnumEvalResult result, long aciGeneration, long membershipToken)
+    {
+      this.result = result;
+      this.aciGeneration = aciGeneration;
+      this.membershipToken = membershipToken;
+    }
+  }
+
+  /** The ACI list, whose generation invalidates the cached results. */
+  private final AciList aciList;
+  /** Whether the evaluation results are cached. */
+  private final boolean cacheResults;
+  private final ConcurrentMap<Key, CachedResult> results = new ConcurrentHashMap<>();
+  /** The ACI list generation of the cached results, older results are cleared. */
+  private volatile long cachedAciGeneration;
+
+  private final LongAdder accessChecks = new LongAdder();
+  private final LongAdder accessCheckTime = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+  private final LongAdder uncacheableEvaluations = new LongAdder();
+
+  /**
+   * Creates a new evaluation cache for the provided ACI list.
+   *
+   * @param aciList
+   *          The ACI list whose ACIs are evaluated.
+   * @param cacheResults
+   *          Whether the evaluation results are cached, otherwise only
+   *          statistics are kept.
+   */
+  AciEvaluationCache(AciList aciList, boolean cacheResults)
+  {
+    this.aciList = aciList;
+    this.cacheResults = cacheResults;
+    this.cachedAciGeneration = aciList.getGeneration();
+  }
+
+  /**
+   * Evaluates the provided ACI using the evaluation context, returning the
+   * cached result if there is a valid one.
+   *
+   * @param evalCtx
+   *          The evaluation context to evaluate with.
+   * @param aci
+   *          The ACI to evaluate.
+   * @return The result of the evaluation.
+   */
+  EnumEvalResult evaluate(AciEvalContext evalCtx, Aci aci)
+  {
+    if (!cacheResults)
+    {
+      return Aci.evaluate(evalCtx, aci);
+    }
+
+    // Read the tokens first, so results computed while a change
+    // is being applied can never be considered valid afterwards
+    final long aciGeneration = aciList.getGeneration();
+    final long membershipToken = getGroupManager().membershipToken();
+    if (evalCtx.isGetEffectiveRightsEval()
+        || !aci.hasCacheableResult()
+        || DirectoryServer.isRootDN(evalCtx.getClientDN()))
+    {
+      // Root DNs can be referenced through their alternate bind DNs,
+      // which can be reconfigured at any time
+      uncacheableEvaluations.increment();
+      return Aci.evaluate(evalCtx, aci);
+    }
+
+    if (aciGeneration != cachedAciGeneration)
+    {
+      results.clear();
+      cachedAciGeneration = aciGeneration;
+    }
+
+    final Key key = new Key(aci, evalCtx);
+    final CachedResult cached = results.get(key);
+    if (cached != null
+        && cached.aciGeneration == aciGeneration
+        && cached.membershipToken == membershipToken)
+    {
+      cacheHits.increment();
+      return cached.result;
+    }
+
+    cacheMisses.increment();
+    final EnumEvalResult result = Aci.evaluate(evalCtx, aci);
+    if (result != EnumEvalResult.FAIL)
+    {
+      if (results.size() >= MAX_CACHED_RESULTS)
+      {
+        results.clear();
+      }
+      results.put(key, new CachedResult(result, aciGeneration, membershipToken));
+    }
+    return result;
+  }
+
+  /**
+   * Records the time spent evaluating an access check.
+   *
+   * @param elapsedNanos
+   *          The elapsed time of the access check in nanoseconds.
+   */
+  void accessChecked(long elapsedNanos)
+  {
+    accessChecks.increment();
+    accessCheckTime.add(elapsedNanos);
+  }
+
+  /** Removes all the cached results. */
+  void clear()
+  {
+    results.clear();
+  }
+
+  /**
+   * Returns the number of access checks performed.
+   *
+   * @return The number of access checks performed.
+   */
+  long getAccessChecks()
+  {
+    return accessChecks.sum();
+  }
+
+  /**
+   * Returns the total time spent in access checks, in nanoseconds.
+   *
+   * @return The total time spent in access checks, in nanoseconds.
+   */
+  long getAccessCheckTime()
+  {
+    return accessCheckTime.sum();
+  }
+
+  /**
+   * Returns the number of ACI evaluations answered from the cache.
+   *
+   * @return The number of ACI evaluations answered from the cache.
+   */
+  long getCacheHits()
+  {
+    return cacheHits.sum();
+  }
+
+  /**
+   * Returns the number of cacheable ACI evaluations not found in the cache.
+   *
+   * @return The number of cacheable ACI evaluations not found in the cache.
+   */
+  long getCacheMisses()
+  {
+    return cacheMisses.sum();
+  }
+
+  /**
+   * Returns the number of ACI evaluations whose result could not be cached.
+   *
+   * @return The number of ACI evaluations whose result could not be cached.
+   */
+  long getUncacheableEvaluations()
+  {
+    return uncacheableEvaluations.sum();
+  }
+
+  /**
+   * Returns the number of results currently cached.
+   *
+   * @return The number of results currently cached.
+   */
+  int size()
+  {
+    return results.size();
+  }
+
+  private static GroupManager getGroupManager()
+  {
+    return DirectoryServer.getGroupManager();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.types.InitializationException;
+
+/**
+ * This class defines a Directory Server monitor that can be used to provide
+ * information about the access control evaluations performed by the
+ * DSEE-compatible access control handler.
+ */
+final class AciEvaluationMonitor extends MonitorProvider<MonitorProviderCfg>
+{
+  /** The name to use for the monitor attribute that provides the number of access checks. */
+  static final String ATTR_ACCESS_CHECKS = "accessChecks";
+  /**
+   * The name to use for the monitor attribute that provides the average time
+   * in microseconds spent in an access check.
+   */
+  static final String ATTR_AVERAGE_ACCESS_CHECK_TIME = "averageAccessCheckTime";
+  /** The name to use for the monitor attribute that provides the number of ACI evaluation cache hits. */
+  static final String ATTR_CACHE_HITS = "aciEvaluationCacheHits";
+  /** The name to use for the monitor attribute that provides the number of ACI evaluation cache misses. */
+  static final String ATTR_CACHE_MISSES = "aciEvaluationCacheMisses";
+  /**
+   * The name to use for the monitor attribute that provides the number of ACI
+   * evaluations whose result could not be cached.
+   */
+  static final String ATTR_UNCACHEABLE_EVALUATIONS = "aciUncacheableEvaluations";
+  /** The name to use for the monitor attribute that provides the number of cached ACI evaluation results. */
+  static final String ATTR_CACHED_RESULTS = "aciEvaluationCachedResults";
+
+  /** The evaluation cache holding the statistics. */
+  private final AciEvaluationCache evaluationCache;
+
+  /**
+   * Creates a new monitor for the provided evaluation cache.
+   *
+   * @param evaluationCache
+   *          The evaluation cache with which this monitor is associated.
+   */
+  AciEvaluationMonitor(AciEvaluationCache evaluationCache)
+  {
+    this.evaluationCache = evaluationCache;
+  }
+
+  @Override
+  public void initializeMonitorProvider(MonitorProviderCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    // No initialization is required.
+  }
+
+  @Override
+  public String getMonitorInstanceName()
+  {
+    return "Access Control Evaluation";
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    final long accessChecks = evaluationCache.getAccessChecks();
+    final long averageTime = accessChecks != 0
+        ? TimeUnit.NANOSECONDS.toMicros(evaluationCache.getAccessCheckTime() / accessChecks)
+        : 0;
+
+    final MonitorData monitorAttrs = new MonitorData(6);
+    monitorAttrs.add(ATTR_ACCESS_CHECKS, accessChecks);
+    monitorAttrs.add(ATTR_AVERAGE_ACCESS_CHECK_TIME, averageTime);
+    monitorAttrs.add(ATTR_CACHE_HITS, evaluationCache.getCacheHits());
+    monitorAttrs.add(ATTR_CACHE_MISSES, evaluationCache.getCacheMisses());
+    monitorAttrs.add(ATTR_UNCACHEABLE_EVALUATIONS, evaluationCache.getUncacheableEvaluations());
+    monitorAttrs.add(ATTR_CACHED_RESULTS, evaluationCache.size());
+    return monitorAttrs;
+  }
+}
@@ -148,6 +148,18 @@ public final class AciHandler extends
    */
   private AciListenerManager aciListenerMgr;
 
+  /** Caches the results of the ACI evaluations which only depend on the client identity. */
+  private AciEvaluationCache evaluationCache;
+
+  /** Whether the ACIs are evaluated in compiled mode. */
+  private boolean compiledAciEvaluation;
+
+  /** The snapshot of the ACI list used in compiled mode, rebuilt when the ACI list changes. */
+  private volatile CompiledAciIndex compiledAcis;
+
+  /** The monitor exposing the access control evaluation statistics. */
+  private AciEvaluationMonitor evaluationMonitor;
+
   /** Creates a new DSEE-compatible access control handler. */
   public AciHandler()
   {
@@ -155,6 +167,14 @@ public final class AciHandler extends
     // the intializeAccessControlHandler method.
   }
 
+  @Override
+  public boolean mayReturnUnfilteredEntries(SearchOperation searchOperation)
+  {
+    // The geteffectiverights control adds attributes to the returned entries
+    return skipAccessCheck(searchOperation)
+        && searchOperation.getAttachment(OID_GET_EFFECTIVE_RIGHTS) == null;
+  }
+
   @Override
   public void filterEntry(Operation operation,
       SearchResultEntry unfilteredEntry, SearchResultEntry filteredEntry)
@@ -185,6 +205,13 @@ public final class AciHandler extends
   {
     aciListenerMgr.finalizeListenerManager();
     AciEffectiveRights.finalizeOnShutdown();
+    if (evaluationMonitor != null)
+    {
+      DirectoryServer.deregisterMonitorProvider(evaluationMonitor);
+      evaluationMonitor.finalizeMonitorProvider();
+    }
+    evaluationCache.clear();
+    compiledAcis = null;
     DirectoryServer.deregisterSupportedControl(OID_GET_EFFECTIVE_RIGHTS);
   }
 
@@ -197,8 +224,14 @@ public final class AciHandler extends
     DN configurationDN = configuration.dn();
     aciList = new AciList(configurationDN);
     aciListenerMgr = new AciListenerManager(aciList, configurationDN);
+    compiledAciEvaluation = configuration.isCompiledAciEvaluation();
+    evaluationCache = new AciEvaluationCache(aciList, compiledAciEvaluation);
     processGlobalAcis(configuration);
     DirectoryServer.registerSupportedControl(OID_GET_EFFECTIVE_RIGHTS);
+
+    evaluationMonitor = new AciEvaluationMonitor(evaluationCache);
+    evaluationMonitor.initializeMonitorProvider(null);
+    DirectoryServer.registerMonitorProvider(evaluationMonitor);
   }
 
   @Override
@@ -512,8 +545,11 @@ public final class AciHandler extends
       }
     }
 
+    final long startTime = System.nanoTime();
     // First get all allowed candidate ACIs.
-    List<Aci> candidates = aciList.getCandidateAcis(dn);
+    List<Aci> candidates = compiledAciEvaluation
+        ? getCompiledAcis().getCandidateAcis(container)
+        : aciList.getCandidateAcis(dn);
     /*
      * Create an applicable list of ACIs by target matching each
      * candidate ACI against the container's target match view.
@@ -521,6 +557,7 @@ public final class AciHandler extends
     createApplicableList(candidates, container);
     // Evaluate the applicable list.
     final boolean ret = testApplicableLists(container);
+    evaluationCache.accessChecked(System.nanoTime() - startTime);
     // Build summary string if doing geteffectiverights eval.
     if (container.isGetEffectiveRightsEval())
     {
@@ -530,6 +567,23 @@ public final class AciHandler extends
     return ret;
   }
 
+  /**
+   * Returns the compiled snapshot of the ACI list, rebuilding it if the ACI
+   * list changed since it was built.
+   *
+   * @return The compiled snapshot of the ACI list.
+   */
+  private CompiledAciIndex getCompiledAcis()
+  {
+    CompiledAciIndex index = compiledAcis;
+    if (index == null || index.getGeneration() != aciList.getGeneration())
+    {
+      index = aciList.compile();
+      compiledAcis = index;
+    }
+    return index;
+  }
+
   /*
    * TODO Evaluate performance of this method. TODO Evaluate security
    * concerns of this method. Logic from this method taken almost
@@ -1044,7 +1098,7 @@ public final class AciHandler extends
 
     for (Aci denyAci : evalCtx.getDenyList())
     {
-      final EnumEvalResult res = Aci.evaluate(evalCtx, denyAci);
+      final EnumEvalResult res = evaluationCache.evaluate(evalCtx, denyAci);
       // Failure could be returned if a system limit is hit or
       // search fails
       if (EnumEvalResult.FAIL.equals(res))
@@ -1065,7 +1119,7 @@ public final class AciHandler extends
 
     for (Aci allowAci : evalCtx.getAllowList())
     {
-      final EnumEvalResult res = Aci.evaluate(evalCtx, allowAci);
+      final EnumEvalResult res = evaluationCache.evaluate(evalCtx, allowAci);
       if (EnumEvalResult.TRUE.equals(res))
       {
         if (testAndSetTargAttrOperationMatches(evalCtx, allowAci, false))
@@ -61,6 +61,13 @@ public class AciList {
   /** The configuration DN used to compare against the global ACI entry DN. */
   private final DN configDN;
 
+  /**
+   * Incremented each time the ACI list changes, so that cached ACI
+   * evaluation results can be invalidated. Only updated while holding the
+   * write lock.
+   */
+  private volatile long generation;
+
   /**
    * Constructor to create an ACI list to cache ACI attribute types.
    * @param configDN The configuration entry DN.
@@ -69,6 +76,16 @@ public class AciList {
      this.configDN=configDN;
   }
 
+  /**
+   * Returns the current generation of this ACI list. The generation changes
+   * each time ACIs are added, removed or renamed.
+   *
+   * @return The current generation of this ACI list.
+   */
+  long getGeneration() {
+    return generation;
+  }
+
   /**
    * Using the base DN, return a list of ACIs that are candidates for
    * evaluation by walking up from the base DN towards the root of the
@@ -129,6 +146,28 @@ public class AciList {
     }
   }
 
+  /**
+   * Returns an immutable snapshot of this ACI list, for the compiled ACI
+   * evaluation mode.
+   *
+   * @return An immutable snapshot of this ACI list.
+   */
+  CompiledAciIndex compile() {
+    lock.readLock().lock();
+    try
+    {
+      Map<DN, List<Aci>> acis = new HashMap<>(aciList.size());
+      for (Map.Entry<DN, List<Aci>> entry : aciList.entrySet()) {
+        acis.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+      }
+      return new CompiledAciIndex(generation, acis);
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
   /**
    * Add all the ACI from a set of entries to the ACI list. There is no need
    * to check for global ACIs since they are processe by the AciHandler at
@@ -152,6 +191,7 @@ public class AciList {
         validAcis += addAciAttributeList(aciList, dn, configDN,
                                          attributeList, failedACIMsgs);
       }
+      generation++;
       return validAcis;
     }
     finally
@@ -174,6 +214,7 @@ public class AciList {
     try
     {
       aciList.put(dn, new LinkedList<>(acis));
+      generation++;
     }
     finally
     {
@@ -213,6 +254,7 @@ public class AciList {
           validAcis += addAciAttributeList(aciList, entry.getName(), configDN,
                                            attributeList, failedACIMsgs);
       }
+      generation++;
       return validAcis;
     }
     finally
@@ -303,6 +345,7 @@ public class AciList {
           addAciAttributeList(aciList, DN.rootDN(), configDN,
                               attributeList, failedACIMsgs);
       }
+      generation++;
     }
     finally
     {
@@ -354,8 +397,12 @@ public class AciList {
       }
       if (hasAci || !hasGlobalAci)
       {
-        return aciList.removeSubtree(entryDN, null);
+        if (!aciList.removeSubtree(entryDN, null))
+        {
+          return false;
+        }
       }
+      generation++;
       return true;
     }
     finally
@@ -384,6 +431,7 @@ public class AciList {
           iterator.remove();
         }
       }
+      generation++;
     }
     finally
     {
@@ -428,6 +476,10 @@ public class AciList {
         }
       }
       aciList.putAll(tempAciList);
+      if (!tempAciList.isEmpty())
+      {
+        generation++;
+      }
     }
     finally
     {
@@ -42,6 +42,11 @@ public class BindRule {
     private final EnumBooleanTypes booleanType;
     /** The keyword of a simple bind rule. */
     private final EnumBindRuleKeyword keyword;
+    /**
+     * True if the evaluation of this bind rule only depends on the identity
+     * of the client, computed once when the bind rule is decoded.
+     */
+    private final boolean identityBased;
 
     /** Regular expression group position of a bind rule keyword. */
     private static final int keywordPos = 1;
@@ -90,6 +95,8 @@ public class BindRule {
         this.booleanType = null;
         this.left = null;
         this.right = null;
+        this.identityBased = rule instanceof GroupDN
+            || (rule instanceof UserDN && ((UserDN) rule).isIdentityBased());
     }
 
     /*
@@ -130,6 +137,7 @@ public class BindRule {
         this.booleanType = booleanType;
         this.left = left;
         this.right = right;
+        this.identityBased = left.identityBased && right.identityBased;
     }
 
     /*
@@ -471,6 +479,24 @@ public class BindRule {
         return EnumEvalResult.negateIfNeeded(ret, negate);
     }
 
+    /**
+     * Indicates whether the result of the evaluation of this bind rule can be
+     * cached for the client being evaluated. This is only the case for
+     * userdn bind rules that do not depend on the resource or client entries
+     * and for groupdn bind rules whose groups have a DN based membership,
+     * combined with boolean operators.
+     * @return {@code true} if the evaluation result can be cached.
+     */
+    boolean hasCacheableResult() {
+        if (!identityBased) {
+            return false;
+        } else if (booleanType == null) {
+            KeywordBindRule rule = keywordRuleMap.get(keyword.toString());
+            return !(rule instanceof GroupDN) || ((GroupDN) rule).isMembershipDNBased();
+        }
+        return left.hasCacheableResult() && right.hasCacheableResult();
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
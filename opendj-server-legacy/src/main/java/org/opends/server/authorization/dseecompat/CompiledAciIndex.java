@@ -0,0 +1,207 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import static org.opends.server.authorization.dseecompat.Aci.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.forgerock.opendj.ldap.DN;
+
+/**
+ * An immutable snapshot of an {@link AciList}, used by the compiled ACI
+ * evaluation mode. The snapshot is read without locking and is replaced by a
+ * new one each time the ACI list generation changes.
+ * <p>
+ * The candidate ACIs of a resource entry are indexed by target: the ACIs held
+ * by the entry and its superiors, and the global ACIs, whose target keywords
+ * match the entry DN are computed once per DN. They are then split by the kind
+ * of access they control (extended operations, controls or entries) and,
+ * for entries, by the requested rights. The ACIs left out are exactly those
+ * which {@link Aci#isApplicable(Aci, AciTargetMatchContext)} rejects before
+ * matching the target filter, targattrfilters and targetattr keywords.
+ * <p>
+ * The ACIs are not indexed by target attribute: matching the targetattr
+ * keyword of an ACI updates the state of the match context, even when it
+ * does not match, and that state is used when evaluating the following ACIs.
+ */
+final class CompiledAciIndex
+{
+  /** The maximum number of indexed entry DNs, the index is cleared when it is reached. */
+  static final int MAX_INDEXED_TARGETS = 10000;
+
+  /** The candidate ACIs of an entry whose target keywords match the entry DN. */
+  private static final class TargetedAcis
+  {
+    private final List<Aci> extOpAcis;
+    private final List<Aci> targetControlAcis;
+    private final List<Aci> entryAcis;
+    /** The entry ACIs having similar rights, keyed by the requested rights. */
+    private final ConcurrentMap<Integer, List<Aci>> entryAcisByRights = new ConcurrentHashMap<>();
+
+    private TargetedAcis(List<Aci> acis)
+    {
+      final List<Aci> extOps = new ArrayList<>();
+      final List<Aci> targetControls = new ArrayList<>();
+      final List<Aci> entries = new ArrayList<>();
+      for (Aci aci : acis)
+      {
+        final AciTargets targets = aci.getTargets();
+        if (targets.getExtOp() != null)
+        {
+          extOps.add(aci);
+        }
+        if (targets.getTargetControl() != null)
+        {
+          targetControls.add(aci);
+        }
+        if (hasNoExtOpOrTargetControl(targets))
+        {
+          entries.add(aci);
+        }
+      }
+      this.extOpAcis = Collections.unmodifiableList(extOps);
+      this.targetControlAcis = Collections.unmodifiableList(targetControls);
+      this.entryAcis = entries;
+    }
+
+    private List<Aci> getEntryAcis(AciTargetMatchContext matchCtx)
+    {
+      final Integer rights = matchCtx.getRights();
+      List<Aci> acis = entryAcisByRights.get(rights);
+      if (acis == null)
+      {
+        final List<Aci> matching = new ArrayList<>();
+        for (Aci aci : entryAcis)
+        {
+          if (haveSimilarRights(aci, matchCtx))
+          {
+            matching.add(aci);
+          }
+        }
+        acis = Collections.unmodifiableList(matching);
+        entryAcisByRights.put(rights, acis);
+      }
+      return acis;
+    }
+  }
+
+  private final long generation;
+  /** The ACIs held by each entry, in the ACI list order. The global ACIs are held by the root DN. */
+  private final Map<DN, List<Aci>> acisByDN;
+  private final ConcurrentMap<DN, TargetedAcis> targetedAcis = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new compiled ACI index.
+   *
+   * @param generation
+   *          The generation of the ACI list this index was built from.
+   * @param acisByDN
+   *          The ACIs held by each entry, which must not be modified afterwards.
+   */
+  CompiledAciIndex(long generation, Map<DN, List<Aci>> acisByDN)
+  {
+    this.generation = generation;
+    this.acisByDN = acisByDN;
+  }
+
+  /**
+   * Returns the generation of the ACI list this index was built from.
+   *
+   * @return The generation of the ACI list this index was built from.
+   */
+  long getGeneration()
+  {
+    return generation;
+  }
+
+  /**
+   * Returns the candidate ACIs for the resource entry and the rights of the
+   * provided match context. The returned ACIs must still be matched with
+   * {@link Aci#isApplicable(Aci, AciTargetMatchContext)}, in order.
+   *
+   * @param matchCtx
+   *          The target match context holding the resource entry and the
+   *          requested rights.
+   * @return The candidate ACIs, in the order of {@link AciList#getCandidateAcis(DN)}.
+   */
+  List<Aci> getCandidateAcis(AciTargetMatchContext matchCtx)
+  {
+    final DN resourceDN = matchCtx.getResourceEntry().getName();
+    TargetedAcis targeted = targetedAcis.get(resourceDN);
+    if (targeted == null)
+    {
+      if (targetedAcis.size() >= MAX_INDEXED_TARGETS)
+      {
+        targetedAcis.clear();
+      }
+      targeted = new TargetedAcis(getTargetedAcis(resourceDN));
+      targetedAcis.put(resourceDN, targeted);
+    }
+
+    if (matchCtx.hasRights(ACI_EXT_OP))
+    {
+      return targeted.extOpAcis;
+    }
+    else if (matchCtx.hasRights(ACI_CONTROL))
+    {
+      return targeted.targetControlAcis;
+    }
+    return targeted.getEntryAcis(matchCtx);
+  }
+
+  /**
+   * Returns the number of entry DNs whose candidate ACIs are currently indexed.
+   *
+   * @return The number of entry DNs whose candidate ACIs are currently indexed.
+   */
+  int size()
+  {
+    return targetedAcis.size();
+  }
+
+  private List<Aci> getTargetedAcis(DN entryDN)
+  {
+    final List<Aci> candidates = new ArrayList<>();
+    DN dn = entryDN;
+    while (true)
+    {
+      final List<Aci> acis = acisByDN.get(dn);
+      if (acis != null)
+      {
+        for (Aci aci : acis)
+        {
+          final AciTargets targets = aci.getTargets();
+          if (targets != null && AciTargets.isTargetApplicable(aci, targets, entryDN))
+          {
+            candidates.add(aci);
+          }
+        }
+      }
+      if (dn.isRootDN())
+      {
+        return candidates;
+      }
+      final DN parentDN = dn.parent();
+      dn = parentDN != null ? parentDN : DN.rootDN();
+    }
+  }
+}
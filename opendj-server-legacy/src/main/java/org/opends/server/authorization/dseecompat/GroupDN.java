@@ -112,6 +112,22 @@ class GroupDN implements KeywordBindRule {
         return matched.getRet(type, false);
     }
 
+    /**
+     * Indicates whether the membership of all the groups of this groupdn bind
+     * rule only depends on the DNs of their members, so that the result of
+     * the evaluation can be cached until the group membership changes.
+     * @return {@code true} if the membership of all the groups is DN based.
+     */
+    boolean isMembershipDNBased() {
+        for (DN groupDN : groupDNs) {
+            Group<?> group = getGroupManager().getGroupInstance(groupDN);
+            if (group != null && !group.isMembershipDNBased()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Performs an evaluation of a group that was specified in an attribute
      * type value of the specified entry and attribute type. Each
@@ -183,6 +183,28 @@ public class UserDN implements KeywordBindRule {
         return matched.getRet(type, undefined);
     }
 
+    /**
+     * Indicates whether the evaluation of this userdn bind rule only depends
+     * on the client DN. This is not the case for the "self" and "parent"
+     * types, which depend on the resource entry, nor for the URL type, whose
+     * filter is matched against the client entry.
+     * @return {@code true} if the evaluation only depends on the client DN.
+     */
+    boolean isIdentityBased() {
+        for (UserDNTypeURL dnTypeURL : urlList) {
+            switch (dnTypeURL.getUserDNType()) {
+            case DN:
+            case DNPATTERN:
+            case ALL:
+            case ANYONE:
+                break;
+            default:
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Performs an evaluation of a single UserDNTypeURL of a userdn bind
      * rule using the evaluation context provided. This method is called
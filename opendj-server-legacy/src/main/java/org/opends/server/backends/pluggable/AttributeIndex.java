@@ -291,6 +291,8 @@ class AttributeIndex implements ConfigurationChangeListener<BackendIndexCfg>, Cl
   private IndexingOptions indexingOptions;
   private final State state;
   private final CryptoSuite cryptoSuite;
+  /** The key cardinality statistics of the indexes, used to plan the evaluation of search filters. */
+  private final IndexStatistics statistics = new IndexStatistics();
 
   AttributeIndex(BackendIndexCfg config, State state, EntryContainer entryContainer, CryptoSuite cryptoSuite)
       throws ConfigException
@@ -467,6 +469,39 @@ class AttributeIndex implements ConfigurationChangeListener<BackendIndexCfg>, Cl
     return cryptoSuite;
   }
 
+  /**
+   * Get the key cardinality statistics of the indexes of this attribute index.
+   * @return The key cardinality statistics of the indexes of this attribute index.
+   */
+  IndexStatistics getStatistics()
+  {
+    return statistics;
+  }
+
+  /**
+   * Returns the key identifying an equality assertion value in the statistics of the indexes.
+   *
+   * @param value The assertion or attribute value.
+   * @return The normalized value, or {@code null} if it cannot be normalized.
+   */
+  ByteString getStatisticsKey(ByteString value)
+  {
+    final MatchingRule rule = config.getAttribute().getEqualityMatchingRule();
+    if (rule == null)
+    {
+      return null;
+    }
+    try
+    {
+      return rule.normalizeAttributeValue(value);
+    }
+    catch (DecodeException e)
+    {
+      logger.traceException(e);
+      return null;
+    }
+  }
+
   /**
    * Return the indexing options of this AttributeIndex.
    *
@@ -535,6 +570,7 @@ class AttributeIndex implements ConfigurationChangeListener<BackendIndexCfg>, Cl
         buffer.put(index, key, entryID);
       }
     }
+    invalidateStatistics(entry);
   }
 
   /**
@@ -555,6 +591,7 @@ class AttributeIndex implements ConfigurationChangeListener<BackendIndexCfg>, Cl
         buffer.remove(index, key, entryID);
       }
     }
+    invalidateStatistics(entry);
   }
 
   /**
@@ -585,6 +622,28 @@ class AttributeIndex implements ConfigurationChangeListener<BackendIndexCfg>, Cl
         }
       }
     }
+    invalidateStatistics(oldEntry);
+    invalidateStatistics(newEntry);
+  }
+
+  /**
+   * Forgets the number of entry IDs of the equality keys of a changed entry in the statistics.
+   *
+   * @param entry The changed entry.
+   */
+  private void invalidateStatistics(Entry entry)
+  {
+    if (!statistics.hasEqualityKeys())
+    {
+      return;
+    }
+    for (Attribute attr : entry.getAllAttributes(config.getAttribute()))
+    {
+      for (ByteString value : attr)
+      {
+        statistics.invalidate(getStatisticsKey(value));
+      }
+    }
   }
 
   /**
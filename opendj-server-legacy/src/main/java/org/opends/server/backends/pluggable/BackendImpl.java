@@ -101,7 +101,7 @@ public abstract class BackendImpl<C extends PluggableBackendCfg> extends LocalBa
   private MonitorProvider<?> rootContainerMonitor;
 
   /** The underlying storage engine. */
-  private Storage storage;
+  private BatchingStorage storage;
 
   /** The controls supported by this backend. */
   private static final Set<String> supportedControls = CollectionUtils.newHashSet(
@@ -168,7 +168,7 @@ public abstract class BackendImpl<C extends PluggableBackendCfg> extends LocalBa
     this.cfg = cfg;
     this.serverContext = serverContext;
     baseDNs = new HashSet<>(cfg.getBaseDN());
-    storage = new TracedStorage(configureStorage(cfg, serverContext), cfg.getBackendId());
+    storage = new BatchingStorage(new TracedStorage(configureStorage(cfg, serverContext), cfg.getBackendId()));
   }
 
   @Override
@@ -553,6 +553,26 @@ public abstract class BackendImpl<C extends PluggableBackendCfg> extends LocalBa
     }
   }
 
+  @Override
+  public boolean supportsWriteBatches()
+  {
+    return true;
+  }
+
+  @Override
+  protected void runWriteBatch(Runnable updates) throws DirectoryException
+  {
+    checkRootContainerInitialized();
+    try
+    {
+      storage.writeBatch(updates);
+    }
+    catch (Exception e)
+    {
+      throw createDirectoryException(e);
+    }
+  }
+
   @Override
   public void search(SearchOperation searchOperation) throws DirectoryException, CanceledOperationException
   {
@@ -40,6 +40,8 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
   private static final class FilterStats implements Comparable<FilterStats>
   {
     private volatile LocalizableMessage failureReason = LocalizableMessage.EMPTY;
+    /** The last evaluation plan of an AND filter, {@code null} for other filters. */
+    private volatile String plan;
     private long maxMatchingEntries = -1;
     private final AtomicInteger hits = new AtomicInteger();
 
@@ -116,6 +118,12 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
       monitorAttrs.add("filter-use", createFilterUseValues());
       monitorAttrs.add("filter-use-indexed", indexedSearchCount);
       monitorAttrs.add("filter-use-unindexed", unindexedSearchCount);
+
+      Collection<String> indexCardinalityValues = createIndexCardinalityValues();
+      if (!indexCardinalityValues.isEmpty())
+      {
+        monitorAttrs.add("index-cardinality", indexCardinalityValues);
+      }
     }
 
     return monitorAttrs;
@@ -137,6 +145,20 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
     return values;
   }
 
+  private Collection<String> createIndexCardinalityValues()
+  {
+    Collection<String> values = new ArrayList<>();
+    for (EntryContainer ec : rootContainer.getEntryContainers())
+    {
+      for (AttributeIndex attributeIndex : ec.getAttributeIndexes())
+      {
+        values.addAll(attributeIndex.getStatistics().toMonitorValues(
+            attributeIndex.getAttributeType().getNameOrOID()));
+      }
+    }
+    return values;
+  }
+
   private List<String> createFilterUseValues()
   {
     List<String> values = new ArrayList<>();
@@ -149,6 +171,11 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
         value.append(" hits:").append(entry.getValue().hits.get());
         value.append(" maxmatches:").append(entry.getValue().maxMatchingEntries);
         value.append(" message:").append(entry.getValue().failureReason);
+        String plan = entry.getValue().plan;
+        if (plan != null)
+        {
+          value.append(" plan:").append(plan);
+        }
         values.add(value.toString());
         value.setLength(0);
       }
@@ -223,6 +250,33 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
     }
   }
 
+  /**
+   * Updates the index filter statistics with the order in which the
+   * components of this latest AND search filter are evaluated.
+   *
+   * @param searchFilter The AND search filter that was evaluated.
+   * @param plan The evaluation plan of the search filter components.
+   */
+  void updatePlan(SearchFilter searchFilter, String plan)
+  {
+    if (!filterUseEnabled)
+    {
+      return;
+    }
+
+    synchronized (filterToStats)
+    {
+      FilterStats stats = filterToStats.get(searchFilter);
+      if (stats == null)
+      {
+        stats = new FilterStats();
+        removeLowestHit();
+        filterToStats.put(searchFilter, stats);
+      }
+      stats.plan = plan;
+    }
+  }
+
   /**
    * Enable or disable index filter statistics gathering.
    *
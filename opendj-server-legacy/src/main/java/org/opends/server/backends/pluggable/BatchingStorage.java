@@ -0,0 +1,291 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.opends.messages.BackendMessages.*;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.api.EntryCache;
+import org.opends.server.backends.pluggable.spi.AccessMode;
+import org.opends.server.backends.pluggable.spi.Importer;
+import org.opends.server.backends.pluggable.spi.ReadOperation;
+import org.opends.server.backends.pluggable.spi.Storage;
+import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
+import org.opends.server.backends.pluggable.spi.StorageStatus;
+import org.opends.server.backends.pluggable.spi.TreeName;
+import org.opends.server.backends.pluggable.spi.WriteOperation;
+import org.opends.server.backends.pluggable.spi.WriteableTransaction;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.BackupConfig;
+import org.opends.server.types.BackupDirectory;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.RestoreConfig;
+
+/**
+ * Decorates a {@link Storage} so that several updates can be committed in a single write transaction.
+ * <p>
+ * While a thread runs a write batch, all the read and write operations it submits to this storage run in the
+ * transaction of the batch instead of their own transaction. The batch is rolled back as a whole if any of its
+ * write operations fails, because the changes already made by a failed operation cannot be undone on their own.
+ * <p>
+ * The index changes of the updates of a batch are coalesced and only written once the updates have run. Reading an
+ * attribute index during the batch therefore does not see the changes of the previous updates of the batch, which is
+ * why only independent updates should be grouped in a batch.
+ */
+final class BatchingStorage implements Storage
+{
+  /** The write batch run by a thread. */
+  private static final class WriteBatch
+  {
+    private final BatchingStorage storage;
+    private WriteableTransaction txn;
+    private boolean rollbackOnly;
+    /** The index changes of all the updates of the batch, flushed once before committing. */
+    private final IndexBuffer indexBuffer = new IndexBuffer();
+    /** The entries read or written by the batch and put in the entry cache, evicted if it is rolled back. */
+    private final Set<DN> cachedEntries = new LinkedHashSet<>();
+
+    private WriteBatch(BatchingStorage storage)
+    {
+      this.storage = storage;
+    }
+  }
+
+  private static final ThreadLocal<WriteBatch> currentBatch = new ThreadLocal<>();
+
+  private final Storage storage;
+
+  BatchingStorage(final Storage storage)
+  {
+    this.storage = storage;
+  }
+
+  /**
+   * Runs the provided updates in a single write transaction. Nested calls join the batch already run by the
+   * calling thread.
+   *
+   * @param updates
+   *          the updates to run
+   * @throws Exception
+   *           if the batch has been rolled back
+   */
+  void writeBatch(final Runnable updates) throws Exception
+  {
+    if (getBatch() != null)
+    {
+      updates.run();
+      return;
+    }
+
+    final WriteBatch batch = new WriteBatch(this);
+    try
+    {
+      storage.write(new WriteOperation()
+      {
+        @Override
+        public void run(WriteableTransaction txn) throws Exception
+        {
+          if (batch.txn != null)
+          {
+            // The updates already ran and cannot be run again: let the caller perform them one by one.
+            throw new StorageRuntimeException(ERR_WRITE_BATCH_ROLLED_BACK.get().toString());
+          }
+          batch.txn = txn;
+          currentBatch.set(batch);
+          try
+          {
+            updates.run();
+          }
+          finally
+          {
+            currentBatch.remove();
+          }
+          if (batch.rollbackOnly)
+          {
+            throw new StorageRuntimeException(ERR_WRITE_BATCH_ROLLED_BACK.get().toString());
+          }
+          batch.indexBuffer.flush(txn);
+        }
+      });
+    }
+    catch (Exception e)
+    {
+      evictCachedEntries(batch);
+      throw e;
+    }
+  }
+
+  /**
+   * Flushes the index changes of an update to the provided transaction. When the update is part of a write batch,
+   * its changes are instead merged with the changes of the other updates of the batch, so that the index records
+   * shared by several updates are only written once.
+   *
+   * @param indexBuffer
+   *          the index changes of the update
+   * @param txn
+   *          the transaction of the update
+   * @throws StorageRuntimeException
+   *           if an error occurs in the storage
+   * @throws DirectoryException
+   *           if a Directory Server error occurs
+   */
+  static void flush(final IndexBuffer indexBuffer, final WriteableTransaction txn)
+      throws StorageRuntimeException, DirectoryException
+  {
+    final WriteBatch batch = currentBatch.get();
+    if (batch != null && batch.txn == txn)
+    {
+      indexBuffer.mergeInto(batch.indexBuffer);
+    }
+    else
+    {
+      indexBuffer.flush(txn);
+    }
+  }
+
+  /**
+   * Records that an entry read or written by the calling thread has been put in the entry cache. When the calling
+   * thread runs a write batch, the entry may have been read from the uncommitted changes of the batch, so it is
+   * evicted from the entry cache if the batch is rolled back. Every path populating the entry cache while a batch
+   * may be running must call this method.
+   *
+   * @param entryDN
+   *          the DN of the cached entry
+   */
+  static void entryCached(final DN entryDN)
+  {
+    final WriteBatch batch = currentBatch.get();
+    if (batch != null)
+    {
+      batch.cachedEntries.add(entryDN);
+    }
+  }
+
+  private static void evictCachedEntries(final WriteBatch batch)
+  {
+    final EntryCache<?> entryCache = DirectoryServer.getEntryCache();
+    if (entryCache != null)
+    {
+      for (DN entryDN : batch.cachedEntries)
+      {
+        entryCache.removeEntry(entryDN);
+      }
+    }
+  }
+
+  /** Returns the batch run by the calling thread on this storage, if any. */
+  private WriteBatch getBatch()
+  {
+    final WriteBatch batch = currentBatch.get();
+    return batch != null && batch.storage == this ? batch : null;
+  }
+
+  @Override
+  public <T> T read(final ReadOperation<T> readOperation) throws Exception
+  {
+    final WriteBatch batch = getBatch();
+    if (batch != null)
+    {
+      return readOperation.run(batch.txn);
+    }
+    return storage.read(readOperation);
+  }
+
+  @Override
+  public void write(final WriteOperation writeOperation) throws Exception
+  {
+    final WriteBatch batch = getBatch();
+    if (batch == null)
+    {
+      storage.write(writeOperation);
+      return;
+    }
+
+    try
+    {
+      writeOperation.run(batch.txn);
+    }
+    catch (Exception e)
+    {
+      batch.rollbackOnly = true;
+      throw e;
+    }
+  }
+
+  @Override
+  public void close()
+  {
+    storage.close();
+  }
+
+  @Override
+  public StorageStatus getStorageStatus()
+  {
+    return storage.getStorageStatus();
+  }
+
+  @Override
+  public void open(AccessMode accessMode) throws Exception
+  {
+    storage.open(accessMode);
+  }
+
+  @Override
+  public void removeStorageFiles() throws StorageRuntimeException
+  {
+    storage.removeStorageFiles();
+  }
+
+  @Override
+  public Importer startImport() throws ConfigException, StorageRuntimeException
+  {
+    return storage.startImport();
+  }
+
+  @Override
+  public boolean supportsBackupAndRestore()
+  {
+    return storage.supportsBackupAndRestore();
+  }
+
+  @Override
+  public void createBackup(BackupConfig backupConfig) throws DirectoryException
+  {
+    storage.createBackup(backupConfig);
+  }
+
+  @Override
+  public void removeBackup(BackupDirectory backupDirectory, String backupID) throws DirectoryException
+  {
+    storage.removeBackup(backupDirectory, backupID);
+  }
+
+  @Override
+  public void restoreBackup(RestoreConfig restoreConfig) throws DirectoryException
+  {
+    storage.restoreBackup(restoreConfig);
+  }
+
+  @Override
+  public Set<TreeName> listTrees()
+  {
+    return storage.listTrees();
+  }
+}
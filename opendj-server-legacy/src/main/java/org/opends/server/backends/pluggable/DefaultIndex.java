@@ -95,12 +95,13 @@ class DefaultIndex extends AbstractTree implements Index
   @Override
   final void afterOpen(WriteableTransaction txn, boolean createOnDemand)
   {
-    final EnumSet<IndexFlag> flags = state.getIndexFlags(txn, getName());
-    codec = flags.contains(COMPACTED) ? CODEC_V2 : CODEC_V1;
-    if (cryptoSuite.isEncrypted())
+    EnumSet<IndexFlag> flags = state.getIndexFlags(txn, getName());
+    if (createOnDemand && !flags.contains(BITMAP) && isEmpty(txn))
     {
-      codec = new EntryIDSet.EntryIDSetCodecV3(codec, cryptoSuite);
+      // No record has been written with the codec of the existing flags
+      flags = useBitmapEncoding(txn);
     }
+    setCodec(flags);
     trusted = flags.contains(TRUSTED);
     if (createOnDemand && !trusted && entryContainer.isEmpty(txn))
     {
@@ -110,6 +111,47 @@ class DefaultIndex extends AbstractTree implements Index
     }
   }
 
+  /**
+   * The index is about to be rebuilt from scratch: none of its new records need to be readable by the V1 or V2 codecs.
+   */
+  @Override
+  void beforeDelete(WriteableTransaction txn)
+  {
+    setCodec(useBitmapEncoding(txn));
+  }
+
+  private EnumSet<IndexFlag> useBitmapEncoding(WriteableTransaction txn)
+  {
+    state.addFlagsToIndex(txn, getName(), COMPACTED, BITMAP);
+    return state.getIndexFlags(txn, getName());
+  }
+
+  private void setCodec(EnumSet<IndexFlag> flags)
+  {
+    EntryIDSetCodec newCodec;
+    if (flags.contains(BITMAP))
+    {
+      newCodec = CODEC_V4;
+    }
+    else
+    {
+      newCodec = flags.contains(COMPACTED) ? CODEC_V2 : CODEC_V1;
+    }
+    if (cryptoSuite.isEncrypted())
+    {
+      newCodec = new EntryIDSet.EntryIDSetCodecV3(newCodec, cryptoSuite);
+    }
+    codec = newCodec;
+  }
+
+  private boolean isEmpty(ReadableTransaction txn)
+  {
+    try (final Cursor<ByteString, ByteString> cursor = txn.openCursor(getName()))
+    {
+      return !cursor.next();
+    }
+  }
+
   @Override
   public String valueToString(ByteString value)
   {
@@ -21,12 +21,14 @@ import static org.forgerock.util.Utils.*;
 import static org.opends.messages.BackendMessages.*;
 import static org.opends.server.backends.pluggable.DnKeyFormat.*;
 import static org.opends.server.backends.pluggable.IndexFilter.*;
+import static org.opends.server.backends.pluggable.ParallelSearch.*;
 import static org.opends.server.backends.pluggable.VLVIndex.*;
 import static org.opends.server.core.DirectoryServer.*;
 import static org.opends.server.protocols.ldap.LDAPResultCode.*;
 import static org.opends.server.types.AdditionalLogItem.*;
 import static org.opends.server.util.StaticUtils.*;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -36,7 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -66,6 +68,10 @@ import org.opends.server.api.EntryCache;
 import org.opends.server.api.VirtualAttributeProvider;
 import org.opends.server.api.plugin.PluginResult.SubordinateDelete;
 import org.opends.server.api.plugin.PluginResult.SubordinateModifyDN;
+import org.opends.server.backends.pluggable.PagedResultsSessions.Session;
+import org.opends.server.backends.pluggable.ParallelSearch.Candidate;
+import org.opends.server.backends.pluggable.ParallelSearch.CandidateMatcher;
+import org.opends.server.backends.pluggable.ParallelSearch.CandidateSource;
 import org.opends.server.backends.pluggable.spi.AccessMode;
 import org.opends.server.backends.pluggable.spi.Cursor;
 import org.opends.server.backends.pluggable.spi.ReadOperation;
@@ -706,6 +712,7 @@ public class EntryContainer
           {
             if (pageRequest.getSize() == 0)
             {
+              rootContainer.getPagedResultsSessions().remove(pageRequest.getCookie());
               addPagedResultsControl(searchOperation, pageRequest, null);
               return null;
             }
@@ -733,6 +740,27 @@ public class EntryContainer
             debugBuffer = new StringBuilder();
           }
 
+          // Serve the next pages from the candidates kept for the first page.
+          final PagedResultsSessions sessions = rootContainer.getPagedResultsSessions();
+          final String signature = pageRequest != null && debugBuffer == null
+              ? getPagedResultsSignature(searchOperation, sortRequest)
+              : null;
+          if (signature != null && pageRequest.getCookie().length() != 0)
+          {
+            final Session session = sessions.get(pageRequest.getCookie(), signature);
+            if (session != null)
+            {
+              if (session.getSortResponseControl() != null)
+              {
+                searchOperation.addResponseControl(session.getSortResponseControl());
+              }
+              rootContainer.getMonitorProvider().incrementIndexedSearchCount();
+              searchIndexed(txn, session.getEntryIDs(), session.isCandidatesAreInScope(), searchOperation,
+                  pageRequest, session);
+              return null;
+            }
+          }
+
           EntryIDSet candidateEntryIDs = null;
           boolean candidatesAreInScope = false;
           if (sortRequest != null)
@@ -805,28 +833,32 @@ public class EntryContainer
                 reorderedCandidateEntryIDs = candidateEntryIDs.toLongArray();
                 serverSideSortControlError(searchOperation, sortRequest, de);
               }
-              try
+              // Unindexed searches add their own sort response control
+              if (reorderedCandidateEntryIDs != null)
               {
-                if (sortRequest.containsSortKeys())
+                try
                 {
-                  addServerSideSortControl(searchOperation, SUCCESS);
+                  if (sortRequest.containsSortKeys())
+                  {
+                    addServerSideSortControl(searchOperation, SUCCESS);
+                  }
+                  else
+                  {
+                    /*
+                     * There is no sort key associated with the sort control.
+                     * Since it came here it means that the criticality is false
+                     * so let the server return all search results unsorted and
+                     * include the sortKeyResponseControl in the searchResultDone
+                     * message.
+                     */
+                    addServerSideSortControl(searchOperation, NO_SUCH_ATTRIBUTE);
+                  }
                 }
-                else
+                catch (DirectoryException de)
                 {
-                  /*
-                   * There is no sort key associated with the sort control.
-                   * Since it came here it means that the criticality is false
-                   * so let the server return all search results unsorted and
-                   * include the sortKeyResponseControl in the searchResultDone
-                   * message.
-                   */
-                  addServerSideSortControl(searchOperation, NO_SUCH_ATTRIBUTE);
+                  serverSideSortControlError(searchOperation, sortRequest, de);
                 }
               }
-              catch (DirectoryException de)
-              {
-                serverSideSortControlError(searchOperation, sortRequest, de);
-              }
             }
             else
             {
@@ -853,7 +885,13 @@ public class EntryContainer
           if (reorderedCandidateEntryIDs != null)
           {
             rootContainer.getMonitorProvider().incrementIndexedSearchCount();
-            searchIndexed(txn, reorderedCandidateEntryIDs, candidatesAreInScope, searchOperation, pageRequest);
+            Session session = null;
+            if (signature != null && reorderedCandidateEntryIDs.length > pageRequest.getSize())
+            {
+              session = sessions.add(signature, reorderedCandidateEntryIDs, candidatesAreInScope,
+                  findSortResponseControl(searchOperation));
+            }
+            searchIndexed(txn, reorderedCandidateEntryIDs, candidatesAreInScope, searchOperation, pageRequest, session);
           }
           else
           {
@@ -873,6 +911,12 @@ public class EntryContainer
                   ResultCode.INSUFFICIENT_ACCESS_RIGHTS, ERR_SEARCH_UNINDEXED_INSUFFICIENT_PRIVILEGES.get());
             }
 
+            if (sortRequest != null && sortRequest.containsSortKeys() && vlvRequest == null)
+            {
+              addServerSideSortControl(searchOperation,
+                  searchNotIndexedSorted(txn, searchOperation, sortRequest.getSortKeys(), pageRequest));
+              return null;
+            }
             if (sortRequest != null)
             {
               // FIXME OPENDJ-2628: Add support for sorting unindexed searches using indexes like DSEE currently does
@@ -929,6 +973,38 @@ public class EntryContainer
           searchOp.addResponseControl(new ServerSideSortResponseControl(resultCode, null));
         }
 
+        private Control findSortResponseControl(SearchOperation searchOp)
+        {
+          for (Control control : searchOp.getResponseControls())
+          {
+            if (control instanceof ServerSideSortResponseControl)
+            {
+              return control;
+            }
+          }
+          return null;
+        }
+
+        /**
+         * Returns the parameters a paged results session can be reused for: the candidates must be evaluated for the
+         * same client and authorization identity, and the same search.
+         */
+        private String getPagedResultsSignature(SearchOperation searchOp, ServerSideSortRequestControl sortRequest)
+        {
+          final StringBuilder signature = new StringBuilder();
+          signature.append(searchOp.getConnectionID())
+              .append(' ').append(searchOp.getAuthorizationDN())
+              .append(' ').append(searchOp.getBaseDN())
+              .append(' ').append(searchOp.getScope())
+              .append(' ').append(searchOp.getFilter());
+          if (sortRequest != null)
+          {
+            signature.append(' ');
+            sortRequest.toString(signature);
+          }
+          return signature.toString();
+        }
+
         private EntryIDSet getIDSetFromScope(final ReadableTransaction txn, DN aBaseDN, SearchScope searchScope,
             int idSetLimit) throws DirectoryException
         {
@@ -1145,6 +1221,18 @@ public class EntryContainer
 
     try (final Cursor<ByteString, ByteString> cursor = txn.openCursor(dn2id.getName()))
     {
+      final ForkJoinPool searchPool = rootContainer.getSearchPool();
+      if (searchPool != null)
+      {
+        if (searchNotIndexedInParallel(searchPool, txn, cursor, begin, baseDNKey, afterLastChild, searchOperation,
+            pageRequest))
+        {
+          // Indicate no more pages.
+          addPagedResultsControl(searchOperation, pageRequest, null);
+        }
+        return;
+      }
+
       // Initialize the cursor very close to the starting value.
       boolean success = cursor.positionToKeyOrNext(begin);
 
@@ -1208,6 +1296,221 @@ public class EntryContainer
     addPagedResultsControl(searchOperation, pageRequest, null);
   }
 
+  /**
+   * Scans a range of the DN tree like {@link #searchNotIndexed}, with the candidate entries read and matched against
+   * the filter by the search pool.
+   *
+   * @return {@code false} if the search must stop without indicating that there are no more pages
+   */
+  private boolean searchNotIndexedInParallel(ForkJoinPool searchPool, ReadableTransaction txn,
+      final Cursor<ByteString, ByteString> cursor, ByteSequence begin, final ByteString baseDNKey,
+      final ByteStringBuilder afterLastChild, SearchOperation searchOperation, PagedResultsControl pageRequest)
+      throws DirectoryException, CanceledOperationException
+  {
+    final SearchScope searchScope = searchOperation.getScope();
+    final boolean manageDsaIT = isManageDsaITOperation(searchOperation);
+    final SearchFilter filter = searchOperation.getFilter();
+    final boolean positioned = cursor.positionToKeyOrNext(begin);
+
+    final CandidateSource source = new CandidateSource()
+    {
+      private boolean success = positioned;
+
+      @Override
+      public List<Candidate> nextChunk()
+      {
+        final List<Candidate> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (success && chunk.size() < CHUNK_SIZE && cursor.getKey().compareTo(afterLastChild) < 0)
+        {
+          if (searchScope != SearchScope.SINGLE_LEVEL
+              // Check if this entry is an immediate child.
+              || findDNKeyParent(cursor.getKey()) == baseDNKey.length())
+          {
+            chunk.add(new Candidate(new EntryID(cursor.getValue()), cursor.getKey()));
+          }
+          success = cursor.next();
+        }
+        return !chunk.isEmpty() ? chunk : null;
+      }
+    };
+    final CandidateMatcher matcher = new CandidateMatcher()
+    {
+      @Override
+      public Entry getEntry(ReadableTransaction txn, EntryID entryID) throws DirectoryException
+      {
+        return EntryContainer.this.getEntry(txn, entryID);
+      }
+
+      @Override
+      public boolean matches(Entry entry) throws DirectoryException
+      {
+        return (manageDsaIT || entry.getReferralURLs() == null) && filter.matchesEntry(entry);
+      }
+    };
+
+    final int lookthroughLimit = searchOperation.getClientConnection().getLookthroughLimit();
+    try (ParallelSearch scan = new ParallelSearch(searchPool, searchPool.getParallelism(), storage, txn,
+        searchOperation, source, matcher, lookthroughLimit))
+    {
+      for (Candidate match = scan.nextMatch(); match != null; match = scan.nextMatch())
+      {
+        if (isPageFull(searchOperation, pageRequest))
+        {
+          // Set the cookie to remember where we were.
+          addPagedResultsControl(searchOperation, pageRequest, match.getCookie());
+          return false;
+        }
+
+        if (!searchOperation.returnEntry(match.getEntry(), null))
+        {
+          // We have been told to discontinue processing of the search.
+          // This could be due to size limit exceeded or operation cancelled
+          return false;
+        }
+      }
+
+      if (scan.isLookthroughLimitExceeded())
+      {
+        // Lookthrough limit exceeded
+        searchOperation.setResultCode(ResultCode.ADMIN_LIMIT_EXCEEDED);
+        searchOperation.appendErrorMessage(NOTE_LOOKTHROUGH_LIMIT_EXCEEDED.get(lookthroughLimit));
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * We were not able to obtain a set of candidate entry IDs for a search with a
+   * server side sort control, and no VLV index matches it.
+   * <p>
+   * Here we are sorting the entries in scope in bounded memory.
+   * <ul>
+   * <li>iterate through a subtree range of the DN tree as {@link #searchNotIndexed} does
+   * <li>fetch the entry by ID from the entry cache or the entry tree
+   * <li>add its encoded sort keys and its ID to a {@link ServerSideSorter} if it matches the filter
+   * <li>iterate through the sorted entry IDs, fetching the entries again
+   * <li>return the entries which still match the filter
+   * </ul>
+   * The paged results cookie contains the encoded sort keys of the next entry to be returned.
+   *
+   * @param searchOperation The search operation.
+   * @param sortKeys The sort keys of the server side sort control.
+   * @param pageRequest A Paged Results control, or null if none.
+   * @return The result code of the server side sort response control:
+   * {@code ADMIN_LIMIT_EXCEEDED} if the lookthrough limit was reached before all
+   * the entries in scope could be sorted, {@code SUCCESS} otherwise.
+   * @throws DirectoryException If an error prevented the search from being
+   * processed.
+   */
+  private int searchNotIndexedSorted(ReadableTransaction txn, SearchOperation searchOperation,
+      List<SortKey> sortKeys, PagedResultsControl pageRequest) throws DirectoryException, CanceledOperationException
+  {
+    DN aBaseDN = searchOperation.getBaseDN();
+    SearchScope searchScope = searchOperation.getScope();
+    SearchFilter filter = searchOperation.getFilter();
+    boolean manageDsaIT = isManageDsaITOperation(searchOperation);
+
+    final Entry baseEntry = fetchBaseEntry(txn, aBaseDN, searchScope);
+    if (!manageDsaIT)
+    {
+      dn2uri.checkTargetForReferral(baseEntry, searchScope);
+    }
+
+    // The cookie contains the sort keys of the next entry to be returned.
+    final ByteString beginSortKey = pageRequest != null && pageRequest.getCookie().length() != 0
+        ? pageRequest.getCookie()
+        : null;
+    if (beginSortKey == null && !manageDsaIT && !dn2uri.returnSearchReferences(txn, searchOperation))
+    {
+      // Indicate no more pages.
+      addPagedResultsControl(searchOperation, pageRequest, null);
+      return SUCCESS;
+    }
+
+    int lookthroughCount = 0;
+    int lookthroughLimit = searchOperation.getClientConnection().getLookthroughLimit();
+
+    try (ServerSideSorter sorter = new ServerSideSorter(backendID, ServerSideSorter.DEFAULT_MEMORY_LIMIT))
+    {
+      /* The base entry is only included for whole subtree search. */
+      if (searchScope == SearchScope.WHOLE_SUBTREE && filter.matchesEntry(baseEntry))
+      {
+        final EntryID baseID = dn2id.get(txn, aBaseDN);
+        addToSort(sorter, encodeVLVKey(sortKeys, baseEntry, baseID.longValue()), baseID);
+      }
+
+      ByteString baseDNKey = dnToDNKey(aBaseDN, this.baseDN.size());
+      ByteStringBuilder afterLastChild = afterLastChildOf(baseDNKey);
+      try (final Cursor<ByteString, ByteString> cursor = txn.openCursor(dn2id.getName()))
+      {
+        boolean success = cursor.positionToKeyOrNext(beforeFirstChildOf(baseDNKey));
+        while (success && cursor.getKey().compareTo(afterLastChild) < 0)
+        {
+          if (lookthroughLimit > 0 && lookthroughCount > lookthroughLimit)
+          {
+            // Lookthrough limit exceeded
+            searchOperation.setResultCode(ResultCode.ADMIN_LIMIT_EXCEEDED);
+            searchOperation.appendErrorMessage(NOTE_LOOKTHROUGH_LIMIT_EXCEEDED.get(lookthroughLimit));
+            return ADMIN_LIMIT_EXCEEDED;
+          }
+
+          if (searchScope != SearchScope.SINGLE_LEVEL
+              // Check if this entry is an immediate child.
+              || findDNKeyParent(cursor.getKey()) == baseDNKey.length())
+          {
+            final EntryID entryID = new EntryID(cursor.getValue());
+            final Entry entry = getEntry(txn, entryID);
+            if (entry != null)
+            {
+              lookthroughCount++;
+              if ((manageDsaIT || entry.getReferralURLs() == null) && filter.matchesEntry(entry))
+              {
+                addToSort(sorter, encodeVLVKey(sortKeys, entry, entryID.longValue()), entryID);
+              }
+            }
+          }
+
+          searchOperation.checkIfCanceled(false);
+          success = cursor.next();
+        }
+      }
+
+      final SequentialCursor<ByteString, EntryID> sortedIDs = flip(sorter);
+      while (sortedIDs.next())
+      {
+        if (beginSortKey != null && sortedIDs.getKey().compareTo(beginSortKey) < 0)
+        {
+          continue;
+        }
+
+        // The entry may have been changed or deleted since it was sorted.
+        final Entry entry = getEntry(txn, sortedIDs.getValue());
+        if (entry != null && filter.matchesEntry(entry))
+        {
+          if (isPageFull(searchOperation, pageRequest))
+          {
+            // Set the cookie to remember where we were.
+            addPagedResultsControl(searchOperation, pageRequest, sortedIDs.getKey());
+            return SUCCESS;
+          }
+
+          if (!searchOperation.returnEntry(entry, null))
+          {
+            // We have been told to discontinue processing of the search.
+            // This could be due to size limit exceeded or operation cancelled
+            return SUCCESS;
+          }
+        }
+        searchOperation.checkIfCanceled(false);
+      }
+    }
+
+    // Indicate no more pages.
+    addPagedResultsControl(searchOperation, pageRequest, null);
+    return SUCCESS;
+  }
+
   private boolean isPageFull(SearchOperation searchOperation, PagedResultsControl pageRequest)
   {
     return pageRequest != null && searchOperation.getEntriesSent() == pageRequest.getSize();
@@ -1247,6 +1550,7 @@ public class EntryContainer
       // Put the entry in the cache making sure not to overwrite a newer copy
       // that may have been inserted since the time we read the cache.
       entryCache.putEntryIfAbsent(entry, backendID, entryID.longValue());
+      BatchingStorage.entryCached(entry.getName());
     }
     return entry;
   }
@@ -1271,11 +1575,13 @@ public class EntryContainer
    *          The search operation.
    * @param pageRequest
    *          A Paged Results control, or null if none.
+   * @param session
+   *          The paged results session keeping the candidate entry IDs between pages, or null if none.
    * @throws DirectoryException
    *           If an error prevented the search from being processed.
    */
   private void searchIndexed(ReadableTransaction txn, long[] entryIDReorderedSet, boolean candidatesAreInScope,
-      SearchOperation searchOperation, PagedResultsControl pageRequest) throws DirectoryException,
+      SearchOperation searchOperation, PagedResultsControl pageRequest, Session session) throws DirectoryException,
       CanceledOperationException
   {
     SearchScope searchScope = searchOperation.getScope();
@@ -1285,12 +1591,15 @@ public class EntryContainer
 
     // Set the starting value.
     Long beginEntryID = null;
+    int beginIndex = -1;
     if (pageRequest != null && pageRequest.getCookie().length() != 0)
     {
-      // The cookie contains the ID of the next entry to be returned.
+      // The cookie contains the ID of the next entry to be returned,
+      // and its position in the candidates when it references a session.
       try
       {
-        beginEntryID = pageRequest.getCookie().toLong();
+        beginEntryID = PagedResultsSessions.getEntryID(pageRequest.getCookie());
+        beginIndex = PagedResultsSessions.getIndex(pageRequest.getCookie());
       }
       catch (Exception e)
       {
@@ -1316,10 +1625,21 @@ public class EntryContainer
     }
 
     // Iterate through the index candidates.
-    if (continueSearch)
+    final ForkJoinPool searchPool = rootContainer.getSearchPool();
+    final int startIndex = findStartIndex(beginEntryID, beginIndex, entryIDReorderedSet);
+    if (continueSearch && searchPool != null && entryIDReorderedSet.length - startIndex > CHUNK_SIZE)
+    {
+      if (!searchIndexedInParallel(searchPool, txn, entryIDReorderedSet, startIndex, candidatesAreInScope,
+          searchOperation, pageRequest, session))
+      {
+        return;
+      }
+      searchOperation.checkIfCanceled(false);
+    }
+    else if (continueSearch)
     {
       final SearchFilter filter = searchOperation.getFilter();
-      for (int i = findStartIndex(beginEntryID, entryIDReorderedSet); i < entryIDReorderedSet.length; i++)
+      for (int i = startIndex; i < entryIDReorderedSet.length; i++)
       {
         EntryID entryID = new EntryID(entryIDReorderedSet[i]);
         Entry entry;
@@ -1342,7 +1662,8 @@ public class EntryContainer
             if (isPageFull(searchOperation, pageRequest))
             {
               // Set the cookie to remember where we were.
-              addPagedResultsControl(searchOperation, pageRequest, entryID.toByteString());
+              addPagedResultsControl(searchOperation, pageRequest,
+                  session != null ? session.newCookie(i) : entryID.toByteString());
               return;
             }
 
@@ -1371,16 +1692,110 @@ public class EntryContainer
     }
 
     // Indicate no more pages.
+    if (session != null)
+    {
+      rootContainer.getPagedResultsSessions().remove(session);
+    }
     addPagedResultsControl(searchOperation, pageRequest, null);
   }
 
-  private int findStartIndex(Long beginEntryID, long[] entryIDReorderedSet)
+  /**
+   * Iterates through the index candidates like {@link #searchIndexed}, with the candidate entries read and matched
+   * against the filter by the search pool.
+   *
+   * @return {@code false} if the page is full and the search must stop
+   */
+  private boolean searchIndexedInParallel(ForkJoinPool searchPool, ReadableTransaction txn,
+      final long[] entryIDReorderedSet, final int startIndex, final boolean candidatesAreInScope,
+      SearchOperation searchOperation, PagedResultsControl pageRequest, final Session session)
+      throws DirectoryException, CanceledOperationException
+  {
+    final SearchScope searchScope = searchOperation.getScope();
+    final DN aBaseDN = searchOperation.getBaseDN();
+    final boolean manageDsaIT = isManageDsaITOperation(searchOperation);
+    final SearchFilter filter = searchOperation.getFilter();
+
+    final CandidateSource source = new CandidateSource()
+    {
+      private int next = startIndex;
+
+      @Override
+      public List<Candidate> nextChunk()
+      {
+        if (next >= entryIDReorderedSet.length)
+        {
+          return null;
+        }
+        final int end = Math.min(next + CHUNK_SIZE, entryIDReorderedSet.length);
+        final List<Candidate> chunk = new ArrayList<>(end - next);
+        for (; next < end; next++)
+        {
+          chunk.add(new Candidate(new EntryID(entryIDReorderedSet[next]),
+              session != null ? session.newCookie(next) : null));
+        }
+        return chunk;
+      }
+    };
+    final CandidateMatcher matcher = new CandidateMatcher()
+    {
+      @Override
+      public Entry getEntry(ReadableTransaction txn, EntryID entryID)
+      {
+        try
+        {
+          return EntryContainer.this.getEntry(txn, entryID);
+        }
+        catch (Exception e)
+        {
+          logger.traceException(e);
+          return null;
+        }
+      }
+
+      @Override
+      public boolean matches(Entry entry) throws DirectoryException
+      {
+        return isInScope(candidatesAreInScope, searchScope, aBaseDN, entry)
+            && (manageDsaIT || entry.getReferralURLs() == null)
+            && filter.matchesEntry(entry);
+      }
+    };
+
+    // The lookthrough limit has already been checked against the number of candidates
+    try (ParallelSearch scan = new ParallelSearch(searchPool, searchPool.getParallelism(), storage, txn,
+        searchOperation, source, matcher, 0))
+    {
+      for (Candidate match = scan.nextMatch(); match != null; match = scan.nextMatch())
+      {
+        if (isPageFull(searchOperation, pageRequest))
+        {
+          // Set the cookie to remember where we were.
+          addPagedResultsControl(searchOperation, pageRequest, match.getCookie());
+          return false;
+        }
+
+        if (!searchOperation.returnEntry(match.getEntry(), null))
+        {
+          // We have been told to discontinue processing of the search.
+          // This could be due to size limit exceeded or operation cancelled
+          break;
+        }
+      }
+    }
+    return true;
+  }
+
+  private int findStartIndex(Long beginEntryID, int beginIndex, long[] entryIDReorderedSet)
   {
     if (beginEntryID == null)
     {
       return 0;
     }
     final long begin = beginEntryID.longValue();
+    if (0 <= beginIndex && beginIndex < entryIDReorderedSet.length && entryIDReorderedSet[beginIndex] == begin)
+    {
+      return beginIndex;
+    }
     for (int i = 0; i < entryIDReorderedSet.length; i++)
     {
       if (entryIDReorderedSet[i] == begin)
@@ -1490,7 +1905,7 @@ public class EntryContainer
             id2entry.put(txn, entryID, encodedEntry);
             dn2uri.addEntry(txn, entry);
             id2childrenCount.updateTotalCount(txn, 1);
-            indexBuffer.flush(txn);
+            BatchingStorage.flush(indexBuffer, txn);
             // One last check before committing
             addOperation.checkIfCanceled(true);
           }
@@ -1521,6 +1936,7 @@ public class EntryContainer
     if (entryCache != null)
     {
       entryCache.putEntry(entry, backendID, entryID.longValue());
+      BatchingStorage.entryCached(entry.getName());
     }
   }
 
@@ -1685,7 +2101,7 @@ public class EntryContainer
               }
             }
             id2childrenCount.updateTotalCount(txn, -entriesToBeDeleted.size());
-            indexBuffer.flush(txn);
+            BatchingStorage.flush(indexBuffer, txn);
             deleteOperation.checkIfCanceled(true);
             if (isSubtreeDelete)
             {
@@ -1838,6 +2254,7 @@ public class EntryContainer
        * inserted since the time we read the cache.
        */
       entryCache.putEntryIfAbsent(entry, backendID, entryID.longValue());
+      BatchingStorage.entryCached(entry.getName());
     }
     return entry;
   }
@@ -1892,7 +2309,7 @@ public class EntryContainer
             dn2uri.modifyEntry(txn, oldEntry, newEntry, modifyOperation.getModifications());
             indexModifications(indexBuffer, oldEntry, newEntry, entryID, modifyOperation.getModifications());
 
-            indexBuffer.flush(txn);
+            BatchingStorage.flush(indexBuffer, txn);
 
             // One last check before committing
             modifyOperation.checkIfCanceled(true);
@@ -1902,6 +2319,7 @@ public class EntryContainer
             if (entryCache != null)
             {
               entryCache.putEntry(newEntry, backendID, entryID.longValue());
+              BatchingStorage.entryCached(newEntry.getName());
             }
           }
           catch (StorageRuntimeException | DirectoryException | CanceledOperationException e)
@@ -2034,7 +2452,7 @@ public class EntryContainer
               }
 
             }
-            indexBuffer.flush(txn);
+            BatchingStorage.flush(indexBuffer, txn);
             modifyDNOperation.checkIfCanceled(true);
           }
           catch (StorageRuntimeException | DirectoryException | CanceledOperationException e)
@@ -2548,67 +2966,104 @@ public class EntryContainer
     final SearchScope scope = searchOperation.getScope();
     final SearchFilter filter = searchOperation.getFilter();
 
-    final TreeMap<ByteString, EntryID> sortMap = new TreeMap<>();
-    for (EntryID id : entryIDSet)
+    try (ServerSideSorter sorter = new ServerSideSorter(backendID, ServerSideSorter.DEFAULT_MEMORY_LIMIT))
     {
-      try
+      for (EntryID id : entryIDSet)
       {
-        Entry e = getEntry(txn, id);
-        if (e.matchesBaseAndScope(baseDN, scope) && filter.matchesEntry(e))
+        final ByteString sortKey;
+        try
+        {
+          Entry e = getEntry(txn, id);
+          if (!e.matchesBaseAndScope(baseDN, scope) || !filter.matchesEntry(e))
+          {
+            continue;
+          }
+          sortKey = encodeVLVKey(sortKeys, e, id.longValue());
+        }
+        catch (Exception e)
         {
-          sortMap.put(encodeVLVKey(sortKeys, e, id.longValue()), id);
+          LocalizableMessage message = ERR_ENTRYIDSORTER_CANNOT_EXAMINE_ENTRY.get(id, getExceptionMessage(e));
+          throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(), message, e);
         }
+        addToSort(sorter, sortKey, id);
       }
-      catch (Exception e)
+
+      // See if there is a VLV request to further pare down the set of results, and if there is where it should be
+      // processed by offset or assertion value.
+      final SequentialCursor<ByteString, EntryID> sortedIDs = flip(sorter);
+      if (vlvRequest == null)
       {
-        LocalizableMessage message = ERR_ENTRYIDSORTER_CANNOT_EXAMINE_ENTRY.get(id, getExceptionMessage(e));
-        throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(), message, e);
+        return toArray(sortedIDs, sorter.size());
       }
+
+      if (vlvRequest.getTargetType() == VLVRequestControl.TYPE_TARGET_BYOFFSET)
+      {
+        return sortByOffset(searchOperation, vlvRequest, sortedIDs, sorter.size());
+      }
+      return sortByGreaterThanOrEqualAssertion(searchOperation, vlvRequest, sortKeys, sortedIDs, sorter.size());
     }
+  }
 
-    // See if there is a VLV request to further pare down the set of results, and if there is where it should be
-    // processed by offset or assertion value.
-    if (vlvRequest == null)
+  private void addToSort(ServerSideSorter sorter, ByteString sortKey, EntryID entryID) throws DirectoryException
+  {
+    try
+    {
+      sorter.add(sortKey, entryID);
+    }
+    catch (IOException e)
     {
-      return toArray(sortMap.values());
+      throw sortTempFileError(e);
     }
+  }
 
-    if (vlvRequest.getTargetType() == VLVRequestControl.TYPE_TARGET_BYOFFSET)
+  private SequentialCursor<ByteString, EntryID> flip(ServerSideSorter sorter) throws DirectoryException
+  {
+    try
     {
-      return sortByOffset(searchOperation, vlvRequest, sortMap);
+      return sorter.flip();
     }
-    return sortByGreaterThanOrEqualAssertion(searchOperation, vlvRequest, sortKeys, sortMap);
+    catch (IOException e)
+    {
+      throw sortTempFileError(e);
+    }
+  }
+
+  private DirectoryException sortTempFileError(IOException e)
+  {
+    logger.traceException(e);
+    return new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+        ERR_SERVER_SIDE_SORT_TEMP_FILE_ERROR.get(backendID, getExceptionMessage(e)), e);
   }
 
-  private static final long[] toArray(Collection<EntryID> entryIDs)
+  private static final long[] toArray(SequentialCursor<ByteString, EntryID> sortedIDs, int size)
   {
-    final long[] array = new long[entryIDs.size()];
+    final long[] array = new long[size];
     int i = 0;
-    for (EntryID entryID : entryIDs)
+    while (sortedIDs.next())
     {
-      array[i++] = entryID.longValue();
+      array[i++] = sortedIDs.getValue().longValue();
     }
     return array;
   }
 
   private static final long[] sortByGreaterThanOrEqualAssertion(SearchOperation searchOperation,
-      VLVRequestControl vlvRequest, List<SortKey> sortKeys, final TreeMap<ByteString, EntryID> sortMap)
-      throws DirectoryException
+      VLVRequestControl vlvRequest, List<SortKey> sortKeys, SequentialCursor<ByteString, EntryID> sortedIDs,
+      int size) throws DirectoryException
   {
     ByteString assertionValue = vlvRequest.getGreaterThanOrEqualAssertion();
     ByteSequence encodedTargetAssertion =
-        encodeTargetAssertion(sortKeys, assertionValue, searchOperation, sortMap.size());
+        encodeTargetAssertion(sortKeys, assertionValue, searchOperation, size);
 
     boolean targetFound = false;
     int index = 0;
     int targetIndex = 0;
     int startIndex = 0;
     int includedAfterCount = 0;
-    long[] idSet = new long[sortMap.size()];
-    for (Map.Entry<ByteString, EntryID> entry : sortMap.entrySet())
+    long[] idSet = new long[size];
+    while (sortedIDs.next())
     {
-      ByteString vlvKey = entry.getKey();
-      EntryID id = entry.getValue();
+      ByteString vlvKey = sortedIDs.getKey();
+      EntryID id = sortedIDs.getValue();
       idSet[index++] = id.longValue();
 
       if (targetFound)
@@ -2643,21 +3098,21 @@ public class EntryContainer
        * No entry was found to be greater than or equal to the sort key, so the target offset will
        * be one greater than the content count.
        */
-      targetIndex = sortMap.size() + 1;
+      targetIndex = size + 1;
       result = new long[0];
     }
-    addVLVResponseControl(searchOperation, targetIndex, sortMap.size(), SUCCESS);
+    addVLVResponseControl(searchOperation, targetIndex, size, SUCCESS);
     return result;
   }
 
   private static final long[] sortByOffset(SearchOperation searchOperation, VLVRequestControl vlvRequest,
-      TreeMap<ByteString, EntryID> sortMap) throws DirectoryException
+      SequentialCursor<ByteString, EntryID> cursor, int size) throws DirectoryException
   {
     int targetOffset = vlvRequest.getOffset();
     if (targetOffset < 0)
     {
       // The client specified a negative target offset. This should never be allowed.
-      addVLVResponseControl(searchOperation, targetOffset, sortMap.size(), OFFSET_RANGE_ERROR);
+      addVLVResponseControl(searchOperation, targetOffset, size, OFFSET_RANGE_ERROR);
 
       LocalizableMessage message = ERR_ENTRYIDSORTER_NEGATIVE_START_POS.get();
       throw new DirectoryException(ResultCode.VIRTUAL_LIST_VIEW_ERROR, message);
@@ -2678,12 +3133,12 @@ public class EntryContainer
       startPos = 0;
       beforeCount = listOffset;
     }
-    else if (startPos >= sortMap.size())
+    else if (startPos >= size)
     {
       // The start position is beyond the end of the list. In this case, we'll assume that the start position was
       // one greater than the size of the list and will only return the beforeCount entries.
-      targetOffset = sortMap.size() + 1;
-      listOffset = sortMap.size();
+      targetOffset = size + 1;
+      listOffset = size;
       startPos = listOffset - beforeCount;
       afterCount = 0;
     }
@@ -2692,8 +3147,9 @@ public class EntryContainer
     long[] sortedIDs = new long[count];
     int treePos = 0;
     int arrayPos = 0;
-    for (EntryID id : sortMap.values())
+    while (cursor.next())
     {
+      EntryID id = cursor.getValue();
       if (treePos++ < startPos)
       {
         continue;
@@ -2712,7 +3168,7 @@ public class EntryContainer
       sortedIDs = Arrays.copyOf(sortedIDs, arrayPos);
     }
 
-    addVLVResponseControl(searchOperation, targetOffset, sortMap.size(), SUCCESS);
+    addVLVResponseControl(searchOperation, targetOffset, size, SUCCESS);
     return sortedIDs;
   }
 
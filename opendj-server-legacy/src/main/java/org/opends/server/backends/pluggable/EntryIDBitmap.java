@@ -0,0 +1,1023 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.forgerock.opendj.ldap.ByteSequenceReader;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+
+/**
+ * A compressed bitmap of entry IDs, organized like a Roaring bitmap.
+ * <p>
+ * The 64-bit ID space is split into chunks of 65536 IDs sharing the same high 48 bits. Each non-empty chunk is
+ * stored in a container holding the low 16 bits of its IDs, either as a sorted array of chars when the chunk is
+ * sparse or as a 8KB bitmap when it holds more than {@link #MAX_ARRAY_CONTAINER_SIZE} IDs. Set operations are
+ * performed container by container so that intersecting, merging or removing large sets only costs a fraction of
+ * the work and memory needed by sorted {@code long[]}.
+ * <p>
+ * Binary operations never share containers between bitmaps: the bitmaps they return can safely be modified.
+ * This class is not thread safe.
+ */
+final class EntryIDBitmap
+{
+  /** Maximum number of IDs held by an array container, beyond which it is converted to a bitmap container. */
+  static final int MAX_ARRAY_CONTAINER_SIZE = 4096;
+
+  private static final int CHUNK_BITS = 16;
+  private static final int LOW_MASK = 0xFFFF;
+  private static final int BITMAP_WORDS = (1 << CHUNK_BITS) / Long.SIZE;
+  private static final byte ARRAY_CONTAINER = 0x00;
+  private static final byte BITMAP_CONTAINER = 0x01;
+
+  /** A set of the low 16 bits of the IDs belonging to the same chunk. */
+  private abstract static class Container
+  {
+    abstract int cardinality();
+
+    abstract boolean contains(int low);
+
+    /** Adds a value, possibly converting this container: the returned container must be used instead. */
+    abstract Container add(int low);
+
+    /** Removes a value, possibly converting this container: the returned container must be used instead. */
+    abstract Container remove(int low);
+
+    abstract Container and(Container other);
+
+    abstract Container or(Container other);
+
+    abstract Container andNot(Container other);
+
+    abstract int first();
+
+    abstract int last();
+
+    abstract Container copy();
+
+    /** Writes the IDs of this container to the provided array and returns the number of IDs written. */
+    abstract int fill(long high, long[] dest, int offset);
+
+    abstract ContainerIterator iterator();
+
+    abstract void encode(ByteStringBuilder builder);
+  }
+
+  /** Iterator over the low 16 bits values of a container. */
+  private interface ContainerIterator
+  {
+    boolean hasNext();
+
+    int next();
+  }
+
+  /** Container for sparse chunks, storing its values as a sorted array. */
+  private static final class ArrayContainer extends Container
+  {
+    private char[] values;
+    private int size;
+
+    ArrayContainer(int capacity)
+    {
+      values = new char[Math.max(capacity, 1)];
+    }
+
+    ArrayContainer(char[] values, int size)
+    {
+      this.values = values;
+      this.size = size;
+    }
+
+    @Override
+    int cardinality()
+    {
+      return size;
+    }
+
+    @Override
+    boolean contains(int low)
+    {
+      return Arrays.binarySearch(values, 0, size, (char) low) >= 0;
+    }
+
+    @Override
+    Container add(int low)
+    {
+      int pos = Arrays.binarySearch(values, 0, size, (char) low);
+      if (pos >= 0)
+      {
+        return this;
+      }
+      if (size >= MAX_ARRAY_CONTAINER_SIZE)
+      {
+        return toBitmapContainer().add(low);
+      }
+      pos = -(pos + 1);
+      if (size == values.length)
+      {
+        values = Arrays.copyOf(values, Math.min(MAX_ARRAY_CONTAINER_SIZE, size + (size >> 1) + 1));
+      }
+      System.arraycopy(values, pos, values, pos + 1, size - pos);
+      values[pos] = (char) low;
+      size++;
+      return this;
+    }
+
+    @Override
+    Container remove(int low)
+    {
+      final int pos = Arrays.binarySearch(values, 0, size, (char) low);
+      if (pos >= 0)
+      {
+        System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+        size--;
+      }
+      return this;
+    }
+
+    @Override
+    Container and(Container other)
+    {
+      final ArrayContainer result = new ArrayContainer(Math.min(size, other.cardinality()));
+      if (other instanceof ArrayContainer)
+      {
+        final ArrayContainer that = (ArrayContainer) other;
+        for (int i = 0, j = 0; i < size && j < that.size;)
+        {
+          if (values[i] < that.values[j])
+          {
+            i++;
+          }
+          else if (values[i] > that.values[j])
+          {
+            j++;
+          }
+          else
+          {
+            result.values[result.size++] = values[i];
+            i++;
+            j++;
+          }
+        }
+        return result;
+      }
+      for (int i = 0; i < size; i++)
+      {
+        if (other.contains(values[i]))
+        {
+          result.values[result.size++] = values[i];
+        }
+      }
+      return result;
+    }
+
+    @Override
+    Container or(Container other)
+    {
+      if (other instanceof BitmapContainer)
+      {
+        return other.or(this);
+      }
+      final ArrayContainer that = (ArrayContainer) other;
+      if (size + that.size > MAX_ARRAY_CONTAINER_SIZE)
+      {
+        final BitmapContainer result = toBitmapContainer();
+        for (int j = 0; j < that.size; j++)
+        {
+          result.add(that.values[j]);
+        }
+        return result;
+      }
+      final ArrayContainer result = new ArrayContainer(size + that.size);
+      int i = 0;
+      int j = 0;
+      while (i < size && j < that.size)
+      {
+        if (values[i] < that.values[j])
+        {
+          result.values[result.size++] = values[i++];
+        }
+        else if (values[i] > that.values[j])
+        {
+          result.values[result.size++] = that.values[j++];
+        }
+        else
+        {
+          result.values[result.size++] = values[i++];
+          j++;
+        }
+      }
+      while (i < size)
+      {
+        result.values[result.size++] = values[i++];
+      }
+      while (j < that.size)
+      {
+        result.values[result.size++] = that.values[j++];
+      }
+      return result;
+    }
+
+    @Override
+    Container andNot(Container other)
+    {
+      final ArrayContainer result = new ArrayContainer(size);
+      for (int i = 0; i < size; i++)
+      {
+        if (!other.contains(values[i]))
+        {
+          result.values[result.size++] = values[i];
+        }
+      }
+      return result;
+    }
+
+    @Override
+    int first()
+    {
+      return values[0];
+    }
+
+    @Override
+    int last()
+    {
+      return values[size - 1];
+    }
+
+    @Override
+    Container copy()
+    {
+      return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+    }
+
+    @Override
+    int fill(long high, long[] dest, int offset)
+    {
+      for (int i = 0; i < size; i++)
+      {
+        dest[offset + i] = high | values[i];
+      }
+      return size;
+    }
+
+    @Override
+    ContainerIterator iterator()
+    {
+      return new ContainerIterator()
+      {
+        private int index;
+
+        @Override
+        public boolean hasNext()
+        {
+          return index < size;
+        }
+
+        @Override
+        public int next()
+        {
+          return values[index++];
+        }
+      };
+    }
+
+    /** Values are delta encoded, which keeps each of them on a single byte for dense chunks. */
+    @Override
+    void encode(ByteStringBuilder builder)
+    {
+      builder.appendByte(ARRAY_CONTAINER);
+      builder.appendCompactUnsigned(size);
+      int basis = 0;
+      for (int i = 0; i < size; i++)
+      {
+        builder.appendCompactUnsigned(values[i] - basis);
+        basis = values[i];
+      }
+    }
+
+    static ArrayContainer decode(ByteSequenceReader reader)
+    {
+      final int size = reader.readCompactUnsignedInt();
+      final char[] values = new char[Math.max(size, 1)];
+      int basis = 0;
+      for (int i = 0; i < size; i++)
+      {
+        basis += reader.readCompactUnsignedInt();
+        values[i] = (char) basis;
+      }
+      return new ArrayContainer(values, size);
+    }
+
+    private BitmapContainer toBitmapContainer()
+    {
+      final BitmapContainer bitmap = new BitmapContainer();
+      for (int i = 0; i < size; i++)
+      {
+        bitmap.add(values[i]);
+      }
+      return bitmap;
+    }
+  }
+
+  /** Container for dense chunks, storing its values as a bitmap of 65536 bits. */
+  private static final class BitmapContainer extends Container
+  {
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer()
+    {
+      this(new long[BITMAP_WORDS], 0);
+    }
+
+    BitmapContainer(long[] words, int cardinality)
+    {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality()
+    {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(int low)
+    {
+      return (words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    Container add(int low)
+    {
+      final long before = words[low >>> 6];
+      final long after = before | (1L << low);
+      if (before != after)
+      {
+        words[low >>> 6] = after;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override
+    Container remove(int low)
+    {
+      final long before = words[low >>> 6];
+      final long after = before & ~(1L << low);
+      if (before != after)
+      {
+        words[low >>> 6] = after;
+        cardinality--;
+        return cardinality <= MAX_ARRAY_CONTAINER_SIZE ? toArrayContainer() : this;
+      }
+      return this;
+    }
+
+    @Override
+    Container and(Container other)
+    {
+      if (other instanceof ArrayContainer)
+      {
+        return other.and(this);
+      }
+      final long[] thatWords = ((BitmapContainer) other).words;
+      final long[] result = new long[BITMAP_WORDS];
+      int resultCardinality = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        result[i] = words[i] & thatWords[i];
+        resultCardinality += Long.bitCount(result[i]);
+      }
+      return newBestContainer(result, resultCardinality);
+    }
+
+    @Override
+    Container or(Container other)
+    {
+      final BitmapContainer result = (BitmapContainer) copy();
+      if (other instanceof ArrayContainer)
+      {
+        final ArrayContainer that = (ArrayContainer) other;
+        for (int j = 0; j < that.size; j++)
+        {
+          result.add(that.values[j]);
+        }
+        return result;
+      }
+      final long[] thatWords = ((BitmapContainer) other).words;
+      int resultCardinality = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        result.words[i] |= thatWords[i];
+        resultCardinality += Long.bitCount(result.words[i]);
+      }
+      result.cardinality = resultCardinality;
+      return result;
+    }
+
+    @Override
+    Container andNot(Container other)
+    {
+      final long[] result = Arrays.copyOf(words, BITMAP_WORDS);
+      int resultCardinality = cardinality;
+      if (other instanceof ArrayContainer)
+      {
+        final ArrayContainer that = (ArrayContainer) other;
+        for (int j = 0; j < that.size; j++)
+        {
+          final int low = that.values[j];
+          if ((result[low >>> 6] & (1L << low)) != 0)
+          {
+            result[low >>> 6] &= ~(1L << low);
+            resultCardinality--;
+          }
+        }
+      }
+      else
+      {
+        final long[] thatWords = ((BitmapContainer) other).words;
+        resultCardinality = 0;
+        for (int i = 0; i < BITMAP_WORDS; i++)
+        {
+          result[i] &= ~thatWords[i];
+          resultCardinality += Long.bitCount(result[i]);
+        }
+      }
+      return newBestContainer(result, resultCardinality);
+    }
+
+    @Override
+    int first()
+    {
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        if (words[i] != 0)
+        {
+          return i * Long.SIZE + Long.numberOfTrailingZeros(words[i]);
+        }
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    int last()
+    {
+      for (int i = BITMAP_WORDS - 1; i >= 0; i--)
+      {
+        if (words[i] != 0)
+        {
+          return i * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(words[i]);
+        }
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    Container copy()
+    {
+      return new BitmapContainer(Arrays.copyOf(words, BITMAP_WORDS), cardinality);
+    }
+
+    @Override
+    int fill(long high, long[] dest, int offset)
+    {
+      int pos = offset;
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        long word = words[i];
+        while (word != 0)
+        {
+          dest[pos++] = high | (i * Long.SIZE + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return pos - offset;
+    }
+
+    @Override
+    ContainerIterator iterator()
+    {
+      return new ContainerIterator()
+      {
+        private int wordIndex;
+        private long word = words[0];
+
+        @Override
+        public boolean hasNext()
+        {
+          while (word == 0 && wordIndex < BITMAP_WORDS - 1)
+          {
+            word = words[++wordIndex];
+          }
+          return word != 0;
+        }
+
+        @Override
+        public int next()
+        {
+          if (!hasNext())
+          {
+            throw new NoSuchElementException();
+          }
+          final int value = wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+          return value;
+        }
+      };
+    }
+
+    @Override
+    void encode(ByteStringBuilder builder)
+    {
+      builder.appendByte(BITMAP_CONTAINER);
+      for (long word : words)
+      {
+        builder.appendLong(word);
+      }
+    }
+
+    static Container decode(ByteSequenceReader reader)
+    {
+      final long[] words = new long[BITMAP_WORDS];
+      int cardinality = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        words[i] = reader.readLong();
+        cardinality += Long.bitCount(words[i]);
+      }
+      return newBestContainer(words, cardinality);
+    }
+
+    private ArrayContainer toArrayContainer()
+    {
+      final ArrayContainer array = new ArrayContainer(cardinality);
+      final ContainerIterator it = iterator();
+      while (it.hasNext())
+      {
+        array.values[array.size++] = (char) it.next();
+      }
+      return array;
+    }
+
+    private static Container newBestContainer(long[] words, int cardinality)
+    {
+      final BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+      return cardinality <= MAX_ARRAY_CONTAINER_SIZE ? bitmap.toArrayContainer() : bitmap;
+    }
+  }
+
+  /** The high 48 bits of the IDs in each container, sorted in ascending order. */
+  private long[] keys;
+  private Container[] containers;
+  private int nbContainers;
+  private long cardinality;
+
+  private EntryIDBitmap(int capacity)
+  {
+    keys = new long[Math.max(capacity, 1)];
+    containers = new Container[Math.max(capacity, 1)];
+  }
+
+  /**
+   * Creates an empty bitmap.
+   *
+   * @return a new empty bitmap
+   */
+  static EntryIDBitmap empty()
+  {
+    return new EntryIDBitmap(1);
+  }
+
+  /**
+   * Creates a bitmap containing the provided IDs.
+   *
+   * @param sortedIDs
+   *          IDs sorted in ascending order
+   * @return a new bitmap containing the provided IDs
+   */
+  static EntryIDBitmap valueOf(long[] sortedIDs)
+  {
+    final EntryIDBitmap bitmap = new EntryIDBitmap(4);
+    int start = 0;
+    while (start < sortedIDs.length)
+    {
+      final long key = sortedIDs[start] >>> CHUNK_BITS;
+      int end = start + 1;
+      while (end < sortedIDs.length && (sortedIDs[end] >>> CHUNK_BITS) == key)
+      {
+        end++;
+      }
+      final int count = end - start;
+      Container container;
+      if (count > MAX_ARRAY_CONTAINER_SIZE)
+      {
+        final BitmapContainer bitmapContainer = new BitmapContainer();
+        for (int i = start; i < end; i++)
+        {
+          bitmapContainer.add((int) (sortedIDs[i] & LOW_MASK));
+        }
+        container = bitmapContainer;
+      }
+      else
+      {
+        final char[] values = new char[count];
+        int size = 0;
+        for (int i = start; i < end; i++)
+        {
+          final char low = (char) (sortedIDs[i] & LOW_MASK);
+          if (size == 0 || values[size - 1] != low)
+          {
+            values[size++] = low;
+          }
+        }
+        container = new ArrayContainer(values, size);
+      }
+      bitmap.append(key, container);
+      start = end;
+    }
+    return bitmap;
+  }
+
+  long cardinality()
+  {
+    return cardinality;
+  }
+
+  boolean contains(long id)
+  {
+    final int index = indexOf(id >>> CHUNK_BITS);
+    return index >= 0 && containers[index].contains((int) (id & LOW_MASK));
+  }
+
+  boolean add(long id)
+  {
+    final long key = id >>> CHUNK_BITS;
+    final int low = (int) (id & LOW_MASK);
+    final int index = indexOf(key);
+    if (index >= 0)
+    {
+      final Container container = containers[index];
+      final int before = container.cardinality();
+      containers[index] = container.add(low);
+      return updateCardinality(containers[index].cardinality() - before);
+    }
+    final ArrayContainer container = new ArrayContainer(1);
+    container.add(low);
+    insert(-(index + 1), key, container);
+    return true;
+  }
+
+  boolean remove(long id)
+  {
+    final int index = indexOf(id >>> CHUNK_BITS);
+    if (index < 0)
+    {
+      return false;
+    }
+    final Container container = containers[index];
+    final int before = container.cardinality();
+    final Container updated = container.remove((int) (id & LOW_MASK));
+    if (updated.cardinality() == 0)
+    {
+      System.arraycopy(keys, index + 1, keys, index, nbContainers - index - 1);
+      System.arraycopy(containers, index + 1, containers, index, nbContainers - index - 1);
+      containers[--nbContainers] = null;
+    }
+    else
+    {
+      containers[index] = updated;
+    }
+    return updateCardinality(updated.cardinality() - before);
+  }
+
+  /**
+   * Returns the intersection of this bitmap with the provided one.
+   *
+   * @param that
+   *          the bitmap to intersect with
+   * @return a new bitmap
+   */
+  EntryIDBitmap and(EntryIDBitmap that)
+  {
+    final EntryIDBitmap result = new EntryIDBitmap(Math.min(nbContainers, that.nbContainers));
+    for (int i = 0, j = 0; i < nbContainers && j < that.nbContainers;)
+    {
+      if (keys[i] < that.keys[j])
+      {
+        i++;
+      }
+      else if (keys[i] > that.keys[j])
+      {
+        j++;
+      }
+      else
+      {
+        result.appendIfNotEmpty(keys[i], containers[i].and(that.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the union of this bitmap with the provided one.
+   *
+   * @param that
+   *          the bitmap to merge with
+   * @return a new bitmap
+   */
+  EntryIDBitmap or(EntryIDBitmap that)
+  {
+    final EntryIDBitmap result = new EntryIDBitmap(nbContainers + that.nbContainers);
+    int i = 0;
+    int j = 0;
+    while (i < nbContainers && j < that.nbContainers)
+    {
+      if (keys[i] < that.keys[j])
+      {
+        result.append(keys[i], containers[i].copy());
+        i++;
+      }
+      else if (keys[i] > that.keys[j])
+      {
+        result.append(that.keys[j], that.containers[j].copy());
+        j++;
+      }
+      else
+      {
+        result.append(keys[i], containers[i].or(that.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    for (; i < nbContainers; i++)
+    {
+      result.append(keys[i], containers[i].copy());
+    }
+    for (; j < that.nbContainers; j++)
+    {
+      result.append(that.keys[j], that.containers[j].copy());
+    }
+    return result;
+  }
+
+  /**
+   * Returns the IDs of this bitmap which are not in the provided one.
+   *
+   * @param that
+   *          the bitmap of the IDs to remove
+   * @return a new bitmap
+   */
+  EntryIDBitmap andNot(EntryIDBitmap that)
+  {
+    final EntryIDBitmap result = new EntryIDBitmap(nbContainers);
+    int j = 0;
+    for (int i = 0; i < nbContainers; i++)
+    {
+      while (j < that.nbContainers && that.keys[j] < keys[i])
+      {
+        j++;
+      }
+      if (j < that.nbContainers && that.keys[j] == keys[i])
+      {
+        result.appendIfNotEmpty(keys[i], containers[i].andNot(that.containers[j]));
+      }
+      else
+      {
+        result.append(keys[i], containers[i].copy());
+      }
+    }
+    return result;
+  }
+
+  EntryIDBitmap copy()
+  {
+    final EntryIDBitmap result = new EntryIDBitmap(nbContainers);
+    for (int i = 0; i < nbContainers; i++)
+    {
+      result.append(keys[i], containers[i].copy());
+    }
+    return result;
+  }
+
+  /**
+   * Returns the smallest ID of this bitmap.
+   *
+   * @return the smallest ID
+   * @throws NoSuchElementException
+   *           if this bitmap is empty
+   */
+  long first()
+  {
+    if (nbContainers == 0)
+    {
+      throw new NoSuchElementException();
+    }
+    return (keys[0] << CHUNK_BITS) | containers[0].first();
+  }
+
+  /**
+   * Returns the largest ID of this bitmap.
+   *
+   * @return the largest ID
+   * @throws NoSuchElementException
+   *           if this bitmap is empty
+   */
+  long last()
+  {
+    if (nbContainers == 0)
+    {
+      throw new NoSuchElementException();
+    }
+    return (keys[nbContainers - 1] << CHUNK_BITS) | containers[nbContainers - 1].last();
+  }
+
+  /**
+   * Returns the IDs of this bitmap.
+   *
+   * @return a new array holding the IDs of this bitmap sorted in ascending order
+   */
+  long[] toArray()
+  {
+    final long[] ids = new long[(int) cardinality];
+    int offset = 0;
+    for (int i = 0; i < nbContainers; i++)
+    {
+      offset += containers[i].fill(keys[i] << CHUNK_BITS, ids, offset);
+    }
+    return ids;
+  }
+
+  /** Iterator over the IDs of a bitmap, in ascending order. */
+  final class IDIterator
+  {
+    private int containerIndex = -1;
+    private ContainerIterator current;
+
+    boolean hasNext()
+    {
+      while (current == null || !current.hasNext())
+      {
+        if (containerIndex + 1 >= nbContainers)
+        {
+          return false;
+        }
+        current = containers[++containerIndex].iterator();
+      }
+      return true;
+    }
+
+    long next()
+    {
+      if (!hasNext())
+      {
+        throw new NoSuchElementException();
+      }
+      return (keys[containerIndex] << CHUNK_BITS) | current.next();
+    }
+  }
+
+  IDIterator iterator()
+  {
+    return new IDIterator();
+  }
+
+  /**
+   * Appends the encoded form of this bitmap to the provided builder.
+   * <p>
+   * The encoding is the number of containers followed, for each container, by the delta between its key and the
+   * previous container's key, its type and its content.
+   *
+   * @param builder
+   *          the builder where to append this bitmap
+   * @return the provided builder
+   */
+  ByteStringBuilder encode(ByteStringBuilder builder)
+  {
+    builder.appendCompactUnsigned(nbContainers);
+    long basis = 0;
+    for (int i = 0; i < nbContainers; i++)
+    {
+      builder.appendCompactUnsigned(keys[i] - basis);
+      basis = keys[i];
+      containers[i].encode(builder);
+    }
+    return builder;
+  }
+
+  /**
+   * Decodes a bitmap previously encoded by {@link #encode(ByteStringBuilder)}.
+   *
+   * @param reader
+   *          the reader positioned at the start of the encoded bitmap
+   * @return the decoded bitmap
+   * @throws IllegalArgumentException
+   *           if the encoded bitmap contains an unknown container type
+   */
+  static EntryIDBitmap decode(ByteSequenceReader reader)
+  {
+    final int count = reader.readCompactUnsignedInt();
+    final EntryIDBitmap bitmap = new EntryIDBitmap(count);
+    long key = 0;
+    for (int i = 0; i < count; i++)
+    {
+      key += reader.readCompactUnsignedLong();
+      final byte type = reader.readByte();
+      switch (type)
+      {
+      case ARRAY_CONTAINER:
+        bitmap.appendIfNotEmpty(key, ArrayContainer.decode(reader));
+        break;
+      case BITMAP_CONTAINER:
+        bitmap.appendIfNotEmpty(key, BitmapContainer.decode(reader));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown container type " + type);
+      }
+    }
+    return bitmap;
+  }
+
+  /**
+   * Returns an estimate of the number of bytes used by the encoded form of this bitmap.
+   *
+   * @return an estimate of the encoded size
+   */
+  int getEstimatedEncodedSize()
+  {
+    int size = ByteStringBuilder.MAX_COMPACT_SIZE;
+    for (int i = 0; i < nbContainers; i++)
+    {
+      size += ByteStringBuilder.MAX_COMPACT_SIZE + 1;
+      size += containers[i] instanceof BitmapContainer ? BITMAP_WORDS * Long.BYTES : containers[i].cardinality() * 3;
+    }
+    return size;
+  }
+
+  private boolean updateCardinality(int delta)
+  {
+    cardinality += delta;
+    return delta != 0;
+  }
+
+  private int indexOf(long key)
+  {
+    if (nbContainers > 0 && keys[nbContainers - 1] == key)
+    {
+      // Fast path for IDs being added in ascending order.
+      return nbContainers - 1;
+    }
+    return Arrays.binarySearch(keys, 0, nbContainers, key);
+  }
+
+  private void insert(int index, long key, Container container)
+  {
+    ensureCapacity(nbContainers + 1);
+    System.arraycopy(keys, index, keys, index + 1, nbContainers - index);
+    System.arraycopy(containers, index, containers, index + 1, nbContainers - index);
+    keys[index] = key;
+    containers[index] = container;
+    nbContainers++;
+    cardinality += container.cardinality();
+  }
+
+  private void append(long key, Container container)
+  {
+    insert(nbContainers, key, container);
+  }
+
+  private void appendIfNotEmpty(long key, Container container)
+  {
+    if (container.cardinality() > 0)
+    {
+      append(key, container);
+    }
+  }
+
+  private void ensureCapacity(int capacity)
+  {
+    if (capacity > keys.length)
+    {
+      final int newCapacity = Math.max(capacity, keys.length * 2);
+      keys = Arrays.copyOf(keys, newCapacity);
+      containers = Arrays.copyOf(containers, newCapacity);
+    }
+  }
+}
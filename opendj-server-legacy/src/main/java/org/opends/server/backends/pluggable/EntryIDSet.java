@@ -43,6 +43,13 @@ final class EntryIDSet implements Iterable<EntryID>
 {
   public static final EntryIDSetCodec CODEC_V1 = new EntryIDSetCodecV1();
   public static final EntryIDSetCodec CODEC_V2 = new EntryIDSetCodecV2();
+  public static final EntryIDSetCodec CODEC_V4 = new EntryIDSetCodecV4();
+
+  /**
+   * Defined sets holding more IDs than this threshold are encoded by {@link EntryIDSetCodecV4} as compressed bitmaps
+   * and decoded back as such.
+   */
+  static final int BITMAP_THRESHOLD = EntryIDBitmap.MAX_ARRAY_CONTAINER_SIZE;
 
   private static final ByteSequence NO_KEY = ByteString.valueOfUtf8("<none>");
   private static final long[] EMPTY_LONG_ARRAY = new long[0];
@@ -272,6 +279,128 @@ final class EntryIDSet implements Iterable<EntryID>
     }
   }
 
+  /**
+   * Concrete implementation representing a set of EntryIDs as a compressed bitmap. Used for large sets, which can then
+   * be combined without being expanded to arrays of IDs.
+   */
+  private static final class BitmapImpl implements EntryIDSetImplementor
+  {
+    /** \@NotNull */
+    private EntryIDBitmap bitmap;
+
+    BitmapImpl(EntryIDBitmap bitmap)
+    {
+      Reject.ifNull(bitmap, "bitmap must not be null");
+      this.bitmap = bitmap;
+    }
+
+    @Override
+    public long size()
+    {
+      return bitmap.cardinality();
+    }
+
+    @Override
+    public void toString(StringBuilder buffer)
+    {
+      buffer.append("[COUNT:").append(size()).append("]");
+    }
+
+    @Override
+    public boolean isDefined()
+    {
+      return true;
+    }
+
+    @Override
+    public boolean add(EntryID entryID)
+    {
+      return bitmap.add(entryID.longValue());
+    }
+
+    @Override
+    public boolean remove(EntryID entryID)
+    {
+      return bitmap.remove(entryID.longValue());
+    }
+
+    @Override
+    public boolean contains(EntryID entryID)
+    {
+      return bitmap.contains(entryID.longValue());
+    }
+
+    @Override
+    public void addAll(EntryIDSet that)
+    {
+      if (that.concreteImpl instanceof BitmapImpl)
+      {
+        bitmap = bitmap.or(((BitmapImpl) that.concreteImpl).bitmap);
+        return;
+      }
+      for (long id : that.getIDs())
+      {
+        bitmap.add(id);
+      }
+    }
+
+    @Override
+    public void removeAll(EntryIDSet that)
+    {
+      if (that.concreteImpl instanceof BitmapImpl)
+      {
+        bitmap = bitmap.andNot(((BitmapImpl) that.concreteImpl).bitmap);
+        return;
+      }
+      for (long id : that.getIDs())
+      {
+        bitmap.remove(id);
+      }
+    }
+
+    @Override
+    public Iterator<EntryID> iterator()
+    {
+      final EntryIDBitmap.IDIterator it = bitmap.iterator();
+      return new Iterator<EntryID>()
+      {
+        @Override
+        public boolean hasNext()
+        {
+          return it.hasNext();
+        }
+
+        @Override
+        public EntryID next()
+        {
+          return new EntryID(it.next());
+        }
+
+        @Override
+        public void remove()
+        {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    public long[] getRange()
+    {
+      if (bitmap.cardinality() != 0)
+      {
+        return new long[] { bitmap.first(), bitmap.last() };
+      }
+      return NO_ENTRY_IDS_RANGE;
+    }
+
+    @Override
+    public long[] getIDs()
+    {
+      return bitmap.toArray();
+    }
+  }
+
   /**
    * Concrete implementation where the EntryIDs are not defined, for example when the index entry
    * limit has been exceeded.
@@ -538,6 +667,65 @@ final class EntryIDSet implements Iterable<EntryID>
     }
   }
 
+  /**
+   * Bitmap EntryIDSet codec implementation. Sets holding up to {@link EntryIDSet#BITMAP_THRESHOLD} IDs are encoded
+   * like {@link EntryIDSetCodecV2}, larger ones are encoded as compressed bitmaps (see {@link EntryIDBitmap}) which
+   * take a fraction of the space used by a list of IDs and are decoded without expanding them.
+   * The first byte tells which encoding follows.
+   */
+  private static final class EntryIDSetCodecV4 implements EntryIDSetCodec
+  {
+    private static final byte SORTED_IDS = 0x01;
+    private static final byte BITMAP = 0x02;
+    private static final byte UNDEFINED_SET = (byte) 0xFF;
+
+    @Override
+    public ByteString encode(EntryIDSet idSet)
+    {
+      checkNotNull(idSet, "idSet must not be null");
+      final ByteStringBuilder builder;
+      if (!idSet.isDefined())
+      {
+        builder = new ByteStringBuilder(1);
+        builder.appendByte(UNDEFINED_SET);
+      }
+      else if (idSet.size() <= BITMAP_THRESHOLD)
+      {
+        builder = new ByteStringBuilder(1 + EntryIDSetCodecV2.getEstimatedSize(idSet));
+        builder.appendByte(SORTED_IDS);
+        EntryIDSetCodecV2.append(builder, idSet);
+      }
+      else
+      {
+        final EntryIDBitmap bitmap = idSet.asBitmap();
+        builder = new ByteStringBuilder(1 + bitmap.getEstimatedEncodedSize());
+        builder.appendByte(BITMAP);
+        bitmap.encode(builder);
+      }
+      return ByteString.wrap(builder.getBackingArray(), 0, builder.length());
+    }
+
+    @Override
+    public EntryIDSet decode(ByteSequence key, ByteString value)
+    {
+      checkNotNull(key, "key must not be null");
+      checkNotNull(value, "value must not be null");
+      final ByteSequenceReader reader = value.asReader();
+      final byte encoding = reader.readByte();
+      switch (encoding)
+      {
+      case UNDEFINED_SET:
+        return newUndefinedSetWithKey(key);
+      case SORTED_IDS:
+        return newDefinedSet(EntryIDSetCodecV2.decodeRaw(reader, reader.readCompactUnsignedInt()));
+      case BITMAP:
+        return new EntryIDSet(newDefinedImpl(EntryIDBitmap.decode(reader)));
+      default:
+        throw new IllegalArgumentException("Unknown entry ID set encoding " + encoding);
+      }
+    }
+  }
+
   /**
    * Decorate a V1 or V2 codec with encryption. When writing EntryIDSets to disk,
    * prepend two bytes, {0, 1} to mark them as encrypted.
@@ -689,6 +877,16 @@ final class EntryIDSet implements Iterable<EntryID>
       return newUndefinedSet();
     }
 
+    if (containsBitmap(sets))
+    {
+      EntryIDBitmap union = EntryIDBitmap.empty();
+      for (EntryIDSet l : sets)
+      {
+        union = union.or(l.asBitmap());
+      }
+      return new EntryIDSet(newDefinedImpl(union));
+    }
+
     boolean needSort = false;
     long[] n = new long[count];
     int pos = 0;
@@ -723,6 +921,24 @@ final class EntryIDSet implements Iterable<EntryID>
     return newDefinedSet(Arrays.copyOf(n1, j));
   }
 
+  private static boolean containsBitmap(List<EntryIDSet> sets)
+  {
+    for (EntryIDSet set : sets)
+    {
+      if (set.isBitmap())
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns a bitmap implementation for large sets and an array implementation for small ones. */
+  private static EntryIDSetImplementor newDefinedImpl(EntryIDBitmap bitmap)
+  {
+    return bitmap.cardinality() > BITMAP_THRESHOLD ? new BitmapImpl(bitmap) : new DefinedImpl(bitmap.toArray());
+  }
+
   private EntryIDSetImplementor concreteImpl;
 
   private EntryIDSet(EntryIDSetImplementor concreteImpl)
@@ -812,6 +1028,17 @@ final class EntryIDSet implements Iterable<EntryID>
     return concreteImpl.isDefined();
   }
 
+  /**
+   * Determine whether this set of IDs is undefined because an index key exceeded the index entry limit, rather than
+   * because the index could not be used.
+   *
+   * @return true if the set of IDs is undefined because an index key exceeded the index entry limit.
+   */
+  boolean isLimitExceeded()
+  {
+    return concreteImpl instanceof UndefinedImpl && ((UndefinedImpl) concreteImpl).treeKey != NO_KEY;
+  }
+
   /**
    * Insert an ID into this set.
    *
@@ -873,6 +1100,12 @@ final class EntryIDSet implements Iterable<EntryID>
   {
     checkNotNull(that, "that must not be null");
     Reject.ifFalse(that.isDefined(), "that must be defined");
+    if (that.isBitmap() && concreteImpl instanceof DefinedImpl)
+    {
+      // Switch to the bitmap representation rather than expanding the other set to an array.
+      concreteImpl = new BitmapImpl(that.asBitmap().or(asBitmap()));
+      return;
+    }
     concreteImpl.addAll(that);
   }
 
@@ -889,7 +1122,10 @@ final class EntryIDSet implements Iterable<EntryID>
     checkNotNull(that, "that must not be null");
     if (!concreteImpl.isDefined())
     {
-      if ( that.isDefined() ) {
+      if ( that.isBitmap() ) {
+        // Bitmaps are modified in place, so they cannot be shared.
+        concreteImpl = new BitmapImpl(that.asBitmap().copy());
+      } else if ( that.isDefined() ) {
         // NOTE: It's ok to share the same array instance here thanks to the copy-on-write
         // performed by the implementation.
         concreteImpl = new DefinedImpl(that.getIDs());
@@ -903,6 +1139,23 @@ final class EntryIDSet implements Iterable<EntryID>
       return;
     }
 
+    if (isBitmap() && that.isBitmap())
+    {
+      concreteImpl = newDefinedImpl(asBitmap().and(that.asBitmap()));
+      return;
+    }
+    else if (isBitmap())
+    {
+      // The intersection cannot be larger than the other set: only look up its IDs.
+      concreteImpl = new DefinedImpl(filter(that.getIDs(), asBitmap(), true));
+      return;
+    }
+    else if (that.isBitmap())
+    {
+      concreteImpl = new DefinedImpl(filter(getIDs(), that.asBitmap(), true));
+      return;
+    }
+
     final boolean thatSetOverlap = compareForOverlap(getRange(), that.getRange()) == 0;
     if (thatSetOverlap)
     {
@@ -928,6 +1181,11 @@ final class EntryIDSet implements Iterable<EntryID>
   {
     checkNotNull(that, "that must not be null");
     Reject.ifFalse(that.isDefined(), "that must be defined");
+    if (that.isBitmap() && concreteImpl instanceof DefinedImpl)
+    {
+      concreteImpl = new DefinedImpl(filter(getIDs(), that.asBitmap(), false));
+      return;
+    }
     concreteImpl.removeAll(that);
   }
 
@@ -952,6 +1210,39 @@ final class EntryIDSet implements Iterable<EntryID>
     return concreteImpl.getRange();
   }
 
+  private boolean isBitmap()
+  {
+    return concreteImpl instanceof BitmapImpl;
+  }
+
+  /**
+   * Returns this defined set as a bitmap. The returned bitmap may be the one backing this set: it must not be
+   * modified.
+   */
+  private EntryIDBitmap asBitmap()
+  {
+    if (isBitmap())
+    {
+      return ((BitmapImpl) concreteImpl).bitmap;
+    }
+    return EntryIDBitmap.valueOf(getIDs());
+  }
+
+  /** Returns the sorted IDs which are (if {@code retain} is true) or are not contained in the provided bitmap. */
+  private static long[] filter(long[] ids, EntryIDBitmap bitmap, boolean retain)
+  {
+    final long[] result = new long[ids.length];
+    int size = 0;
+    for (long id : ids)
+    {
+      if (bitmap.contains(id) == retain)
+      {
+        result[size++] = id;
+      }
+    }
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+
   private static long[] mergeOverlappingEntryIDSet(long set1[], long set2[])
   {
     final long[] a, b;
@@ -55,6 +55,8 @@ class IndexBuffer
 
     void remove(Index index, ByteString key, EntryID entryID);
 
+    void mergeInto(IndexBufferImplementor target);
+
     void reset();
   }
 
@@ -246,6 +248,55 @@ class IndexBuffer
       createOrGetBufferedIndexValues(index, key).deleteEntryID(entryID);
     }
 
+    @Override
+    public void mergeInto(IndexBufferImplementor target)
+    {
+      final DefaultIndexBuffer buffer = (DefaultIndexBuffer) target;
+      for (Entry<Index, SortedMap<ByteString, BufferedIndexValues>> entry : bufferedIndexes.entrySet())
+      {
+        for (Entry<ByteString, BufferedIndexValues> keyEntry : entry.getValue().entrySet())
+        {
+          final BufferedIndexValues values = keyEntry.getValue();
+          final BufferedIndexValues targetValues =
+              buffer.createOrGetBufferedIndexValues(entry.getKey(), keyEntry.getKey());
+          if (values.deletedEntryIDs != null)
+          {
+            for (EntryID entryID : values.deletedEntryIDs)
+            {
+              targetValues.deleteEntryID(entryID);
+            }
+          }
+          if (values.addedEntryIDs != null)
+          {
+            for (EntryID entryID : values.addedEntryIDs)
+            {
+              targetValues.addEntryID(entryID);
+            }
+          }
+        }
+      }
+
+      for (Entry<VLVIndex, BufferedVLVIndexValues> entry : bufferedVLVIndexes.entrySet())
+      {
+        final BufferedVLVIndexValues values = entry.getValue();
+        final BufferedVLVIndexValues targetValues = buffer.createOrGetBufferedVLVIndexValues(entry.getKey());
+        if (values.deletedSortKeys != null)
+        {
+          for (ByteString sortKey : values.deletedSortKeys)
+          {
+            targetValues.deleteSortKey(sortKey);
+          }
+        }
+        if (values.addedSortKeys != null)
+        {
+          for (ByteString sortKey : values.addedSortKeys)
+          {
+            targetValues.addSortKey(sortKey);
+          }
+        }
+      }
+    }
+
     private static void flushIndex(Index index, WriteableTransaction txn,
         Map<ByteString, BufferedIndexValues> bufferedValues)
     {
@@ -316,6 +367,12 @@ class IndexBuffer
       throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void mergeInto(IndexBufferImplementor target)
+    {
+      throw new UnsupportedOperationException();
+    }
+
     @Override
     public void reset()
     {
@@ -388,6 +445,18 @@ class IndexBuffer
     impl.remove(index, key, entryID);
   }
 
+  /**
+   * Adds the changes buffered in this index buffer to the provided index buffer, so that they are flushed along with
+   * the changes of other updates.
+   *
+   * @param target
+   *          the index buffer which will flush the changes buffered in this index buffer
+   */
+  void mergeInto(IndexBuffer target)
+  {
+    impl.mergeInto(target.impl);
+  }
+
   void reset()
   {
     impl.reset();
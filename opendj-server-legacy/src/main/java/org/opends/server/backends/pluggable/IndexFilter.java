@@ -20,15 +20,25 @@ import static org.opends.messages.BackendMessages.*;
 import static org.opends.server.backends.pluggable.EntryIDSet.*;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.schema.CoreSchema;
+import org.forgerock.opendj.server.config.meta.VirtualAttributeCfgDefn.ConflictBehavior;
 import org.opends.server.backends.pluggable.AttributeIndex.IndexFilterType;
 import org.opends.server.backends.pluggable.spi.ReadableTransaction;
+import org.opends.server.core.DirectoryServer;
 import org.opends.server.core.SearchOperation;
 import org.forgerock.opendj.ldap.schema.AttributeType;
 import org.opends.server.types.FilterType;
 import org.opends.server.types.SearchFilter;
+import org.opends.server.types.VirtualAttributeRule;
 
 /**
  * An index filter is used to apply a search operation to a set of indexes
@@ -45,6 +55,21 @@ class IndexFilter
   /** Limit on the number of entry IDs that may be retrieved by cursoring through an index. */
   static final int CURSOR_ENTRY_LIMIT = 100000;
 
+  /**
+   * Do not read the index of an AND filter component when it is estimated to match more than this factor times the
+   * number of candidates already found.
+   */
+  private static final int PRUNE_FACTOR = 100;
+
+  /**
+   * The estimated number of entries matched by the AND filter components when their index has no statistics yet,
+   * which preserves the default evaluation order.
+   */
+  private static final long FAST_COMPONENT_PRIOR = CURSOR_ENTRY_LIMIT / 1000;
+  private static final long OTHER_COMPONENT_PRIOR = CURSOR_ENTRY_LIMIT / 100;
+  private static final long RANGE_PAIR_PRIOR = CURSOR_ENTRY_LIMIT / 10;
+  private static final long RANGE_COMPONENT_PRIOR = CURSOR_ENTRY_LIMIT;
+
   /** The entry container holding the attribute indexes. */
   private final EntryContainer entryContainer;
   private final ReadableTransaction txn;
@@ -152,40 +177,194 @@ class IndexFilter
         return evaluateExtensibleFilter(filter);
 
       case NOT:
+        appendToDebugBuffer("(!");
+        final EntryIDSet res3 = evaluateLogicalNotFilter(filter);
+        appendToDebugBuffer(")");
+        return res3;
+
       default:
         if (buffer != null)
         {
           filter.toString(buffer);
         }
-        //NYI
         return newUndefinedSet();
     }
   }
 
   /**
    * Evaluate a logical AND search filter against the indexes.
+   * <p>
+   * The components are evaluated in the order of their estimated number of matching entries, so that the most
+   * selective indexes are read first. A component which is estimated, from the statistics of its index, to match far
+   * more entries than the candidates left by the previous components is not read at all: the search will filter the
+   * candidate entries anyway.
+   * <p>
+   * Finally, the entries matching the negated components are removed from the candidates.
    *
    * @param andFilter The AND search filter to be evaluated.
    * @return A set of entry IDs representing candidate entries.
    */
   private EntryIDSet evaluateLogicalAndFilter(SearchFilter andFilter)
   {
-    // Put the slow range filters (greater-or-equal, less-or-equal)
-    // into a hash map, the faster components (equality, presence, approx)
-    // into one list and the remainder into another list.
+    final List<SearchFilter> negatedComps = new ArrayList<>();
+    final List<PlannedComponent> plan = planLogicalAndFilter(andFilter, negatedComps);
+    if (buffer != null)
+    {
+      appendPlan(plan);
+    }
+    if (monitor.isFilterUseEnabled())
+    {
+      monitor.updatePlan(andFilter, planToString(plan));
+    }
+
+    EntryIDSet results = newUndefinedSet();
+    for (int i = 0; i < plan.size(); i++)
+    {
+      if (isBelowFilterThreshold(results))
+      {
+        return results;
+      }
+      final PlannedComponent component = plan.get(i);
+      if (component.isFromStatistics() && results.isDefined()
+          && component.estimate > results.size() * PRUNE_FACTOR)
+      {
+        prune(plan.subList(i, plan.size()), results.size());
+        break;
+      }
+      results.retainAll(component.evaluate());
+    }
+    return removeNegatedComponents(results, negatedComps);
+  }
+
+  /**
+   * Removes from the candidates the entries matching the negated components of a logical AND search filter.
+   *
+   * @param results The candidates matching the other components of the AND search filter.
+   * @param negatedComps The NOT components of the AND search filter, which can be exactly evaluated.
+   * @return A set of entry IDs representing candidate entries.
+   */
+  private EntryIDSet removeNegatedComponents(EntryIDSet results, List<SearchFilter> negatedComps)
+  {
+    if (negatedComps.isEmpty() || isBelowFilterThreshold(results))
+    {
+      return results;
+    }
+    if (!results.isDefined())
+    {
+      results = evaluateAllEntries();
+    }
+    for (SearchFilter notFilter : negatedComps)
+    {
+      if (!results.isDefined() || isBelowFilterThreshold(results))
+      {
+        return results;
+      }
+      appendToDebugBuffer("(!");
+      final EntryIDSet excluded = evaluateFilter(notFilter.getNotComponent());
+      appendToDebugBuffer(")");
+      if (excluded.isDefined())
+      {
+        results.removeAll(excluded);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Evaluate a logical NOT search filter against the indexes, by removing the entries matching the negated filter
+   * from all the entries indexed by the objectClass presence index.
+   *
+   * @param notFilter The NOT search filter to be evaluated.
+   * @return A set of entry IDs representing candidate entries.
+   */
+  private EntryIDSet evaluateLogicalNotFilter(SearchFilter notFilter)
+  {
+    final SearchFilter negatedFilter = notFilter.getNotComponent();
+    if (!isExactlyIndexed(negatedFilter))
+    {
+      if (buffer != null)
+      {
+        negatedFilter.toString(buffer);
+      }
+      return newUndefinedSet();
+    }
+    final EntryIDSet results = evaluateAllEntries();
+    if (!results.isDefined())
+    {
+      return results;
+    }
+    final EntryIDSet excluded = evaluateFilter(negatedFilter);
+    if (excluded.isDefined())
+    {
+      results.removeAll(excluded);
+    }
+    return results;
+  }
+
+  /**
+   * Returns the IDs of all the entries, read from the objectClass presence index.
+   *
+   * @return the IDs of all the entries, undefined if the objectClass presence index is not available or exceeded
+   *         its entry limit
+   */
+  private EntryIDSet evaluateAllEntries()
+  {
+    return evaluateFilter(SearchFilter.createPresenceFilter(CoreSchema.getObjectClassAttributeType()));
+  }
+
+  /**
+   * Indicates whether the indexes return exactly the entries matching the provided filter, rather than a superset
+   * of the candidate entries. Only such filters can be removed from the candidates of the enclosing filter.
+   */
+  private static boolean isExactlyIndexed(SearchFilter filter)
+  {
+    switch (filter.getFilterType())
+    {
+    case EQUALITY:
+      // The virtual attribute rules may not apply to all the entries returned by their providers
+      return !filter.getAttributeDescription().hasOptions()
+          && !mayEvaluateVirtualAttributeFilter(getVirtualAttributeRules(filter.getAttributeType()));
+
+    case PRESENT:
+      // The indexes do not take attribute options into account
+      return !filter.getAttributeDescription().hasOptions();
+
+    case OR:
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        if (!isExactlyIndexed(component))
+        {
+          return false;
+        }
+      }
+      return true;
 
-    ArrayList<SearchFilter> fastComps = new ArrayList<>();
-    ArrayList<SearchFilter> otherComps = new ArrayList<>();
-    HashMap<AttributeType, ArrayList<SearchFilter>> rangeComps = new HashMap<>();
+    default:
+      // The evaluation of AND filters stops as soon as there are few enough candidates
+      return false;
+    }
+  }
 
+  /**
+   * Returns the components of a logical AND search filter in the order they should be evaluated.
+   * <p>
+   * Range component pairs like (cn&gt;=A)(cn&lt;=B) are evaluated as a single bounded range. Without statistics, the
+   * components are evaluated in this order: the fast components (equality, presence, approx), then the other
+   * non-range components, then the range pairs and finally the remaining range components.
+   * <p>
+   * The NOT components which can be exactly evaluated are not part of the plan: they are added to the provided list.
+   */
+  private List<PlannedComponent> planLogicalAndFilter(SearchFilter andFilter, List<SearchFilter> negatedComps)
+  {
+    final List<PlannedComponent> plan = new ArrayList<>();
+    final Map<AttributeType, List<SearchFilter>> rangeComps = new LinkedHashMap<>();
     for (SearchFilter filter : andFilter.getFilterComponents())
     {
       FilterType filterType = filter.getFilterType();
       if (filterType == FilterType.GREATER_OR_EQUAL ||
            filterType == FilterType.LESS_OR_EQUAL)
       {
-        ArrayList<SearchFilter> rangeList;
-        rangeList = rangeComps.get(filter.getAttributeType());
+        List<SearchFilter> rangeList = rangeComps.get(filter.getAttributeType());
         if (rangeList == null)
         {
           rangeList = new ArrayList<>();
@@ -197,77 +376,199 @@ class IndexFilter
            filterType == FilterType.PRESENT ||
            filterType == FilterType.APPROXIMATE_MATCH)
       {
-        fastComps.add(filter);
+        plan.add(new PlannedComponent(filter, null, estimate(filter), FAST_COMPONENT_PRIOR));
+      }
+      else if (filterType == FilterType.NOT && isExactlyIndexed(filter.getNotComponent()))
+      {
+        negatedComps.add(filter);
       }
       else
       {
-        otherComps.add(filter);
+        plan.add(new PlannedComponent(filter, null, estimate(filter), OTHER_COMPONENT_PRIOR));
       }
     }
 
-    EntryIDSet results = newUndefinedSet();
-    // First, process the fast components.
-    results = applyFiltersUntilThreshold(results, fastComps);
-    // Next, process the other (non-range) components.
-    results = applyFiltersUntilThreshold(results, otherComps);
-
-    if ( isBelowFilterThreshold(results) || rangeComps.isEmpty() ) {
-      return results;
-    }
-
-    // Next, process range component pairs like (cn>=A)(cn<=B).
-    ArrayList<SearchFilter> remainComps = new ArrayList<>();
-    for (Map.Entry<AttributeType, ArrayList<SearchFilter>> rangeEntry : rangeComps.entrySet())
+    for (Map.Entry<AttributeType, List<SearchFilter>> rangeEntry : rangeComps.entrySet())
     {
-      ArrayList<SearchFilter> rangeList = rangeEntry.getValue();
+      List<SearchFilter> rangeList = rangeEntry.getValue();
       if (rangeList.size() == 2)
       {
-        SearchFilter filter1 = rangeList.get(0);
-        SearchFilter filter2 = rangeList.get(1);
-
-        AttributeIndex attributeIndex = entryContainer.getAttributeIndex(rangeEntry.getKey());
-        if (attributeIndex == null)
+        plan.add(new PlannedComponent(SearchFilter.createANDFilter(rangeList), rangeList,
+            estimate(rangeEntry.getKey(), IndexFilterType.GREATER_OR_EQUAL, null), RANGE_PAIR_PRIOR));
+      }
+      else
+      {
+        for (SearchFilter filter : rangeList)
         {
-          if(monitor.isFilterUseEnabled())
-          {
-            monitor.updateStats(SearchFilter.createANDFilter(rangeList),
-                INFO_INDEX_FILTER_INDEX_TYPE_DISABLED.get("ordering", rangeEntry.getKey().getNameOrOID()));
-          }
-          continue;
+          plan.add(new PlannedComponent(filter, null, estimate(filter), RANGE_COMPONENT_PRIOR));
         }
+      }
+    }
 
-        final IndexQueryFactoryImpl indexQueryFactory = new IndexQueryFactoryImpl(txn, attributeIndex);
-        EntryIDSet set = attributeIndex.evaluateBoundedRange(indexQueryFactory, filter1, filter2, buffer, monitor);
-        if(monitor.isFilterUseEnabled() && set.isDefined())
+    // The sort is stable: components with the same estimate keep the default order
+    Collections.sort(plan);
+    return plan;
+  }
+
+  /**
+   * Estimates the number of entries matched by a filter from the statistics of the indexes.
+   *
+   * @return the estimated number of matching entries, or -1 if it is unknown
+   */
+  private long estimate(SearchFilter filter)
+  {
+    switch (filter.getFilterType())
+    {
+    case EQUALITY:
+      return estimate(filter.getAttributeType(), IndexFilterType.EQUALITY, filter.getAssertionValue());
+    case PRESENT:
+      return estimate(filter.getAttributeType(), IndexFilterType.PRESENCE, null);
+    case APPROXIMATE_MATCH:
+      return estimate(filter.getAttributeType(), IndexFilterType.APPROXIMATE, null);
+    case SUBSTRING:
+      return estimate(filter.getAttributeType(), IndexFilterType.SUBSTRING, null);
+    case GREATER_OR_EQUAL:
+    case LESS_OR_EQUAL:
+      return estimate(filter.getAttributeType(), IndexFilterType.GREATER_OR_EQUAL, null);
+
+    case AND:
+      // The intersection matches at most as many entries as its most selective known component
+      long min = -1;
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        final long estimate = estimate(component);
+        if (estimate >= 0 && (min < 0 || estimate < min))
         {
-          monitor.updateStats(SearchFilter.createANDFilter(rangeList), set.size());
+          min = estimate;
         }
-        results.retainAll(set);
-        if (isBelowFilterThreshold(results))
+      }
+      return min;
+
+    case OR:
+      // The union matches at most the sum of its components, provided they are all known
+      long sum = 0;
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        final long estimate = estimate(component);
+        if (estimate < 0)
         {
-          return results;
+          return -1;
         }
+        sum += estimate;
       }
-      else
+      return sum;
+
+    default:
+      return -1;
+    }
+  }
+
+  private long estimate(AttributeType attributeType, IndexFilterType indexFilterType, ByteString equalityKey)
+  {
+    final AttributeIndex attributeIndex = entryContainer.getAttributeIndex(attributeType);
+    if (attributeIndex == null)
+    {
+      return -1;
+    }
+    return attributeIndex.getStatistics().estimate(indexFilterType.toString(),
+        equalityKey != null ? attributeIndex.getStatisticsKey(equalityKey) : null);
+  }
+
+  private EntryIDSet evaluateBoundedRange(SearchFilter rangeFilter, List<SearchFilter> rangeList)
+  {
+    final AttributeType attributeType = rangeList.get(0).getAttributeType();
+    AttributeIndex attributeIndex = entryContainer.getAttributeIndex(attributeType);
+    if (attributeIndex == null)
+    {
+      if (monitor.isFilterUseEnabled())
       {
-        // Add to the remaining range components to be processed.
-        remainComps.addAll(rangeList);
+        monitor.updateStats(rangeFilter,
+            INFO_INDEX_FILTER_INDEX_TYPE_DISABLED.get("ordering", attributeType.getNameOrOID()));
       }
+      return newUndefinedSet();
     }
 
-    // Finally, process the remaining slow range components.
-    return applyFiltersUntilThreshold(results, remainComps);
+    final IndexQueryFactoryImpl indexQueryFactory = new IndexQueryFactoryImpl(txn, attributeIndex);
+    EntryIDSet set = attributeIndex.evaluateBoundedRange(
+        indexQueryFactory, rangeList.get(0), rangeList.get(1), buffer, monitor);
+    attributeIndex.getStatistics().record(IndexFilterType.GREATER_OR_EQUAL.toString(), null, set);
+    if (monitor.isFilterUseEnabled() && set.isDefined())
+    {
+      monitor.updateStats(rangeFilter, set.size());
+    }
+    return set;
   }
 
-  private EntryIDSet applyFiltersUntilThreshold(EntryIDSet results, ArrayList<SearchFilter> filters)
+  private void prune(List<PlannedComponent> prunedComponents, long nbCandidates)
   {
-    for(SearchFilter filter : filters) {
-      if (isBelowFilterThreshold(results)) {
-        return results;
+    for (PlannedComponent component : prunedComponents)
+    {
+      if (buffer != null)
+      {
+        component.filter.toString(buffer);
+        buffer.append("[PRUNED]");
+      }
+      if (monitor.isFilterUseEnabled())
+      {
+        monitor.updateStats(component.filter,
+            INFO_INDEX_FILTER_COMPONENT_PRUNED.get(component.estimate, nbCandidates));
       }
-      results.retainAll(evaluateFilter(filter));
     }
-    return results;
+  }
+
+  private void appendPlan(List<PlannedComponent> plan)
+  {
+    buffer.append("[PLAN:").append(planToString(plan)).append("]");
+  }
+
+  private static String planToString(List<PlannedComponent> plan)
+  {
+    final StringBuilder sb = new StringBuilder();
+    for (PlannedComponent component : plan)
+    {
+      if (sb.length() > 0)
+      {
+        sb.append(",");
+      }
+      component.filter.toString(sb);
+      sb.append(":").append(component.isFromStatistics() ? Long.toString(component.estimate) : "?");
+    }
+    return sb.toString();
+  }
+
+  /** A component of a logical AND search filter, with the estimated number of entries it matches. */
+  private final class PlannedComponent implements Comparable<PlannedComponent>
+  {
+    private final SearchFilter filter;
+    /** The two components of a bounded range, {@code null} for other components. */
+    private final List<SearchFilter> rangeList;
+    /** The estimated number of matching entries, from the index statistics or the default prior. */
+    private final long estimate;
+    private final boolean fromStatistics;
+
+    private PlannedComponent(SearchFilter filter, List<SearchFilter> rangeList, long statisticsEstimate, long prior)
+    {
+      this.filter = filter;
+      this.rangeList = rangeList;
+      this.fromStatistics = statisticsEstimate >= 0;
+      this.estimate = fromStatistics ? statisticsEstimate : prior;
+    }
+
+    private boolean isFromStatistics()
+    {
+      return fromStatistics;
+    }
+
+    private EntryIDSet evaluate()
+    {
+      return rangeList != null ? evaluateBoundedRange(filter, rangeList) : evaluateFilter(filter);
+    }
+
+    @Override
+    public int compareTo(PlannedComponent that)
+    {
+      return Long.compare(estimate, that.estimate);
+    }
   }
 
   static boolean isBelowFilterThreshold(EntryIDSet set)
@@ -308,12 +609,29 @@ class IndexFilter
   }
 
   private EntryIDSet evaluateFilter(IndexFilterType indexFilterType, SearchFilter filter)
+  {
+    if (indexFilterType == IndexFilterType.EQUALITY)
+    {
+      final List<VirtualAttributeRule> rules = getVirtualAttributeRules(filter.getAttributeType());
+      if (mayEvaluateVirtualAttributeFilter(rules))
+      {
+        return evaluateVirtualAttributeFilter(rules, filter);
+      }
+    }
+    return evaluateIndexedFilter(indexFilterType, filter);
+  }
+
+  private EntryIDSet evaluateIndexedFilter(IndexFilterType indexFilterType, SearchFilter filter)
   {
     AttributeIndex attributeIndex = entryContainer.getAttributeIndex(filter.getAttributeType());
     if (attributeIndex != null)
     {
       final IndexQueryFactoryImpl indexQueryFactory = new IndexQueryFactoryImpl(txn, attributeIndex);
-      return attributeIndex.evaluateFilter(indexQueryFactory, indexFilterType, filter, buffer, monitor);
+      final EntryIDSet set = attributeIndex.evaluateFilter(indexQueryFactory, indexFilterType, filter, buffer, monitor);
+      final ByteString equalityKey = indexFilterType == IndexFilterType.EQUALITY
+          ? attributeIndex.getStatisticsKey(filter.getAssertionValue()) : null;
+      attributeIndex.getStatistics().record(indexFilterType.toString(), equalityKey, set);
+      return set;
     }
 
     if (monitor.isFilterUseEnabled())
@@ -324,6 +642,125 @@ class IndexFilter
     return newUndefinedSet();
   }
 
+  /**
+   * Evaluate an equality filter targeting a virtual attribute, by looking up the IDs of the entries which the
+   * virtual attribute providers report as possibly having the asserted value. For example, the members of a static
+   * group are the candidates of an isMemberOf equality filter.
+   * <p>
+   * Real values of the attribute are only taken into account if the attribute is also indexed, or if the virtual
+   * values override them. The filter is evaluated against the attribute index instead if a provider cannot report
+   * the entries.
+   *
+   * @param rules The virtual attribute rules generating the attribute targeted by the filter.
+   * @param filter The equality filter to be evaluated.
+   * @return A set of entry IDs representing candidate entries.
+   */
+  private EntryIDSet evaluateVirtualAttributeFilter(List<VirtualAttributeRule> rules, SearchFilter filter)
+  {
+    final List<Collection<DN>> entryDNsByRule = new ArrayList<>(rules.size());
+    for (VirtualAttributeRule rule : rules)
+    {
+      final Collection<DN> entryDNs =
+          rule.getProvider().getEntryDNsWithValue(rule, filter.getAssertionValue(), CURSOR_ENTRY_LIMIT);
+      if (entryDNs == null)
+      {
+        return evaluateIndexedFilter(IndexFilterType.EQUALITY, filter);
+      }
+      entryDNsByRule.add(entryDNs);
+    }
+
+    final DN baseDN = entryContainer.getBaseDN();
+    final DN2ID dn2id = entryContainer.getDN2ID();
+    boolean mayHaveRealValues = false;
+    long[] entryIDs = new long[16];
+    int nbEntryIDs = 0;
+    appendToDebugBuffer("[VIRTUAL:" + filter.getAttributeType().getNameOrOID() + "]");
+    for (int i = 0; i < rules.size(); i++)
+    {
+      final VirtualAttributeRule rule = rules.get(i);
+      for (DN entryDN : entryDNsByRule.get(i))
+      {
+        if (!entryDN.isSubordinateOrEqualTo(baseDN))
+        {
+          continue;
+        }
+        final EntryID entryID = dn2id.get(txn, entryDN);
+        if (entryID != null)
+        {
+          if (nbEntryIDs == entryIDs.length)
+          {
+            entryIDs = Arrays.copyOf(entryIDs, nbEntryIDs * 2);
+          }
+          entryIDs[nbEntryIDs++] = entryID.longValue();
+        }
+      }
+      mayHaveRealValues |= rule.getConflictBehavior() != ConflictBehavior.VIRTUAL_OVERRIDES_REAL;
+    }
+
+    final EntryIDSet virtualSet = newDefinedSet(toSortedUniqueArray(entryIDs, nbEntryIDs));
+    if (monitor.isFilterUseEnabled())
+    {
+      monitor.updateStats(filter, virtualSet.size());
+    }
+    if (entryContainer.getAttributeIndex(filter.getAttributeType()) != null)
+    {
+      return newSetFromUnion(Arrays.asList(virtualSet, evaluateIndexedFilter(IndexFilterType.EQUALITY, filter)));
+    }
+    return mayHaveRealValues ? newUndefinedSet() : virtualSet;
+  }
+
+  private static long[] toSortedUniqueArray(long[] values, int length)
+  {
+    Arrays.sort(values, 0, length);
+    int nbUnique = 0;
+    for (int i = 0; i < length; i++)
+    {
+      if (nbUnique == 0 || values[i] != values[nbUnique - 1])
+      {
+        values[nbUnique++] = values[i];
+      }
+    }
+    return Arrays.copyOf(values, nbUnique);
+  }
+
+  /**
+   * Indicates whether an equality filter on the attribute generated by the provided virtual attribute rules may be
+   * evaluated from the entries reported by their providers. When the real values override the virtual ones, the
+   * attribute index is used as if there were no virtual attribute rule.
+   */
+  private static boolean mayEvaluateVirtualAttributeFilter(List<VirtualAttributeRule> rules)
+  {
+    if (rules.isEmpty())
+    {
+      return false;
+    }
+    for (VirtualAttributeRule rule : rules)
+    {
+      if (rule.getConflictBehavior() == ConflictBehavior.REAL_OVERRIDES_VIRTUAL)
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<VirtualAttributeRule> getVirtualAttributeRules(AttributeType attributeType)
+  {
+    List<VirtualAttributeRule> rules = Collections.emptyList();
+    for (VirtualAttributeRule rule : DirectoryServer.getVirtualAttributes())
+    {
+      if (rule.getAttributeType().equals(attributeType))
+      {
+        if (rules.isEmpty())
+        {
+          rules = new ArrayList<>(1);
+        }
+        rules.add(rule);
+      }
+    }
+    return rules;
+  }
+
   /**
    * Evaluate an extensible filter against the indexes.
    *
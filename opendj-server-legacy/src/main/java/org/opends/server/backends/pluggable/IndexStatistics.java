@@ -0,0 +1,205 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.forgerock.opendj.ldap.ByteString;
+
+/**
+ * Key cardinality statistics of the indexes of an attribute, used to estimate the number of entries matched by a
+ * filter component before reading the indexes.
+ * <p>
+ * The statistics are maintained incrementally from the index reads performed by searches: for each index type, they
+ * keep a moving average of the number of entry IDs the filter components read, and for the equality index, the
+ * number of entry IDs of recently read keys. The equality keys are identified by their normalized value, and are
+ * forgotten when an entry with this value is added, deleted or modified.
+ * <p>
+ * The statistics are recorded and read by the searches without locking.
+ */
+final class IndexStatistics
+{
+  /** The estimate of the number of entries of a key exceeding the index entry limit. */
+  static final long LIMIT_EXCEEDED_ESTIMATE = IndexFilter.CURSOR_ENTRY_LIMIT;
+  /** The weight of the latest read in the moving averages. */
+  private static final double SMOOTHING_FACTOR = 0.2;
+  /** The maximum number of equality keys whose number of entry IDs is remembered. */
+  private static final int MAX_TRACKED_KEYS = 256;
+  /** The bits of the average of an index type which has never been read. */
+  private static final long NO_AVERAGE = Double.doubleToLongBits(Double.NaN);
+
+  /** The statistics of an index type. */
+  private static final class Cardinality
+  {
+    /** The bits of the moving average, a double. */
+    private final AtomicLong average = new AtomicLong(NO_AVERAGE);
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder limitExceededReads = new LongAdder();
+
+    private void add(long nbEntryIDs, boolean limitExceeded)
+    {
+      // A single attempt: when concurrent reads update the average,
+      // losing some of them does not matter for an estimate
+      final long bits = average.get();
+      final double oldAverage = Double.longBitsToDouble(bits);
+      final double newAverage =
+          Double.isNaN(oldAverage) ? nbEntryIDs : oldAverage + SMOOTHING_FACTOR * (nbEntryIDs - oldAverage);
+      average.compareAndSet(bits, Double.doubleToLongBits(newAverage));
+      reads.increment();
+      if (limitExceeded)
+      {
+        limitExceededReads.increment();
+      }
+    }
+
+    private long getAverage()
+    {
+      final double value = Double.longBitsToDouble(average.get());
+      return Double.isNaN(value) ? -1 : Math.round(value);
+    }
+  }
+
+  private final ConcurrentMap<String, Cardinality> cardinalities = new ConcurrentHashMap<>();
+  private final ConcurrentMap<ByteString, Long> equalityKeys = new ConcurrentHashMap<>();
+
+  /**
+   * Records the result of reading an index.
+   *
+   * @param indexType
+   *          the type of the index which was read
+   * @param equalityKey
+   *          the normalized assertion value when the equality index was read, {@code null} otherwise
+   * @param result
+   *          the entry IDs read from the index
+   */
+  void record(String indexType, ByteString equalityKey, EntryIDSet result)
+  {
+    final boolean limitExceeded = result.isLimitExceeded();
+    if (!result.isDefined() && !limitExceeded)
+    {
+      // The index could not be used: this says nothing about its keys
+      return;
+    }
+
+    final long nbEntryIDs = limitExceeded ? LIMIT_EXCEEDED_ESTIMATE : result.size();
+    Cardinality cardinality = cardinalities.get(indexType);
+    if (cardinality == null)
+    {
+      final Cardinality newCardinality = new Cardinality();
+      cardinality = cardinalities.putIfAbsent(indexType, newCardinality);
+      if (cardinality == null)
+      {
+        cardinality = newCardinality;
+      }
+    }
+    cardinality.add(nbEntryIDs, limitExceeded);
+    if (equalityKey != null)
+    {
+      if (equalityKeys.size() >= MAX_TRACKED_KEYS && !equalityKeys.containsKey(equalityKey))
+      {
+        // Make room by forgetting any key
+        final Iterator<ByteString> it = equalityKeys.keySet().iterator();
+        if (it.hasNext())
+        {
+          it.next();
+          it.remove();
+        }
+      }
+      equalityKeys.put(equalityKey, nbEntryIDs);
+    }
+  }
+
+  /**
+   * Estimates the number of entry IDs that reading an index will return.
+   *
+   * @param indexType
+   *          the type of the index to read
+   * @param equalityKey
+   *          the normalized assertion value when reading the equality index, {@code null} otherwise
+   * @return the estimated number of entry IDs, or -1 if this index has never been read
+   */
+  long estimate(String indexType, ByteString equalityKey)
+  {
+    if (equalityKey != null)
+    {
+      final Long nbEntryIDs = equalityKeys.get(equalityKey);
+      if (nbEntryIDs != null)
+      {
+        return nbEntryIDs;
+      }
+    }
+    final Cardinality cardinality = cardinalities.get(indexType);
+    return cardinality != null ? cardinality.getAverage() : -1;
+  }
+
+  /**
+   * Indicates whether the number of entry IDs of some equality keys is remembered.
+   *
+   * @return {@code true} if the number of entry IDs of some equality keys is remembered
+   */
+  boolean hasEqualityKeys()
+  {
+    return !equalityKeys.isEmpty();
+  }
+
+  /**
+   * Forgets the number of entry IDs of an equality key, because the entries having this value are changing.
+   *
+   * @param equalityKey
+   *          the normalized value of the changed entries, or {@code null} to forget all the equality keys when the
+   *          value could not be normalized
+   */
+  void invalidate(ByteString equalityKey)
+  {
+    if (equalityKey != null)
+    {
+      equalityKeys.remove(equalityKey);
+    }
+    else
+    {
+      equalityKeys.clear();
+    }
+  }
+
+  /**
+   * Returns a description of these statistics for the backend monitor, one value per index type.
+   *
+   * @param attributeName
+   *          the name of the indexed attribute
+   * @return a description of these statistics
+   */
+  List<String> toMonitorValues(String attributeName)
+  {
+    final List<String> values = new ArrayList<>(cardinalities.size());
+    for (Map.Entry<String, Cardinality> entry : new TreeMap<>(cardinalities).entrySet())
+    {
+      final Cardinality cardinality = entry.getValue();
+      values.add(attributeName + "." + entry.getKey()
+          + " reads:" + cardinality.reads.sum()
+          + " avgentries:" + cardinality.getAverage()
+          + " limitexceeded:" + cardinality.limitExceededReads.sum());
+    }
+    return values;
+  }
+}
@@ -0,0 +1,319 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.forgerock.opendj.ldap.ByteSequenceReader;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.types.Control;
+
+/**
+ * Keeps the candidate entry IDs evaluated for the first page of the simple
+ * paged results searches, so that their next pages are served from them
+ * without evaluating the indexes again.
+ * <p>
+ * The paged results cookie of a search having a session contains the ID of
+ * the next entry to be returned, the ID of the session and the position of the
+ * entry in the candidates. The cookies of the searches without session only
+ * contain the ID of the next entry, so that they still work once their session
+ * has been discarded.
+ * <p>
+ * Sessions are discarded once their last page has been returned, when they
+ * have not been used for the configured timeout, and the least recently used
+ * ones when the candidates of all the sessions exceed the configured memory
+ * limit.
+ */
+final class PagedResultsSessions
+{
+  /** The length of the cookies referencing a session. */
+  private static final int SESSION_COOKIE_LENGTH = 20;
+  /** The estimated memory used by a session in addition to its candidates and its signature. */
+  private static final int SESSION_OVERHEAD = 128;
+
+  /** The candidate entries of a simple paged results search. */
+  static final class Session
+  {
+    private final long id;
+    private final String signature;
+    private final long[] entryIDs;
+    private final boolean candidatesAreInScope;
+    private final Control sortResponseControl;
+    private final long memorySize;
+    private long lastAccessTime;
+
+    private Session(long id, String signature, long[] entryIDs, boolean candidatesAreInScope,
+        Control sortResponseControl)
+    {
+      this.id = id;
+      this.signature = signature;
+      this.entryIDs = entryIDs;
+      this.candidatesAreInScope = candidatesAreInScope;
+      this.sortResponseControl = sortResponseControl;
+      this.memorySize = 8L * entryIDs.length + 2L * signature.length() + SESSION_OVERHEAD;
+    }
+
+    /**
+     * Returns the candidate entry IDs, in the order they are returned.
+     *
+     * @return the candidate entry IDs
+     */
+    long[] getEntryIDs()
+    {
+      return entryIDs;
+    }
+
+    /**
+     * Indicates whether it is certain that every candidate entry is in the search scope.
+     *
+     * @return {@code true} if it is certain that every candidate entry is in the search scope
+     */
+    boolean isCandidatesAreInScope()
+    {
+      return candidatesAreInScope;
+    }
+
+    /**
+     * Returns the server side sort response control returned with the first page.
+     *
+     * @return the server side sort response control returned with the first page, or {@code null} if none
+     */
+    Control getSortResponseControl()
+    {
+      return sortResponseControl;
+    }
+
+    /**
+     * Returns the paged results cookie for resuming the search at the provided candidate.
+     *
+     * @param index
+     *          the position of the next entry to be returned in the candidates
+     * @return the paged results cookie for resuming the search at the provided candidate
+     */
+    ByteString newCookie(int index)
+    {
+      return new ByteStringBuilder(SESSION_COOKIE_LENGTH)
+          .appendLong(entryIDs[index])
+          .appendLong(id)
+          .appendInt(index)
+          .toByteString();
+    }
+  }
+
+  private final SecureRandom random = new SecureRandom();
+  /** The sessions, from the least to the most recently used. */
+  private final LinkedHashMap<Long, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+  private long memorySize;
+  private long timeoutMillis;
+  private long memoryLimit;
+
+  /**
+   * Sets the limits of the sessions, discarding the sessions exceeding them.
+   *
+   * @param timeoutMillis
+   *          the time after which an unused session is discarded, 0 to disable the sessions
+   * @param memoryLimit
+   *          the maximum memory used by all the sessions, 0 to disable the sessions
+   */
+  synchronized void setLimits(long timeoutMillis, long memoryLimit)
+  {
+    this.timeoutMillis = timeoutMillis;
+    this.memoryLimit = memoryLimit;
+    evict(System.currentTimeMillis());
+  }
+
+  /**
+   * Indicates whether the candidates of the searches are kept between pages.
+   *
+   * @return {@code true} if the candidates of the searches are kept between pages
+   */
+  synchronized boolean isEnabled()
+  {
+    return timeoutMillis > 0 && memoryLimit > 0;
+  }
+
+  /**
+   * Creates a new session keeping the candidates of a search.
+   *
+   * @param signature
+   *          the parameters of the search the session can be used for
+   * @param entryIDs
+   *          the candidate entry IDs, in the order they are returned
+   * @param candidatesAreInScope
+   *          whether it is certain that every candidate entry is in the search scope
+   * @param sortResponseControl
+   *          the server side sort response control returned with the first page, or {@code null} if none
+   * @return the new session, or {@code null} if the candidates cannot be kept
+   */
+  synchronized Session add(String signature, long[] entryIDs, boolean candidatesAreInScope,
+      Control sortResponseControl)
+  {
+    if (!isEnabled())
+    {
+      return null;
+    }
+
+    long id;
+    do
+    {
+      id = random.nextLong();
+    }
+    while (id == 0 || sessions.containsKey(id));
+
+    final Session session = new Session(id, signature, entryIDs, candidatesAreInScope, sortResponseControl);
+    if (session.memorySize > memoryLimit)
+    {
+      return null;
+    }
+    session.lastAccessTime = System.currentTimeMillis();
+    sessions.put(id, session);
+    memorySize += session.memorySize;
+    evict(session.lastAccessTime);
+    return session;
+  }
+
+  /**
+   * Returns the session referenced by a paged results cookie.
+   *
+   * @param cookie
+   *          the paged results cookie
+   * @param signature
+   *          the parameters of the search using the cookie
+   * @return the session referenced by the cookie, or {@code null} if the cookie does not reference a session, if the
+   *         session has been discarded, or if it was created for another search
+   */
+  synchronized Session get(ByteString cookie, String signature)
+  {
+    if (cookie.length() != SESSION_COOKIE_LENGTH)
+    {
+      return null;
+    }
+    final long now = System.currentTimeMillis();
+    evict(now);
+    final Session session = sessions.get(getSessionID(cookie));
+    if (session == null || !session.signature.equals(signature))
+    {
+      return null;
+    }
+    session.lastAccessTime = now;
+    return session;
+  }
+
+  /**
+   * Discards a session.
+   *
+   * @param session
+   *          the session to discard
+   */
+  synchronized void remove(Session session)
+  {
+    if (sessions.remove(session.id) != null)
+    {
+      memorySize -= session.memorySize;
+    }
+  }
+
+  /**
+   * Discards the session referenced by a paged results cookie, if any.
+   *
+   * @param cookie
+   *          the paged results cookie
+   */
+  synchronized void remove(ByteString cookie)
+  {
+    if (cookie.length() == SESSION_COOKIE_LENGTH)
+    {
+      final Session session = sessions.get(getSessionID(cookie));
+      if (session != null)
+      {
+        remove(session);
+      }
+    }
+  }
+
+  /** Discards all the sessions. */
+  synchronized void clear()
+  {
+    sessions.clear();
+    memorySize = 0;
+  }
+
+  /**
+   * Returns the number of sessions.
+   *
+   * @return the number of sessions
+   */
+  synchronized int size()
+  {
+    return sessions.size();
+  }
+
+  /**
+   * Returns the ID of the next entry to be returned from a paged results cookie.
+   *
+   * @param cookie
+   *          the paged results cookie
+   * @return the ID of the next entry to be returned
+   */
+  static long getEntryID(ByteString cookie)
+  {
+    return cookie.length() == SESSION_COOKIE_LENGTH ? cookie.asReader().readLong() : cookie.toLong();
+  }
+
+  /**
+   * Returns the position of the next entry to be returned in the candidates from a paged results cookie.
+   *
+   * @param cookie
+   *          the paged results cookie
+   * @return the position of the next entry to be returned in the candidates, or -1 if the cookie does not contain it
+   */
+  static int getIndex(ByteString cookie)
+  {
+    if (cookie.length() != SESSION_COOKIE_LENGTH)
+    {
+      return -1;
+    }
+    final ByteSequenceReader reader = cookie.asReader();
+    reader.skip(16);
+    return reader.readInt();
+  }
+
+  private static long getSessionID(ByteString cookie)
+  {
+    final ByteSequenceReader reader = cookie.asReader();
+    reader.skip(8);
+    return reader.readLong();
+  }
+
+  private void evict(long now)
+  {
+    final Iterator<Session> it = sessions.values().iterator();
+    while (it.hasNext())
+    {
+      final Session session = it.next();
+      if (memorySize <= memoryLimit && now - session.lastAccessTime < timeoutMillis)
+      {
+        // The next sessions have been used more recently
+        return;
+      }
+      it.remove();
+      memorySize -= session.memorySize;
+    }
+  }
+}
@@ -0,0 +1,369 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.backends.pluggable.spi.ReadOperation;
+import org.opends.server.backends.pluggable.spi.ReadableTransaction;
+import org.opends.server.backends.pluggable.spi.Storage;
+import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
+import org.opends.server.core.SearchOperation;
+import org.opends.server.types.CanceledOperationException;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Entry;
+
+/**
+ * Scans the candidate entries of a search in parallel.
+ * <p>
+ * The candidates are split into chunks, whose entries are read and matched
+ * against the search by the threads of an executor, each chunk in its own read
+ * transaction. The matching entries are handed back in the order of the
+ * candidates to the thread processing the search, which returns them to the
+ * client. This thread only lets a bounded number of chunks be scanned ahead of
+ * it, so that the size and time limits, paged results and sort controls are
+ * enforced exactly as for a sequential scan, without reading much more entries
+ * than a sequential scan would.
+ */
+final class ParallelSearch implements Closeable
+{
+  /** The maximum number of candidate entries in a chunk. */
+  static final int CHUNK_SIZE = 256;
+
+  /** A candidate entry of the search. */
+  static final class Candidate
+  {
+    private final EntryID entryID;
+    private final ByteString cookie;
+    /** Whether the entry exists. */
+    private boolean read;
+    /** The entry, if it matches the search. */
+    private Entry entry;
+
+    /**
+     * Creates a new candidate entry.
+     *
+     * @param entryID
+     *          The ID of the candidate entry.
+     * @param cookie
+     *          The paged results cookie for resuming the search at this entry, or {@code null} to use its ID.
+     */
+    Candidate(EntryID entryID, ByteString cookie)
+    {
+      this.entryID = entryID;
+      this.cookie = cookie;
+    }
+
+    /**
+     * Returns the matching entry.
+     *
+     * @return The matching entry.
+     */
+    Entry getEntry()
+    {
+      return entry;
+    }
+
+    /**
+     * Returns the paged results cookie for resuming the search at this entry.
+     *
+     * @return The paged results cookie for resuming the search at this entry.
+     */
+    ByteString getCookie()
+    {
+      return cookie != null ? cookie : entryID.toByteString();
+    }
+  }
+
+  /** Provides the candidate entries of a search, chunk after chunk. */
+  interface CandidateSource
+  {
+    /**
+     * Returns the next chunk of candidate entries, in the order they must be returned.
+     *
+     * @return The next chunk of at most {@link ParallelSearch#CHUNK_SIZE} candidate entries, or {@code null} if
+     *         there are no more candidates.
+     */
+    List<Candidate> nextChunk();
+  }
+
+  /** Reads the candidate entries and matches them against the search. Invoked concurrently. */
+  interface CandidateMatcher
+  {
+    /**
+     * Reads a candidate entry.
+     *
+     * @param txn
+     *          The read transaction to use.
+     * @param entryID
+     *          The ID of the candidate entry.
+     * @return The entry, or {@code null} if it does not exist.
+     * @throws DirectoryException
+     *           If the entry could not be read.
+     */
+    Entry getEntry(ReadableTransaction txn, EntryID entryID) throws DirectoryException;
+
+    /**
+     * Indicates whether a candidate entry matches the search.
+     *
+     * @param entry
+     *          The candidate entry.
+     * @return {@code true} if the entry must be returned to the client.
+     * @throws DirectoryException
+     *           If the entry could not be matched.
+     */
+    boolean matches(Entry entry) throws DirectoryException;
+  }
+
+  private final ExecutorService executor;
+  private final Storage storage;
+  private final ReadableTransaction txn;
+  private final SearchOperation searchOperation;
+  private final CandidateSource source;
+  private final CandidateMatcher matcher;
+  private final int lookthroughLimit;
+  /** The maximum number of chunks being scanned ahead of the thread processing the search. */
+  private final int maxPendingChunks;
+
+  private final Deque<Future<List<Candidate>>> pendingChunks = new ArrayDeque<>();
+  private Iterator<Candidate> currentChunk;
+  private boolean sourceExhausted;
+  private int lookthroughCount;
+  private boolean lookthroughLimitExceeded;
+  /** Tells the chunks still being scanned that their result is no longer needed. */
+  private volatile boolean closed;
+
+  /**
+   * Creates a new parallel scan of the candidate entries of a search.
+   *
+   * @param executor
+   *          The executor scanning the chunks of candidate entries.
+   * @param parallelism
+   *          The number of threads of the executor.
+   * @param storage
+   *          The storage the entries are read from.
+   * @param txn
+   *          The read transaction of the thread processing the search.
+   * @param searchOperation
+   *          The search operation.
+   * @param source
+   *          The source of the candidate entries.
+   * @param matcher
+   *          Reads the candidate entries and matches them against the search.
+   * @param lookthroughLimit
+   *          The maximum number of entries to read, or 0 for no limit.
+   */
+  ParallelSearch(ExecutorService executor, int parallelism, Storage storage, ReadableTransaction txn,
+      SearchOperation searchOperation, CandidateSource source, CandidateMatcher matcher, int lookthroughLimit)
+  {
+    this.executor = executor;
+    this.storage = storage;
+    this.txn = txn;
+    this.searchOperation = searchOperation;
+    this.source = source;
+    this.matcher = matcher;
+    this.lookthroughLimit = lookthroughLimit;
+    this.maxPendingChunks = 2 * parallelism;
+  }
+
+  /**
+   * Returns the next candidate entry matching the search, in the order of the candidates.
+   *
+   * @return The next matching candidate entry, or {@code null} if there are no more matching candidates or if the
+   *         lookthrough limit has been exceeded.
+   * @throws DirectoryException
+   *           If a candidate entry could not be read or matched.
+   * @throws CanceledOperationException
+   *           If the search has been canceled.
+   */
+  Candidate nextMatch() throws DirectoryException, CanceledOperationException
+  {
+    while (true)
+    {
+      if (currentChunk == null || !currentChunk.hasNext())
+      {
+        currentChunk = null;
+        searchOperation.checkIfCanceled(false);
+        submitChunks();
+        final Future<List<Candidate>> chunk = pendingChunks.poll();
+        if (chunk == null)
+        {
+          return null;
+        }
+        if (!chunk.isDone())
+        {
+          // Do not keep the entries already returned buffered while waiting for the next ones
+          searchOperation.getClientConnection().flushBufferedResponses(searchOperation.getMessageID(), true);
+        }
+        currentChunk = getResult(chunk).iterator();
+        continue;
+      }
+
+      final Candidate candidate = currentChunk.next();
+      if (lookthroughLimit > 0 && lookthroughCount > lookthroughLimit)
+      {
+        lookthroughLimitExceeded = true;
+        return null;
+      }
+      if (candidate.read)
+      {
+        lookthroughCount++;
+      }
+      if (candidate.entry != null)
+      {
+        return candidate;
+      }
+    }
+  }
+
+  /**
+   * Indicates whether the scan stopped because the lookthrough limit has been exceeded.
+   *
+   * @return {@code true} if the lookthrough limit has been exceeded.
+   */
+  boolean isLookthroughLimitExceeded()
+  {
+    return lookthroughLimitExceeded;
+  }
+
+  private void submitChunks()
+  {
+    while (!sourceExhausted && pendingChunks.size() < maxPendingChunks)
+    {
+      final List<Candidate> candidates = source.nextChunk();
+      if (candidates == null)
+      {
+        sourceExhausted = true;
+        return;
+      }
+
+      if (pendingChunks.isEmpty() && candidates.size() < CHUNK_SIZE)
+      {
+        // Small searches, and the last chunk when nothing else is pending, are cheaper to scan right away
+        final FutureTask<List<Candidate>> task = new FutureTask<>(new ScanTask(candidates, txn));
+        task.run();
+        pendingChunks.add(task);
+        continue;
+      }
+
+      final FutureTask<List<Candidate>> task = new FutureTask<>(new ScanTask(candidates, null));
+      try
+      {
+        executor.execute(task);
+      }
+      catch (RejectedExecutionException e)
+      {
+        // The executor has been shut down by a configuration change
+        task.run();
+      }
+      pendingChunks.add(task);
+    }
+  }
+
+  private List<Candidate> getResult(Future<List<Candidate>> chunk) throws DirectoryException
+  {
+    try
+    {
+      return chunk.get();
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new StorageRuntimeException(e);
+    }
+    catch (ExecutionException e)
+    {
+      final Throwable cause = e.getCause();
+      if (cause instanceof DirectoryException)
+      {
+        throw (DirectoryException) cause;
+      }
+      else if (cause instanceof RuntimeException)
+      {
+        throw (RuntimeException) cause;
+      }
+      else if (cause instanceof Error)
+      {
+        throw (Error) cause;
+      }
+      throw new StorageRuntimeException(cause);
+    }
+  }
+
+  @Override
+  public void close()
+  {
+    closed = true;
+    for (Future<List<Candidate>> chunk : pendingChunks)
+    {
+      chunk.cancel(false);
+    }
+    pendingChunks.clear();
+  }
+
+  /** Reads and matches a chunk of candidate entries. */
+  private final class ScanTask implements Callable<List<Candidate>>, ReadOperation<List<Candidate>>
+  {
+    private final List<Candidate> candidates;
+    /** The read transaction to use, or {@code null} to open a new one. */
+    private final ReadableTransaction scanTxn;
+
+    private ScanTask(List<Candidate> candidates, ReadableTransaction scanTxn)
+    {
+      this.candidates = candidates;
+      this.scanTxn = scanTxn;
+    }
+
+    @Override
+    public List<Candidate> call() throws Exception
+    {
+      return scanTxn != null ? run(scanTxn) : storage.read(this);
+    }
+
+    @Override
+    public List<Candidate> run(ReadableTransaction txn) throws Exception
+    {
+      for (Candidate candidate : candidates)
+      {
+        if (closed)
+        {
+          break;
+        }
+        final Entry entry = matcher.getEntry(txn, candidate.entryID);
+        if (entry != null)
+        {
+          candidate.read = true;
+          if (matcher.matches(entry))
+          {
+            candidate.entry = entry;
+          }
+        }
+      }
+      return candidates;
+    }
+  }
+}
@@ -26,6 +26,9 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.forgerock.i18n.LocalizableMessage;
@@ -70,6 +73,10 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
   private volatile PluggableBackendCfg config;
   /** The monitor for this backend. */
   private BackendMonitor monitor;
+  /** The pool scanning the candidate entries of the searches in parallel, null if searches are sequential. */
+  private volatile ForkJoinPool searchPool;
+  /** The candidate entries kept between the pages of the simple paged results searches. */
+  private final PagedResultsSessions pagedResultsSessions = new PagedResultsSessions();
 
   /** The base DNs contained in this root container. */
   private final ConcurrentMap<DN, EntryContainer> entryContainers = new ConcurrentHashMap<>();
@@ -102,6 +109,9 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
 
     getMonitorProvider().enableFilterUseStats(config.isIndexFilterAnalyzerEnabled());
     getMonitorProvider().setMaxEntries(config.getIndexFilterAnalyzerMaxFilters());
+    configureSearchPool(config.getSearchParallelism());
+    pagedResultsSessions.setLimits(
+        config.getPagedResultsSessionTimeout(), config.getPagedResultsSessionMemoryLimit());
 
     config.addPluggableChangeListener(this);
   }
@@ -116,6 +126,55 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
     return storage;
   }
 
+  /**
+   * Returns the pool scanning the candidate entries of the searches in parallel.
+   *
+   * @return the pool scanning the candidate entries of the searches, or {@code null} if searches are sequential
+   */
+  ForkJoinPool getSearchPool()
+  {
+    return searchPool;
+  }
+
+  /**
+   * Returns the candidate entries kept between the pages of the simple paged results searches.
+   *
+   * @return the candidate entries kept between the pages of the simple paged results searches
+   */
+  PagedResultsSessions getPagedResultsSessions()
+  {
+    return pagedResultsSessions;
+  }
+
+  private synchronized void configureSearchPool(int parallelism)
+  {
+    final ForkJoinPool oldPool = searchPool;
+    if (oldPool != null && oldPool.getParallelism() == parallelism)
+    {
+      return;
+    }
+    searchPool = parallelism > 0 ? newSearchPool(parallelism) : null;
+    if (oldPool != null)
+    {
+      // Searches still holding the old pool scan their remaining chunks themselves
+      oldPool.shutdown();
+    }
+  }
+
+  private ForkJoinPool newSearchPool(int parallelism)
+  {
+    return new ForkJoinPool(parallelism, new ForkJoinWorkerThreadFactory()
+    {
+      @Override
+      public ForkJoinWorkerThread newThread(ForkJoinPool pool)
+      {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("Parallel Search " + backendId + " " + thread.getPoolIndex());
+        return thread;
+      }
+    }, null, false);
+  }
+
   /**
    * Opens the root container.
    *
@@ -333,6 +392,8 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
       }
     }
     config.removePluggableChangeListener(this);
+    configureSearchPool(0);
+    pagedResultsSessions.clear();
     if (storage != null)
     {
       storage.close();
@@ -452,6 +513,9 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
     config = configuration;
     getMonitorProvider().enableFilterUseStats(config.isIndexFilterAnalyzerEnabled());
     getMonitorProvider().setMaxEntries(config.getIndexFilterAnalyzerMaxFilters());
+    configureSearchPool(config.getSearchParallelism());
+    pagedResultsSessions.setLimits(
+        config.getPagedResultsSessionTimeout(), config.getPagedResultsSessionMemoryLimit());
 
     return new ConfigChangeResult();
   }
@@ -0,0 +1,305 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import static java.nio.file.StandardOpenOption.*;
+import static org.forgerock.util.Utils.*;
+import static org.opends.server.util.StaticUtils.*;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.backends.pluggable.OnDiskMergeImporter.BufferPool;
+import org.opends.server.backends.pluggable.OnDiskMergeImporter.ExternalSortChunk.CompositeCursor;
+import org.opends.server.backends.pluggable.OnDiskMergeImporter.ExternalSortChunk.FileRegion;
+import org.opends.server.backends.pluggable.OnDiskMergeImporter.ExternalSortChunk.InMemorySortedChunk;
+import org.opends.server.backends.pluggable.OnDiskMergeImporter.MeteredCursor;
+import org.opends.server.backends.pluggable.spi.SequentialCursor;
+
+/**
+ * Sorts the entries matching a search on the values of their server side sort keys, in bounded memory.
+ * <p>
+ * Only the (encoded sort keys, entry ID) records are sorted, the entries are read again when they are returned. The
+ * records are kept in memory until they exceed a memory limit. Beyond it, they are sorted in a fixed-size buffer,
+ * like the chunks of the on-disk merge importer, and each full buffer is written as a sorted run to a temporary file.
+ * Reading the records merges the runs and the last buffer.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class ServerSideSorter implements Closeable
+{
+  /** The default maximum number of bytes of records kept in memory by a sort. */
+  static final int DEFAULT_MEMORY_LIMIT = 8 * 1024 * 1024;
+  /** The directory, relative to the server root, where the runs are written. */
+  private static final String TMP_DIR = "sort-tmp";
+  /** The estimated number of bytes used by an in-memory record in addition to its sort key. */
+  private static final int RECORD_OVERHEAD = 96;
+  private static final String NAME = "server-side-sort";
+
+  private final String backendID;
+  private final int memoryLimit;
+  private int size;
+
+  /** The records, while they fit in memory. */
+  private TreeMap<ByteString, EntryID> records = new TreeMap<>();
+  private long recordsSize;
+
+  /** The records not written yet, once they no longer fit in memory. */
+  private InMemorySortedChunk chunk;
+  private BufferPool bufferPool;
+  private File file;
+  private FileChannel channel;
+  /** The offsets and sizes of the sorted runs in the file. */
+  private final List<long[]> runs = new ArrayList<>();
+  private long filePosition;
+  private SequentialCursor<ByteString, EntryID> cursor;
+
+  /**
+   * Creates a new sort.
+   *
+   * @param backendID
+   *          the ID of the backend, naming the directory of the temporary files
+   * @param memoryLimit
+   *          the maximum number of bytes of records kept in memory
+   */
+  ServerSideSorter(String backendID, int memoryLimit)
+  {
+    this.backendID = backendID;
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * Adds a record to sort.
+   *
+   * @param sortKey
+   *          the encoded sort keys of the entry, which must be unique
+   * @param entryID
+   *          the ID of the entry
+   * @throws IOException
+   *           if the records could not be written to a temporary file
+   */
+  void add(ByteString sortKey, EntryID entryID) throws IOException
+  {
+    size++;
+    if (records == null)
+    {
+      put(sortKey, entryID);
+      return;
+    }
+
+    records.put(sortKey, entryID);
+    recordsSize += sortKey.length() + RECORD_OVERHEAD;
+    if (recordsSize > memoryLimit)
+    {
+      openTempFile();
+      for (Map.Entry<ByteString, EntryID> record : records.entrySet())
+      {
+        put(record.getKey(), record.getValue());
+      }
+      records = null;
+    }
+  }
+
+  /**
+   * Returns the number of records added to this sort.
+   *
+   * @return the number of records added to this sort
+   */
+  int size()
+  {
+    return size;
+  }
+
+  /**
+   * Indicates whether the records exceeded the memory limit, and are sorted through a temporary file.
+   *
+   * @return {@code true} if the records are sorted through a temporary file
+   */
+  boolean isSpilled()
+  {
+    return records == null;
+  }
+
+  /**
+   * Returns a cursor over the records, ordered by their sort keys. No more records can be added afterwards, and this
+   * method must be called only once. The cursor is closed with this sort.
+   *
+   * @return a cursor over the records, ordered by their sort keys
+   * @throws IOException
+   *           if the runs could not be read from the temporary file
+   */
+  SequentialCursor<ByteString, EntryID> flip() throws IOException
+  {
+    if (records != null)
+    {
+      cursor = new RecordCursor(records.entrySet().iterator(), null);
+      return cursor;
+    }
+
+    final List<MeteredCursor<ByteString, ByteString>> cursors = new ArrayList<>(runs.size() + 1);
+    for (long[] run : runs)
+    {
+      cursors.add(new FileRegion.Cursor(NAME, channel.map(MapMode.READ_ONLY, run[0], run[1])));
+    }
+    // The last buffer is merged without being written
+    cursors.add(chunk.flip());
+    chunk = null;
+    cursor = new RecordCursor(null, new CompositeCursor<>(NAME, cursors));
+    return cursor;
+  }
+
+  private void openTempFile() throws IOException
+  {
+    final File dir = new File(getFileForPath(TMP_DIR), backendID);
+    Files.createDirectories(dir.toPath());
+    file = File.createTempFile("sort", null, dir);
+    channel = FileChannel.open(file.toPath(), READ, WRITE, SPARSE);
+    bufferPool = new BufferPool(1, memoryLimit, false);
+    chunk = new InMemorySortedChunk(NAME, bufferPool);
+  }
+
+  private void put(ByteString sortKey, EntryID entryID) throws IOException
+  {
+    final ByteString value = entryID.toByteString();
+    if (!chunk.put(sortKey, value))
+    {
+      writeRun();
+      chunk = new InMemorySortedChunk(NAME, bufferPool);
+      chunk.put(sortKey, value);
+    }
+  }
+
+  /** Sorts the full buffer and appends it as a run to the temporary file, releasing the buffer. */
+  private void writeRun() throws IOException
+  {
+    try (FileRegion region = new FileRegion(channel, filePosition, chunk.size());
+        SequentialCursor<ByteString, ByteString> sortedRecords = chunk.flip())
+    {
+      final int runSize = region.write(sortedRecords);
+      runs.add(new long[] { filePosition, runSize });
+      filePosition += runSize;
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+  }
+
+  @Override
+  public void close()
+  {
+    closeSilently(cursor, channel);
+    if (file != null && !file.delete())
+    {
+      // The runs may still be memory-mapped on Windows
+      file.deleteOnExit();
+    }
+    if (bufferPool != null)
+    {
+      bufferPool.close();
+    }
+  }
+
+  /** Cursor over the in-memory records, or over the merged runs. */
+  private static final class RecordCursor implements SequentialCursor<ByteString, EntryID>
+  {
+    private final Iterator<Map.Entry<ByteString, EntryID>> inMemoryRecords;
+    private final SequentialCursor<ByteString, ByteString> mergedRecords;
+    private ByteString key;
+    private EntryID value;
+
+    private RecordCursor(Iterator<Map.Entry<ByteString, EntryID>> inMemoryRecords,
+        SequentialCursor<ByteString, ByteString> mergedRecords)
+    {
+      this.inMemoryRecords = inMemoryRecords;
+      this.mergedRecords = mergedRecords;
+    }
+
+    @Override
+    public boolean next()
+    {
+      if (inMemoryRecords != null && inMemoryRecords.hasNext())
+      {
+        final Map.Entry<ByteString, EntryID> record = inMemoryRecords.next();
+        key = record.getKey();
+        value = record.getValue();
+        return true;
+      }
+      if (mergedRecords != null && mergedRecords.next())
+      {
+        key = mergedRecords.getKey();
+        value = new EntryID(mergedRecords.getValue());
+        return true;
+      }
+      key = null;
+      value = null;
+      return false;
+    }
+
+    @Override
+    public boolean isDefined()
+    {
+      return key != null;
+    }
+
+    @Override
+    public ByteString getKey() throws NoSuchElementException
+    {
+      throwIfUndefined();
+      return key;
+    }
+
+    @Override
+    public EntryID getValue() throws NoSuchElementException
+    {
+      throwIfUndefined();
+      return value;
+    }
+
+    private void throwIfUndefined()
+    {
+      if (!isDefined())
+      {
+        throw new NoSuchElementException();
+      }
+    }
+
+    @Override
+    public void delete() throws NoSuchElementException, UnsupportedOperationException
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close()
+    {
+      closeSilently(mergedRecords);
+    }
+  }
+}
@@ -55,7 +55,10 @@ class State extends AbstractTree
     TRUSTED(0x01),
 
     /** Use compact encoding for indexes' ID storage. */
-    COMPACTED(0x02);
+    COMPACTED(0x02),
+
+    /** Use compressed bitmap encoding for indexes' ID storage, takes precedence over COMPACTED. */
+    BITMAP(0x04);
 
     static final EnumSet<IndexFlag> ALL_FLAGS = EnumSet.allOf(IndexFlag.class);
 
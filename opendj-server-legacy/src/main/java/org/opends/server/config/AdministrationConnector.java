@@ -98,7 +98,12 @@ public final class AdministrationConnector implements
   /** 5 Mb. */
   private static final int ADMIN_MAX_REQUEST_SIZE = 5000000;
   private static final int ADMIN_WRITE_BUFFER_SIZE = 4096;
+  /** Responses are written as soon as they are produced. */
+  private static final int ADMIN_WRITE_BATCH_SIZE = 0;
   private static final int ADMIN_NUM_REQUEST_HANDLERS = 1;
+  private static final int ADMIN_MAX_CONCURRENT_OPS_PER_CONNECTION = 1024;
+  private static final int ADMIN_MAX_PENDING_RESPONSES_PER_OPERATION = 128;
+  private static final int ADMIN_MAX_IDLE_TLS_BUFFERS = 256;
   private static final boolean ADMIN_SEND_REJECTION_NOTICE = true;
   private static final boolean ADMIN_USE_TCP_KEEP_ALIVE = true;
   private static final boolean ADMIN_USE_TCP_NO_DELAY = true;
@@ -293,12 +298,36 @@ public final class AdministrationConnector implements
       return ADMIN_WRITE_BUFFER_SIZE;
     }
 
+    @Override
+    public long getWriteBatchSize()
+    {
+      return ADMIN_WRITE_BATCH_SIZE;
+    }
+
     @Override
     public Integer getNumRequestHandlers()
     {
       return ADMIN_NUM_REQUEST_HANDLERS;
     }
 
+    @Override
+    public int getMaxConcurrentOpsPerConnection()
+    {
+      return ADMIN_MAX_CONCURRENT_OPS_PER_CONNECTION;
+    }
+
+    @Override
+    public int getMaxPendingResponsesPerOperation()
+    {
+      return ADMIN_MAX_PENDING_RESPONSES_PER_OPERATION;
+    }
+
+    @Override
+    public int getMaxIdleTLSBuffers()
+    {
+      return ADMIN_MAX_IDLE_TLS_BUFFERS;
+    }
+
     @Override
     public boolean isSendRejectionNotice()
     {
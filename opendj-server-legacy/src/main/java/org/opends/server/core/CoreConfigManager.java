@@ -179,9 +179,16 @@ public class CoreConfigManager implements ConfigurationChangeListener<GlobalCfg>
     applyGlobalConfiguration(globalConfig, coreAttrs);
     applySubordinateDNsChange(globalConfig, coreAttrs);
     coreAttributes = coreAttrs;
+    applyPersistentSearchConfiguration(globalConfig);
     DirectoryServer.resetDefaultPasswordPolicy();
   }
 
+  private static void applyPersistentSearchConfiguration(GlobalCfg globalConfig)
+  {
+    DirectoryServer.getPersistentSearchDispatcher().configure(globalConfig.isAsynchronousPersistentSearchNotification(),
+        globalConfig.getMaxPersistentSearchDeliveryThreads());
+  }
+
   /**
    * Applies the settings in the provided configuration to the Directory Server.
    *
@@ -517,6 +524,7 @@ public class CoreConfigManager implements ConfigurationChangeListener<GlobalCfg>
     if (changeResult.getResultCode() == ResultCode.SUCCESS)
     {
       coreAttributes = coreAttrs;
+      applyPersistentSearchConfiguration(configuration);
       DirectoryServer.resetDefaultPasswordPolicy();
     }
     return changeResult;
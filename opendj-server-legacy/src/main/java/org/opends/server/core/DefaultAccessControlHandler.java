@@ -130,6 +130,12 @@ class DefaultAccessControlHandler
     return;
   }
 
+  @Override
+  public boolean mayReturnUnfilteredEntries(SearchOperation searchOperation)
+  {
+    return true;
+  }
+
   @Override
   public boolean maySend(DN dn, Operation operation,
                          SearchResultReference searchReference)
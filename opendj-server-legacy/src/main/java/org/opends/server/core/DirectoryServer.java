@@ -422,6 +422,9 @@ public final class DirectoryServer
   /** The current active persistent searches. */
   private final AtomicInteger activePSearches = new AtomicInteger(0);
 
+  /** The dispatcher notifying the persistent searches of the changes made to the local backends. */
+  private final PersistentSearchDispatcher persistentSearchDispatcher = new PersistentSearchDispatcher();
+
   /** The key manager provider configuration manager for the Directory Server. */
   private KeyManagerProviderConfigManager keyManagerProviderConfigManager;
 
@@ -4108,6 +4111,7 @@ public final class DirectoryServer
       directoryServer.workQueue.finalizeWorkQueue(reason);
       directoryServer.workQueue.waitUntilIdle(ServerShutdownMonitor.WAIT_TIME);
     }
+    directoryServer.persistentSearchDispatcher.shutdown();
 
     // shutdown replication
     for (SynchronizationProvider<?> provider : directoryServer.synchronizationProviders)
@@ -4549,6 +4553,17 @@ public final class DirectoryServer
     directoryServer.activePSearches.decrementAndGet();
   }
 
+  /**
+   * Retrieves the dispatcher notifying the persistent searches of the changes
+   * made to the entries of the local backends.
+   *
+   * @return  The persistent search dispatcher.
+   */
+  public static PersistentSearchDispatcher getPersistentSearchDispatcher()
+  {
+    return directoryServer.persistentSearchDispatcher;
+  }
+
   /**
    * Indicates whether a new persistent search is allowed.
    *
@@ -23,15 +23,21 @@ import static org.opends.server.protocols.internal.Requests.*;
 import static org.opends.server.util.ServerConstants.*;
 import static org.opends.server.util.StaticUtils.*;
 
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -102,6 +108,12 @@ public class GroupManager extends InternalDirectoryServerPlugin
   /** Used by group instances to determine if new groups have been registered or groups deleted. */
   private volatile long refreshToken;
 
+  /**
+   * Used by the callers caching membership checks to determine if the membership of any group
+   * may have changed. It is updated whenever the refresh token is updated.
+   */
+  private final AtomicLong membershipToken = new AtomicLong();
+
   /** A mapping between the DNs of the config entries and the associated group implementations. */
   private ConcurrentMap<DN, Group<?>> groupImplementations;
 
@@ -111,6 +123,17 @@ public class GroupManager extends InternalDirectoryServerPlugin
   /** Lock to protect internal data structures. */
   private final ReadWriteLock lock;
 
+  /**
+   * The reverse membership index of the groups with an explicit member list.
+   * It is not protected by the lock, because the group instances report
+   * changes to their member list while holding their own lock.
+   */
+  private final GroupMembershipIndex membershipIndex = new GroupMembershipIndex();
+  /** The registered group instances whose members are indexed, keyed by group DN. */
+  private final ConcurrentMap<DN, IndexedGroup> indexedGroups = new ConcurrentHashMap<>();
+  /** The registered group instances whose members cannot be indexed, keyed by group DN. */
+  private final ConcurrentMap<DN, Group<?>> nonIndexedGroups = new ConcurrentHashMap<>();
+
   /** Dummy configuration DN for Group Manager. */
   private static final String CONFIG_DN = "cn=Group Manager,cn=config";
 
@@ -270,6 +293,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
           if (g.getClass().getName().equals(group.getClass().getName()))
           {
             iterator.remove();
+            unindexGroup(g);
           }
         }
       }
@@ -331,6 +355,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
               if (g.getClass().getName().equals(group.getClass().getName()))
               {
                 iterator.remove();
+                unindexGroup(g);
               }
             }
           }
@@ -580,8 +605,9 @@ public class GroupManager extends InternalDirectoryServerPlugin
             try
             {
               Group<?> groupInstance = groupImplementation.newInstance(serverContext, entry);
-              groupInstances.put(entry.getName(), groupInstance);
+              registerGroup(entry.getName(), groupInstance);
               refreshToken++;
+              membershipToken.incrementAndGet();
             }
             catch (DirectoryException e)
             {
@@ -616,6 +642,8 @@ public class GroupManager extends InternalDirectoryServerPlugin
         if (backend.handlesEntry(groupEntryDN))
         {
           iterator.remove();
+          unindexGroup(mapEntry.getValue());
+          membershipToken.incrementAndGet();
         }
       }
     }
@@ -623,11 +651,36 @@ public class GroupManager extends InternalDirectoryServerPlugin
     {
       lock.writeLock().unlock();
     }
+    clearMemberCaches();
   }
 
   @Override
   public void performBackendPostInitializationProcessing(LocalBackend<?> backend) {
-    // Nothing to do.
+    // The entries may have been replaced while the backend was offline
+    clearMemberCaches();
+  }
+
+  /** Discards the members kept in memory by the groups computing them from the entries. */
+  private void clearMemberCaches()
+  {
+    for (Group<?> group : nonIndexedGroups.values())
+    {
+      group.clearMemberCache();
+    }
+    membershipToken.incrementAndGet();
+  }
+
+  /**
+   * Notifies the groups computing their members from the entries of a change to an entry.
+   *
+   * @see Group#entryChanged(Entry, Entry)
+   */
+  private void notifyEntryChanged(Entry oldEntry, Entry newEntry)
+  {
+    for (Group<?> group : nonIndexedGroups.values())
+    {
+      group.entryChanged(oldEntry, newEntry);
+    }
   }
 
   @Override
@@ -642,6 +695,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
    */
   private void doPostAdd(PluginOperation addOperation, Entry entry)
   {
+    notifyEntryChanged(null, entry);
     if (hasGroupMembershipUpdateControl(addOperation))
     {
       return;
@@ -672,6 +726,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
    */
   private void doPostDelete(PluginOperation deleteOperation, Entry entry)
   {
+    notifyEntryChanged(entry, null);
     if (hasGroupMembershipUpdateControl(deleteOperation))
     {
       return;
@@ -680,9 +735,15 @@ public class GroupManager extends InternalDirectoryServerPlugin
     lock.writeLock().lock();
     try
     {
-      if (groupInstances.removeSubtree(entry.getName(), null))
+      List<Group<?>> removedGroups = new ArrayList<>();
+      if (groupInstances.removeSubtree(entry.getName(), removedGroups))
       {
+        for (Group<?> group : removedGroups)
+        {
+          unindexGroup(group);
+        }
         refreshToken++;
+        membershipToken.incrementAndGet();
       }
     }
     finally
@@ -721,6 +782,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
           Entry oldEntry, Entry newEntry,
           List<Modification> modifications)
   {
+    notifyEntryChanged(oldEntry, newEntry);
     if (hasGroupMembershipUpdateControl(modifyOperation))
     {
       return;
@@ -752,12 +814,14 @@ public class GroupManager extends InternalDirectoryServerPlugin
             || updatesObjectClass(modifications))
         {
           groupInstances.remove(oldEntry.getName());
+          unindexGroup(group);
           // This updates the refreshToken
           createAndRegisterGroup(newEntry);
         }
         else
         {
           group.updateMembers(modifications);
+          membershipToken.incrementAndGet();
         }
       }
     }
@@ -781,6 +845,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
   private void doPostModifyDN(PluginOperation modifyDNOperation,
           Entry oldEntry, Entry newEntry)
   {
+    notifyEntryChanged(oldEntry, newEntry);
     if (hasGroupMembershipUpdateControl(modifyDNOperation))
     {
       return;
@@ -797,12 +862,14 @@ public class GroupManager extends InternalDirectoryServerPlugin
       {
         final DN groupDN = group.getGroupDN();
         final DN renamedGroupDN = groupDN.rename(oldDN, newDN);
+        unindexGroup(group);
         group.setGroupDN(renamedGroupDN);
-        groupInstances.put(renamedGroupDN, group);
+        registerGroup(renamedGroupDN, group);
       }
       if (!groupSet.isEmpty())
       {
         refreshToken++;
+        membershipToken.incrementAndGet();
       }
     }
     finally
@@ -942,8 +1009,9 @@ public class GroupManager extends InternalDirectoryServerPlugin
           lock.writeLock().lock();
           try
           {
-            groupInstances.put(entry.getName(), groupInstance);
+            registerGroup(entry.getName(), groupInstance);
             refreshToken++;
+            membershipToken.incrementAndGet();
           }
           finally
           {
@@ -958,6 +1026,286 @@ public class GroupManager extends InternalDirectoryServerPlugin
     }
   }
 
+  /**
+   * Registers the provided group instance, replacing any group instance
+   * registered with the same DN. The caller must hold the write lock.
+   */
+  private void registerGroup(DN groupDN, Group<?> group)
+  {
+    Group<?> previousGroup = groupInstances.put(groupDN, group);
+    if (previousGroup != null)
+    {
+      unindexGroup(previousGroup);
+    }
+    indexGroup(group);
+  }
+
+  /**
+   * A group instance whose members are indexed. The changes to its member
+   * list which are reported while its members are being read are recorded,
+   * then replayed in order over the members read. Each change sets whether a
+   * DN is a member, so the replay leaves the index consistent with the member
+   * list, whether the member list read includes a change or not.
+   */
+  private static final class IndexedGroup
+  {
+    private final Group<?> group;
+    /**
+     * The members added ({@code TRUE}) and removed ({@code FALSE}) while the
+     * members are read, {@code null} once they are indexed. Guarded by this.
+     */
+    private List<Map.Entry<DN, Boolean>> pendingChanges = new ArrayList<>();
+    /** Whether the group has been unindexed, its changes are then ignored. Guarded by this. */
+    private boolean unindexed;
+
+    private IndexedGroup(Group<?> group)
+    {
+      this.group = group;
+    }
+  }
+
+  /**
+   * Adds the members of the provided group instance to the membership index.
+   * The calls to this method and to {@link #unindexGroup(Group)} must be
+   * serialized, which is done by holding the write lock.
+   */
+  void indexGroup(Group<?> group)
+  {
+    final DN groupDN = group.getGroupDN();
+    if (!group.hasExplicitMemberList())
+    {
+      nonIndexedGroups.put(groupDN, group);
+      return;
+    }
+
+    // Register the group before reading its members, so that the updates of
+    // the member list reported meanwhile are recorded and replayed. The group
+    // lock cannot be held while indexing: the groups call getGroupInstance(),
+    // which needs the lock of this group manager, while holding their own lock.
+    final IndexedGroup indexedGroup = new IndexedGroup(group);
+    indexedGroups.put(groupDN, indexedGroup);
+    final Collection<DN> memberDNs = group.getExplicitMemberDNs();
+    synchronized (indexedGroup)
+    {
+      for (DN memberDN : memberDNs)
+      {
+        membershipIndex.add(memberDN, groupDN);
+      }
+      for (Map.Entry<DN, Boolean> change : indexedGroup.pendingChanges)
+      {
+        updateIndex(groupDN, change.getKey(), change.getValue());
+      }
+      indexedGroup.pendingChanges = null;
+    }
+  }
+
+  /**
+   * Removes the members of the provided group instance from the membership index.
+   *
+   * @see #indexGroup(Group)
+   */
+  void unindexGroup(Group<?> group)
+  {
+    final DN groupDN = group.getGroupDN();
+    if (!group.hasExplicitMemberList())
+    {
+      nonIndexedGroups.remove(groupDN, group);
+      return;
+    }
+
+    final IndexedGroup indexedGroup = indexedGroups.get(groupDN);
+    if (indexedGroup != null && indexedGroup.group == group && indexedGroups.remove(groupDN, indexedGroup))
+    {
+      synchronized (indexedGroup)
+      {
+        indexedGroup.unindexed = true;
+      }
+      // The groups report their changes while holding their lock, so the
+      // member list read includes all the changes applied to the index
+      for (DN memberDN : group.getExplicitMemberDNs())
+      {
+        membershipIndex.remove(memberDN, groupDN);
+      }
+    }
+  }
+
+  private void memberChanged(Group<?> group, DN memberDN, boolean added)
+  {
+    final DN groupDN = group.getGroupDN();
+    final IndexedGroup indexedGroup = indexedGroups.get(groupDN);
+    if (indexedGroup != null && indexedGroup.group == group)
+    {
+      synchronized (indexedGroup)
+      {
+        if (indexedGroup.pendingChanges != null)
+        {
+          indexedGroup.pendingChanges.add(new AbstractMap.SimpleImmutableEntry<>(memberDN, added));
+        }
+        else if (!indexedGroup.unindexed)
+        {
+          updateIndex(groupDN, memberDN, added);
+        }
+      }
+    }
+    membershipToken.incrementAndGet();
+  }
+
+  private void updateIndex(DN groupDN, DN memberDN, boolean added)
+  {
+    if (added)
+    {
+      membershipIndex.add(memberDN, groupDN);
+    }
+    else
+    {
+      membershipIndex.remove(memberDN, groupDN);
+    }
+  }
+
+  /**
+   * Notifies this group manager that a member has been added to the member
+   * list of the provided group instance. This must be called by the groups
+   * with an explicit member list after updating their member list.
+   *
+   * @param group
+   *          The group instance whose member list has been updated.
+   * @param memberDN
+   *          The DN of the added member.
+   * @see Group#hasExplicitMemberList()
+   */
+  public void memberAdded(Group<?> group, DN memberDN)
+  {
+    memberChanged(group, memberDN, true);
+  }
+
+  /**
+   * Notifies this group manager that a member has been removed from the member
+   * list of the provided group instance. This must be called by the groups
+   * with an explicit member list after updating their member list.
+   *
+   * @param group
+   *          The group instance whose member list has been updated.
+   * @param memberDN
+   *          The DN of the removed member.
+   * @see Group#hasExplicitMemberList()
+   */
+  public void memberRemoved(Group<?> group, DN memberDN)
+  {
+    memberChanged(group, memberDN, false);
+  }
+
+  /**
+   * Retrieves the DNs of the groups in which the provided user is a member,
+   * either directly or through nested groups. The groups with an explicit
+   * member list are found using the membership index, so that the cost only
+   * depends on the number of groups of the user, while the other groups
+   * (e.g. dynamic groups) are checked one by one, with a lookup by DN for
+   * those keeping their members in memory.
+   *
+   * @param userEntry
+   *          The entry of the user.
+   * @return The DNs of the groups in which the provided user is a member.
+   */
+  public Set<DN> getGroupDNsOfMember(Entry userEntry)
+  {
+    return getGroupDNsOfMember(userEntry.getName(), userEntry);
+  }
+
+  /**
+   * Retrieves the DNs of the groups in which the provided user is a member,
+   * either directly or through nested groups.
+   *
+   * @param userDN
+   *          The DN of the user.
+   * @return The DNs of the groups in which the provided user is a member.
+   * @see #getGroupDNsOfMember(Entry)
+   */
+  public Set<DN> getGroupDNsOfMember(DN userDN)
+  {
+    return getGroupDNsOfMember(userDN, null);
+  }
+
+  private Set<DN> getGroupDNsOfMember(DN userDN, Entry userEntry)
+  {
+    final Deque<DN> toVisit = new ArrayDeque<>(membershipIndex.getGroupDNs(userDN));
+    for (Group<?> group : nonIndexedGroups.values())
+    {
+      try
+      {
+        // The groups keeping their members in memory are checked by DN
+        if (userEntry != null && !group.hasCachedMembers() ? group.isMember(userEntry) : group.isMember(userDN))
+        {
+          toVisit.add(group.getGroupDN());
+        }
+      }
+      catch (DirectoryException e)
+      {
+        logger.traceException(e);
+      }
+    }
+
+    // Follow the nested groups up to compute the transitive closure
+    final Set<DN> groupDNs = new LinkedHashSet<>();
+    while (!toVisit.isEmpty())
+    {
+      final DN groupDN = toVisit.poll();
+      if (groupDNs.add(groupDN))
+      {
+        toVisit.addAll(membershipIndex.getGroupDNs(groupDN));
+      }
+    }
+    return groupDNs;
+  }
+
+  /**
+   * Indicates whether the provided user is a member of the provided group.
+   * For the groups with nested groups, the determination is made with the
+   * membership index rather than walking down the nested groups.
+   *
+   * @param group
+   *          The group for which to make the determination.
+   * @param userEntry
+   *          The entry of the user.
+   * @return {@code true} if the user is a member of the group.
+   * @throws DirectoryException
+   *           If a problem occurs while attempting to make the determination.
+   */
+  public boolean isMember(Group<?> group, Entry userEntry) throws DirectoryException
+  {
+    if (isIndexedWithNestedGroups(group))
+    {
+      return getGroupDNsOfMember(userEntry.getName(), userEntry).contains(group.getGroupDN());
+    }
+    return group.isMember(userEntry);
+  }
+
+  /**
+   * Indicates whether the provided user is a member of the provided group.
+   *
+   * @param group
+   *          The group for which to make the determination.
+   * @param userDN
+   *          The DN of the user.
+   * @return {@code true} if the user is a member of the group.
+   * @throws DirectoryException
+   *           If a problem occurs while attempting to make the determination.
+   * @see #isMember(Group, Entry)
+   */
+  public boolean isMember(Group<?> group, DN userDN) throws DirectoryException
+  {
+    if (userDN != null && isIndexedWithNestedGroups(group))
+    {
+      return getGroupDNsOfMember(userDN, null).contains(group.getGroupDN());
+    }
+    return group.isMember(userDN);
+  }
+
+  private boolean isIndexedWithNestedGroups(Group<?> group)
+  {
+    final IndexedGroup indexedGroup = indexedGroups.get(group.getGroupDN());
+    return indexedGroup != null && indexedGroup.group == group && !group.getNestedGroupDNs().isEmpty();
+  }
+
   /**
    * Removes all group instances that might happen to be registered with the
    * group manager.  This method is only intended for testing purposes and
@@ -969,6 +1317,10 @@ public class GroupManager extends InternalDirectoryServerPlugin
     try
     {
       groupInstances.clear();
+      indexedGroups.clear();
+      nonIndexedGroups.clear();
+      membershipIndex.clear();
+      membershipToken.incrementAndGet();
     }
     finally
     {
@@ -999,4 +1351,23 @@ public class GroupManager extends InternalDirectoryServerPlugin
   public long refreshToken() {
     return this.refreshToken;
   }
+
+  /**
+   * Return the current membership token value. It changes whenever the membership of a registered
+   * group instance may have changed, so it can be used to invalidate cached membership checks.
+   *
+   * @return The current membership token value.
+   * @see Group#isMembershipDNBased()
+   */
+  public long membershipToken() {
+    return membershipToken.get();
+  }
+
+  /**
+   * Notifies this group manager that the membership of a registered group instance has been
+   * updated outside of the operations it tracks, e.g. by the group instance itself.
+   */
+  public void membershipChanged() {
+    membershipToken.incrementAndGet();
+  }
 }
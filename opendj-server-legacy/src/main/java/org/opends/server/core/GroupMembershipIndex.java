@@ -0,0 +1,123 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.core;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+
+/**
+ * A reverse membership index, mapping the DN of each entry explicitly listed
+ * as a member of a group to the DNs of the groups listing it. Nested groups
+ * are indexed like any other member, so the groups transitively containing
+ * an entry can be found by following the index from the groups directly
+ * containing it.
+ * <p>
+ * Lookups do not take any lock: the sets of group DNs are copied on write,
+ * and updates are serialized. Member DNs are keyed by their normalized form
+ * to keep the index compact.
+ */
+final class GroupMembershipIndex
+{
+  private final ConcurrentMap<ByteString, Set<DN>> groupDNsByMember = new ConcurrentHashMap<>();
+
+  /**
+   * Records that the provided group lists the provided member.
+   *
+   * @param memberDN
+   *          The DN of the member.
+   * @param groupDN
+   *          The DN of the group.
+   */
+  synchronized void add(DN memberDN, DN groupDN)
+  {
+    final ByteString key = memberDN.toNormalizedByteString();
+    final Set<DN> groupDNs = groupDNsByMember.get(key);
+    if (groupDNs == null)
+    {
+      groupDNsByMember.put(key, Collections.singleton(groupDN));
+    }
+    else if (!groupDNs.contains(groupDN))
+    {
+      final Set<DN> newGroupDNs = new HashSet<>(groupDNs);
+      newGroupDNs.add(groupDN);
+      groupDNsByMember.put(key, Collections.unmodifiableSet(newGroupDNs));
+    }
+  }
+
+  /**
+   * Records that the provided group no longer lists the provided member.
+   *
+   * @param memberDN
+   *          The DN of the member.
+   * @param groupDN
+   *          The DN of the group.
+   */
+  synchronized void remove(DN memberDN, DN groupDN)
+  {
+    final ByteString key = memberDN.toNormalizedByteString();
+    final Set<DN> groupDNs = groupDNsByMember.get(key);
+    if (groupDNs == null || !groupDNs.contains(groupDN))
+    {
+      return;
+    }
+    if (groupDNs.size() == 1)
+    {
+      groupDNsByMember.remove(key);
+    }
+    else
+    {
+      final Set<DN> newGroupDNs = new HashSet<>(groupDNs);
+      newGroupDNs.remove(groupDN);
+      groupDNsByMember.put(key, Collections.unmodifiableSet(newGroupDNs));
+    }
+  }
+
+  /**
+   * Returns the DNs of the groups directly listing the provided member.
+   *
+   * @param memberDN
+   *          The DN of the member.
+   * @return The DNs of the groups directly listing the provided member,
+   *         possibly empty but never {@code null}.
+   */
+  Set<DN> getGroupDNs(DN memberDN)
+  {
+    final Set<DN> groupDNs = groupDNsByMember.get(memberDN.toNormalizedByteString());
+    return groupDNs != null ? groupDNs : Collections.<DN> emptySet();
+  }
+
+  /**
+   * Returns the number of members in this index.
+   *
+   * @return The number of members in this index.
+   */
+  int size()
+  {
+    return groupDNsByMember.size();
+  }
+
+  /** Removes all the members from this index. */
+  synchronized void clear()
+  {
+    groupDNsByMember.clear();
+  }
+}
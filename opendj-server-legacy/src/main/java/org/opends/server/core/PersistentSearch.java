@@ -85,6 +85,28 @@ public final class PersistentSearch
   }
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
+  /** A change notification which must be sent to the client of a persistent search. */
+  final class Notification
+  {
+    private final Entry entry;
+    private final List<Control> controls;
+
+    private Notification(Entry entry, List<Control> controls)
+    {
+      this.entry = entry;
+      this.controls = controls;
+    }
+
+    /** Sends this notification to the client of the persistent search, unless it has been cancelled. */
+    void send()
+    {
+      if (!isCancelled)
+      {
+        sendEntry(entry, controls);
+      }
+    }
+  }
+
   /** Cancel a persistent search. */
   private static synchronized void cancel(PersistentSearch psearch)
   {
@@ -119,7 +141,7 @@ public final class PersistentSearch
   private final Set<PersistentSearchChangeType> changeTypes;
 
   /** Indicates whether this persistent search has already been aborted. */
-  private boolean isCancelled;
+  private volatile boolean isCancelled;
 
   /** Indicates whether entries returned should include the entry change notification control. */
   private final boolean returnECs;
@@ -228,12 +250,33 @@ public final class PersistentSearch
    *          The entry that was added.
    */
   public void processAdd(Entry entry)
+  {
+    send(matchAdd(entry));
+  }
+
+  /**
+   * Returns the notification to send for an added entry.
+   *
+   * @param entry
+   *          The entry that was added.
+   * @return the notification to send, or {@code null} if the entry does not match this persistent search
+   */
+  Notification matchAdd(Entry entry)
   {
     if (changeTypes.contains(ADD)
         && isInScope(entry.getName())
         && matchesFilter(entry))
     {
-      sendEntry(entry, createControls(ADD, null));
+      return new Notification(entry, createControls(ADD, null));
+    }
+    return null;
+  }
+
+  private void send(Notification notification)
+  {
+    if (notification != null)
+    {
+      notification.send();
     }
   }
 
@@ -283,13 +326,26 @@ public final class PersistentSearch
    *          The entry that was deleted.
    */
   public void processDelete(Entry entry)
+  {
+    send(matchDelete(entry));
+  }
+
+  /**
+   * Returns the notification to send for a deleted entry.
+   *
+   * @param entry
+   *          The entry that was deleted.
+   * @return the notification to send, or {@code null} if the entry does not match this persistent search
+   */
+  Notification matchDelete(Entry entry)
   {
     if (changeTypes.contains(DELETE)
         && isInScope(entry.getName())
         && matchesFilter(entry))
     {
-      sendEntry(entry, createControls(DELETE, null));
+      return new Notification(entry, createControls(DELETE, null));
     }
+    return null;
   }
 
   /**
@@ -312,13 +368,28 @@ public final class PersistentSearch
    *          The entry before it was modified.
    */
   public void processModify(Entry entry, Entry oldEntry)
+  {
+    send(matchModify(entry, oldEntry));
+  }
+
+  /**
+   * Returns the notification to send for a modified entry.
+   *
+   * @param entry
+   *          The entry after it was modified.
+   * @param oldEntry
+   *          The entry before it was modified.
+   * @return the notification to send, or {@code null} if the entry does not match this persistent search
+   */
+  Notification matchModify(Entry entry, Entry oldEntry)
   {
     if (changeTypes.contains(MODIFY)
         && isInScopeForModify(oldEntry.getName())
         && anyMatchesFilter(entry, oldEntry))
     {
-      sendEntry(entry, createControls(MODIFY, null));
+      return new Notification(entry, createControls(MODIFY, null));
     }
+    return null;
   }
 
   private boolean isInScopeForModify(final DN dn)
@@ -353,13 +424,28 @@ public final class PersistentSearch
    *          The DN of the entry before it was renamed.
    */
   public void processModifyDN(Entry entry, DN oldDN)
+  {
+    send(matchModifyDN(entry, oldDN));
+  }
+
+  /**
+   * Returns the notification to send for a renamed entry.
+   *
+   * @param entry
+   *          The entry after it was renamed.
+   * @param oldDN
+   *          The DN of the entry before it was renamed.
+   * @return the notification to send, or {@code null} if the entry does not match this persistent search
+   */
+  Notification matchModifyDN(Entry entry, DN oldDN)
   {
     if (changeTypes.contains(MODIFY_DN)
         && isAnyInScopeForModify(entry, oldDN)
         && matchesFilter(entry))
     {
-      sendEntry(entry, createControls(MODIFY_DN, oldDN));
+      return new Notification(entry, createControls(MODIFY_DN, oldDN));
     }
+    return null;
   }
 
   private boolean isAnyInScopeForModify(Entry entry, DN oldDN)
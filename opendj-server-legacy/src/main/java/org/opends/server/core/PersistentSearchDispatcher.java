@@ -0,0 +1,772 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.core;
+
+import static org.opends.messages.CoreMessages.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.DecodeException;
+import org.forgerock.opendj.ldap.schema.AttributeType;
+import org.forgerock.opendj.ldap.schema.MatchingRule;
+import org.opends.server.api.ClientConnection;
+import org.opends.server.api.DirectoryThread;
+import org.opends.server.api.LocalBackend;
+import org.opends.server.controls.PersistentSearchChangeType;
+import org.opends.server.core.PersistentSearch.Notification;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.DisconnectReason;
+import org.opends.server.types.Entry;
+import org.opends.server.types.FilterType;
+import org.opends.server.types.SearchFilter;
+
+/**
+ * Notifies the persistent searches of the changes made to the entries of the local backends.
+ * <p>
+ * By default, the persistent searches are notified by the worker thread which processed the update, once its
+ * response has been sent. When asynchronous notifications are enabled, the change is queued instead, and the
+ * operation completes without waiting for the persistent searches. The changes are matched against the persistent
+ * searches by several dispatcher threads: each thread handles the persistent searches of a subset of the client
+ * connections, and processes the changes in the order they were committed. Each dispatcher thread indexes its
+ * persistent searches, by the value of an equality component of their filter when there is one, and by their base DN
+ * otherwise, so that a change is only matched against the persistent searches that may be interested in it.
+ * <p>
+ * The matching notifications are then sent to each client by a bounded pool of delivery threads, through a bounded
+ * buffer per persistent search. Sending to a client blocks until its connection can be written to, so a stalled client
+ * holds the thread sending to it until the write times out. A client which does not read its notifications fast
+ * enough to keep its buffer from filling up is disconnected, so that it cannot hold an unbounded amount of memory.
+ * <p>
+ * The dispatcher threads never wait for the clients, but matching the changes may still be slower than the updates:
+ * when the queue of a dispatcher thread is full, the updates wait for it to make room rather than dropping changes.
+ */
+public final class PersistentSearchDispatcher
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The maximum number of changes waiting to be matched by each dispatcher thread. */
+  static final int MAX_PENDING_CHANGES = 10000;
+  /** The maximum number of notifications waiting to be sent to the client of a persistent search. */
+  static final int MAX_PENDING_NOTIFICATIONS = 1000;
+  /** The maximum number of notifications sent in a row to the same client by a delivery thread. */
+  private static final int MAX_NOTIFICATIONS_PER_DELIVERY = 64;
+  /** The time after which the idle delivery threads are stopped. */
+  private static final long DELIVERY_THREAD_KEEP_ALIVE_SECONDS = 60;
+  /** The default maximum number of threads sending the notifications to the clients. */
+  static final int DEFAULT_MAX_DELIVERY_THREADS = 16;
+
+  /** A change committed to a local backend. */
+  private static final class Change
+  {
+    private final PersistentSearchChangeType changeType;
+    private final LocalBackend<?> backend;
+    private final Entry entry;
+    /** The entry before it was modified, for modify changes. */
+    private final Entry oldEntry;
+    /** The DN of the entry before it was renamed, for modify DN changes. */
+    private final DN oldDN;
+
+    private Change(PersistentSearchChangeType changeType, LocalBackend<?> backend, Entry entry, Entry oldEntry,
+        DN oldDN)
+    {
+      this.changeType = changeType;
+      this.backend = backend;
+      this.entry = entry;
+      this.oldEntry = oldEntry;
+      this.oldDN = oldDN;
+    }
+  }
+
+  /** A persistent search registered with this dispatcher, with the buffer of the notifications to send to it. */
+  private static final class Subscriber implements Runnable
+  {
+    private final PersistentSearch psearch;
+    private final LocalBackend<?> backend;
+    private final ExecutorService executor;
+    /** The attribute type of the equality component indexing this subscriber, {@code null} if indexed by base DN. */
+    private final AttributeType indexedType;
+    /** The normalized value of the equality component indexing this subscriber. */
+    private final ByteString indexedValue;
+    private final Queue<Notification> notifications = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger nbPendingNotifications = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean disconnected;
+
+    private Subscriber(PersistentSearch psearch, LocalBackend<?> backend, ExecutorService executor)
+    {
+      this.psearch = psearch;
+      this.backend = backend;
+      this.executor = executor;
+
+      final SearchFilter equalityFilter = getIndexableEqualityComponent(psearch.getSearchOperation().getFilter());
+      final ByteString normalizedValue =
+          equalityFilter != null ? normalizeAssertionValue(equalityFilter) : null;
+      this.indexedType = normalizedValue != null ? equalityFilter.getAttributeType() : null;
+      this.indexedValue = normalizedValue;
+    }
+
+    private void offer(Notification notification)
+    {
+      if (disconnected)
+      {
+        return;
+      }
+      if (nbPendingNotifications.incrementAndGet() > MAX_PENDING_NOTIFICATIONS)
+      {
+        disconnectSlowConsumer(WARN_PSEARCH_SLOW_CONSUMER.get(
+            psearch.getSearchOperation().getConnectionID(), psearch, MAX_PENDING_NOTIFICATIONS));
+        return;
+      }
+      notifications.add(notification);
+      schedule();
+    }
+
+    private void schedule()
+    {
+      if (scheduled.compareAndSet(false, true))
+      {
+        try
+        {
+          executor.execute(this);
+        }
+        catch (RejectedExecutionException e)
+        {
+          // The dispatcher is shutting down
+          logger.traceException(e);
+        }
+      }
+    }
+
+    @Override
+    public void run()
+    {
+      try
+      {
+        for (int i = 0; i < MAX_NOTIFICATIONS_PER_DELIVERY; i++)
+        {
+          final Notification notification = notifications.poll();
+          if (notification == null)
+          {
+            break;
+          }
+          nbPendingNotifications.decrementAndGet();
+          if (!disconnected)
+          {
+            notification.send();
+          }
+        }
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+      }
+      finally
+      {
+        scheduled.set(false);
+      }
+      if (!notifications.isEmpty())
+      {
+        // Let the other clients be served before sending the next notifications
+        schedule();
+      }
+    }
+
+    /**
+     * Cancels this persistent search and disconnects its client. Never blocks: the disconnect notification may have to
+     * wait until the connection of the stalled client can be written to, so it is sent by a delivery thread.
+     */
+    private void disconnectSlowConsumer(final LocalizableMessage message)
+    {
+      synchronized (this)
+      {
+        if (disconnected)
+        {
+          return;
+        }
+        disconnected = true;
+      }
+      notifications.clear();
+      logger.warn(message);
+      psearch.cancel();
+      final ClientConnection clientConnection = psearch.getSearchOperation().getClientConnection();
+      try
+      {
+        executor.execute(new Runnable()
+        {
+          @Override
+          public void run()
+          {
+            clientConnection.disconnect(DisconnectReason.ADMIN_LIMIT_EXCEEDED, true, message);
+          }
+        });
+      }
+      catch (RejectedExecutionException e)
+      {
+        // The dispatcher is shutting down: do not wait for the client to be notified
+        logger.traceException(e);
+        clientConnection.disconnect(DisconnectReason.ADMIN_LIMIT_EXCEEDED, false, message);
+      }
+    }
+  }
+
+  /** A thread matching the changes against the persistent searches of a subset of the client connections. */
+  private final class Dispatcher extends DirectoryThread
+  {
+    private final BlockingQueue<Change> changes = new LinkedBlockingQueue<>(MAX_PENDING_CHANGES);
+    /** The subscribers indexed by the attribute type and the normalized value of an equality filter component. */
+    private final Map<AttributeType, Map<ByteString, Set<Subscriber>>> byValue = new HashMap<>();
+    /** The subscribers which have no indexable equality filter component, indexed by their base DN. */
+    private final Map<DN, Set<Subscriber>> byBaseDN = new HashMap<>();
+    private final Map<PersistentSearch, Subscriber> subscribers = new IdentityHashMap<>();
+    private volatile int nbSubscribers;
+    private volatile boolean stopRequested;
+
+    private Dispatcher(int id)
+    {
+      super("Persistent Search Dispatcher " + id);
+    }
+
+    private synchronized void register(Subscriber subscriber)
+    {
+      subscribers.put(subscriber.psearch, subscriber);
+      if (subscriber.indexedType != null)
+      {
+        Map<ByteString, Set<Subscriber>> values = byValue.get(subscriber.indexedType);
+        if (values == null)
+        {
+          values = new HashMap<>();
+          byValue.put(subscriber.indexedType, values);
+        }
+        getOrCreate(values, subscriber.indexedValue).add(subscriber);
+      }
+      else
+      {
+        getOrCreate(byBaseDN, subscriber.psearch.getSearchOperation().getBaseDN()).add(subscriber);
+      }
+      nbSubscribers = subscribers.size();
+    }
+
+    private synchronized void deregister(PersistentSearch psearch)
+    {
+      final Subscriber subscriber = subscribers.remove(psearch);
+      if (subscriber == null)
+      {
+        return;
+      }
+      if (subscriber.indexedType != null)
+      {
+        final Map<ByteString, Set<Subscriber>> values = byValue.get(subscriber.indexedType);
+        remove(values, subscriber.indexedValue, subscriber);
+        if (values.isEmpty())
+        {
+          byValue.remove(subscriber.indexedType);
+        }
+      }
+      else
+      {
+        remove(byBaseDN, subscriber.psearch.getSearchOperation().getBaseDN(), subscriber);
+      }
+      nbSubscribers = subscribers.size();
+    }
+
+    private <K> Set<Subscriber> getOrCreate(Map<K, Set<Subscriber>> map, K key)
+    {
+      Set<Subscriber> set = map.get(key);
+      if (set == null)
+      {
+        set = new LinkedHashSet<>();
+        map.put(key, set);
+      }
+      return set;
+    }
+
+    private <K> void remove(Map<K, Set<Subscriber>> map, K key, Subscriber subscriber)
+    {
+      final Set<Subscriber> set = map.get(key);
+      if (set != null && set.remove(subscriber) && set.isEmpty())
+      {
+        map.remove(key);
+      }
+    }
+
+    private void enqueue(Change change)
+    {
+      if (nbSubscribers == 0)
+      {
+        return;
+      }
+      try
+      {
+        // When this dispatcher cannot keep up with the updates, slow them down rather than dropping the change
+        while (!changes.offer(change, 1, TimeUnit.SECONDS))
+        {
+          if (stopRequested)
+          {
+            return;
+          }
+        }
+      }
+      catch (InterruptedException e)
+      {
+        logger.traceException(e);
+        Thread.currentThread().interrupt();
+        // The clients which should be notified of this change would miss it, so they are disconnected instead
+        for (Subscriber subscriber : getCandidates(change))
+        {
+          if (match(subscriber.psearch, change) != null)
+          {
+            subscriber.disconnectSlowConsumer(WARN_PSEARCH_DISPATCHER_OVERFLOW.get(
+                subscriber.psearch.getSearchOperation().getConnectionID(), subscriber.psearch, MAX_PENDING_CHANGES));
+          }
+        }
+      }
+    }
+
+    @Override
+    public void run()
+    {
+      while (!stopRequested)
+      {
+        try
+        {
+          final Change change = changes.poll(1, TimeUnit.SECONDS);
+          if (change != null)
+          {
+            dispatch(change);
+          }
+        }
+        catch (InterruptedException e)
+        {
+          // Check whether the dispatcher is shutting down
+        }
+        catch (Exception e)
+        {
+          logger.traceException(e);
+        }
+      }
+    }
+
+    private void dispatch(Change change)
+    {
+      for (Subscriber subscriber : getCandidates(change))
+      {
+        final Notification notification = match(subscriber.psearch, change);
+        if (notification != null)
+        {
+          subscriber.offer(notification);
+        }
+      }
+    }
+
+    /** Returns the subscribers which may be interested in the provided change, in a consistent order. */
+    private synchronized List<Subscriber> getCandidates(Change change)
+    {
+      final Set<Subscriber> candidates = new LinkedHashSet<>();
+      addCandidatesByBaseDN(candidates, change.entry.getName());
+      if (change.oldDN != null)
+      {
+        addCandidatesByBaseDN(candidates, change.oldDN);
+      }
+      addCandidatesByValue(candidates, change.entry);
+      if (change.oldEntry != null)
+      {
+        addCandidatesByValue(candidates, change.oldEntry);
+      }
+
+      final List<Subscriber> results = new ArrayList<>(candidates.size());
+      for (Subscriber candidate : candidates)
+      {
+        if (candidate.backend == change.backend)
+        {
+          results.add(candidate);
+        }
+      }
+      return results;
+    }
+
+    private void addCandidatesByBaseDN(Set<Subscriber> candidates, DN dn)
+    {
+      for (DN baseDN = dn; baseDN != null; baseDN = baseDN.parent())
+      {
+        final Set<Subscriber> subscribersForBaseDN = byBaseDN.get(baseDN);
+        if (subscribersForBaseDN != null)
+        {
+          candidates.addAll(subscribersForBaseDN);
+        }
+      }
+    }
+
+    private void addCandidatesByValue(Set<Subscriber> candidates, Entry entry)
+    {
+      for (Map.Entry<AttributeType, Map<ByteString, Set<Subscriber>>> mapEntry : byValue.entrySet())
+      {
+        final AttributeType attributeType = mapEntry.getKey();
+        final MatchingRule matchingRule = attributeType.getEqualityMatchingRule();
+        for (Attribute attribute : entry.getAllAttributes(attributeType))
+        {
+          for (ByteString value : attribute)
+          {
+            try
+            {
+              final Set<Subscriber> subscribersForValue =
+                  mapEntry.getValue().get(matchingRule.normalizeAttributeValue(value));
+              if (subscribersForValue != null)
+              {
+                candidates.addAll(subscribersForValue);
+              }
+            }
+            catch (DecodeException e)
+            {
+              logger.traceException(e);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /** Whether the changes are queued for the dispatcher threads, rather than matched by the updating thread. */
+  private volatile boolean asynchronous;
+  /** The maximum number of threads sending the notifications to the clients. */
+  private int maxDeliveryThreads = DEFAULT_MAX_DELIVERY_THREADS;
+  /** The dispatcher threads, {@code null} until the first persistent search is registered. */
+  private Dispatcher[] dispatchers;
+  /** Whether the dispatcher threads have been started, which is only done once a change is queued. */
+  private boolean started;
+  private ThreadPoolExecutor deliveryExecutor;
+
+  /**
+   * Applies the configuration of the persistent search notifications.
+   *
+   * @param asynchronous
+   *          whether the changes are matched against the persistent searches off the write path
+   * @param maxDeliveryThreads
+   *          the maximum number of threads sending the notifications to the clients
+   */
+  public synchronized void configure(boolean asynchronous, int maxDeliveryThreads)
+  {
+    this.asynchronous = asynchronous;
+    this.maxDeliveryThreads = maxDeliveryThreads;
+    if (deliveryExecutor != null && deliveryExecutor.getMaximumPoolSize() != maxDeliveryThreads)
+    {
+      if (maxDeliveryThreads > deliveryExecutor.getMaximumPoolSize())
+      {
+        deliveryExecutor.setMaximumPoolSize(maxDeliveryThreads);
+        deliveryExecutor.setCorePoolSize(maxDeliveryThreads);
+      }
+      else
+      {
+        deliveryExecutor.setCorePoolSize(maxDeliveryThreads);
+        deliveryExecutor.setMaximumPoolSize(maxDeliveryThreads);
+      }
+    }
+  }
+
+  /**
+   * Registers a persistent search with this dispatcher, so that it will be notified of the changes made to the
+   * entries of the provided backend.
+   *
+   * @param psearch
+   *          the persistent search to register
+   * @param backend
+   *          the backend the persistent search was registered with
+   */
+  public void register(PersistentSearch psearch, LocalBackend<?> backend)
+  {
+    final Subscriber subscriber;
+    final Dispatcher dispatcher;
+    synchronized (this)
+    {
+      create();
+      subscriber = new Subscriber(psearch, backend, deliveryExecutor);
+      dispatcher = getDispatcher(dispatchers, psearch);
+    }
+    dispatcher.register(subscriber);
+  }
+
+  /**
+   * Deregisters a persistent search from this dispatcher.
+   *
+   * @param psearch
+   *          the persistent search to deregister
+   */
+  public void deregister(PersistentSearch psearch)
+  {
+    final Dispatcher[] currentDispatchers = getDispatchers();
+    if (currentDispatchers != null)
+    {
+      getDispatcher(currentDispatchers, psearch).deregister(psearch);
+    }
+  }
+
+  /**
+   * Notifies the persistent searches that an entry has been added.
+   *
+   * @param backend
+   *          the backend in which the entry was added
+   * @param entry
+   *          the entry that was added
+   */
+  public void processAdd(LocalBackend<?> backend, Entry entry)
+  {
+    process(new Change(PersistentSearchChangeType.ADD, backend, entry, null, null));
+  }
+
+  /**
+   * Notifies the persistent searches that an entry has been deleted.
+   *
+   * @param backend
+   *          the backend from which the entry was deleted
+   * @param entry
+   *          the entry that was deleted
+   */
+  public void processDelete(LocalBackend<?> backend, Entry entry)
+  {
+    process(new Change(PersistentSearchChangeType.DELETE, backend, entry, null, null));
+  }
+
+  /**
+   * Notifies the persistent searches that an entry has been modified.
+   *
+   * @param backend
+   *          the backend containing the entry
+   * @param entry
+   *          the entry after it was modified
+   * @param oldEntry
+   *          the entry before it was modified
+   */
+  public void processModify(LocalBackend<?> backend, Entry entry, Entry oldEntry)
+  {
+    process(new Change(PersistentSearchChangeType.MODIFY, backend, entry, oldEntry, null));
+  }
+
+  /**
+   * Notifies the persistent searches that an entry has been renamed.
+   *
+   * @param backend
+   *          the backend containing the entry
+   * @param entry
+   *          the entry after it was renamed
+   * @param oldDN
+   *          the DN of the entry before it was renamed
+   */
+  public void processModifyDN(LocalBackend<?> backend, Entry entry, DN oldDN)
+  {
+    process(new Change(PersistentSearchChangeType.MODIFY_DN, backend, entry, null, oldDN));
+  }
+
+  private void process(Change change)
+  {
+    if (!asynchronous)
+    {
+      for (PersistentSearch psearch : change.backend.getPersistentSearches())
+      {
+        final Notification notification = match(psearch, change);
+        if (notification != null)
+        {
+          notification.send();
+        }
+      }
+      return;
+    }
+
+    final Dispatcher[] currentDispatchers = getStartedDispatchers();
+    if (currentDispatchers == null)
+    {
+      return;
+    }
+    for (Dispatcher dispatcher : currentDispatchers)
+    {
+      dispatcher.enqueue(change);
+    }
+  }
+
+  /** Stops the dispatcher threads. The pending notifications are discarded. */
+  public void shutdown()
+  {
+    final Dispatcher[] stoppedDispatchers;
+    final ExecutorService stoppedExecutor;
+    synchronized (this)
+    {
+      stoppedDispatchers = dispatchers;
+      stoppedExecutor = deliveryExecutor;
+      dispatchers = null;
+      started = false;
+      deliveryExecutor = null;
+    }
+    if (stoppedDispatchers == null)
+    {
+      return;
+    }
+
+    for (Dispatcher dispatcher : stoppedDispatchers)
+    {
+      dispatcher.stopRequested = true;
+      dispatcher.interrupt();
+    }
+    for (Dispatcher dispatcher : stoppedDispatchers)
+    {
+      try
+      {
+        dispatcher.join();
+      }
+      catch (InterruptedException e)
+      {
+        logger.traceException(e);
+        Thread.currentThread().interrupt();
+      }
+    }
+    stoppedExecutor.shutdownNow();
+  }
+
+  private synchronized Dispatcher[] getDispatchers()
+  {
+    return dispatchers;
+  }
+
+  private synchronized Dispatcher[] getStartedDispatchers()
+  {
+    if (dispatchers != null && !started)
+    {
+      for (Dispatcher dispatcher : dispatchers)
+      {
+        dispatcher.start();
+      }
+      started = true;
+    }
+    return dispatchers;
+  }
+
+  private void create()
+  {
+    if (dispatchers == null)
+    {
+      final int nbThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+      // Each persistent search is sent to by at most one thread at a time, so the queue cannot hold more deliveries
+      // than there are persistent searches
+      deliveryExecutor = new ThreadPoolExecutor(maxDeliveryThreads, maxDeliveryThreads,
+          DELIVERY_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+          new DirectoryThread.Factory("Persistent Search Delivery"));
+      deliveryExecutor.allowCoreThreadTimeOut(true);
+      dispatchers = new Dispatcher[nbThreads];
+      for (int i = 0; i < nbThreads; i++)
+      {
+        dispatchers[i] = new Dispatcher(i);
+      }
+    }
+  }
+
+  /** All the persistent searches of a client connection are handled by the same dispatcher thread. */
+  private static Dispatcher getDispatcher(Dispatcher[] dispatchers, PersistentSearch psearch)
+  {
+    final long connectionID = psearch.getSearchOperation().getConnectionID();
+    return dispatchers[(int) Math.floorMod(connectionID, (long) dispatchers.length)];
+  }
+
+  private static Notification match(PersistentSearch psearch, Change change)
+  {
+    switch (change.changeType)
+    {
+    case ADD:
+      return psearch.matchAdd(change.entry);
+    case DELETE:
+      return psearch.matchDelete(change.entry);
+    case MODIFY:
+      return psearch.matchModify(change.entry, change.oldEntry);
+    case MODIFY_DN:
+      return psearch.matchModifyDN(change.entry, change.oldDN);
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * Returns an equality component which any entry matching the provided filter must match, or {@code null} if there
+   * is none.
+   */
+  private static SearchFilter getIndexableEqualityComponent(SearchFilter filter)
+  {
+    if (isIndexableEquality(filter))
+    {
+      return filter;
+    }
+    SearchFilter objectClassComponent = null;
+    if (filter.getFilterType() == FilterType.AND)
+    {
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        if (isIndexableEquality(component))
+        {
+          if (!component.getAttributeType().isObjectClass())
+          {
+            return component;
+          }
+          // Many entries share the same object class: prefer any other component
+          objectClassComponent = component;
+        }
+      }
+    }
+    return objectClassComponent;
+  }
+
+  private static boolean isIndexableEquality(SearchFilter filter)
+  {
+    return filter.getFilterType() == FilterType.EQUALITY
+        && !filter.getAttributeDescription().hasOptions()
+        && filter.getAttributeType().getEqualityMatchingRule() != null;
+  }
+
+  /**
+   * Returns the normalized assertion value of an equality filter, or {@code null} if the values matching it cannot
+   * be found by normalizing the attribute values, such as for first component matching rules.
+   */
+  private static ByteString normalizeAssertionValue(SearchFilter equalityFilter)
+  {
+    final MatchingRule matchingRule = equalityFilter.getAttributeType().getEqualityMatchingRule();
+    try
+    {
+      final ByteString normalizedValue = matchingRule.normalizeAttributeValue(equalityFilter.getAssertionValue());
+      if (matchingRule.getAssertion(equalityFilter.getAssertionValue()).matches(normalizedValue).toBoolean())
+      {
+        return normalizedValue;
+      }
+    }
+    catch (DecodeException e)
+    {
+      logger.traceException(e);
+    }
+    return null;
+  }
+}
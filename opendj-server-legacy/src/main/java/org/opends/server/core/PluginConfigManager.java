@@ -3994,6 +3994,18 @@ public class PluginConfigManager
     }
   }
 
+  /**
+   * Indicates whether search result entry plugins have been configured in the
+   * Directory Server.
+   *
+   * @return  {@code true} if search result entry plugins may alter the entries
+   *          returned by the searches, or {@code false} if not.
+   */
+  public boolean hasSearchResultEntryPlugins()
+  {
+    return searchResultEntryPlugins.length > 0;
+  }
+
   /**
    * Invokes the set of search result entry plugins that have been configured
    * in the Directory Server.
@@ -39,6 +39,7 @@ import org.opends.server.api.ClientConnection;
 import org.opends.server.api.plugin.PluginResult;
 import org.opends.server.controls.AccountUsableResponseControl;
 import org.opends.server.controls.MatchedValuesControl;
+import org.opends.server.protocols.internal.InternalClientConnection;
 import org.opends.server.protocols.ldap.LDAPFilter;
 import org.opends.server.types.AbstractOperation;
 import org.opends.server.types.Attribute;
@@ -169,6 +170,16 @@ public class SearchOperationBasis
   /** Indicates whether to send the search result done to the client or not. */
   private boolean sendResponse = true;
 
+  /**
+   * Indicates whether the returned entries are sent with all their user
+   * attributes and nothing else, so that they need not be copied. Computed
+   * when the first entry is returned.
+   */
+  private Boolean entriesReturnedAsIs;
+
+  /** Indicates whether the access control handler lets entries be sent as is. */
+  private boolean aciReturnsEntriesAsIs;
+
   /**
    * Creates a new search operation with the provided information.
    *
@@ -559,6 +570,18 @@ public class SearchOperationBasis
       }
     }
 
+    if (entriesReturnedAsIs == null)
+    {
+      entriesReturnedAsIs = isEntriesReturnedAsIs();
+      aciReturnsEntriesAsIs = entriesReturnedAsIs && getACIHandler().mayReturnUnfilteredEntries(this);
+    }
+    if (entriesReturnedAsIs && (!evaluateAci || aciReturnsEntriesAsIs))
+    {
+      // Fast path: neither the access controls nor the plugins alter the
+      // entry, so send its attributes without copying them.
+      return sendSearchEntryAsIs(new SearchResultEntry(entry.getUserAttributesView(), controls));
+    }
+
     // Check to see if the entry can be read by the client.
     SearchResultEntry unfilteredSearchEntry = new SearchResultEntry(entry, controls);
     if (evaluateAci && !getACIHandler().maySend(this, unfilteredSearchEntry))
@@ -691,6 +714,42 @@ public class SearchOperationBasis
     return pluginResult.continueProcessing();
   }
 
+  /**
+   * Indicates whether the returned entries can be sent with all their user
+   * attributes, without being filtered, copied or passed to plugins.
+   */
+  private boolean isEntriesReturnedAsIs()
+  {
+    // Internal searches may modify the entries they collect
+    final Set<String> attrs = getAttributes();
+    return !getClientConnection().isInnerConnection()
+        && !(getClientConnection() instanceof InternalClientConnection)
+        && (attrs == null || attrs.isEmpty() || (attrs.size() == 1 && attrs.contains("*")))
+        && !getTypesOnly()
+        && !isVirtualAttributesOnly()
+        && !isRealAttributesOnly()
+        && getMatchedValuesControl() == null
+        && !DirectoryServer.getPluginConfigManager().hasSearchResultEntryPlugins();
+  }
+
+  private boolean sendSearchEntryAsIs(SearchResultEntry searchEntry)
+  {
+    logSearchResultEntry(this, searchEntry);
+    try
+    {
+      sendSearchEntry(searchEntry);
+      entriesSent++;
+      return true;
+    }
+    catch (DirectoryException de)
+    {
+      logger.traceException(de);
+
+      setResponseData(de);
+      return false;
+    }
+  }
+
   private AccessControlHandler<?> getACIHandler()
   {
     return AccessControlConfigManager.getInstance().getAccessControlHandler();
@@ -0,0 +1,1004 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ExtensionMessages.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.config.server.ConfigurationChangeListener;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.server.config.server.ConcurrentEntryCacheCfg;
+import org.forgerock.opendj.server.config.server.EntryCacheCfg;
+import org.forgerock.util.Utils;
+import org.opends.server.api.EntryCache;
+import org.opends.server.api.MonitorData;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.ServerContext;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.CacheEntry;
+import org.opends.server.types.Entry;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.util.ServerConstants;
+
+/**
+ * This class defines a Directory Server entry cache designed for highly concurrent access.
+ * <p>
+ * Lookups go straight to concurrent maps and never take a lock: they only record the access in a
+ * lock-free frequency sketch and mark the cached node as recently used. Updates are spread over a
+ * fixed number of shards, each guarded by its own lock, so that concurrent writers rarely contend.
+ * <p>
+ * Eviction follows the W-TinyLFU policy. New entries enter a small per-shard admission window.
+ * Entries leaving the window move to the main region, which is scanned with the CLOCK algorithm to
+ * find eviction victims. When the cache is full, an entry graduating from the window is only kept
+ * if the frequency sketch estimates that it has been requested more often than the victim it
+ * would replace, otherwise it is rejected. This keeps one-off reads, such as those performed by
+ * unindexed searches, from flushing the working set.
+ * <p>
+ * The cache is bounded by the estimated memory footprint of the cached entries rather than by the
+ * JVM heap usage, and optionally by a maximum number of entries. Each shard owns an equal share of
+ * these limits and only ever evicts its own entries.
+ */
+public class ConcurrentEntryCache
+       extends EntryCache<ConcurrentEntryCacheCfg>
+       implements ConfigurationChangeListener<ConcurrentEntryCacheCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** Percentage of each shard's share of the cache reserved to the admission window. */
+  private static final int WINDOW_PERCENT = 1;
+
+  /** Estimated average size of a cached entry, used to size the frequency sketch. */
+  private static final int AVERAGE_ENTRY_SIZE = 1024;
+
+  /** Estimated fixed memory cost of a cached entry: entry, attribute maps, cache node and map slots. */
+  private static final int ENTRY_OVERHEAD = 320;
+  /** Estimated memory cost of an attribute, excluding its values. */
+  private static final int ATTRIBUTE_OVERHEAD = 96;
+  /** Estimated memory cost of an attribute value, excluding its bytes. */
+  private static final int VALUE_OVERHEAD = 48;
+
+  /** The mapping between DNs and cached nodes. */
+  private final ConcurrentMap<DN, Node> dnMap = new ConcurrentHashMap<>();
+
+  /** The mapping between entry backends/IDs and cached nodes. */
+  private final ConcurrentMap<String, ConcurrentMap<Long, Node>> idMap = new ConcurrentHashMap<>();
+
+  /** The shards owning the eviction order of the cached nodes. */
+  private Shard[] shards;
+  private int shardMask;
+
+  /** Estimates how often each DN has been requested recently. */
+  private volatile FrequencySketch sketch;
+
+  /** The estimated memory currently used by the cached entries. */
+  private final AtomicLong currentMemorySize = new AtomicLong();
+  /** The number of cached entries. */
+  private final AtomicLong currentEntries = new AtomicLong();
+  /** The number of entries evicted to make room for other entries. */
+  private final AtomicLong evictions = new AtomicLong();
+  /** The number of entries not admitted in the main region because they were not requested often enough. */
+  private final AtomicLong admissionRejects = new AtomicLong();
+
+  /** The maximum estimated memory the cached entries may use. */
+  private volatile long maxMemorySize;
+  /** The maximum number of entries that may be held in the cache. */
+  private volatile long maxEntries;
+
+  /** Currently registered configuration object. */
+  private ConcurrentEntryCacheCfg registeredConfiguration;
+
+  /** Creates a new instance of this concurrent entry cache. */
+  public ConcurrentEntryCache()
+  {
+    super();
+    // All initialization should be performed in the initializeEntryCache.
+  }
+
+  @Override
+  public void initializeEntryCache(ServerContext serverContext, ConcurrentEntryCacheCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    registeredConfiguration = configuration;
+    configuration.addConcurrentChangeListener(this);
+
+    // Shards are fixed for the lifetime of the cache.
+    int shardCount = Integer.highestOneBit(configuration.getShardCount() - 1) << 1;
+    shardCount = Math.max(1, shardCount);
+    shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++)
+    {
+      shards[i] = new Shard();
+    }
+    shardMask = shardCount - 1;
+
+    // Read configuration and apply changes.
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_INIT, null, errorMessages
+          );
+    if (!processEntryCacheConfig(configuration, applyChanges, errorHandler)) {
+      String buffer = Utils.joinAsString(".  ", errorMessages);
+      throw new ConfigException(ERR_CONCURRENTCACHE_CANNOT_INITIALIZE.get(buffer));
+    }
+  }
+
+  @Override
+  public void finalizeEntryCache()
+  {
+    registeredConfiguration.removeConcurrentChangeListener(this);
+
+    // Release all memory currently in use by this cache.
+    clear();
+  }
+
+  @Override
+  public boolean containsEntry(DN entryDN)
+  {
+    return entryDN != null && dnMap.containsKey(entryDN);
+  }
+
+  @Override
+  public Entry getEntry(DN entryDN)
+  {
+    if (entryDN == null)
+    {
+      return null;
+    }
+    Node node = dnMap.get(entryDN);
+    sketch.increment(hash(entryDN));
+    if (node == null)
+    {
+      // Indicate cache miss.
+      cacheMisses.getAndIncrement();
+      return null;
+    }
+    // Indicate cache hit.
+    if (!node.accessed)
+    {
+      node.accessed = true;
+    }
+    cacheHits.getAndIncrement();
+    return node.cacheEntry.getEntry();
+  }
+
+  @Override
+  public long getEntryID(DN entryDN)
+  {
+    Node node = entryDN != null ? dnMap.get(entryDN) : null;
+    return node != null ? node.cacheEntry.getEntryID() : -1;
+  }
+
+  @Override
+  public DN getEntryDN(String backendID, long entryID)
+  {
+    Map<Long, Node> backendMap = idMap.get(backendID);
+    if (backendMap != null)
+    {
+      Node node = backendMap.get(entryID);
+      if (node != null)
+      {
+        return node.cacheEntry.getDN();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void putEntry(Entry entry, String backendID, long entryID)
+  {
+    put(entry, backendID, entryID, false);
+  }
+
+  @Override
+  public boolean putEntryIfAbsent(Entry entry, String backendID, long entryID)
+  {
+    return put(entry, backendID, entryID, true);
+  }
+
+  /**
+   * Caches the provided entry, possibly evicting other entries to make room for it.
+   *
+   * @param entry         The entry to be stored in the cache.
+   * @param backendID     The backend ID of the entry.
+   * @param entryID       The entry ID within the backend.
+   * @param onlyIfAbsent  Whether an already cached entry with the same DN must be kept.
+   *
+   * @return  {@code false} if {@code onlyIfAbsent} is set and the entry was already cached,
+   *          {@code true} otherwise, even if the entry was not cached due to size constraints.
+   */
+  private boolean put(Entry entry, String backendID, long entryID, boolean onlyIfAbsent)
+  {
+    final DN dn = entry.getName();
+    final int hash = hash(dn);
+    final Shard shard = shards[shardIndex(hash)];
+    final Node node = new Node(new CacheEntry(entry, backendID, entryID), hash, estimateSize(entry));
+
+    shard.lock.lock();
+    try
+    {
+      Node previous = dnMap.get(dn);
+      if (previous != null)
+      {
+        if (onlyIfAbsent)
+        {
+          return false;
+        }
+        shard.unlink(previous);
+      }
+
+      if (node.size > shard.maxSize || shard.maxEntries == 0)
+      {
+        // The entry would use more than the shard's share of the cache.
+        return true;
+      }
+
+      sketch.increment(hash);
+      shard.link(node);
+      shard.evictEntries();
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+
+      // We can't be sure there wasn't a conflict, so return false.
+      return false;
+    }
+    finally
+    {
+      shard.lock.unlock();
+    }
+    return true;
+  }
+
+  @Override
+  public void removeEntry(DN entryDN)
+  {
+    Node node = entryDN != null ? dnMap.get(entryDN) : null;
+    if (node == null)
+    {
+      return;
+    }
+
+    Shard shard = shards[shardIndex(node.hash)];
+    shard.lock.lock();
+    try
+    {
+      node = dnMap.get(entryDN);
+      if (node != null)
+      {
+        shard.unlink(node);
+      }
+    }
+    finally
+    {
+      shard.lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear()
+  {
+    // Forget about the popularity of the entries as well.
+    sketch = new FrequencySketch(sketch.capacity);
+    for (Shard shard : shards)
+    {
+      shard.lock.lock();
+      try
+      {
+        shard.unlinkAll();
+      }
+      finally
+      {
+        shard.lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void clearBackend(String backendID)
+  {
+    // Remove all references to entries for this backend from the ID cache.
+    Map<Long, Node> backendMap = idMap.remove(backendID);
+    if (backendMap == null)
+    {
+      // No entries were in the cache for this backend, so we can return
+      // without doing anything.
+      return;
+    }
+
+    // Each node is removed under its own shard lock, so that concurrent
+    // readers and writers are never blocked for long.
+    for (Node node : backendMap.values())
+    {
+      Shard shard = shards[shardIndex(node.hash)];
+      shard.lock.lock();
+      try
+      {
+        if (node.linked)
+        {
+          shard.unlink(node);
+        }
+      }
+      finally
+      {
+        shard.lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void handleLowMemory()
+  {
+    // Drop 10% of the entries of each shard, or all of them when the cache
+    // holds less than 1000 entries.
+    final boolean dropAll = currentEntries.get() < 1000;
+    for (Shard shard : shards)
+    {
+      shard.lock.lock();
+      try
+      {
+        if (dropAll)
+        {
+          shard.unlinkAll();
+          continue;
+        }
+        for (int numToDrop = shard.size() / 10; numToDrop > 0; numToDrop--)
+        {
+          shard.unlink(shard.selectVictim());
+        }
+      }
+      finally
+      {
+        shard.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of entries held by each shard of this cache.
+   *
+   * @return  The number of entries held by each shard of this cache.
+   */
+  long[] getShardEntryCounts()
+  {
+    final long[] counts = new long[shards.length];
+    for (int i = 0; i < shards.length; i++)
+    {
+      shards[i].lock.lock();
+      try
+      {
+        counts[i] = shards[i].size();
+      }
+      finally
+      {
+        shards[i].lock.unlock();
+      }
+    }
+    return counts;
+  }
+
+  private int shardIndex(int hash)
+  {
+    // The low bits are used by the frequency sketch.
+    return (hash >>> 16) & shardMask;
+  }
+
+  /**
+   * Returns a well-distributed hash for the provided DN.
+   *
+   * @param dn  The DN to hash.
+   *
+   * @return  A well-distributed hash for the provided DN.
+   */
+  private static int hash(DN dn)
+  {
+    int h = dn.hashCode() * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Estimates the amount of heap memory retained by the provided entry once cached.
+   * <p>
+   * This is an approximation rather than an exact measurement: the DN, object class names and
+   * attribute values are counted for their characters and bytes, plus fixed per entry, per
+   * attribute and per value overheads estimated for a 64-bit JVM. Object alignment, the schema
+   * elements shared between entries and the normalized values computed lazily are not accounted
+   * for.
+   *
+   * @param entry  The entry to measure.
+   *
+   * @return  The estimated amount of heap memory retained by the entry, in bytes.
+   */
+  static long estimateSize(Entry entry)
+  {
+    long size = ENTRY_OVERHEAD + 2L * entry.getName().toString().length();
+    for (String objectClassName : entry.getObjectClasses().values())
+    {
+      size += VALUE_OVERHEAD + 2L * objectClassName.length();
+    }
+    for (Attribute attribute : entry.getAllAttributes())
+    {
+      size += ATTRIBUTE_OVERHEAD;
+      for (ByteString value : attribute)
+      {
+        size += VALUE_OVERHEAD + value.length();
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public boolean isConfigurationAcceptable(EntryCacheCfg configuration,
+                                           List<LocalizableMessage> unacceptableReasons)
+  {
+    ConcurrentEntryCacheCfg config = (ConcurrentEntryCacheCfg) configuration;
+    return isConfigurationChangeAcceptable(config, unacceptableReasons);
+  }
+
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      ConcurrentEntryCacheCfg configuration,
+      List<LocalizableMessage> unacceptableReasons
+      )
+  {
+    boolean applyChanges = false;
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_ACCEPTABLE,
+          unacceptableReasons,
+          null
+        );
+    processEntryCacheConfig (configuration, applyChanges, errorHandler);
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public ConfigChangeResult applyConfigurationChange(ConcurrentEntryCacheCfg configuration)
+  {
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_APPLY, null, errorMessages
+          );
+
+    // Do not apply changes unless this cache is enabled.
+    if (configuration.isEnabled()) {
+      processEntryCacheConfig (configuration, applyChanges, errorHandler);
+    }
+
+    final ConfigChangeResult changeResult = new ConfigChangeResult();
+    changeResult.setResultCode(errorHandler.getResultCode());
+    changeResult.setAdminActionRequired(errorHandler.getIsAdminActionRequired());
+    changeResult.getMessages().addAll(errorHandler.getErrorMessages());
+    return changeResult;
+  }
+
+  /**
+   * Parses the provided configuration and configure the entry cache.
+   *
+   * @param configuration  The new configuration containing the changes.
+   * @param applyChanges   If true then take into account the new configuration.
+   * @param errorHandler   An handler used to report errors.
+   *
+   * @return  <CODE>true</CODE> if configuration is acceptable,
+   *          or <CODE>false</CODE> otherwise.
+   */
+  private boolean processEntryCacheConfig(
+      ConcurrentEntryCacheCfg             configuration,
+      boolean                             applyChanges,
+      EntryCacheCommon.ConfigErrorHandler errorHandler
+      )
+  {
+    // Local variables to read configuration.
+    Set<SearchFilter> newIncludeFilters = null;
+    Set<SearchFilter> newExcludeFilters = null;
+
+    // Read configuration.
+    DN newConfigEntryDN = configuration.dn();
+    long newMaxEntries = configuration.getMaxEntries();
+    long newMaxMemorySize = configuration.getMaxMemorySize();
+
+    // Get include and exclude filters.
+    switch (errorHandler.getConfigPhase())
+    {
+    case PHASE_INIT:
+    case PHASE_ACCEPTABLE:
+    case PHASE_APPLY:
+      newIncludeFilters = EntryCacheCommon.getFilters (
+          configuration.getIncludeFilter(),
+          ERR_CACHE_INVALID_INCLUDE_FILTER,
+          errorHandler,
+          newConfigEntryDN
+          );
+      newExcludeFilters = EntryCacheCommon.getFilters (
+          configuration.getExcludeFilter(),
+          ERR_CACHE_INVALID_EXCLUDE_FILTER,
+          errorHandler,
+          newConfigEntryDN
+          );
+      break;
+    }
+
+    if (applyChanges && errorHandler.getIsAcceptable())
+    {
+      maxEntries    = newMaxEntries;
+      maxMemorySize = newMaxMemorySize;
+      // Each shard evicts its own entries, so the limits are split between the shards.
+      long maxShardSize = newMaxMemorySize / shards.length;
+      for (int i = 0; i < shards.length; i++)
+      {
+        long maxShardEntries = Long.MAX_VALUE;
+        if (newMaxEntries > 0)
+        {
+          maxShardEntries = newMaxEntries / shards.length + (i < newMaxEntries % shards.length ? 1 : 0);
+        }
+        Shard shard = shards[i];
+        shard.maxSize = maxShardSize;
+        shard.maxEntries = maxShardEntries;
+        shard.maxWindowSize = Math.max(1, maxShardSize * WINDOW_PERCENT / 100);
+        shard.maxWindowEntries = Math.max(1, maxShardEntries / 100 * WINDOW_PERCENT);
+      }
+
+      // Size the sketch after the number of entries the cache may hold.
+      long capacity = newMaxMemorySize / AVERAGE_ENTRY_SIZE;
+      if (newMaxEntries > 0)
+      {
+        capacity = Math.min(capacity, newMaxEntries);
+      }
+      if (sketch == null || sketch.capacity != FrequencySketch.tableSizeFor(capacity))
+      {
+        sketch = new FrequencySketch(capacity);
+      }
+      setIncludeFilters(newIncludeFilters);
+      setExcludeFilters(newExcludeFilters);
+      registeredConfiguration = configuration;
+
+      // Shrink the cache if the limits were lowered.
+      for (Shard shard : shards)
+      {
+        shard.lock.lock();
+        try
+        {
+          shard.evictEntries();
+        }
+        finally
+        {
+          shard.lock.unlock();
+        }
+      }
+    }
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    try {
+      MonitorData attrs = EntryCacheCommon.getGenericMonitorData(
+        cacheHits.longValue(),
+        // If cache misses is maintained by default cache
+        // get it from there and if not point to itself.
+        DirectoryServer.getEntryCache().getCacheMisses(),
+        currentMemorySize.get(),
+        maxMemorySize,
+        currentEntries.get(),
+        Long.valueOf(
+            (maxEntries != Integer.MAX_VALUE && maxEntries != Long.MAX_VALUE) ? maxEntries : 0)
+        );
+      attrs.add("entryCacheEvictions", evictions.get());
+      attrs.add("entryCacheAdmissionRejects", admissionRejects.get());
+      return attrs;
+    } catch (Exception e) {
+      logger.traceException(e);
+      return new MonitorData(0);
+    }
+  }
+
+  @Override
+  public Long getCacheCount()
+  {
+    return currentEntries.get();
+  }
+
+  @Override
+  public String toVerboseString()
+  {
+    StringBuilder sb = new StringBuilder();
+    for (Node node : dnMap.values())
+    {
+      final CacheEntry cacheEntry = node.cacheEntry;
+      sb.append(cacheEntry.getDN());
+      sb.append(":");
+      sb.append(cacheEntry.getEntryID());
+      sb.append(":");
+      sb.append(cacheEntry.getBackendID());
+      sb.append(ServerConstants.EOL);
+    }
+
+    String verboseString = sb.toString();
+    return verboseString.length() > 0 ? verboseString : null;
+  }
+
+  /** A cached entry along with the bookkeeping needed by its shard. */
+  private static final class Node
+  {
+    private final CacheEntry cacheEntry;
+    private final int hash;
+    private final long size;
+
+    /** Whether the entry has been read since the CLOCK hand last passed over it. Set without locking. */
+    private volatile boolean accessed;
+
+    // The following fields are guarded by the shard lock.
+    private boolean linked;
+    private boolean inWindow;
+    private Node prev;
+    private Node next;
+
+    private Node(CacheEntry cacheEntry, int hash, long size)
+    {
+      this.cacheEntry = cacheEntry;
+      this.hash = hash;
+      this.size = size;
+    }
+  }
+
+  /** An intrusive doubly-linked list of nodes, ordered from the oldest to the most recently added. */
+  private static final class NodeList
+  {
+    private Node head;
+    private Node tail;
+    private int size;
+    private long memorySize;
+
+    private void addLast(Node node)
+    {
+      node.prev = tail;
+      node.next = null;
+      if (tail == null)
+      {
+        head = node;
+      }
+      else
+      {
+        tail.next = node;
+      }
+      tail = node;
+      size++;
+      memorySize += node.size;
+    }
+
+    private void remove(Node node)
+    {
+      if (node.prev == null)
+      {
+        head = node.next;
+      }
+      else
+      {
+        node.prev.next = node.next;
+      }
+      if (node.next == null)
+      {
+        tail = node.prev;
+      }
+      else
+      {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+      size--;
+      memorySize -= node.size;
+    }
+
+    private void clear()
+    {
+      head = null;
+      tail = null;
+      size = 0;
+      memorySize = 0;
+    }
+  }
+
+  /** A subset of the cached entries sharing the same lock and eviction order. */
+  private final class Shard
+  {
+    private final ReentrantLock lock = new ReentrantLock();
+    /** The admission window, where new entries wait before competing for the main region. */
+    private final NodeList window = new NodeList();
+    /** The main region, scanned with the CLOCK algorithm. */
+    private final NodeList main = new NodeList();
+    /** The shard's share of the maximum memory of the cache. */
+    private volatile long maxSize;
+    /** The shard's share of the maximum number of entries of the cache. */
+    private volatile long maxEntries = Long.MAX_VALUE;
+    /** The maximum memory the admission window may use. */
+    private volatile long maxWindowSize = 1;
+    /** The maximum number of entries the admission window may hold. */
+    private volatile long maxWindowEntries = 1;
+
+    private int size()
+    {
+      return window.size + main.size;
+    }
+
+    /** Indicates whether this shard exceeds its share of the cache limits. The shard lock must be held. */
+    private boolean isOverflowing()
+    {
+      return window.memorySize + main.memorySize > maxSize || size() > maxEntries;
+    }
+
+    /**
+     * Adds the provided node to the admission window and makes it visible to readers.
+     * The shard lock must be held.
+     */
+    private void link(Node node)
+    {
+      final CacheEntry cacheEntry = node.cacheEntry;
+      node.linked = true;
+      node.inWindow = true;
+      window.addLast(node);
+      dnMap.put(cacheEntry.getDN(), node);
+      ConcurrentMap<Long, Node> backendMap = idMap.get(cacheEntry.getBackendID());
+      if (backendMap == null)
+      {
+        backendMap = new ConcurrentHashMap<>();
+        ConcurrentMap<Long, Node> existing = idMap.putIfAbsent(cacheEntry.getBackendID(), backendMap);
+        if (existing != null)
+        {
+          backendMap = existing;
+        }
+      }
+      backendMap.put(cacheEntry.getEntryID(), node);
+      currentMemorySize.addAndGet(node.size);
+      currentEntries.incrementAndGet();
+    }
+
+    /** Removes the provided node from this shard and from the cache maps. The shard lock must be held. */
+    private void unlink(Node node)
+    {
+      final CacheEntry cacheEntry = node.cacheEntry;
+      node.linked = false;
+      if (node.inWindow)
+      {
+        window.remove(node);
+      }
+      else
+      {
+        main.remove(node);
+      }
+      dnMap.remove(cacheEntry.getDN(), node);
+      Map<Long, Node> backendMap = idMap.get(cacheEntry.getBackendID());
+      if (backendMap != null)
+      {
+        backendMap.remove(cacheEntry.getEntryID(), node);
+      }
+      currentMemorySize.addAndGet(-node.size);
+      currentEntries.decrementAndGet();
+    }
+
+    /** Removes all the nodes of this shard. The shard lock must be held. */
+    private void unlinkAll()
+    {
+      for (NodeList list : new NodeList[] { window, main })
+      {
+        for (Node node = list.head; node != null; node = node.next)
+        {
+          final CacheEntry cacheEntry = node.cacheEntry;
+          node.linked = false;
+          dnMap.remove(cacheEntry.getDN(), node);
+          Map<Long, Node> backendMap = idMap.get(cacheEntry.getBackendID());
+          if (backendMap != null)
+          {
+            backendMap.remove(cacheEntry.getEntryID(), node);
+          }
+          currentMemorySize.addAndGet(-node.size);
+          currentEntries.decrementAndGet();
+        }
+        list.clear();
+      }
+    }
+
+    /**
+     * Moves the entries overflowing the admission window to the main region, then evicts entries
+     * while this shard exceeds its share of the cache limits. Entries coming from the window are only admitted if they
+     * are more popular than the main region's victim. The shard lock must be held.
+     */
+    private void evictEntries()
+    {
+      Node candidate = null;
+      while ((window.memorySize > maxWindowSize || window.size > maxWindowEntries) && window.size > 1)
+      {
+        candidate = window.head;
+        window.remove(candidate);
+        candidate.inWindow = false;
+        main.addLast(candidate);
+      }
+
+      // Entries still in the window are never evicted here, so that the entry
+      // just cached is not evicted before it had a chance to be read. The
+      // window is much smaller than the shard limits.
+      while (isOverflowing() && main.size > 0)
+      {
+        Node victim = selectVictim();
+        if (candidate != null && candidate != victim && candidate.linked
+            && sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash))
+        {
+          unlink(candidate);
+          candidate = null;
+          admissionRejects.getAndIncrement();
+        }
+        else
+        {
+          unlink(victim);
+          evictions.getAndIncrement();
+        }
+      }
+    }
+
+    /**
+     * Returns the next entry to evict from this shard. Entries of the main region read since the
+     * CLOCK hand last passed over them get a second chance. The shard lock must be held.
+     */
+    private Node selectVictim()
+    {
+      for (int i = main.size; i > 0; i--)
+      {
+        Node node = main.head;
+        if (!node.accessed)
+        {
+          return node;
+        }
+        node.accessed = false;
+        main.remove(node);
+        main.addLast(node);
+      }
+      return main.head != null ? main.head : window.head;
+    }
+  }
+
+  /**
+   * A count-min sketch estimating how often each entry was requested recently, using 4-bit
+   * counters. Counters are updated with compare-and-set so that readers never block, and are all
+   * halved once the number of increments reaches ten times the table size, so that the popularity
+   * of entries which are no longer requested fades away.
+   */
+  static final class FrequencySketch
+  {
+    private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_TABLE_SIZE = 1 << 24;
+
+    private final AtomicLongArray table;
+    private final int capacity;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    FrequencySketch(long expectedEntries)
+    {
+      capacity = tableSizeFor(expectedEntries);
+      table = new AtomicLongArray(capacity);
+      sampleSize = 10 * capacity;
+    }
+
+    static int tableSizeFor(long expectedEntries)
+    {
+      int size = (int) Math.min(Math.max(expectedEntries, 8), MAX_TABLE_SIZE);
+      return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Returns the estimated number of recent requests for the provided hash, capped to 15.
+     *
+     * @param hash  The hash of the requested item.
+     *
+     * @return  The estimated number of recent requests for the item.
+     */
+    int frequency(int hash)
+    {
+      final int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++)
+      {
+        int offset = (start + i) << 2;
+        int count = (int) ((table.get(indexOf(hash, i)) >>> offset) & 0xfL);
+        frequency = Math.min(frequency, count);
+      }
+      return frequency;
+    }
+
+    /**
+     * Records a request for the provided hash.
+     *
+     * @param hash  The hash of the requested item.
+     */
+    void increment(int hash)
+    {
+      final int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; i++)
+      {
+        added |= incrementAt(indexOf(hash, i), start + i);
+      }
+      if (added && additions.incrementAndGet() == sampleSize)
+      {
+        reset();
+        additions.addAndGet(-sampleSize / 2);
+      }
+    }
+
+    private boolean incrementAt(int index, int counter)
+    {
+      final int offset = counter << 2;
+      final long mask = 0xfL << offset;
+      for (;;)
+      {
+        long value = table.get(index);
+        if ((value & mask) == mask)
+        {
+          return false;
+        }
+        if (table.compareAndSet(index, value, value + (1L << offset)))
+        {
+          return true;
+        }
+      }
+    }
+
+    private void reset()
+    {
+      for (int i = 0; i < capacity; i++)
+      {
+        long value;
+        do
+        {
+          value = table.get(i);
+        }
+        while (!table.compareAndSet(i, value, (value >>> 1) & RESET_MASK));
+      }
+    }
+
+    private int indexOf(int hash, int depth)
+    {
+      long h = (hash + SEEDS[depth]) * SEEDS[depth];
+      h += h >>> 32;
+      return (int) h & (capacity - 1);
+    }
+  }
+}
@@ -69,6 +69,14 @@ public class DynamicGroup
   /** The set of the LDAP URLs that define the membership criteria. */
   private LinkedHashSet<LDAPURL> memberURLs;
 
+  /** The server context, only set for the group instances keeping their members in memory. */
+  private ServerContext serverContext;
+  /** The members kept in memory, {@code null} if they are evaluated for each request. */
+  private DynamicGroupMemberCache memberCache;
+
+  /** Indicates whether the group instances created by this implementation keep their members in memory. */
+  private boolean cacheMembers;
+
   /** Creates a new, uninitialized dynamic group instance. This is intended for internal use only. */
   public DynamicGroup()
   {
@@ -96,12 +104,30 @@ public class DynamicGroup
     this.memberURLs   = memberURLs;
   }
 
+  /**
+   * Creates a new dynamic group instance keeping its members in memory.
+   *
+   * @param  serverContext  The server context.
+   * @param  groupEntryDN   The DN of the entry that holds the definition for
+   *                        this group.  It must not be {@code null}.
+   * @param  memberURLs     The set of LDAP URLs that define the membership
+   *                        criteria for this group.  It must not be
+   *                        {@code null}.
+   */
+  private DynamicGroup(ServerContext serverContext, DN groupEntryDN, LinkedHashSet<LDAPURL> memberURLs)
+  {
+    this(groupEntryDN, memberURLs);
+
+    this.serverContext = serverContext;
+    this.memberCache = new DynamicGroupMemberCache(serverContext, groupEntryDN, memberURLs);
+  }
+
   @Override
   public void initializeGroupImplementation(
                    DynamicGroupImplementationCfg configuration)
          throws ConfigException, InitializationException
   {
-    // No additional initialization is required.
+    cacheMembers = configuration.isCacheMembers();
   }
 
   @Override
@@ -129,6 +155,10 @@ public class DynamicGroup
       }
     }
 
+    if (cacheMembers && DynamicGroupMemberCache.isCacheable(memberURLs))
+    {
+      return new DynamicGroup(serverContext, groupEntry.getName(), memberURLs);
+    }
     return new DynamicGroup(groupEntry.getName(), memberURLs);
   }
 
@@ -207,6 +237,12 @@ public class DynamicGroup
     throw new UnsupportedOperationException(message.toString());
   }
 
+  @Override
+  public boolean hasCachedMembers()
+  {
+    return memberCache != null;
+  }
+
   @Override
   public boolean isMember(DN userDN, AtomicReference<Set<DN>> examinedGroups)
          throws DirectoryException
@@ -217,6 +253,12 @@ public class DynamicGroup
       return false;
     }
 
+    DynamicGroupMemberCache cache = memberCache;
+    if (cache != null)
+    {
+      return cache.contains(userDN);
+    }
+
     Entry entry = DirectoryConfig.getEntry(userDN);
     return entry != null && isMember(entry);
   }
@@ -231,6 +273,12 @@ public class DynamicGroup
       return false;
     }
 
+    DynamicGroupMemberCache cache = memberCache;
+    if (cache != null)
+    {
+      return cache.contains(userEntry.getName());
+    }
+
     for (LDAPURL memberURL : memberURLs)
     {
       if (memberURL.matchesEntry(userEntry))
@@ -257,6 +305,11 @@ public class DynamicGroup
   public MemberList getMembers()
          throws DirectoryException
   {
+    DynamicGroupMemberCache cache = memberCache;
+    if (cache != null)
+    {
+      return new SimpleStaticGroupMemberList(serverContext, groupEntryDN, cache.getMemberDNs());
+    }
     return new DynamicGroupMemberList(groupEntryDN, memberURLs);
   }
 
@@ -265,6 +318,16 @@ public class DynamicGroup
                                SearchFilter filter)
          throws DirectoryException
   {
+    DynamicGroupMemberCache cache = memberCache;
+    if (cache != null)
+    {
+      if (baseDN == null && filter == null)
+      {
+        return new SimpleStaticGroupMemberList(serverContext, groupEntryDN, cache.getMemberDNs());
+      }
+      return new FilteredStaticGroupMemberList(serverContext, groupEntryDN, cache.getMemberDNs(),
+          baseDN, scope, filter);
+    }
     if (baseDN == null && filter == null)
     {
       return new DynamicGroupMemberList(groupEntryDN, memberURLs);
@@ -309,6 +372,26 @@ public class DynamicGroup
     throw new UnsupportedOperationException(message.toString());
   }
 
+  @Override
+  public void entryChanged(Entry oldEntry, Entry newEntry)
+  {
+    DynamicGroupMemberCache cache = memberCache;
+    if (cache != null)
+    {
+      cache.entryChanged(oldEntry, newEntry);
+    }
+  }
+
+  @Override
+  public void clearMemberCache()
+  {
+    DynamicGroupMemberCache cache = memberCache;
+    if (cache != null)
+    {
+      cache.clear();
+    }
+  }
+
   @Override
   public void toString(StringBuilder buffer)
   {
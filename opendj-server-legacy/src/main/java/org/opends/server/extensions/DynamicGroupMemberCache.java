@@ -0,0 +1,368 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ExtensionMessages.*;
+import static org.opends.server.protocols.internal.InternalClientConnection.*;
+import static org.opends.server.protocols.internal.Requests.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.schema.AttributeType;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.ServerContext;
+import org.opends.server.extensions.StaticGroup.CompactDn;
+import org.opends.server.protocols.internal.InternalSearchListener;
+import org.opends.server.protocols.internal.InternalSearchOperation;
+import org.opends.server.protocols.internal.SearchRequest;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Entry;
+import org.opends.server.types.LDAPURL;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.types.SearchResultEntry;
+import org.opends.server.types.SearchResultReference;
+import org.opends.server.types.VirtualAttributeRule;
+
+/**
+ * The set of members of a dynamic group, kept in memory. The members are
+ * retrieved with internal searches the first time they are needed, and then
+ * maintained from the changes to the entries notified by the group manager.
+ * <p>
+ * The member DNs are kept in their compact form, sorted in hierarchical order
+ * so that the members below a deleted or renamed entry are contiguous.
+ */
+final class DynamicGroupMemberCache
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  private final ServerContext serverContext;
+  /** The DN of the entry containing the group definition. */
+  private final DN groupDN;
+  /** The set of LDAP URLs that define the membership criteria. */
+  private final Set<LDAPURL> memberURLs;
+
+  /** Serializes the loads of the members. */
+  private final Object loadLock = new Object();
+  /** The DNs of the members, {@code null} until they are loaded. Guarded by this. */
+  private volatile NavigableSet<CompactDn> memberDNs;
+  /**
+   * The changes notified while the members are being loaded, which are applied once the load is
+   * complete. {@code null} when no load is in progress. Guarded by this.
+   */
+  private List<Entry[]> pendingChanges;
+
+  /**
+   * Creates a new member cache for the provided dynamic group.
+   *
+   * @param serverContext
+   *          The server context.
+   * @param groupDN
+   *          The DN of the entry containing the group definition.
+   * @param memberURLs
+   *          The set of LDAP URLs that define the membership criteria.
+   */
+  DynamicGroupMemberCache(ServerContext serverContext, DN groupDN, Set<LDAPURL> memberURLs)
+  {
+    this.serverContext = serverContext;
+    this.groupDN = groupDN;
+    this.memberURLs = memberURLs;
+  }
+
+  /**
+   * Indicates whether the members defined by the provided member URLs can be kept in memory. This is not the case
+   * when a filter targets a virtual attribute, whose values may change without any change to the entries.
+   *
+   * @param memberURLs
+   *          The set of LDAP URLs that define the membership criteria.
+   * @return {@code true} if the members can be kept in memory.
+   */
+  static boolean isCacheable(Set<LDAPURL> memberURLs)
+  {
+    for (LDAPURL memberURL : memberURLs)
+    {
+      if (targetsVirtualAttribute(memberURL.getFilter()))
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean targetsVirtualAttribute(SearchFilter filter)
+  {
+    switch (filter.getFilterType())
+    {
+    case AND:
+    case OR:
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        if (targetsVirtualAttribute(component))
+        {
+          return true;
+        }
+      }
+      return false;
+
+    case NOT:
+      return targetsVirtualAttribute(filter.getNotComponent());
+
+    default:
+      final AttributeType attributeType = filter.getAttributeType();
+      if (attributeType == null)
+      {
+        // Extensible match filters may match any attribute
+        return !DirectoryServer.getVirtualAttributes().isEmpty();
+      }
+      for (VirtualAttributeRule rule : DirectoryServer.getVirtualAttributes())
+      {
+        if (rule.getAttributeType().equals(attributeType))
+        {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Indicates whether the provided entry is a member of the group.
+   *
+   * @param entryDN
+   *          The DN of the entry.
+   * @return {@code true} if the entry is a member of the group.
+   * @throws DirectoryException
+   *           If the members could not be loaded.
+   */
+  boolean contains(DN entryDN) throws DirectoryException
+  {
+    return getMemberDNs().contains(new CompactDn(entryDN));
+  }
+
+  /**
+   * Returns the DNs of the members of the group, loading them if needed. The returned set reflects the later changes
+   * to the members, and its iterators never throw {@link java.util.ConcurrentModificationException}.
+   *
+   * @return The DNs of the members of the group.
+   * @throws DirectoryException
+   *           If the members could not be loaded.
+   */
+  Set<CompactDn> getMemberDNs() throws DirectoryException
+  {
+    NavigableSet<CompactDn> members = memberDNs;
+    if (members != null)
+    {
+      return members;
+    }
+
+    synchronized (loadLock)
+    {
+      members = memberDNs;
+      if (members != null)
+      {
+        return members;
+      }
+
+      while (true)
+      {
+        synchronized (this)
+        {
+          pendingChanges = new ArrayList<>();
+        }
+        members = new ConcurrentSkipListSet<>();
+        try
+        {
+          load(members);
+        }
+        catch (DirectoryException e)
+        {
+          synchronized (this)
+          {
+            pendingChanges = null;
+          }
+          throw e;
+        }
+
+        // The searches may have missed the changes notified while they were running
+        synchronized (this)
+        {
+          if (applyPendingChanges(members))
+          {
+            memberDNs = members;
+            return members;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies the changes notified during a load to the loaded members.
+   *
+   * @return {@code false} if a change cannot be applied and the members must be loaded again
+   */
+  private boolean applyPendingChanges(NavigableSet<CompactDn> members)
+  {
+    try
+    {
+      for (Entry[] change : pendingChanges)
+      {
+        if (!apply(members, change[0], change[1]))
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+    finally
+    {
+      pendingChanges = null;
+    }
+  }
+
+  private void load(final Set<CompactDn> members) throws DirectoryException
+  {
+    InternalSearchListener listener = new InternalSearchListener()
+    {
+      @Override
+      public void handleInternalSearchEntry(InternalSearchOperation searchOperation, SearchResultEntry searchEntry)
+      {
+        members.add(new CompactDn(searchEntry.getName()));
+      }
+
+      @Override
+      public void handleInternalSearchReference(InternalSearchOperation searchOperation,
+          SearchResultReference searchReference)
+      {
+        // No implementation required.
+      }
+    };
+
+    for (LDAPURL memberURL : memberURLs)
+    {
+      final DN baseDN = memberURL.getBaseDN();
+      final SearchScope scope = memberURL.getScope() != null ? memberURL.getScope() : SearchScope.BASE_OBJECT;
+      final SearchRequest request = newSearchRequest(baseDN, scope, memberURL.getFilter())
+          .addAttribute("1.1");
+      final InternalSearchOperation searchOperation = getRootConnection().processSearch(request, listener);
+      final ResultCode resultCode = searchOperation.getResultCode();
+      if (resultCode == ResultCode.NO_SUCH_OBJECT)
+      {
+        logger.warn(WARN_DYNAMICGROUP_NONEXISTENT_BASE_DN, baseDN, groupDN);
+      }
+      else if (resultCode != ResultCode.SUCCESS)
+      {
+        throw new DirectoryException(resultCode, ERR_DYNAMICGROUP_INTERNAL_SEARCH_FAILED.get(
+            baseDN, memberURL.getFilter(), groupDN, resultCode, searchOperation.getErrorMessage()));
+      }
+    }
+  }
+
+  /**
+   * Updates the members of the group with a change to an entry.
+   *
+   * @param oldEntry
+   *          The entry before the change, or {@code null} if the entry has been added.
+   * @param newEntry
+   *          The entry after the change, or {@code null} if the entry has been deleted.
+   */
+  synchronized void entryChanged(Entry oldEntry, Entry newEntry)
+  {
+    if (pendingChanges != null)
+    {
+      pendingChanges.add(new Entry[] { oldEntry, newEntry });
+    }
+    else if (memberDNs != null && !apply(memberDNs, oldEntry, newEntry))
+    {
+      memberDNs = null;
+    }
+  }
+
+  /** Discards the members, they will be loaded again the next time they are needed. */
+  synchronized void clear()
+  {
+    memberDNs = null;
+    if (pendingChanges != null)
+    {
+      // Make the load in progress discard its result, which may be outdated
+      pendingChanges.add(new Entry[] { null, null });
+    }
+  }
+
+  /**
+   * Applies a change to an entry to the provided members.
+   *
+   * @return {@code false} if the change cannot be applied and the members must be loaded again
+   */
+  private boolean apply(NavigableSet<CompactDn> members, Entry oldEntry, Entry newEntry)
+  {
+    if (oldEntry == null && newEntry == null)
+    {
+      return false;
+    }
+    if (oldEntry != null)
+    {
+      final DN oldDN = oldEntry.getName();
+      members.remove(new CompactDn(oldDN));
+      if (newEntry == null || !oldDN.equals(newEntry.getName()))
+      {
+        // The deleted or renamed entry may have had subordinate entries
+        final Iterator<CompactDn> subordinates = members.tailSet(new CompactDn(oldDN), false).iterator();
+        while (subordinates.hasNext() && subordinates.next().toDn(serverContext).isSubordinateOrEqualTo(oldDN))
+        {
+          if (newEntry != null)
+          {
+            // The criteria must be evaluated against the renamed subordinate entries
+            return false;
+          }
+          subordinates.remove();
+        }
+      }
+    }
+    if (newEntry != null && matchesMemberURL(newEntry))
+    {
+      members.add(new CompactDn(newEntry.getName()));
+    }
+    return true;
+  }
+
+  private boolean matchesMemberURL(Entry entry)
+  {
+    for (LDAPURL memberURL : memberURLs)
+    {
+      try
+      {
+        if (memberURL.matchesEntry(entry))
+        {
+          return true;
+        }
+      }
+      catch (DirectoryException e)
+      {
+        logger.traceException(e);
+      }
+    }
+    return false;
+  }
+}
@@ -44,8 +44,14 @@ import org.opends.server.types.SearchFilter;
 public class DynamicGroupMemberList
        extends MemberList
 {
+  /** The maximum time to wait for the next result before checking whether the searches have completed. */
+  private static final long RESULT_WAIT_MILLIS = 10;
+
   /** Indicates whether the search thread has completed its processing. */
-  private boolean searchesCompleted;
+  private volatile boolean searchesCompleted;
+
+  /** The next result to return, already removed from the result queue. */
+  private Object nextResult;
 
   /** The base DN to use when filtering the set of group members. */
   private final DN baseDN;
@@ -370,20 +376,30 @@ public class DynamicGroupMemberList
   @Override
   public boolean hasMoreMembers()
   {
-    while (! searchesCompleted)
+    if (nextResult != null)
     {
-      if (resultQueue.peek() != null)
-      {
-        return true;
-      }
+      return true;
+    }
 
-      try
+    try
+    {
+      // Block until a result is available rather than polling the queue
+      while (! searchesCompleted)
       {
-        Thread.sleep(0, 1000);
-      } catch (Exception e) {}
+        nextResult = resultQueue.poll(RESULT_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        if (nextResult != null)
+        {
+          return true;
+        }
+      }
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
     }
 
-    return resultQueue.peek() != null;
+    nextResult = resultQueue.poll();
+    return nextResult != null;
   }
 
   @Override
@@ -395,7 +411,8 @@ public class DynamicGroupMemberList
       return null;
     }
 
-    Object result = resultQueue.poll();
+    Object result = nextResult;
+    nextResult = null;
     if (result == null)
     {
       close();
@@ -425,6 +442,7 @@ public class DynamicGroupMemberList
   public void close()
   {
     searchesCompleted = true;
+    nextResult = null;
     resultQueue.clear();
   }
 }
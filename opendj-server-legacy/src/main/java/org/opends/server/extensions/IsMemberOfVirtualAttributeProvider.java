@@ -16,6 +16,9 @@
  */
 package org.opends.server.extensions;
 
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -29,6 +32,7 @@ import org.forgerock.opendj.server.config.server.IsMemberOfVirtualAttributeCfg;
 import org.opends.server.api.Group;
 import org.opends.server.api.VirtualAttributeProvider;
 import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.GroupManager;
 import org.opends.server.core.SearchOperation;
 import org.forgerock.opendj.ldap.schema.AttributeType;
 import org.opends.server.types.*;
@@ -63,21 +67,10 @@ public class IsMemberOfVirtualAttributeProvider
   @Override
   public Attribute getValues(Entry entry, VirtualAttributeRule rule)
   {
-	// FIXME -- This probably isn't the most efficient implementation.
     AttributeBuilder builder = new AttributeBuilder(rule.getAttributeType());
-    for (Group<?> g : DirectoryServer.getGroupManager().getGroupInstances())
+    for (DN groupDN : DirectoryServer.getGroupManager().getGroupDNsOfMember(entry))
     {
-      try
-      {
-        if (!builder.contains(ByteString.valueOfUtf8(g.getGroupDN().toString())) && g.isMember(entry))
-        {
-          builder.add(g.getGroupDN().toString());
-        }
-      }
-      catch (Exception e)
-      {
-        logger.traceException(e);
-      }
+      builder.add(groupDN.toString());
     }
     return builder.toAttribute();
   }
@@ -85,23 +78,7 @@ public class IsMemberOfVirtualAttributeProvider
   @Override
   public boolean hasValue(Entry entry, VirtualAttributeRule rule)
   {
-    // FIXME -- This probably isn't the most efficient implementation.
-    for (Group<?> g : DirectoryServer.getGroupManager().getGroupInstances())
-    {
-      try
-      {
-        if (g.isMember(entry))
-        {
-          return true;
-        }
-      }
-      catch (Exception e)
-      {
-        logger.traceException(e);
-      }
-    }
-
-    return false;
+    return !DirectoryServer.getGroupManager().getGroupDNsOfMember(entry).isEmpty();
   }
 
   @Override
@@ -111,8 +88,9 @@ public class IsMemberOfVirtualAttributeProvider
     try
     {
       DN groupDN = DN.valueOf(value);
-      Group<?> g = DirectoryServer.getGroupManager().getGroupInstance(groupDN);
-      return g != null && g.isMember(entry);
+      GroupManager groupManager = DirectoryServer.getGroupManager();
+      Group<?> g = groupManager.getGroupInstance(groupDN);
+      return g != null && groupManager.isMember(g, entry);
     }
     catch (Exception e)
     {
@@ -261,6 +239,52 @@ public class IsMemberOfVirtualAttributeProvider
     }
   }
 
+  /**
+   * {@inheritDoc}  The members of the group are known without examining
+   * the entries when the group and all its nested groups have an explicit
+   * member list, like static groups.
+   */
+  @Override
+  public Collection<DN> getEntryDNsWithValue(VirtualAttributeRule rule,
+                                             ByteString value, int limit)
+  {
+    final GroupManager groupManager = DirectoryServer.getGroupManager();
+    final Set<DN> memberDNs = new HashSet<>();
+    final Set<DN> examinedGroupDNs = new HashSet<>();
+    final Deque<DN> groupDNs = new ArrayDeque<>();
+    try
+    {
+      groupDNs.add(DN.valueOf(value));
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      // No group can have this DN
+      return memberDNs;
+    }
+
+    while (!groupDNs.isEmpty())
+    {
+      final DN groupDN = groupDNs.poll();
+      final Group<?> group = groupManager.getGroupInstance(groupDN);
+      if (group == null || !examinedGroupDNs.add(groupDN))
+      {
+        continue;
+      }
+      if (!group.hasExplicitMemberList())
+      {
+        return null;
+      }
+      memberDNs.addAll(group.getExplicitMemberDNs());
+      if (memberDNs.size() > limit)
+      {
+        return null;
+      }
+      groupDNs.addAll(group.getNestedGroupDNs());
+    }
+    return memberDNs;
+  }
+
   /**
    * @param searchOperation the search operation being processed.
    * @param memberList the list of members of the group being processed.
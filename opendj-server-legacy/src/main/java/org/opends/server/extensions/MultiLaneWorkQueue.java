@@ -0,0 +1,709 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ConfigMessages.*;
+import static org.opends.messages.CoreMessages.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.config.server.ConfigurationChangeListener;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.server.config.server.MultiLaneWorkQueueCfg;
+import org.opends.server.api.ClientConnection;
+import org.opends.server.api.DirectoryThread;
+import org.opends.server.api.WorkQueue;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.SearchOperation;
+import org.opends.server.monitors.MultiLaneWorkQueueMonitor;
+import org.opends.server.types.CancelRequest;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.Operation;
+
+/**
+ * A work queue holding the pending operations in separate lanes depending on their type.
+ * <p>
+ * Each lane is a bounded FIFO queue. Operations submitted while their lane is full are rejected, so that a flood of
+ * operations of one type, such as unindexed searches, cannot delay the operations of the other types. The worker
+ * threads pick up the operations of the lanes having pending operations with a smooth weighted round robin, which
+ * interleaves the lanes in proportion to their weights.
+ */
+public class MultiLaneWorkQueue extends WorkQueue<MultiLaneWorkQueueCfg>
+    implements ConfigurationChangeListener<MultiLaneWorkQueueCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The lanes of the work queue. */
+  public enum Lane
+  {
+    /** Bind operations. */
+    BIND("bind"),
+    /** Compare operations and base object searches. */
+    READ("read"),
+    /** One level and subtree searches. */
+    SEARCH("search"),
+    /** Add, delete, modify and modify DN operations. */
+    WRITE("write"),
+    /** Extended operations and operations requested by root users. */
+    ADMIN("admin");
+
+    private final String name;
+
+    Lane(String name)
+    {
+      this.name = name;
+    }
+
+    @Override
+    public String toString()
+    {
+      return name;
+    }
+  }
+
+  /**
+   * The upper bounds in milliseconds of the buckets of the latency histograms, the last bucket counting the operations
+   * slower than the last bound.
+   */
+  private static final long[] LATENCY_BUCKETS_MS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+
+  /** An operation waiting in a lane. */
+  private static final class QueuedOperation
+  {
+    private final Operation operation;
+    private final LaneState lane;
+    private final long submitTime = System.nanoTime();
+
+    private QueuedOperation(Operation operation, LaneState lane)
+    {
+      this.operation = operation;
+      this.lane = lane;
+    }
+  }
+
+  /** The pending operations and the statistics of a lane. */
+  private static final class LaneState
+  {
+    private final Lane lane;
+    private final ArrayDeque<QueuedOperation> pendingOperations = new ArrayDeque<>();
+    private int weight;
+    private int capacity;
+    /** The current weight of the smooth weighted round robin. */
+    private int currentWeight;
+
+    private final AtomicLong opsSubmitted = new AtomicLong();
+    private final AtomicLong queueFullRejects = new AtomicLong();
+    private final AtomicLong opsStarted = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong();
+    /** The number of completed operations in each latency bucket. */
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS_MS.length + 1);
+
+    private LaneState(Lane lane)
+    {
+      this.lane = lane;
+    }
+
+    private void operationCompleted(long latencyNanos)
+    {
+      final long latencyMillis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+      int bucket = 0;
+      while (bucket < LATENCY_BUCKETS_MS.length && latencyMillis >= LATENCY_BUCKETS_MS[bucket])
+      {
+        bucket++;
+      }
+      latencies.incrementAndGet(bucket);
+    }
+  }
+
+  /** A worker thread processing the operations of the lanes. */
+  private final class LaneWorkerThread extends DirectoryThread
+  {
+    /** The operation being processed by this thread. */
+    private volatile Operation operation;
+
+    private LaneWorkerThread(int threadID)
+    {
+      super("Worker Thread " + threadID);
+    }
+
+    @Override
+    public void run()
+    {
+      QueuedOperation queuedOperation;
+      while ((queuedOperation = nextOperation(this)) != null)
+      {
+        final LaneState lane = queuedOperation.lane;
+        lane.opsStarted.incrementAndGet();
+        lane.totalWaitTime.addAndGet(System.nanoTime() - queuedOperation.submitTime);
+        operation = queuedOperation.operation;
+        try
+        {
+          VirtualThreadWorkQueue.process(operation);
+        }
+        finally
+        {
+          operation = null;
+          lane.operationCompleted(System.nanoTime() - queuedOperation.submitTime);
+          operationDone();
+        }
+      }
+      if (logger.isTraceEnabled())
+      {
+        logger.trace(getName() + " exiting.");
+      }
+    }
+  }
+
+  private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+  {
+    for (Lane lane : Lane.values())
+    {
+      lanes.put(lane, new LaneState(lane));
+    }
+  }
+
+  /** The lock protecting the lanes and the worker threads. */
+  private final ReentrantLock lock = new ReentrantLock();
+  /** Signaled when an operation is added to a lane. */
+  private final Condition notEmpty = lock.newCondition();
+  private final List<LaneWorkerThread> workerThreads = new ArrayList<>();
+  /** The number of operations being processed by the worker threads. */
+  private int nbActiveOperations;
+  private int numWorkerThreads;
+  /** The thread number used for the last worker thread that was created. */
+  private int lastThreadNumber;
+  private boolean shutdownRequested;
+
+  /**
+   * Creates a new instance of this work queue. All initialization should be
+   * performed in the <CODE>initializeWorkQueue</CODE> method.
+   */
+  public MultiLaneWorkQueue()
+  {
+    // No implementation should be performed here.
+  }
+
+  @Override
+  public void initializeWorkQueue(MultiLaneWorkQueueCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    lock.lock();
+    try
+    {
+      shutdownRequested = false;
+      applyLaneConfiguration(configuration);
+      numWorkerThreads = computeNumWorkerThreads(configuration.getNumWorkerThreads());
+      startWorkerThreads();
+      configuration.addMultiLaneChangeListener(this);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+
+    // Create and register a monitor provider for the work queue.
+    try
+    {
+      MultiLaneWorkQueueMonitor monitor = new MultiLaneWorkQueueMonitor(this);
+      monitor.initializeMonitorProvider(null);
+      DirectoryServer.registerMonitorProvider(monitor);
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      logger.error(ERR_CONFIG_WORK_QUEUE_CANNOT_CREATE_MONITOR, MultiLaneWorkQueueMonitor.class, e);
+    }
+  }
+
+  private void applyLaneConfiguration(MultiLaneWorkQueueCfg configuration)
+  {
+    setLane(Lane.BIND, configuration.getBindLaneWeight(), configuration.getBindLaneCapacity());
+    setLane(Lane.READ, configuration.getReadLaneWeight(), configuration.getReadLaneCapacity());
+    setLane(Lane.SEARCH, configuration.getSearchLaneWeight(), configuration.getSearchLaneCapacity());
+    setLane(Lane.WRITE, configuration.getWriteLaneWeight(), configuration.getWriteLaneCapacity());
+    setLane(Lane.ADMIN, configuration.getAdminLaneWeight(), configuration.getAdminLaneCapacity());
+  }
+
+  private void setLane(Lane lane, int weight, int capacity)
+  {
+    final LaneState laneState = lanes.get(lane);
+    laneState.weight = weight;
+    laneState.capacity = capacity;
+  }
+
+  /** Starts worker threads until there are as many as configured. Must be called with the lock held. */
+  private void startWorkerThreads()
+  {
+    while (workerThreads.size() < numWorkerThreads)
+    {
+      LaneWorkerThread t = new LaneWorkerThread(lastThreadNumber++);
+      workerThreads.add(t);
+      t.start();
+    }
+  }
+
+  @Override
+  public void finalizeWorkQueue(LocalizableMessage reason)
+  {
+    final List<QueuedOperation> pendingOperations = new ArrayList<>();
+    final List<LaneWorkerThread> threads;
+    lock.lock();
+    try
+    {
+      shutdownRequested = true;
+      for (LaneState lane : lanes.values())
+      {
+        pendingOperations.addAll(lane.pendingOperations);
+        lane.pendingOperations.clear();
+      }
+      threads = new ArrayList<>(workerThreads);
+      notEmpty.signalAll();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+
+    // From now on no more operations can be enqueued or dequeued.
+
+    // Send responses to any operations in the pending queue to indicate that
+    // they won't be processed because the server is shutting down.
+    CancelRequest cancelRequest = new CancelRequest(true, reason);
+    for (QueuedOperation o : pendingOperations)
+    {
+      try
+      {
+        // The operation has no chance of responding to the cancel
+        // request so avoid waiting for a cancel response.
+        if (o.operation.getCancelResult() == null)
+        {
+          o.operation.abort(cancelRequest);
+        }
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+        logger.warn(WARN_QUEUE_UNABLE_TO_CANCEL, o.operation, e);
+      }
+    }
+
+    // Ask the operations in progress to stop, without waiting for each of them to respond.
+    CancelRequest shutdownRequest = new CancelRequest(true, INFO_CANCELED_BY_SHUTDOWN.get());
+    for (LaneWorkerThread t : threads)
+    {
+      try
+      {
+        final Operation operation = t.operation;
+        if (operation != null)
+        {
+          operation.abort(shutdownRequest);
+        }
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+        logger.warn(WARN_QUEUE_UNABLE_TO_NOTIFY_THREAD, t.getName(), e);
+      }
+    }
+  }
+
+  /**
+   * Returns the lane holding the provided operation while it is pending.
+   *
+   * @param operation
+   *          the operation
+   * @return the lane holding the provided operation
+   */
+  public static Lane getLane(Operation operation)
+  {
+    switch (operation.getOperationType())
+    {
+    case BIND:
+      return Lane.BIND;
+    case EXTENDED:
+      return Lane.ADMIN;
+    default:
+      break;
+    }
+
+    final ClientConnection clientConnection = operation.getClientConnection();
+    if (clientConnection != null && clientConnection.getAuthenticationInfo().isRoot())
+    {
+      return Lane.ADMIN;
+    }
+
+    switch (operation.getOperationType())
+    {
+    case ADD:
+    case DELETE:
+    case MODIFY:
+    case MODIFY_DN:
+      return Lane.WRITE;
+    case SEARCH:
+      return ((SearchOperation) operation).getScope() == SearchScope.BASE_OBJECT ? Lane.READ : Lane.SEARCH;
+    default:
+      return Lane.READ;
+    }
+  }
+
+  /**
+   * Submits an operation to be processed by one of the worker threads
+   * associated with this work queue.
+   *
+   * @param operation
+   *          The operation to be processed.
+   * @throws DirectoryException
+   *           If the provided operation is not accepted for some reason (e.g.,
+   *           if the server is shutting down or the lane of the operation is
+   *           already at its maximum capacity).
+   */
+  @Override
+  public void submitOperation(Operation operation) throws DirectoryException
+  {
+    final LaneState lane = lanes.get(getLane(operation));
+    lock.lock();
+    try
+    {
+      if (shutdownRequested)
+      {
+        throw new DirectoryException(ResultCode.UNAVAILABLE, WARN_OP_REJECTED_BY_SHUTDOWN.get());
+      }
+      if (lane.pendingOperations.size() >= lane.capacity)
+      {
+        lane.queueFullRejects.incrementAndGet();
+        throw new DirectoryException(ResultCode.BUSY, WARN_OP_REJECTED_BY_LANE_FULL.get(lane.lane, lane.capacity));
+      }
+
+      lane.pendingOperations.add(new QueuedOperation(operation, lane));
+      lane.opsSubmitted.incrementAndGet();
+      notEmpty.signal();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean trySubmitOperation(Operation operation) throws DirectoryException
+  {
+    try
+    {
+      submitOperation(operation);
+      return true;
+    }
+    catch (DirectoryException e)
+    {
+      if (ResultCode.BUSY == e.getResultCode())
+      {
+        return false;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Retrieves the next operation to be processed by a worker thread, blocking until one is submitted.
+   *
+   * @return the next operation, or {@code null} if the worker thread must exit
+   */
+  private QueuedOperation nextOperation(LaneWorkerThread workerThread)
+  {
+    lock.lock();
+    try
+    {
+      while (true)
+      {
+        if (shutdownRequested)
+        {
+          return null;
+        }
+        if (workerThreads.size() > numWorkerThreads)
+        {
+          workerThreads.remove(workerThread);
+          logger.debug(INFO_WORKER_STOPPED_BY_REDUCED_THREADNUMBER, workerThread.getName());
+          return null;
+        }
+
+        final QueuedOperation next = pollNextOperation();
+        if (next != null)
+        {
+          nbActiveOperations++;
+          return next;
+        }
+
+        try
+        {
+          notEmpty.await();
+        }
+        catch (InterruptedException e)
+        {
+          if (!shutdownRequested)
+          {
+            logger.warn(WARN_WORKER_INTERRUPTED_WITHOUT_SHUTDOWN, workerThread.getName(), e);
+          }
+        }
+      }
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Polls the next operation with a smooth weighted round robin: each lane having pending operations earns its weight,
+   * and the richest lane gives away the total weight of the lanes having pending operations to have its next operation
+   * processed. Must be called with the lock held.
+   */
+  private QueuedOperation pollNextOperation()
+  {
+    LaneState selected = null;
+    int totalWeight = 0;
+    for (LaneState lane : lanes.values())
+    {
+      if (!lane.pendingOperations.isEmpty())
+      {
+        lane.currentWeight += lane.weight;
+        totalWeight += lane.weight;
+        if (selected == null || lane.currentWeight > selected.currentWeight)
+        {
+          selected = lane;
+        }
+      }
+    }
+    if (selected == null)
+    {
+      return null;
+    }
+
+    selected.currentWeight -= totalWeight;
+    final QueuedOperation next = selected.pendingOperations.poll();
+    if (selected.pendingOperations.isEmpty())
+    {
+      // Do not accumulate credit or debt while idle
+      selected.currentWeight = 0;
+    }
+    return next;
+  }
+
+  private void operationDone()
+  {
+    lock.lock();
+    try
+    {
+      nbActiveOperations--;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the total number of operations that have been successfully
+   * submitted to the provided lane since server startup.
+   *
+   * @param lane
+   *          the lane
+   * @return The total number of operations that have been successfully
+   *         submitted to the provided lane since startup.
+   */
+  public long getOpsSubmitted(Lane lane)
+  {
+    return lanes.get(lane).opsSubmitted.get();
+  }
+
+  /**
+   * Retrieves the total number of operations that have been rejected because
+   * the provided lane was already at its maximum capacity.
+   *
+   * @param lane
+   *          the lane
+   * @return The total number of operations that have been rejected because the
+   *         provided lane was already at its maximum capacity.
+   */
+  public long getOpsRejectedDueToQueueFull(Lane lane)
+  {
+    return lanes.get(lane).queueFullRejects.get();
+  }
+
+  /**
+   * Retrieves the average time the operations of the provided lane waited
+   * before their processing started.
+   *
+   * @param lane
+   *          the lane
+   * @return The average time in milliseconds the operations of the provided
+   *         lane waited, or 0 if no operation has been processed yet.
+   */
+  public double getAverageWaitTime(Lane lane)
+  {
+    final LaneState laneState = lanes.get(lane);
+    final long nbStarted = laneState.opsStarted.get();
+    return nbStarted != 0 ? laneState.totalWaitTime.get() / (nbStarted * 1000000.0) : 0;
+  }
+
+  /**
+   * Retrieves the number of pending operations in the provided lane.
+   *
+   * @param lane
+   *          the lane
+   * @return The number of pending operations in the provided lane.
+   */
+  public int size(Lane lane)
+  {
+    lock.lock();
+    try
+    {
+      return lanes.get(lane).pendingOperations.size();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the number of pending operations in all the lanes.
+   *
+   * @return The number of pending operations in all the lanes.
+   */
+  public int size()
+  {
+    lock.lock();
+    try
+    {
+      int size = 0;
+      for (LaneState lane : lanes.values())
+      {
+        size += lane.pendingOperations.size();
+      }
+      return size;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the latency histogram of the provided lane. The latency of an operation is the time from its submission
+   * to the end of its processing.
+   *
+   * @param lane
+   *          the lane
+   * @return the number of completed operations of the provided lane in each latency bucket, the bucket {@code i}
+   *         counting the operations faster than {@code getLatencyBucketsMillis()[i]} milliseconds and not faster
+   *         than the bound of the previous bucket, and the last bucket counting the operations slower than the last
+   *         bound
+   */
+  public long[] getLatencyHistogram(Lane lane)
+  {
+    final AtomicLongArray latencies = lanes.get(lane).latencies;
+    final long[] histogram = new long[latencies.length()];
+    for (int i = 0; i < histogram.length; i++)
+    {
+      histogram[i] = latencies.get(i);
+    }
+    return histogram;
+  }
+
+  /**
+   * Returns the upper bounds of the buckets of the latency histograms.
+   *
+   * @return the upper bounds in milliseconds of the buckets of the latency histograms
+   */
+  public static long[] getLatencyBucketsMillis()
+  {
+    return LATENCY_BUCKETS_MS.clone();
+  }
+
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      MultiLaneWorkQueueCfg configuration, List<LocalizableMessage> unacceptableReasons)
+  {
+    return true;
+  }
+
+  @Override
+  public ConfigChangeResult applyConfigurationChange(MultiLaneWorkQueueCfg configuration)
+  {
+    lock.lock();
+    try
+    {
+      applyLaneConfiguration(configuration);
+      numWorkerThreads = computeNumWorkerThreads(configuration.getNumWorkerThreads());
+      if (!shutdownRequested)
+      {
+        startWorkerThreads();
+      }
+      // Wake up idle threads so that extra threads exit
+      notEmpty.signalAll();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+    return new ConfigChangeResult();
+  }
+
+  @Override
+  public boolean isIdle()
+  {
+    lock.lock();
+    try
+    {
+      if (nbActiveOperations != 0)
+      {
+        return false;
+      }
+      for (LaneState lane : lanes.values())
+      {
+        if (!lane.pendingOperations.isEmpty())
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int getNumWorkerThreads()
+  {
+    return numWorkerThreads;
+  }
+}
@@ -0,0 +1,833 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ExtensionMessages.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.config.server.ConfigurationChangeListener;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.server.config.server.EntryCacheCfg;
+import org.forgerock.opendj.server.config.server.OffHeapEntryCacheCfg;
+import org.forgerock.util.Utils;
+import org.opends.server.api.EntryCache;
+import org.opends.server.api.MonitorData;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.ServerContext;
+import org.opends.server.types.Entry;
+import org.opends.server.types.EntryEncodeConfig;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.util.ServerConstants;
+
+/**
+ * This class defines a Directory Server entry cache storing entries outside of the JVM heap.
+ * <p>
+ * Entries are encoded with {@link Entry#encode(ByteStringBuilder, EntryEncodeConfig)} and appended
+ * to a ring of direct memory segments, which are allocated as the cache fills up. The heap only
+ * holds an index from DNs to the location of the encoded entries, and from backend IDs and entry
+ * IDs to DNs. Entries are decoded each time they are read from the cache.
+ * <p>
+ * When the current segment is full, the next segment of the ring becomes the current segment:
+ * if it already holds entries, all of them are evicted at once before the segment is reused. The
+ * cache therefore behaves as a FIFO with segment granularity, which requires no bookkeeping on
+ * reads and never fragments memory.
+ * <p>
+ * Readers never take a lock. Each segment carries a generation, incremented each time the segment
+ * is reused, which is part of the location of every entry it holds. Readers copy the encoded
+ * entry with an optimistic read of the segment lock and discard the copy if the segment was
+ * reused meanwhile. All updates are serialized.
+ */
+public class OffHeapEntryCache
+       extends EntryCache<OffHeapEntryCacheCfg>
+       implements ConfigurationChangeListener<OffHeapEntryCacheCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** Size of the header preceding each encoded entry: entry length, entry ID and backend index. */
+  private static final int HEADER_SIZE = 4 + 8 + 2;
+
+  /** Bit position of the segment generation in an entry location. */
+  private static final int GENERATION_SHIFT = 48;
+  /** Bit position of the segment index in an entry location. */
+  private static final int SEGMENT_SHIFT = 32;
+  /** Maximum number of segments, bounded by the bits available in an entry location. */
+  private static final int MAX_SEGMENTS = 0xffff;
+
+  /** Initial and maximum retained capacities of the per-thread encoding buffers. */
+  private static final int BUFFER_INIT_SIZE = 512;
+  private static final int BUFFER_MAX_SIZE = 64 * 1024;
+
+  /** Per-thread buffers used to encode entries before copying them to a segment. */
+  private static final ThreadLocal<ByteStringBuilder> ENCODE_BUFFER = new ThreadLocal<ByteStringBuilder>()
+  {
+    @Override
+    protected ByteStringBuilder initialValue()
+    {
+      return new ByteStringBuilder(BUFFER_INIT_SIZE);
+    }
+  };
+
+  /** The mapping between DNs and the location of the encoded entries. */
+  private final ConcurrentMap<DN, Long> dnMap = new ConcurrentHashMap<>();
+
+  /** The mapping between entry backends/IDs and DNs. */
+  private final ConcurrentMap<String, ConcurrentMap<Long, DN>> idMap = new ConcurrentHashMap<>();
+
+  /** The backend IDs of the cached entries, indexed by the backend index stored in each entry header. */
+  private final List<String> backendIDs = new CopyOnWriteArrayList<>();
+
+  /** Serializes all the updates of the cache. */
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  /** The ring of direct memory segments. */
+  private Segment[] segments;
+  /** The index of the segment new entries are appended to. Guarded by writeLock. */
+  private int currentSegment;
+
+  /** The encoding used for the cached entries. */
+  private EntryEncodeConfig encodeConfig;
+
+  /** The number of bytes used by the cached entries, including their headers. */
+  private final AtomicLong currentMemorySize = new AtomicLong();
+  /** The number of bytes of direct memory allocated to the segments. */
+  private final AtomicLong allocatedMemorySize = new AtomicLong();
+  /** The number of cached entries. */
+  private final AtomicLong currentEntries = new AtomicLong();
+  /** The number of entries evicted to make room for other entries. */
+  private final AtomicLong evictions = new AtomicLong();
+
+  /** The maximum amount of direct memory allocated to the segments. */
+  private long maxMemorySize;
+  /** The size of each segment. */
+  private int segmentSize;
+  /** The maximum number of entries that may be held in the cache. */
+  private volatile long maxEntries;
+
+  /** Currently registered configuration object. */
+  private OffHeapEntryCacheCfg registeredConfiguration;
+
+  /** Creates a new instance of this off-heap entry cache. */
+  public OffHeapEntryCache()
+  {
+    super();
+    // All initialization should be performed in the initializeEntryCache.
+  }
+
+  @Override
+  public void initializeEntryCache(ServerContext serverContext, OffHeapEntryCacheCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    registeredConfiguration = configuration;
+    configuration.addOffHeapChangeListener(this);
+
+    // Segments are fixed for the lifetime of the cache, and allocated lazily.
+    maxMemorySize = configuration.getMaxMemorySize();
+    segmentSize = segmentSize(configuration);
+    int segmentCount = (int) Math.min(MAX_SEGMENTS, maxMemorySize / segmentSize);
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++)
+    {
+      segments[i] = new Segment();
+    }
+    currentSegment = 0;
+
+    // Keep the DN so that entries can be decoded on their own, but compress the schema elements.
+    encodeConfig = new EntryEncodeConfig(false, true, true);
+
+    // Read configuration and apply changes.
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_INIT, null, errorMessages
+          );
+    if (!processEntryCacheConfig(configuration, applyChanges, errorHandler)) {
+      String buffer = Utils.joinAsString(".  ", errorMessages);
+      throw new ConfigException(ERR_OFFHEAPCACHE_CANNOT_INITIALIZE.get(buffer));
+    }
+  }
+
+  @Override
+  public void finalizeEntryCache()
+  {
+    writeLock.lock();
+    try
+    {
+      registeredConfiguration.removeOffHeapChangeListener(this);
+
+      // Release all memory currently in use by this cache. Direct memory is
+      // returned to the system once the buffers are garbage collected.
+      dnMap.clear();
+      idMap.clear();
+      for (Segment segment : segments)
+      {
+        long stamp = segment.lock.writeLock();
+        try
+        {
+          segment.generation = (segment.generation + 1) & 0xffff;
+          segment.buffer = null;
+          segment.position = 0;
+          segment.dns.clear();
+        }
+        finally
+        {
+          segment.lock.unlockWrite(stamp);
+        }
+      }
+      allocatedMemorySize.set(0);
+      currentMemorySize.set(0);
+      currentEntries.set(0);
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean containsEntry(DN entryDN)
+  {
+    return entryDN != null && dnMap.containsKey(entryDN);
+  }
+
+  @Override
+  public Entry getEntry(DN entryDN)
+  {
+    Long location = entryDN != null ? dnMap.get(entryDN) : null;
+    ByteString encodedEntry = location != null ? read(location) : null;
+    if (encodedEntry != null)
+    {
+      try
+      {
+        Entry entry = Entry.decode(encodedEntry.asReader());
+        // Indicate cache hit.
+        cacheHits.getAndIncrement();
+        return entry;
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+      }
+    }
+    // Indicate cache miss.
+    cacheMisses.getAndIncrement();
+    return null;
+  }
+
+  @Override
+  public long getEntryID(DN entryDN)
+  {
+    Long location = entryDN != null ? dnMap.get(entryDN) : null;
+    if (location == null)
+    {
+      return -1;
+    }
+
+    final Segment segment = segments[segmentOf(location)];
+    final long stamp = segment.lock.tryOptimisticRead();
+    final ByteBuffer buffer = segment.buffer;
+    if (segment.generation != generationOf(location) || buffer == null)
+    {
+      return -1;
+    }
+    long entryID = buffer.getLong(offsetOf(location) + 4);
+    return segment.lock.validate(stamp) ? entryID : -1;
+  }
+
+  @Override
+  public DN getEntryDN(String backendID, long entryID)
+  {
+    Map<Long, DN> backendMap = idMap.get(backendID);
+    return backendMap != null ? backendMap.get(entryID) : null;
+  }
+
+  @Override
+  public void putEntry(Entry entry, String backendID, long entryID)
+  {
+    put(entry, backendID, entryID, false);
+  }
+
+  @Override
+  public boolean putEntryIfAbsent(Entry entry, String backendID, long entryID)
+  {
+    return put(entry, backendID, entryID, true);
+  }
+
+  /**
+   * Encodes and caches the provided entry, possibly evicting the oldest segment to make room for it.
+   *
+   * @param entry         The entry to be stored in the cache.
+   * @param backendID     The backend ID of the entry.
+   * @param entryID       The entry ID within the backend.
+   * @param onlyIfAbsent  Whether an already cached entry with the same DN must be kept.
+   *
+   * @return  {@code false} if {@code onlyIfAbsent} is set and the entry was already cached,
+   *          {@code true} otherwise, even if the entry was not cached due to size constraints.
+   */
+  private boolean put(Entry entry, String backendID, long entryID, boolean onlyIfAbsent)
+  {
+    final DN dn = entry.getName();
+    if (onlyIfAbsent && dnMap.containsKey(dn))
+    {
+      return false;
+    }
+
+    // Encode outside of the lock.
+    final ByteStringBuilder encodedEntry = ENCODE_BUFFER.get();
+    try
+    {
+      entry.encode(encodedEntry, encodeConfig);
+      final int recordSize = HEADER_SIZE + encodedEntry.length();
+      if (recordSize > segmentSize)
+      {
+        // The entry would not fit in a segment.
+        return true;
+      }
+
+      writeLock.lock();
+      try
+      {
+        Long previous = dnMap.get(dn);
+        if (previous != null)
+        {
+          if (onlyIfAbsent)
+          {
+            return false;
+          }
+          unlink(dn, previous);
+        }
+
+        final Segment segment = reserve(recordSize);
+        final int offset = segment.position;
+        final ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(offset);
+        buffer.putInt(encodedEntry.length());
+        buffer.putLong(entryID);
+        buffer.putShort((short) backendIndex(backendID));
+        encodedEntry.copyTo(buffer);
+        segment.position += recordSize;
+        segment.dns.add(dn);
+
+        // Publish the entry once it is fully written.
+        dnMap.put(dn, locationOf(segment.generation, currentSegment, offset));
+        ConcurrentMap<Long, DN> backendMap = idMap.get(backendID);
+        if (backendMap == null)
+        {
+          backendMap = new ConcurrentHashMap<>();
+          idMap.put(backendID, backendMap);
+        }
+        backendMap.put(entryID, dn);
+        currentMemorySize.addAndGet(recordSize);
+        long entryCount = currentEntries.incrementAndGet();
+
+        // See if a cap has been placed on the maximum number of entries in the
+        // cache.  If so, then evict the oldest segments until we're within the limit.
+        if (maxEntries > 0 && entryCount > maxEntries)
+        {
+          evictOldestSegments();
+        }
+      }
+      finally
+      {
+        writeLock.unlock();
+      }
+      return true;
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+
+      // We can't be sure there wasn't a conflict, so return false.
+      return false;
+    }
+    finally
+    {
+      encodedEntry.clearAndTruncate(BUFFER_MAX_SIZE, BUFFER_INIT_SIZE);
+    }
+  }
+
+  /**
+   * Copies the encoded entry stored at the provided location to the heap.
+   *
+   * @param location  The location of the encoded entry.
+   *
+   * @return  The encoded entry, or {@code null} if its segment was reused in the meantime.
+   */
+  private ByteString read(long location)
+  {
+    final Segment segment = segments[segmentOf(location)];
+    final long stamp = segment.lock.tryOptimisticRead();
+    final ByteBuffer buffer = segment.buffer;
+    if (segment.generation != generationOf(location) || buffer == null)
+    {
+      return null;
+    }
+
+    final int offset = offsetOf(location);
+    final int length = buffer.getInt(offset);
+    if (length < 0 || (long) offset + HEADER_SIZE + length > buffer.capacity())
+    {
+      // The segment is being reused.
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    final ByteBuffer source = buffer.duplicate();
+    source.position(offset + HEADER_SIZE);
+    source.get(bytes);
+    return segment.lock.validate(stamp) ? ByteString.wrap(bytes) : null;
+  }
+
+  /**
+   * Returns the segment where a record of the provided size must be appended, moving to the next
+   * segment of the ring if needed. The write lock must be held.
+   */
+  private Segment reserve(int recordSize)
+  {
+    Segment segment = segments[currentSegment];
+    if (segment.buffer != null && segment.position + recordSize > segmentSize)
+    {
+      currentSegment = (currentSegment + 1) % segments.length;
+      segment = segments[currentSegment];
+      evict(segment);
+    }
+    if (segment.buffer == null)
+    {
+      segment.buffer = ByteBuffer.allocateDirect(segmentSize);
+      allocatedMemorySize.addAndGet(segmentSize);
+    }
+    return segment;
+  }
+
+  /**
+   * Evicts the segments following the current segment until the cache holds no more than the
+   * maximum number of entries. The write lock must be held.
+   */
+  private void evictOldestSegments()
+  {
+    for (int i = 1; i < segments.length && currentEntries.get() > maxEntries; i++)
+    {
+      evict(segments[(currentSegment + i) % segments.length]);
+    }
+  }
+
+  /**
+   * Evicts all the entries of the provided segment and makes it ready for reuse. The write lock
+   * must be held.
+   */
+  private void evict(Segment segment)
+  {
+    final long stamp = segment.lock.writeLock();
+    try
+    {
+      for (DN dn : segment.dns)
+      {
+        Long location = dnMap.get(dn);
+        if (location != null && segments[segmentOf(location)] == segment
+            && generationOf(location) == segment.generation)
+        {
+          unlink(dn, location);
+          evictions.getAndIncrement();
+        }
+      }
+      segment.dns.clear();
+      segment.position = 0;
+      segment.generation = (segment.generation + 1) & 0xffff;
+    }
+    finally
+    {
+      segment.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Removes the entry stored at the provided location from the cache index. The space it uses is
+   * reclaimed when its segment is reused. The write lock must be held.
+   */
+  private void unlink(DN dn, long location)
+  {
+    final ByteBuffer buffer = segments[segmentOf(location)].buffer;
+    final int offset = offsetOf(location);
+    final int length = buffer.getInt(offset);
+    final long entryID = buffer.getLong(offset + 4);
+    final String backendID = backendIDs.get(buffer.getShort(offset + 12) & 0xffff);
+
+    dnMap.remove(dn, location);
+    Map<Long, DN> backendMap = idMap.get(backendID);
+    if (backendMap != null)
+    {
+      backendMap.remove(entryID, dn);
+    }
+    currentMemorySize.addAndGet(-(HEADER_SIZE + length));
+    currentEntries.decrementAndGet();
+  }
+
+  /** Returns the index of the provided backend ID in the list of known backends. The write lock must be held. */
+  private int backendIndex(String backendID)
+  {
+    int index = backendIDs.indexOf(backendID);
+    if (index < 0)
+    {
+      backendIDs.add(backendID);
+      index = backendIDs.size() - 1;
+    }
+    return index;
+  }
+
+  /** Returns the size of the segments, making sure the cache is made of at least two segments. */
+  private static int segmentSize(OffHeapEntryCacheCfg configuration)
+  {
+    return (int) Math.min(configuration.getSegmentSize(), configuration.getMaxMemorySize() / 2);
+  }
+
+  private static long locationOf(int generation, int segment, int offset)
+  {
+    return ((long) generation << GENERATION_SHIFT) | ((long) segment << SEGMENT_SHIFT) | (offset & 0xffffffffL);
+  }
+
+  private static int generationOf(long location)
+  {
+    return (int) (location >>> GENERATION_SHIFT) & 0xffff;
+  }
+
+  private static int segmentOf(long location)
+  {
+    return (int) (location >>> SEGMENT_SHIFT) & 0xffff;
+  }
+
+  private static int offsetOf(long location)
+  {
+    return (int) location;
+  }
+
+  @Override
+  public void removeEntry(DN entryDN)
+  {
+    if (entryDN == null || !dnMap.containsKey(entryDN))
+    {
+      return;
+    }
+
+    writeLock.lock();
+    try
+    {
+      Long location = dnMap.get(entryDN);
+      if (location != null)
+      {
+        unlink(entryDN, location);
+      }
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+
+      // This shouldn't happen, but there's not much that we can do if it does.
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear()
+  {
+    writeLock.lock();
+    try
+    {
+      for (Segment segment : segments)
+      {
+        evict(segment);
+      }
+      currentSegment = 0;
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+
+      // This shouldn't happen, but there's not much that we can do if it does.
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void clearBackend(String backendID)
+  {
+    writeLock.lock();
+    try
+    {
+      // Remove all references to entries for this backend from the ID cache.
+      Map<Long, DN> backendMap = idMap.remove(backendID);
+      if (backendMap == null)
+      {
+        // No entries were in the cache for this backend, so we can return
+        // without doing anything.
+        return;
+      }
+
+      // The space used by the entries is reclaimed when their segments are reused.
+      for (DN dn : backendMap.values())
+      {
+        Long location = dnMap.get(dn);
+        if (location != null)
+        {
+          unlink(dn, location);
+        }
+      }
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+
+      // This shouldn't happen, but there's not much that we can do if it does.
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void handleLowMemory()
+  {
+    // Only the index lives on the heap: drop the entries of the oldest segment
+    // holding any, which frees the corresponding index entries.
+    writeLock.lock();
+    try
+    {
+      for (int i = 1; i <= segments.length; i++)
+      {
+        Segment segment = segments[(currentSegment + i) % segments.length];
+        if (!segment.dns.isEmpty())
+        {
+          evict(segment);
+          break;
+        }
+      }
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+
+      // This shouldn't happen, but there's not much that we can do if it does.
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isConfigurationAcceptable(EntryCacheCfg configuration,
+                                           List<LocalizableMessage> unacceptableReasons)
+  {
+    OffHeapEntryCacheCfg config = (OffHeapEntryCacheCfg) configuration;
+    return isConfigurationChangeAcceptable(config, unacceptableReasons);
+  }
+
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      OffHeapEntryCacheCfg configuration,
+      List<LocalizableMessage> unacceptableReasons
+      )
+  {
+    boolean applyChanges = false;
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_ACCEPTABLE,
+          unacceptableReasons,
+          null
+        );
+    processEntryCacheConfig (configuration, applyChanges, errorHandler);
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public ConfigChangeResult applyConfigurationChange(OffHeapEntryCacheCfg configuration)
+  {
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_APPLY, null, errorMessages
+          );
+
+    // Do not apply changes unless this cache is enabled.
+    if (configuration.isEnabled()) {
+      processEntryCacheConfig (configuration, applyChanges, errorHandler);
+    }
+
+    final ConfigChangeResult changeResult = new ConfigChangeResult();
+    changeResult.setResultCode(errorHandler.getResultCode());
+    changeResult.setAdminActionRequired(errorHandler.getIsAdminActionRequired());
+    changeResult.getMessages().addAll(errorHandler.getErrorMessages());
+    return changeResult;
+  }
+
+  /**
+   * Parses the provided configuration and configure the entry cache.
+   *
+   * @param configuration  The new configuration containing the changes.
+   * @param applyChanges   If true then take into account the new configuration.
+   * @param errorHandler   An handler used to report errors.
+   *
+   * @return  <CODE>true</CODE> if configuration is acceptable,
+   *          or <CODE>false</CODE> otherwise.
+   */
+  private boolean processEntryCacheConfig(
+      OffHeapEntryCacheCfg                configuration,
+      boolean                             applyChanges,
+      EntryCacheCommon.ConfigErrorHandler errorHandler
+      )
+  {
+    // Local variables to read configuration.
+    Set<SearchFilter> newIncludeFilters = null;
+    Set<SearchFilter> newExcludeFilters = null;
+
+    // Read configuration.
+    DN newConfigEntryDN = configuration.dn();
+    long newMaxEntries = configuration.getMaxEntries();
+
+    // Get include and exclude filters.
+    switch (errorHandler.getConfigPhase())
+    {
+    case PHASE_INIT:
+    case PHASE_ACCEPTABLE:
+    case PHASE_APPLY:
+      newIncludeFilters = EntryCacheCommon.getFilters (
+          configuration.getIncludeFilter(),
+          ERR_CACHE_INVALID_INCLUDE_FILTER,
+          errorHandler,
+          newConfigEntryDN
+          );
+      newExcludeFilters = EntryCacheCommon.getFilters (
+          configuration.getExcludeFilter(),
+          ERR_CACHE_INVALID_EXCLUDE_FILTER,
+          errorHandler,
+          newConfigEntryDN
+          );
+      break;
+    }
+
+    // The segments cannot be resized while in use.
+    if (errorHandler.getConfigPhase() == EntryCacheCommon.ConfigPhase.PHASE_APPLY
+        && (configuration.getMaxMemorySize() != maxMemorySize
+            || segmentSize(configuration) != segmentSize))
+    {
+      errorHandler.reportError(INFO_OFFHEAPCACHE_RESTART_REQUIRED.get(newConfigEntryDN),
+          true, ResultCode.SUCCESS, true);
+    }
+
+    if (applyChanges && errorHandler.getIsAcceptable())
+    {
+      maxEntries = newMaxEntries;
+      setIncludeFilters(newIncludeFilters);
+      setExcludeFilters(newExcludeFilters);
+      registeredConfiguration = configuration;
+    }
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    try {
+      MonitorData attrs = EntryCacheCommon.getGenericMonitorData(
+        cacheHits.longValue(),
+        // If cache misses is maintained by default cache
+        // get it from there and if not point to itself.
+        DirectoryServer.getEntryCache().getCacheMisses(),
+        currentMemorySize.get(),
+        maxMemorySize,
+        currentEntries.get(),
+        Long.valueOf(
+            (maxEntries != Integer.MAX_VALUE && maxEntries != Long.MAX_VALUE) ? maxEntries : 0)
+        );
+      attrs.add("allocatedEntryCacheSize", allocatedMemorySize.get());
+      attrs.add("entryCacheEvictions", evictions.get());
+      return attrs;
+    } catch (Exception e) {
+      logger.traceException(e);
+      return new MonitorData(0);
+    }
+  }
+
+  @Override
+  public Long getCacheCount()
+  {
+    return currentEntries.get();
+  }
+
+  @Override
+  public String toVerboseString()
+  {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, ConcurrentMap<Long, DN>> backendCache : idMap.entrySet())
+    {
+      final String backendID = backendCache.getKey();
+      for (Map.Entry<Long, DN> entry : backendCache.getValue().entrySet())
+      {
+        sb.append(entry.getValue());
+        sb.append(":");
+        sb.append(entry.getKey());
+        sb.append(":");
+        sb.append(backendID);
+        sb.append(ServerConstants.EOL);
+      }
+    }
+
+    String verboseString = sb.toString();
+    return verboseString.length() > 0 ? verboseString : null;
+  }
+
+  /** A direct memory segment holding encoded entries one after the other. */
+  private static final class Segment
+  {
+    /** Invalidates optimistic reads when the segment is reused. */
+    private final StampedLock lock = new StampedLock();
+    /** The direct memory of this segment, allocated on first use. */
+    private volatile ByteBuffer buffer;
+    /** Incremented each time the segment is reused. */
+    private volatile int generation;
+    /** The offset where the next entry will be appended. Guarded by the cache write lock. */
+    private int position;
+    /** The DNs of the entries appended to this segment. Guarded by the cache write lock. */
+    private final List<DN> dns = new ArrayList<>();
+  }
+}
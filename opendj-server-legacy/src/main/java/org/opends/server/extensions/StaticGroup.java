@@ -19,7 +19,9 @@ package org.opends.server.extensions;
 import static com.forgerock.opendj.util.StaticUtils.getBytes;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -47,6 +49,7 @@ import org.forgerock.util.Reject;
 import org.forgerock.util.annotations.VisibleForTesting;
 import org.opends.server.api.Group;
 import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.GroupManager;
 import org.opends.server.core.ModifyOperation;
 import org.opends.server.core.ModifyOperationBasis;
 import org.opends.server.core.ServerContext;
@@ -344,6 +347,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
       HashSet<CompactDn> newMemberDNs = new HashSet<>(memberDNs);
       newMemberDNs.add(new CompactDn(nestedGroupDN));
       memberDNs = newMemberDNs;
+      DirectoryServer.getGroupManager().memberAdded(this, nestedGroupDN);
     }
     finally
     {
@@ -382,6 +386,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
       LinkedHashSet<CompactDn> newMemberDNs = new LinkedHashSet<>(memberDNs);
       newMemberDNs.remove(new CompactDn(nestedGroupDN));
       memberDNs = newMemberDNs;
+      DirectoryServer.getGroupManager().memberRemoved(this, nestedGroupDN);
     }
     finally
     {
@@ -541,6 +546,67 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
     return true;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Nested groups may be dynamic groups, so only the static groups without
+   * nested groups are considered DN based.
+   */
+  @Override
+  public boolean isMembershipDNBased()
+  {
+    return getNestedGroupDNs().isEmpty();
+  }
+
+  @Override
+  public boolean hasExplicitMemberList()
+  {
+    return true;
+  }
+
+  @Override
+  public Collection<DN> getExplicitMemberDNs()
+  {
+    lock.readLock().lock();
+    try
+    {
+      List<DN> explicitMemberDNs = new ArrayList<>(memberDNs.size());
+      for (CompactDn compactDn : memberDNs)
+      {
+        explicitMemberDNs.add(compactDn.toDn(serverContext));
+      }
+      return explicitMemberDNs;
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Reports the differences between the old and new member lists to the group
+   * manager. The added members are reported first, so that the members present
+   * in both lists never disappear from the group manager's membership index.
+   */
+  private void updateIndexedMembers(Set<CompactDn> oldMemberDNs, Set<CompactDn> newMemberDNs)
+  {
+    GroupManager groupManager = DirectoryServer.getGroupManager();
+    for (CompactDn member : newMemberDNs)
+    {
+      if (!oldMemberDNs.contains(member))
+      {
+        groupManager.memberAdded(this, member.toDn(serverContext));
+      }
+    }
+    for (CompactDn member : oldMemberDNs)
+    {
+      if (!newMemberDNs.contains(member))
+      {
+        groupManager.memberRemoved(this, member.toDn(serverContext));
+      }
+    }
+  }
+
   @Override
   public void updateMembers(List<Modification> modifications)
          throws UnsupportedOperationException, DirectoryException
@@ -568,13 +634,16 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
                 {
                   nestedGroups.add(member);
                 }
+                DirectoryServer.getGroupManager().memberAdded(this, member);
               }
               break;
             case DELETE:
               if (attribute.isEmpty())
               {
+                Set<CompactDn> oldMemberDNs = new HashSet<>(memberDNs);
                 memberDNs.clear();
                 nestedGroups.clear();
+                updateIndexedMembers(oldMemberDNs, memberDNs);
               }
               else
               {
@@ -583,10 +652,12 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
                   DN member = DN.valueOf(v);
                   memberDNs.remove(new CompactDn(member));
                   nestedGroups.remove(member);
+                  DirectoryServer.getGroupManager().memberRemoved(this, member);
                 }
               }
               break;
             case REPLACE:
+              Set<CompactDn> oldMemberDNs = new HashSet<>(memberDNs);
               memberDNs.clear();
               nestedGroups.clear();
               for (ByteString v : attribute)
@@ -598,6 +669,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
                   nestedGroups.add(member);
                 }
               }
+              updateIndexedMembers(oldMemberDNs, memberDNs);
               break;
           }
         }
@@ -636,6 +708,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
       LinkedHashSet<CompactDn> newMemberDNs = new LinkedHashSet<CompactDn>(memberDNs);
       newMemberDNs.add(compactUserDN);
       memberDNs = newMemberDNs;
+      DirectoryServer.getGroupManager().memberAdded(this, userDN);
     }
     finally
     {
@@ -676,6 +749,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
         newNestedGroups.remove(userDN);
         nestedGroups = newNestedGroups;
       }
+      DirectoryServer.getGroupManager().memberRemoved(this, userDN);
     }
     finally
     {
@@ -0,0 +1,303 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ExtensionMessages.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.types.InitializationException;
+
+/**
+ * A pool of direct buffers shared by the {@link TLSByteChannel}s of a
+ * connection handler.
+ * <p>
+ * TLS channels borrow their buffers only while they encrypt, decrypt or hold
+ * data not yet consumed, and give them back as soon as they are empty, so
+ * that idle TLS connections do not hold any buffer. At most the configured
+ * maximum of idle buffers are kept for reuse, the buffers released beyond it
+ * are discarded and left to the garbage collector.
+ * <p>
+ * This class is also the monitor provider reporting the pool occupancy, the
+ * buffers discarded or which could not be allocated, and the number of bytes
+ * encrypted and decrypted by the TLS channels. The per-second rates are
+ * averaged since the previous monitor data request.
+ */
+public final class TLSBufferPool extends MonitorProvider<MonitorProviderCfg>
+{
+  private final String instanceName;
+  private final Queue<ByteBuffer> idleBuffers = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger idleBufferCount = new AtomicInteger();
+  private final AtomicInteger buffersInUse = new AtomicInteger();
+  private final AtomicLong buffersAllocated = new AtomicLong();
+  private final AtomicLong buffersDiscarded = new AtomicLong();
+  private final AtomicLong allocationFailures = new AtomicLong();
+  private final AtomicLong bytesEncrypted = new AtomicLong();
+  private final AtomicLong bytesDecrypted = new AtomicLong();
+  /** The capacity of the pooled buffers, the largest buffer size requested so far. */
+  private volatile int bufferSize;
+  /** The maximum number of idle buffers kept for reuse. */
+  private volatile int maxIdleBuffers;
+
+  /** The time and byte counts of the previous monitor data, for computing the rates. */
+  private long lastSampleTime = System.currentTimeMillis();
+  private long lastBytesEncrypted;
+  private long lastBytesDecrypted;
+
+  /**
+   * Creates a new buffer pool.
+   *
+   * @param instanceName
+   *          The name of the monitor instance for this pool.
+   * @param maxIdleBuffers
+   *          The maximum number of idle buffers kept for reuse.
+   */
+  public TLSBufferPool(String instanceName, int maxIdleBuffers)
+  {
+    this.instanceName = instanceName;
+    this.maxIdleBuffers = maxIdleBuffers;
+  }
+
+  /**
+   * Changes the maximum number of idle buffers kept for reuse, discarding the
+   * idle buffers beyond it.
+   *
+   * @param maxIdleBuffers
+   *          The maximum number of idle buffers kept for reuse.
+   */
+  public void setMaxIdleBuffers(int maxIdleBuffers)
+  {
+    this.maxIdleBuffers = maxIdleBuffers;
+    while (idleBufferCount.get() > maxIdleBuffers && idleBuffers.poll() != null)
+    {
+      idleBufferCount.decrementAndGet();
+      buffersDiscarded.incrementAndGet();
+    }
+  }
+
+  /**
+   * Borrows a cleared buffer from this pool, allocating a new one if no idle
+   * buffer is large enough.
+   *
+   * @param minSize
+   *          The minimum capacity of the buffer.
+   * @return A cleared buffer with at least the requested capacity.
+   * @throws IOException
+   *           If a new buffer cannot be allocated because the direct memory
+   *           is exhausted.
+   */
+  ByteBuffer acquire(int minSize) throws IOException
+  {
+    buffersInUse.incrementAndGet();
+    if (minSize <= bufferSize)
+    {
+      final ByteBuffer buffer = idleBuffers.poll();
+      if (buffer != null)
+      {
+        idleBufferCount.decrementAndGet();
+        if (buffer.capacity() >= minSize)
+        {
+          buffer.clear();
+          return buffer;
+        }
+        buffersDiscarded.incrementAndGet();
+      }
+    }
+    else
+    {
+      // Pool the larger buffers from now on, the smaller ones are dropped on release
+      bufferSize = minSize;
+    }
+    final int size = Math.max(minSize, bufferSize);
+    try
+    {
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+      buffersAllocated.incrementAndGet();
+      return buffer;
+    }
+    catch (OutOfMemoryError e)
+    {
+      // Only fail the TLS connection needing the buffer
+      buffersInUse.decrementAndGet();
+      allocationFailures.incrementAndGet();
+      throw new IOException(ERR_TLS_BUFFER_ALLOCATION_FAILED.get(size, e.getMessage()).toString(), e);
+    }
+  }
+
+  /**
+   * Gives a buffer back to this pool. The buffer must not be used afterwards.
+   *
+   * @param buffer
+   *          The buffer obtained from {@link #acquire(int)}, may be
+   *          {@code null}.
+   */
+  void release(ByteBuffer buffer)
+  {
+    if (buffer == null)
+    {
+      return;
+    }
+    buffersInUse.decrementAndGet();
+    if (buffer.capacity() != bufferSize)
+    {
+      // Allocated before a larger size was requested, or for a one-off resize
+      buffersDiscarded.incrementAndGet();
+      return;
+    }
+    if (idleBufferCount.incrementAndGet() <= maxIdleBuffers)
+    {
+      idleBuffers.offer(buffer);
+    }
+    else
+    {
+      idleBufferCount.decrementAndGet();
+      buffersDiscarded.incrementAndGet();
+    }
+  }
+
+  /**
+   * Records application data encrypted by a TLS channel.
+   *
+   * @param bytes
+   *          The number of bytes encrypted.
+   */
+  void updateBytesEncrypted(int bytes)
+  {
+    if (bytes > 0)
+    {
+      bytesEncrypted.addAndGet(bytes);
+    }
+  }
+
+  /**
+   * Records application data decrypted by a TLS channel.
+   *
+   * @param bytes
+   *          The number of bytes decrypted.
+   */
+  void updateBytesDecrypted(int bytes)
+  {
+    if (bytes > 0)
+    {
+      bytesDecrypted.addAndGet(bytes);
+    }
+  }
+
+  /**
+   * Returns the number of buffers currently borrowed by TLS channels.
+   *
+   * @return The number of buffers currently borrowed by TLS channels.
+   */
+  int getBuffersInUse()
+  {
+    return buffersInUse.get();
+  }
+
+  /**
+   * Returns the number of idle buffers kept for reuse.
+   *
+   * @return The number of idle buffers kept for reuse.
+   */
+  int getIdleBuffers()
+  {
+    return idleBufferCount.get();
+  }
+
+  /**
+   * Returns the number of buffers allocated by this pool.
+   *
+   * @return The number of buffers allocated by this pool.
+   */
+  long getBuffersAllocated()
+  {
+    return buffersAllocated.get();
+  }
+
+  /**
+   * Returns the number of buffers released but not kept for reuse.
+   *
+   * @return The number of buffers released but not kept for reuse.
+   */
+  long getBuffersDiscarded()
+  {
+    return buffersDiscarded.get();
+  }
+
+  /**
+   * Returns the number of buffers which could not be allocated.
+   *
+   * @return The number of buffers which could not be allocated.
+   */
+  long getAllocationFailures()
+  {
+    return allocationFailures.get();
+  }
+
+  @Override
+  public void initializeMonitorProvider(MonitorProviderCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    // No initialization is required.
+  }
+
+  @Override
+  public String getMonitorInstanceName()
+  {
+    return instanceName;
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    final long encrypted = bytesEncrypted.get();
+    final long decrypted = bytesDecrypted.get();
+    final long encryptedPerSecond;
+    final long decryptedPerSecond;
+    synchronized (this)
+    {
+      final long now = System.currentTimeMillis();
+      final long elapsed = Math.max(now - lastSampleTime, 1);
+      encryptedPerSecond = (encrypted - lastBytesEncrypted) * 1000 / elapsed;
+      decryptedPerSecond = (decrypted - lastBytesDecrypted) * 1000 / elapsed;
+      lastSampleTime = now;
+      lastBytesEncrypted = encrypted;
+      lastBytesDecrypted = decrypted;
+    }
+
+    final MonitorData monitorAttrs = new MonitorData(11);
+    monitorAttrs.add("bufferSize", bufferSize);
+    monitorAttrs.add("buffersInUse", getBuffersInUse());
+    monitorAttrs.add("idleBuffers", getIdleBuffers());
+    monitorAttrs.add("maxIdleBuffers", maxIdleBuffers);
+    monitorAttrs.add("buffersAllocated", getBuffersAllocated());
+    monitorAttrs.add("buffersDiscarded", getBuffersDiscarded());
+    monitorAttrs.add("allocationFailures", getAllocationFailures());
+    monitorAttrs.add("bytesEncrypted", encrypted);
+    monitorAttrs.add("bytesDecrypted", decrypted);
+    monitorAttrs.add("bytesEncryptedPerSecond", encryptedPerSecond);
+    monitorAttrs.add("bytesDecryptedPerSecond", decryptedPerSecond);
+    return monitorAttrs;
+  }
+}
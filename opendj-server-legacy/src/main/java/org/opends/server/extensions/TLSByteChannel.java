@@ -82,6 +82,7 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
             finally
             {
               channel.close();
+              releaseReadBuffers(true);
             }
           }
         }
@@ -97,37 +98,70 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
     @Override
     public int read(final ByteBuffer unwrappedData) throws IOException
     {
+      // The unwrap lock prevents a handshake performed by a writer from
+      // replacing the buffers while they are read.
       synchronized (readLock)
       {
-        // Only read and unwrap new data if needed.
-        if (!recvUnwrappedBuffer.hasRemaining())
+        synchronized (unwrapLock)
         {
-          final int read = doRecvAndUnwrap();
-          if (read <= 0)
+          try
           {
-            // No data read or end of stream.
-            return read;
+            // Only read and unwrap new data if needed.
+            if (recvUnwrappedBuffer == null || !recvUnwrappedBuffer.hasRemaining())
+            {
+              final int read = doRecvAndUnwrap();
+              if (read <= 0)
+              {
+                // No data read or end of stream.
+                return read;
+              }
+            }
+
+            // Copy available data.
+            final int startPos = unwrappedData.position();
+            if (recvUnwrappedBuffer.remaining() > unwrappedData.remaining())
+            {
+              // Unwrapped data does not fit in client buffer so only block
+              // copy what fits.
+              final ByteBuffer fittingData = recvUnwrappedBuffer.duplicate();
+              fittingData.limit(fittingData.position() + unwrappedData.remaining());
+              unwrappedData.put(fittingData);
+              recvUnwrappedBuffer.position(fittingData.position());
+            }
+            else
+            {
+              // Unwrapped data fits client buffer so block copy.
+              unwrappedData.put(recvUnwrappedBuffer);
+            }
+            return unwrappedData.position() - startPos;
+          }
+          finally
+          {
+            // Idle connections must not hold any buffer.
+            releaseReadBuffers(false);
           }
         }
+      }
+    }
 
-        // Copy available data.
-        final int startPos = unwrappedData.position();
-        if (recvUnwrappedBuffer.remaining() > unwrappedData.remaining())
+    /**
+     * Gives the read buffers back to the pool, if they are empty or if the
+     * channel is closed.
+     */
+    private void releaseReadBuffers(final boolean isClosed)
+    {
+      synchronized (unwrapLock)
+      {
+        if (recvWrappedBuffer != null && (isClosed || !recvWrappedBuffer.hasRemaining()))
         {
-          // Unwrapped data does not fit in client buffer so copy one byte at a
-          // time: it's annoying that there is no easy way to do this with
-          // ByteBuffers.
-          while (unwrappedData.hasRemaining())
-          {
-            unwrappedData.put(recvUnwrappedBuffer.get());
-          }
+          bufferPool.release(recvWrappedBuffer);
+          recvWrappedBuffer = null;
         }
-        else
+        if (recvUnwrappedBuffer != null && (isClosed || !recvUnwrappedBuffer.hasRemaining()))
         {
-          // Unwrapped data fits client buffer so block copy.
-          unwrappedData.put(recvUnwrappedBuffer);
+          bufferPool.release(recvUnwrappedBuffer);
+          recvUnwrappedBuffer = null;
         }
-        return unwrappedData.position() - startPos;
       }
     }
 
@@ -211,12 +245,30 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
       }
     }
 
+    /** Borrows a buffer containing no data to read. */
+    private ByteBuffer acquireEmptyBuffer(final int size) throws IOException
+    {
+      final ByteBuffer buffer = bufferPool.acquire(size);
+      buffer.flip();
+      return buffer;
+    }
+
     /** Attempt to read and unwrap the next SSL packet. */
     private int doRecvAndUnwrap() throws IOException
     {
       // Synchronize SSL unwrap with channel reads.
       synchronized (unwrapLock)
       {
+        final SSLSession session = sslEngine.getSession();
+        if (recvWrappedBuffer == null)
+        {
+          recvWrappedBuffer = acquireEmptyBuffer(session.getPacketBufferSize());
+        }
+        if (recvUnwrappedBuffer == null)
+        {
+          recvUnwrappedBuffer = acquireEmptyBuffer(session.getApplicationBufferSize());
+        }
+
         // Read SSL packets until some unwrapped data is produced or no more
         // data is available on the underlying channel.
         while (true)
@@ -239,6 +291,7 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
           {
             recvUnwrappedBuffer.flip(); // Restore for read.
           }
+          bufferPool.updateBytesDecrypted(result.bytesProduced());
 
           switch (result.getStatus())
           {
@@ -246,10 +299,11 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
             // The unwrapped buffer is not big enough: resize and repeat.
             final int newAppSize = sslEngine.getSession()
                 .getApplicationBufferSize();
-            final ByteBuffer newRecvUnwrappedBuffer = ByteBuffer
-                .allocate(recvUnwrappedBuffer.limit() + newAppSize);
+            final ByteBuffer newRecvUnwrappedBuffer = bufferPool
+                .acquire(recvUnwrappedBuffer.limit() + newAppSize);
             newRecvUnwrappedBuffer.put(recvUnwrappedBuffer);
             newRecvUnwrappedBuffer.flip();
+            bufferPool.release(recvUnwrappedBuffer);
             recvUnwrappedBuffer = newRecvUnwrappedBuffer;
             break; // Retry unwrap.
           case BUFFER_UNDERFLOW:
@@ -259,10 +313,11 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
             if (newPktSize > recvWrappedBuffer.capacity())
             {
               // Increase the buffer size.
-              final ByteBuffer newRecvWrappedBuffer = ByteBuffer
-                  .allocate(newPktSize);
+              final ByteBuffer newRecvWrappedBuffer = bufferPool
+                  .acquire(newPktSize);
               newRecvWrappedBuffer.put(recvWrappedBuffer);
               newRecvWrappedBuffer.flip();
+              bufferPool.release(recvWrappedBuffer);
               recvWrappedBuffer = newRecvWrappedBuffer;
             }
             // Read wrapped data from underlying channel.
@@ -305,53 +360,64 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
       // Synchronize SSL wrap with channel writes.
       synchronized (wrapLock)
       {
-        // Repeat while there is overflow.
-        while (true)
+        // The wrapped data is always entirely sent, so the buffer is only
+        // borrowed for the duration of the send.
+        ByteBuffer sendWrappedBuffer =
+            bufferPool.acquire(sslEngine.getSession().getPacketBufferSize());
+        try
         {
-          abortOnSSLException();
-          final SSLEngineResult result;
-          try
+          // Repeat while there is overflow.
+          while (true)
           {
-            result = sslEngine.wrap(unwrappedData, sendWrappedBuffer);
-          }
-          catch (SSLException e)
-          {
-            // Save the error - see abortOnSSLException().
-            sslException = e;
-            throw e;
-          }
+            abortOnSSLException();
+            final SSLEngineResult result;
+            try
+            {
+              result = sslEngine.wrap(unwrappedData, sendWrappedBuffer);
+            }
+            catch (SSLException e)
+            {
+              // Save the error - see abortOnSSLException().
+              sslException = e;
+              throw e;
+            }
+            bufferPool.updateBytesEncrypted(result.bytesConsumed());
 
-          switch (result.getStatus())
-          {
-          case BUFFER_OVERFLOW:
-            // The wrapped buffer is not big enough: resize and repeat.
-            final int newSize = sslEngine.getSession().getPacketBufferSize();
-            final ByteBuffer newSendWrappedBuffer = ByteBuffer
-                .allocate(sendWrappedBuffer.position() + newSize);
-            sendWrappedBuffer.flip();
-            newSendWrappedBuffer.put(sendWrappedBuffer);
-            sendWrappedBuffer = newSendWrappedBuffer;
-            break; // Retry.
-          case BUFFER_UNDERFLOW:
-            // This should not happen for sends.
-            sslException =
-              new SSLException("Got unexpected underflow while wrapping");
-            throw sslException;
-          case CLOSED:
-            throw new ClosedChannelException();
-          default: // OK
-            // Write the SSL packet: our IO stack will block until all the
-            // data is written.
-            sendWrappedBuffer.flip();
-            while (sendWrappedBuffer.hasRemaining())
+            switch (result.getStatus())
             {
-              channel.write(sendWrappedBuffer);
+            case BUFFER_OVERFLOW:
+              // The wrapped buffer is not big enough: resize and repeat.
+              final int newSize = sslEngine.getSession().getPacketBufferSize();
+              final ByteBuffer newSendWrappedBuffer = bufferPool
+                  .acquire(sendWrappedBuffer.position() + newSize);
+              sendWrappedBuffer.flip();
+              newSendWrappedBuffer.put(sendWrappedBuffer);
+              bufferPool.release(sendWrappedBuffer);
+              sendWrappedBuffer = newSendWrappedBuffer;
+              break; // Retry.
+            case BUFFER_UNDERFLOW:
+              // This should not happen for sends.
+              sslException =
+                new SSLException("Got unexpected underflow while wrapping");
+              throw sslException;
+            case CLOSED:
+              throw new ClosedChannelException();
+            default: // OK
+              // Write the SSL packet: our IO stack will block until all the
+              // data is written.
+              sendWrappedBuffer.flip();
+              while (sendWrappedBuffer.hasRemaining())
+              {
+                channel.write(sendWrappedBuffer);
+              }
+              return sendWrappedBuffer.position();
             }
-            final int written = sendWrappedBuffer.position();
-            sendWrappedBuffer.clear();
-            return written;
           }
         }
+        finally
+        {
+          bufferPool.release(sendWrappedBuffer);
+        }
       }
     }
 
@@ -402,10 +468,12 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
   private final ByteChannel channel;
   private final SSLEngine sslEngine;
 
+  private final TLSBufferPool bufferPool;
+
   private volatile SSLException sslException;
+  /** The received data, borrowed from the pool while not empty, {@code null} otherwise. */
   private ByteBuffer recvWrappedBuffer;
   private ByteBuffer recvUnwrappedBuffer;
-  private ByteBuffer sendWrappedBuffer;
 
   private final Object handshakeLock = new Object();
   private final Object unwrapLock = new Object();
@@ -422,24 +490,15 @@ public final class TLSByteChannel implements ConnectionSecurityProvider
    *          The underlying channel.
    * @param sslEngine
    *          The SSL engine to use.
+   * @param bufferPool
+   *          The pool from which the read/write buffers are borrowed.
    */
-  public TLSByteChannel(final ByteChannel channel, final SSLEngine sslEngine)
+  public TLSByteChannel(final ByteChannel channel, final SSLEngine sslEngine,
+      final TLSBufferPool bufferPool)
   {
     this.channel = channel;
     this.sslEngine = sslEngine;
-
-    // Allocate read/write buffers.
-    final SSLSession session = sslEngine.getSession();
-    final int wrappedBufferSize = session.getPacketBufferSize();
-    final int unwrappedBufferSize = session.getApplicationBufferSize();
-
-    sendWrappedBuffer = ByteBuffer.allocate(wrappedBufferSize);
-    recvWrappedBuffer = ByteBuffer.allocate(wrappedBufferSize);
-    recvUnwrappedBuffer = ByteBuffer.allocate(unwrappedBufferSize);
-
-    // Initially nothing has been received.
-    recvWrappedBuffer.flip();
-    recvUnwrappedBuffer.flip();
+    this.bufferPool = bufferPool;
   }
 
   @Override
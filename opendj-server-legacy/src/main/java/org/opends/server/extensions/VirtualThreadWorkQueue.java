@@ -0,0 +1,703 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ConfigMessages.*;
+import static org.opends.messages.CoreMessages.*;
+import static org.opends.server.util.StaticUtils.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.config.server.ConfigurationChangeListener;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.server.config.server.VirtualThreadWorkQueueCfg;
+import org.opends.server.api.WorkQueue;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.monitors.VirtualThreadWorkQueueMonitor;
+import org.opends.server.types.CancelRequest;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.DisconnectReason;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.Operation;
+
+/**
+ * A work queue processing each operation on its own virtual thread.
+ * <p>
+ * Virtual threads are only available with Java 21 or later, so they are created by reflection. With older Java
+ * runtimes, the operations are processed by a fork-join pool with one thread per operation that can be processed
+ * concurrently.
+ * <p>
+ * The number of operations processed concurrently is bounded, both overall and per client connection. The pending
+ * operations are kept in one FIFO queue per client connection, and the client connections take turns to have their
+ * next operation processed, so that a client connection submitting many operations does not delay the operations of
+ * the other client connections.
+ */
+public class VirtualThreadWorkQueue extends WorkQueue<VirtualThreadWorkQueueCfg>
+    implements ConfigurationChangeListener<VirtualThreadWorkQueueCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The prefix of the names of the threads processing the operations. */
+  private static final String THREAD_NAME_PREFIX = "Worker Thread ";
+
+  /** The maximum number of threads of a fork-join pool. */
+  private static final int MAX_POOL_THREADS = 0x7fff;
+
+  /** The pending and running operations of a client connection. */
+  private static final class ConnectionQueue
+  {
+    private final long connectionID;
+    private final ArrayDeque<OperationTask> pendingTasks = new ArrayDeque<>();
+    private int nbRunningTasks;
+    /** Whether this client connection is waiting for its turn in the ready connections. */
+    private boolean ready;
+
+    private ConnectionQueue(long connectionID)
+    {
+      this.connectionID = connectionID;
+    }
+  }
+
+  /** Processes an operation submitted to this work queue. */
+  private final class OperationTask implements Runnable
+  {
+    private final Operation operation;
+    private final ConnectionQueue connection;
+    private final long submitTime = System.nanoTime();
+
+    private OperationTask(Operation operation, ConnectionQueue connection)
+    {
+      this.operation = operation;
+      this.connection = connection;
+    }
+
+    @Override
+    public void run()
+    {
+      opsStarted.incrementAndGet();
+      totalWaitTime.addAndGet(System.nanoTime() - submitTime);
+      try
+      {
+        process(operation);
+      }
+      finally
+      {
+        taskCompleted(this);
+      }
+    }
+  }
+
+  /** The number of operations that have been submitted to the work queue for processing. */
+  private final AtomicLong opsSubmitted = new AtomicLong();
+  /**
+   * The number of times that an attempt to submit a new request has been
+   * rejected because the work queue is already at its maximum capacity.
+   */
+  private final AtomicLong queueFullRejects = new AtomicLong();
+  /** The number of operations whose processing has started. */
+  private final AtomicLong opsStarted = new AtomicLong();
+  /** The total time in nanoseconds the started operations have waited in the work queue. */
+  private final AtomicLong totalWaitTime = new AtomicLong();
+
+  /** The lock protecting the state of the work queue. */
+  private final ReentrantLock lock = new ReentrantLock();
+  /** Signaled when operations leave the pending queues. */
+  private final Condition notFull = lock.newCondition();
+  /** The client connections with pending or running operations, by connection ID. */
+  private final Map<Long, ConnectionQueue> connections = new HashMap<>();
+  /** The client connections which can have their next pending operation processed, in turn order. */
+  private final ArrayDeque<ConnectionQueue> readyConnections = new ArrayDeque<>();
+  /** The operations being processed. */
+  private final Set<OperationTask> runningTasks = new LinkedHashSet<>();
+  /** The number of pending operations, for all the client connections. */
+  private int nbPendingTasks;
+
+  private int maxConcurrentOperations;
+  private int maxConcurrentOperationsPerConnection;
+  private int maxCapacity;
+  private boolean shutdownRequested;
+
+  /** The executor running the operations. */
+  private ExecutorService executor;
+  /** Whether the operations run on virtual threads, or else in a fork-join pool. */
+  private boolean usesVirtualThreads;
+  private VirtualThreadWorkQueueMonitor monitor;
+
+  /**
+   * Creates a new instance of this work queue. All initialization should be
+   * performed in the <CODE>initializeWorkQueue</CODE> method.
+   */
+  public VirtualThreadWorkQueue()
+  {
+    // No implementation should be performed here.
+  }
+
+  @Override
+  public void initializeWorkQueue(VirtualThreadWorkQueueCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    lock.lock();
+    try
+    {
+      shutdownRequested = false;
+      maxConcurrentOperations = configuration.getMaxConcurrentOperations();
+      maxConcurrentOperationsPerConnection = configuration.getMaxConcurrentOperationsPerConnection();
+      maxCapacity = configuration.getMaxWorkQueueCapacity();
+
+      executor = newVirtualThreadExecutor();
+      usesVirtualThreads = executor != null;
+      if (usesVirtualThreads)
+      {
+        logger.info(INFO_CONFIG_WORK_QUEUE_USES_VIRTUAL_THREADS);
+      }
+      else
+      {
+        executor = newForkJoinPool(maxConcurrentOperations);
+        logger.info(INFO_CONFIG_WORK_QUEUE_USES_FORK_JOIN_POOL, getPoolSize(maxConcurrentOperations));
+      }
+
+      configuration.addVirtualThreadChangeListener(this);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+
+    // Create and register a monitor provider for the work queue.
+    try
+    {
+      monitor = new VirtualThreadWorkQueueMonitor(this);
+      monitor.initializeMonitorProvider(null);
+      DirectoryServer.registerMonitorProvider(monitor);
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      logger.error(ERR_CONFIG_WORK_QUEUE_CANNOT_CREATE_MONITOR, VirtualThreadWorkQueueMonitor.class, e);
+    }
+  }
+
+  /**
+   * Returns an executor running each task on a new virtual thread, if the Java runtime supports them.
+   *
+   * @return an executor running each task on a new virtual thread, or {@code null} if virtual threads are not
+   *         supported
+   */
+  private static ExecutorService newVirtualThreadExecutor()
+  {
+    try
+    {
+      // Thread.ofVirtual().name(THREAD_NAME_PREFIX, 0).factory()
+      final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 0L);
+      final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                                              .invoke(null, threadFactory);
+    }
+    catch (ReflectiveOperationException | RuntimeException e)
+    {
+      logger.traceException(e);
+      return null;
+    }
+  }
+
+  private static ExecutorService newForkJoinPool(int maxConcurrentOperations)
+  {
+    // The operations block, so the pool needs one thread per operation processed concurrently.
+    // Async mode makes the pool process the operations in submission order.
+    return new ForkJoinPool(getPoolSize(maxConcurrentOperations), new ForkJoinWorkerThreadFactory()
+    {
+      @Override
+      public ForkJoinWorkerThread newThread(ForkJoinPool pool)
+      {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName(THREAD_NAME_PREFIX + thread.getPoolIndex());
+        return thread;
+      }
+    }, null, true);
+  }
+
+  private static int getPoolSize(int maxConcurrentOperations)
+  {
+    return Math.min(maxConcurrentOperations, MAX_POOL_THREADS);
+  }
+
+  @Override
+  public void finalizeWorkQueue(LocalizableMessage reason)
+  {
+    final List<OperationTask> pendingTasks = new ArrayList<>();
+    final List<OperationTask> tasksInProgress;
+    lock.lock();
+    try
+    {
+      shutdownRequested = true;
+      for (ConnectionQueue connection : connections.values())
+      {
+        pendingTasks.addAll(connection.pendingTasks);
+        connection.pendingTasks.clear();
+      }
+      readyConnections.clear();
+      nbPendingTasks = 0;
+      tasksInProgress = new ArrayList<>(runningTasks);
+      notFull.signalAll();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+
+    // From now on no more operations can be enqueued or started.
+
+    // Send responses to any operations in the pending queues to indicate that
+    // they won't be processed because the server is shutting down.
+    CancelRequest cancelRequest = new CancelRequest(true, reason);
+    for (OperationTask task : pendingTasks)
+    {
+      try
+      {
+        // The operation has no chance of responding to the cancel
+        // request so avoid waiting for a cancel response.
+        if (task.operation.getCancelResult() == null)
+        {
+          task.operation.abort(cancelRequest);
+        }
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+        logger.warn(WARN_QUEUE_UNABLE_TO_CANCEL, task.operation, e);
+      }
+    }
+
+    // Ask the operations in progress to stop, without waiting for each of them to respond.
+    CancelRequest shutdownRequest = new CancelRequest(true, INFO_CANCELED_BY_SHUTDOWN.get());
+    for (OperationTask task : tasksInProgress)
+    {
+      try
+      {
+        task.operation.abort(shutdownRequest);
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+      }
+    }
+
+    executor.shutdown();
+    if (monitor != null)
+    {
+      DirectoryServer.deregisterMonitorProvider(monitor);
+      monitor.finalizeMonitorProvider();
+    }
+  }
+
+  /**
+   * Indicates whether this work queue has received a request to shut down.
+   *
+   * @return <CODE>true</CODE> if the work queue has received a request to shut
+   *         down, or <CODE>false</CODE> if not.
+   */
+  public boolean shutdownRequested()
+  {
+    lock.lock();
+    try
+    {
+      return shutdownRequested;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Submits an operation to be processed by this work queue, blocking until the
+   * work queue has available capacity.
+   *
+   * @param operation
+   *          The operation to be processed.
+   * @throws DirectoryException
+   *           If the provided operation is not accepted for some reason (e.g.,
+   *           if the server is shutting down).
+   */
+  @Override
+  public void submitOperation(Operation operation) throws DirectoryException
+  {
+    submitOperation(operation, true);
+  }
+
+  @Override
+  public boolean trySubmitOperation(Operation operation) throws DirectoryException
+  {
+    try
+    {
+      submitOperation(operation, false);
+      return true;
+    }
+    catch (DirectoryException e)
+    {
+      if (ResultCode.BUSY == e.getResultCode())
+      {
+        return false;
+      }
+      throw e;
+    }
+  }
+
+  private void submitOperation(Operation operation, boolean blockEnqueuingWhenFull) throws DirectoryException
+  {
+    lock.lock();
+    try
+    {
+      checkNotShutdown();
+      if (nbPendingTasks >= maxCapacity)
+      {
+        if (!blockEnqueuingWhenFull)
+        {
+          queueFullRejects.incrementAndGet();
+          throw new DirectoryException(ResultCode.BUSY, WARN_OP_REJECTED_BY_QUEUE_FULL.get(maxCapacity));
+        }
+
+        try
+        {
+          while (nbPendingTasks >= maxCapacity)
+          {
+            notFull.await();
+            checkNotShutdown();
+          }
+        }
+        catch (InterruptedException e)
+        {
+          // We cannot handle the interruption here. Reject the request and
+          // re-interrupt this thread.
+          Thread.currentThread().interrupt();
+          queueFullRejects.incrementAndGet();
+          throw new DirectoryException(ResultCode.BUSY, WARN_OP_REJECTED_BY_QUEUE_INTERRUPT.get());
+        }
+      }
+
+      final long connectionID = operation.getConnectionID();
+      ConnectionQueue connection = connections.get(connectionID);
+      if (connection == null)
+      {
+        connection = new ConnectionQueue(connectionID);
+        connections.put(connectionID, connection);
+      }
+      connection.pendingTasks.add(new OperationTask(operation, connection));
+      nbPendingTasks++;
+      opsSubmitted.incrementAndGet();
+
+      makeReady(connection);
+      startReadyTasks();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  private void checkNotShutdown() throws DirectoryException
+  {
+    if (shutdownRequested)
+    {
+      throw new DirectoryException(ResultCode.UNAVAILABLE, WARN_OP_REJECTED_BY_SHUTDOWN.get());
+    }
+  }
+
+  /** Gives a turn to the provided client connection if it can have its next pending operation processed. */
+  private void makeReady(ConnectionQueue connection)
+  {
+    if (!connection.ready
+        && !connection.pendingTasks.isEmpty()
+        && connection.nbRunningTasks < maxConcurrentOperationsPerConnection)
+    {
+      connection.ready = true;
+      readyConnections.add(connection);
+    }
+  }
+
+  /** Starts the next pending operations of the ready client connections, as long as concurrency allows it. */
+  private void startReadyTasks()
+  {
+    while (runningTasks.size() < maxConcurrentOperations && !readyConnections.isEmpty())
+    {
+      final ConnectionQueue connection = readyConnections.poll();
+      connection.ready = false;
+      final OperationTask task = connection.pendingTasks.poll();
+      nbPendingTasks--;
+      connection.nbRunningTasks++;
+      runningTasks.add(task);
+      // Back of the line for the next operation of this client connection
+      makeReady(connection);
+      notFull.signal();
+
+      executor.execute(task);
+    }
+  }
+
+  private void taskCompleted(OperationTask task)
+  {
+    lock.lock();
+    try
+    {
+      final ConnectionQueue connection = task.connection;
+      runningTasks.remove(task);
+      connection.nbRunningTasks--;
+      if (connection.nbRunningTasks == 0 && connection.pendingTasks.isEmpty())
+      {
+        connections.remove(connection.connectionID);
+      }
+      else
+      {
+        makeReady(connection);
+      }
+      if (!shutdownRequested)
+      {
+        startReadyTasks();
+      }
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /** Processes the provided operation in the same way as {@link TraditionalWorkerThread}. */
+  static void process(Operation operation)
+  {
+    try
+    {
+      operation.run();
+      operation.operationCompleted();
+    }
+    catch (Throwable t)
+    {
+      final String threadName = Thread.currentThread().getName();
+      if (logger.isTraceEnabled())
+      {
+        logger.trace("Uncaught exception in worker thread while processing operation %s: %s", operation, t);
+        logger.traceException(t);
+      }
+
+      try
+      {
+        LocalizableMessage message =
+            ERR_UNCAUGHT_WORKER_THREAD_EXCEPTION.get(threadName, operation, stackTraceToSingleLineString(t));
+        logger.error(message);
+
+        // Ensure that the client receives some kind of result so that it does
+        // not hang.
+        operation.setResultCode(DirectoryServer.getCoreConfigManager().getServerErrorResultCode());
+        operation.appendErrorMessage(message);
+        operation.getClientConnection().sendResponse(operation);
+      }
+      catch (Throwable t2)
+      {
+        if (logger.isTraceEnabled())
+        {
+          logger.trace("Exception in worker thread while trying to log a "
+              + "message about an uncaught exception %s: %s", t, t2);
+          logger.traceException(t2);
+        }
+      }
+
+      try
+      {
+        LocalizableMessage message =
+            ERR_UNCAUGHT_WORKER_THREAD_EXCEPTION.get(threadName, operation, stackTraceToSingleLineString(t));
+        operation.disconnectClient(DisconnectReason.SERVER_ERROR, true, message);
+      }
+      catch (Throwable t2)
+      {
+        logger.traceException(t2);
+      }
+    }
+  }
+
+  /**
+   * Retrieves the total number of operations that have been successfully
+   * submitted to this work queue for processing since server startup. This does
+   * not include operations that have been rejected for some reason like the
+   * queue already at its maximum capacity.
+   *
+   * @return The total number of operations that have been successfully
+   *         submitted to this work queue since startup.
+   */
+  public long getOpsSubmitted()
+  {
+    return opsSubmitted.longValue();
+  }
+
+  /**
+   * Retrieves the total number of operations that have been rejected because
+   * the work queue was already at its maximum capacity.
+   *
+   * @return The total number of operations that have been rejected because the
+   *         work queue was already at its maximum capacity.
+   */
+  public long getOpsRejectedDueToQueueFull()
+  {
+    return queueFullRejects.longValue();
+  }
+
+  /**
+   * Retrieves the average time the operations waited in the work queue before
+   * their processing started.
+   *
+   * @return The average time in milliseconds the operations waited in the
+   *         work queue, or 0 if no operation has been processed yet.
+   */
+  public double getAverageWaitTime()
+  {
+    final long nbStarted = opsStarted.get();
+    return nbStarted != 0 ? totalWaitTime.get() / (nbStarted * 1000000.0) : 0;
+  }
+
+  /**
+   * Retrieves the number of pending operations that have not yet been picked
+   * up for processing.
+   *
+   * @return The number of pending operations that have not yet been picked up
+   *         for processing.
+   */
+  public int size()
+  {
+    lock.lock();
+    try
+    {
+      return nbPendingTasks;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the number of operations being processed.
+   *
+   * @return The number of operations being processed.
+   */
+  public int getNumActiveOperations()
+  {
+    lock.lock();
+    try
+    {
+      return runningTasks.size();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Indicates whether the operations are processed on virtual threads.
+   *
+   * @return {@code true} if the operations are processed on virtual threads,
+   *         {@code false} if they are processed by a pool of platform threads
+   */
+  public boolean usesVirtualThreads()
+  {
+    return usesVirtualThreads;
+  }
+
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      VirtualThreadWorkQueueCfg configuration, List<LocalizableMessage> unacceptableReasons)
+  {
+    return true;
+  }
+
+  @Override
+  public ConfigChangeResult applyConfigurationChange(VirtualThreadWorkQueueCfg configuration)
+  {
+    lock.lock();
+    try
+    {
+      final int newMaxConcurrentOperations = configuration.getMaxConcurrentOperations();
+      if (!usesVirtualThreads && !shutdownRequested && newMaxConcurrentOperations != maxConcurrentOperations)
+      {
+        // The operations in progress complete in the old pool
+        executor.shutdown();
+        executor = newForkJoinPool(newMaxConcurrentOperations);
+      }
+      maxConcurrentOperations = newMaxConcurrentOperations;
+      maxConcurrentOperationsPerConnection = configuration.getMaxConcurrentOperationsPerConnection();
+      maxCapacity = configuration.getMaxWorkQueueCapacity();
+
+      for (ConnectionQueue connection : connections.values())
+      {
+        makeReady(connection);
+      }
+      if (!shutdownRequested)
+      {
+        startReadyTasks();
+      }
+      notFull.signalAll();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+    return new ConfigChangeResult();
+  }
+
+  @Override
+  public boolean isIdle()
+  {
+    lock.lock();
+    try
+    {
+      return nbPendingTasks == 0 && runningTasks.isEmpty();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Return the maximum number of operations processed concurrently by this WorkQueue.
+   *
+   * @return the maximum number of operations processed concurrently by this WorkQueue
+   */
+  @Override
+  public int getNumWorkerThreads()
+  {
+    return maxConcurrentOperations;
+  }
+}
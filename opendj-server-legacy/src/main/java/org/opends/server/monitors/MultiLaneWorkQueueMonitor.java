@@ -0,0 +1,154 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.monitors;
+
+import static org.opends.server.monitors.TraditionalWorkQueueMonitor.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.extensions.MultiLaneWorkQueue;
+import org.opends.server.extensions.MultiLaneWorkQueue.Lane;
+import org.opends.server.types.InitializationException;
+
+/**
+ * This class defines a Directory Server monitor that can be used to provide
+ * information about the state of the multi-lane work queue. In addition to
+ * the attributes of the traditional work queue monitor, it provides the
+ * backlog, the counters and the latency histogram of each lane, in attributes
+ * prefixed with the name of the lane.
+ */
+public class MultiLaneWorkQueueMonitor
+       extends MonitorProvider<MonitorProviderCfg>
+       implements Runnable
+{
+  /** The suffix of the monitor attributes that provide the current backlog of a lane. */
+  public static final String ATTR_LANE_BACKLOG = "RequestBacklog";
+  /** The suffix of the monitor attributes that provide the number of requests submitted to a lane. */
+  public static final String ATTR_LANE_OPS_SUBMITTED = "RequestsSubmitted";
+  /** The suffix of the monitor attributes that provide the number of requests rejected because a lane was full. */
+  public static final String ATTR_LANE_OPS_REJECTED_QUEUE_FULL = "RequestsRejectedDueToQueueFull";
+  /** The suffix of the monitor attributes that provide the average time in milliseconds requests waited in a lane. */
+  public static final String ATTR_LANE_AVERAGE_WAIT_TIME = "AverageRequestWaitTime";
+  /**
+   * The suffix of the monitor attributes that provide the latency histogram of
+   * a lane, with one value per bucket such as "&lt;20ms: 12".
+   */
+  public static final String ATTR_LANE_LATENCY = "RequestLatency";
+
+  /** The maximum backlog observed by polling the queue. */
+  private int maxBacklog;
+  /** The total number of times the backlog has been polled. */
+  private long numPolls;
+  /** The total backlog observed from periodic polling. */
+  private long totalBacklog;
+  /** The work queue instance with which this monitor is associated. */
+  private final MultiLaneWorkQueue workQueue;
+
+  /**
+   * Initializes this monitor provider.  Note that no initialization should be
+   * done here, since it should be performed in the
+   * <CODE>initializeMonitorProvider</CODE> class.
+   *
+   * @param  workQueue  The work queue with which this monitor is associated.
+   */
+  public MultiLaneWorkQueueMonitor(MultiLaneWorkQueue workQueue)
+  {
+    this.workQueue = workQueue;
+  }
+
+  @Override
+  public void initializeMonitorProvider(MonitorProviderCfg configuration)
+         throws ConfigException, InitializationException
+  {
+    maxBacklog   = 0;
+    totalBacklog = 0;
+    numPolls     = 0;
+    scheduleUpdate(this, 0, 10, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public String getMonitorInstanceName()
+  {
+    return "Work Queue";
+  }
+
+  @Override
+  public synchronized void run()
+  {
+    pollBacklog();
+  }
+
+  private int pollBacklog()
+  {
+    int backlog = workQueue.size();
+    totalBacklog += backlog;
+    numPolls++;
+    if (backlog > maxBacklog)
+    {
+      maxBacklog = backlog;
+    }
+    return backlog;
+  }
+
+  @Override
+  public synchronized MonitorData getMonitorData()
+  {
+    int backlog = pollBacklog();
+    long averageBacklog = (long) (1.0 * totalBacklog / numPolls);
+
+    final MonitorData monitorAttrs = new MonitorData(5 + 5 * Lane.values().length);
+    long opsSubmitted = 0;
+    long opsRejected = 0;
+    for (Lane lane : Lane.values())
+    {
+      opsSubmitted += workQueue.getOpsSubmitted(lane);
+      opsRejected += workQueue.getOpsRejectedDueToQueueFull(lane);
+    }
+    monitorAttrs.add(ATTR_CURRENT_BACKLOG, backlog);
+    monitorAttrs.add(ATTR_AVERAGE_BACKLOG, averageBacklog);
+    monitorAttrs.add(ATTR_MAX_BACKLOG, maxBacklog);
+    monitorAttrs.add(ATTR_OPS_SUBMITTED, opsSubmitted);
+    monitorAttrs.add(ATTR_OPS_REJECTED_QUEUE_FULL, opsRejected);
+
+    for (Lane lane : Lane.values())
+    {
+      monitorAttrs.add(lane + ATTR_LANE_BACKLOG, workQueue.size(lane));
+      monitorAttrs.add(lane + ATTR_LANE_OPS_SUBMITTED, workQueue.getOpsSubmitted(lane));
+      monitorAttrs.add(lane + ATTR_LANE_OPS_REJECTED_QUEUE_FULL, workQueue.getOpsRejectedDueToQueueFull(lane));
+      monitorAttrs.add(lane + ATTR_LANE_AVERAGE_WAIT_TIME, workQueue.getAverageWaitTime(lane));
+      monitorAttrs.add(lane + ATTR_LANE_LATENCY, toHistogramValues(workQueue.getLatencyHistogram(lane)));
+    }
+    return monitorAttrs;
+  }
+
+  private static List<String> toHistogramValues(long[] histogram)
+  {
+    final long[] bounds = MultiLaneWorkQueue.getLatencyBucketsMillis();
+    final List<String> values = new ArrayList<>(histogram.length);
+    for (int i = 0; i < bounds.length; i++)
+    {
+      values.add("<" + bounds[i] + "ms: " + histogram[i]);
+    }
+    values.add(">=" + bounds[bounds.length - 1] + "ms: " + histogram[bounds.length]);
+    return values;
+  }
+}
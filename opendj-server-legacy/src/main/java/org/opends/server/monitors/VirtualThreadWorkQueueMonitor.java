@@ -0,0 +1,127 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.monitors;
+
+import static org.opends.server.monitors.TraditionalWorkQueueMonitor.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.extensions.VirtualThreadWorkQueue;
+import org.opends.server.types.InitializationException;
+
+/**
+ * This class defines a Directory Server monitor that can be used to provide
+ * information about the state of the virtual thread work queue. It provides
+ * the same attributes as the traditional work queue monitor, so that both
+ * work queues can be compared.
+ */
+public class VirtualThreadWorkQueueMonitor
+       extends MonitorProvider<MonitorProviderCfg>
+       implements Runnable
+{
+  /**
+   * The name to use for the monitor attribute that provides the average time
+   * in milliseconds requests waited in the work queue.
+   */
+  public static final String ATTR_AVERAGE_WAIT_TIME = "averageRequestWaitTime";
+  /**
+   * The name to use for the monitor attribute that provides the number of
+   * requests being processed.
+   */
+  public static final String ATTR_ACTIVE_REQUESTS = "activeRequests";
+  /**
+   * The name to use for the monitor attribute that tells whether requests are
+   * processed on virtual threads.
+   */
+  public static final String ATTR_VIRTUAL_THREADS = "usesVirtualThreads";
+
+  /** The maximum backlog observed by polling the queue. */
+  private int maxBacklog;
+  /** The total number of times the backlog has been polled. */
+  private long numPolls;
+  /** The total backlog observed from periodic polling. */
+  private long totalBacklog;
+  /** The work queue instance with which this monitor is associated. */
+  private final VirtualThreadWorkQueue workQueue;
+
+  /**
+   * Initializes this monitor provider.  Note that no initialization should be
+   * done here, since it should be performed in the
+   * <CODE>initializeMonitorProvider</CODE> class.
+   *
+   * @param  workQueue  The work queue with which this monitor is associated.
+   */
+  public VirtualThreadWorkQueueMonitor(VirtualThreadWorkQueue workQueue)
+  {
+    this.workQueue = workQueue;
+  }
+
+  @Override
+  public void initializeMonitorProvider(MonitorProviderCfg configuration)
+         throws ConfigException, InitializationException
+  {
+    maxBacklog   = 0;
+    totalBacklog = 0;
+    numPolls     = 0;
+    scheduleUpdate(this, 0, 10, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public String getMonitorInstanceName()
+  {
+    return "Work Queue";
+  }
+
+  @Override
+  public synchronized void run()
+  {
+    pollBacklog();
+  }
+
+  private int pollBacklog()
+  {
+    int backlog = workQueue.size();
+    totalBacklog += backlog;
+    numPolls++;
+    if (backlog > maxBacklog)
+    {
+      maxBacklog = backlog;
+    }
+    return backlog;
+  }
+
+  @Override
+  public synchronized MonitorData getMonitorData()
+  {
+    int backlog = pollBacklog();
+    long averageBacklog = (long) (1.0 * totalBacklog / numPolls);
+
+    final MonitorData monitorAttrs = new MonitorData(8);
+    monitorAttrs.add(ATTR_CURRENT_BACKLOG, backlog);
+    monitorAttrs.add(ATTR_AVERAGE_BACKLOG, averageBacklog);
+    monitorAttrs.add(ATTR_MAX_BACKLOG, maxBacklog);
+    monitorAttrs.add(ATTR_OPS_SUBMITTED, workQueue.getOpsSubmitted());
+    monitorAttrs.add(ATTR_OPS_REJECTED_QUEUE_FULL, workQueue.getOpsRejectedDueToQueueFull());
+    monitorAttrs.add(ATTR_AVERAGE_WAIT_TIME, workQueue.getAverageWaitTime());
+    monitorAttrs.add(ATTR_ACTIVE_REQUESTS, workQueue.getNumActiveOperations());
+    monitorAttrs.add(ATTR_VIRTUAL_THREADS, workQueue.usesVirtualThreads());
+    return monitorAttrs;
+  }
+}
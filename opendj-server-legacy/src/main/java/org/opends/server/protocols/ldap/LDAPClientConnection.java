@@ -35,7 +35,9 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.security.cert.Certificate;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -309,12 +311,24 @@ public final class LDAPClientConnection extends ClientConnection implements
   /** The tracer object for the debug logger. */
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
+  /**
+   * The maximum time in milliseconds search results are kept in the buffer of
+   * a thread before being written, when the search returns them slowly.
+   */
+  private static final long MAX_WRITE_BATCH_DELAY = 50;
+
   /** Thread local ASN1Writer and buffer. */
   private static final class ASN1WriterHolder implements Closeable
   {
     private final ASN1Writer writer;
     private final ByteStringBuilder buffer;
     private final int maxBufferSize;
+    /** The connection the messages pending in the buffer are sent to, or null if there are none. */
+    private LDAPClientConnection pendingConnection;
+    /** The message ID of the operation the pending messages belong to. */
+    private int pendingMessageID;
+    /** The time at which the first pending message was encoded. */
+    private long pendingSince;
 
     private ASN1WriterHolder()
     {
@@ -328,6 +342,7 @@ public final class LDAPClientConnection extends ClientConnection implements
     {
       StaticUtils.close(writer);
       buffer.clearAndTruncate(maxBufferSize, maxBufferSize);
+      pendingConnection = null;
     }
   }
 
@@ -348,6 +363,7 @@ public final class LDAPClientConnection extends ClientConnection implements
     if (holder.maxBufferSize != getCoreConfigManager().getMaxInternalBufferSize())
     {
       // Setting has changed, so recreate the holder.
+      flushPendingMessages(holder);
       holder = new ASN1WriterHolder();
       ASN1_WRITER_CACHE.set(holder);
     }
@@ -428,6 +444,23 @@ public final class LDAPClientConnection extends ClientConnection implements
   private volatile ConnectionSecurityProvider saslPendingProvider;
   private volatile ConnectionSecurityProvider tlsPendingProvider;
 
+  /**
+   * The number of read readiness events of this connection since the last
+   * load sample of its request handler, only accessed by that request handler.
+   */
+  int recentReadinessEvents;
+  /**
+   * The requests read while this connection had as many operations in
+   * progress as allowed, which are processed as they complete, only accessed
+   * by its request handler.
+   */
+  final Deque<LDAPMessage> deferredRequests = new ArrayDeque<>();
+  /**
+   * Indicates whether this connection is in the ready connections of its
+   * request handler, only accessed by that request handler.
+   */
+  boolean ready;
+
   /**
    * Creates a new LDAP client connection with the provided information.
    *
@@ -678,7 +711,7 @@ public final class LDAPClientConnection extends ClientConnection implements
     // if operation processing encounters a run-time exception after sending the
     // response: the worker thread exception handling code will attempt to send
     // an error result to the client indicating that a problem occurred.
-    if (removeOperationInProgress(operation.getMessageID()))
+    if (removeOperation(operation.getMessageID()))
     {
       LDAPMessage message = operationToResponseLDAPMessage(operation);
       if (message != null)
@@ -840,8 +873,10 @@ public final class LDAPClientConnection extends ClientConnection implements
     SearchResultEntryProtocolOp protocolOp =
         new SearchResultEntryProtocolOp(searchEntry, ldapVersion);
 
+    // Persistent searches do not send a response, and return changes
+    // from the threads processing them, so their entries are not batched.
     sendLDAPMessage(new LDAPMessage(searchOperation.getMessageID(),
-        protocolOp, searchEntry.getControls()));
+        protocolOp, searchEntry.getControls()), searchOperation.isSendResponse());
   }
 
   /**
@@ -876,7 +911,7 @@ public final class LDAPClientConnection extends ClientConnection implements
         new SearchResultReferenceProtocolOp(searchReference);
 
     sendLDAPMessage(new LDAPMessage(searchOperation.getMessageID(),
-        protocolOp, searchReference.getControls()));
+        protocolOp, searchReference.getControls()), searchOperation.isSendResponse());
     return true;
   }
 
@@ -915,13 +950,67 @@ public final class LDAPClientConnection extends ClientConnection implements
    *          The LDAP message to send to the client.
    */
   private void sendLDAPMessage(LDAPMessage message)
+  {
+    sendLDAPMessage(message, false);
+  }
+
+  /**
+   * Sends the provided LDAP message to the client, optionally keeping it in
+   * the buffer of the current thread so that it is written with the next
+   * messages of the same operation.
+   * <p>
+   * Pending messages are written when the buffer exceeds the write batch size,
+   * with the next message that is not batched (e.g. the search result done),
+   * when they have been pending for too long, and when the operation is no
+   * longer processed by the current thread.
+   *
+   * @param message
+   *          The LDAP message to send to the client.
+   * @param batch
+   *          Indicates whether the message may be kept in the buffer.
+   */
+  private void sendLDAPMessage(LDAPMessage message, boolean batch)
   {
     // Use a thread local writer.
     final ASN1WriterHolder holder = getASN1Writer();
+    if (holder.pendingConnection != null
+        && (holder.pendingConnection != this || holder.pendingMessageID != message.getMessageID()))
+    {
+      flushPendingMessages(holder);
+    }
+    final int pendingLength = holder.buffer.length();
+    boolean pending = false;
     try
     {
-      message.write(holder.writer);
-      holder.buffer.copyTo(saslChannel);
+      try
+      {
+        message.write(holder.writer);
+      }
+      catch (Exception e)
+      {
+        // Write the messages already pending before handling the failure,
+        // without the part of this message that may have been encoded.
+        if (holder.pendingConnection != null)
+        {
+          holder.buffer.setLength(pendingLength);
+          flushPendingMessages(holder);
+        }
+        throw e;
+      }
+      if (batch && isBatchOpen(holder))
+      {
+        if (holder.pendingConnection == null)
+        {
+          holder.pendingConnection = this;
+          holder.pendingMessageID = message.getMessageID();
+          holder.pendingSince = TimeThread.getTime();
+        }
+        pending = true;
+      }
+      else
+      {
+        holder.buffer.copyTo(saslChannel);
+      }
 
       if (logger.isTraceEnabled())
       {
@@ -949,13 +1038,87 @@ public final class LDAPClientConnection extends ClientConnection implements
     }
     finally
     {
-      // Clear and reset all of the internal buffers ready for the next usage.
-      // The ASN1Writer is based on a ByteStringBuilder so closing will cause
-      // the internal buffers to be resized if needed.
-      close(holder);
+      if (!pending)
+      {
+        // Clear and reset all of the internal buffers ready for the next usage.
+        // The ASN1Writer is based on a ByteStringBuilder so closing will cause
+        // the internal buffers to be resized if needed.
+        close(holder);
+      }
     }
  }
 
+  private boolean isBatchOpen(ASN1WriterHolder holder)
+  {
+    return holder.buffer.length() < connectionHandler.getWriteBatchSize()
+        && (holder.pendingConnection == null || TimeThread.getTime() - holder.pendingSince < MAX_WRITE_BATCH_DELAY);
+  }
+
+  @Override
+  public void flushBufferedResponses(int messageID, boolean force)
+  {
+    final ASN1WriterHolder holder = ASN1_WRITER_CACHE.get();
+    if (holder.pendingConnection == this
+        && holder.pendingMessageID == messageID
+        && (force || TimeThread.getTime() - holder.pendingSince >= MAX_WRITE_BATCH_DELAY))
+    {
+      writePendingMessages(holder);
+    }
+  }
+
+  /**
+   * Writes the messages pending in the buffer of the current thread for the
+   * provided operation, if any.
+   *
+   * @param messageID
+   *          The message ID of the operation.
+   */
+  private void flushPendingMessages(int messageID)
+  {
+    final ASN1WriterHolder holder = ASN1_WRITER_CACHE.get();
+    if (holder.pendingConnection == this && holder.pendingMessageID == messageID)
+    {
+      writePendingMessages(holder);
+    }
+  }
+
+  /**
+   * Writes the messages pending in the provided buffer to the connection they
+   * are sent to, if any.
+   */
+  private static void flushPendingMessages(ASN1WriterHolder holder)
+  {
+    final LDAPClientConnection connection = holder.pendingConnection;
+    if (connection != null)
+    {
+      connection.writePendingMessages(holder);
+    }
+  }
+
+  private void writePendingMessages(ASN1WriterHolder holder)
+  {
+    try
+    {
+      holder.buffer.copyTo(saslChannel);
+    }
+    catch (ClosedChannelException e)
+    {
+      logger.traceException(e);
+      disconnect(DisconnectReason.IO_ERROR, false,
+          ERR_IO_ERROR_ON_CLIENT_CONNECTION.get(getExceptionMessage(e)));
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      disconnect(DisconnectReason.SERVER_ERROR, false,
+          ERR_UNEXPECTED_EXCEPTION_ON_CLIENT_CONNECTION.get(getExceptionMessage(e)));
+    }
+    finally
+    {
+      close(holder);
+    }
+  }
+
   /**
    * Closes the connection to the client, optionally sending it a
    * message indicating the reason for the closure. Note that the
@@ -1106,6 +1269,19 @@ public final class LDAPClientConnection extends ClientConnection implements
     return operationsInProgress.values();
   }
 
+  /**
+   * Indicates whether this connection has as many operations in progress as
+   * its connection handler allows, in which case no more requests should be
+   * read from it.
+   *
+   * @return <CODE>true</CODE> if this connection has as many operations in
+   *         progress as its connection handler allows.
+   */
+  boolean isOperationLimitReached()
+  {
+    return operationsInProgress.size() >= connectionHandler.getMaxConcurrentOpsPerConnection();
+  }
+
   /**
    * Retrieves the operation in progress with the specified message ID.
    *
@@ -1208,6 +1384,18 @@ public final class LDAPClientConnection extends ClientConnection implements
    */
   @Override
   public boolean removeOperationInProgress(int messageID)
+  {
+    // The operation is no longer processed by the current thread
+    flushPendingMessages(messageID);
+    return removeOperation(messageID);
+  }
+
+  /**
+   * Removes the provided operation from the set of operations in progress,
+   * leaving its pending messages in the buffer of the current thread so that
+   * they are written with its response.
+   */
+  private boolean removeOperation(int messageID)
   {
     Operation operation = operationsInProgress.remove(messageID);
     if (operation == null)
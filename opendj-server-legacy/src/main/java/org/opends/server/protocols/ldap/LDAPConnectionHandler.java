@@ -53,6 +53,7 @@ import org.opends.server.core.QueueingStrategy;
 import org.opends.server.core.ServerContext;
 import org.opends.server.core.WorkQueueStrategy;
 import org.opends.server.extensions.NullKeyManagerProvider;
+import org.opends.server.extensions.TLSBufferPool;
 import org.opends.server.extensions.TLSByteChannel;
 import org.opends.server.monitors.ClientConnectionMonitorProvider;
 import org.opends.server.types.*;
@@ -144,8 +145,8 @@ public final class LDAPConnectionHandler extends
   private Collection<AddressMask> deniedClients;
 
   /**
-   * The index to the request handler that will be used for the next connection
-   * accepted by the server.
+   * The index to the request handler from which the search for the least
+   * loaded one starts for the next connection accepted by the server.
    */
   private int requestHandlerIndex;
 
@@ -155,12 +156,18 @@ public final class LDAPConnectionHandler extends
   /** The set of request handlers that are associated with this connection handler. */
   private LDAPRequestHandler[] requestHandlers;
 
+  /** The monitors of the request handlers, at the same index. */
+  private LDAPRequestHandlerMonitor[] requestHandlerMonitors;
+
   /** The set of statistics collected for this connection handler. */
   private LDAPStatistics statTracker;
 
   /** The client connection monitor provider associated with this connection handler. */
   private ClientConnectionMonitorProvider connMonitor;
 
+  /** The pool of the buffers used by the TLS connections of this connection handler. */
+  private TLSBufferPool tlsBufferPool;
+
   /**
    * The selector that will be used to multiplex connection acceptance across
    * multiple sockets by a single thread.
@@ -291,6 +298,11 @@ public final class LDAPConnectionHandler extends
     allowedClients = config.getAllowedClient();
     deniedClients = config.getDeniedClient();
 
+    if (tlsBufferPool != null)
+    {
+      tlsBufferPool.setMaxIdleBuffers(config.getMaxIdleTLSBuffers());
+    }
+
     // Reconfigure SSL if needed.
     try
     {
@@ -348,6 +360,19 @@ public final class LDAPConnectionHandler extends
       DirectoryServer.deregisterMonitorProvider(statTracker);
     }
 
+    if (tlsBufferPool != null)
+    {
+      DirectoryServer.deregisterMonitorProvider(tlsBufferPool);
+    }
+
+    if (requestHandlerMonitors != null)
+    {
+      for (LDAPRequestHandlerMonitor monitor : requestHandlerMonitors)
+      {
+        DirectoryServer.deregisterMonitorProvider(monitor);
+      }
+    }
+
     DirectoryServer.deregisterSupportedLDAPVersion(2, this);
     DirectoryServer.deregisterSupportedLDAPVersion(3, this);
 
@@ -504,6 +529,18 @@ public final class LDAPConnectionHandler extends
     return currentConfig.getMaxBlockedWriteTimeLimit();
   }
 
+  /**
+   * Retrieves the maximum number of requests of each client connection that
+   * are processed concurrently.
+   *
+   * @return The maximum number of requests of each client connection that are
+   *         processed concurrently.
+   */
+  public int getMaxConcurrentOpsPerConnection()
+  {
+    return currentConfig.getMaxConcurrentOpsPerConnection();
+  }
+
   /**
    * Retrieves the maximum ASN.1 element value length that will be allowed by
    * this connection handler.
@@ -527,6 +564,18 @@ public final class LDAPConnectionHandler extends
     return (int) currentConfig.getBufferSize();
   }
 
+  /**
+   * Retrieves the maximum size in bytes of the search results buffered
+   * before they are written to the client.
+   *
+   * @return The maximum size in bytes of the search results buffered before
+   *         they are written to the client, or zero if they are not buffered.
+   */
+  public int getWriteBatchSize()
+  {
+    return (int) currentConfig.getWriteBatchSize();
+  }
+
   @Override
   public String getProtocol()
   {
@@ -677,6 +726,17 @@ public final class LDAPConnectionHandler extends
     connMonitor = new ClientConnectionMonitorProvider(this);
     DirectoryServer.registerMonitorProvider(connMonitor);
 
+    tlsBufferPool = new TLSBufferPool(handlerName + " TLS Buffer Pool", config.getMaxIdleTLSBuffers());
+    DirectoryServer.registerMonitorProvider(tlsBufferPool);
+
+    requestHandlerMonitors = new LDAPRequestHandlerMonitor[numRequestHandlers];
+    for (int i = 0; i < numRequestHandlers; i++)
+    {
+      requestHandlerMonitors[i] =
+          new LDAPRequestHandlerMonitor(handlerName + " Request Handler " + i, requestHandlers[i]);
+      DirectoryServer.registerMonitorProvider(requestHandlerMonitors[i]);
+    }
+
     // Register this as a change listener.
     config.addLDAPChangeListener(this);
   }
@@ -1118,7 +1178,7 @@ public final class LDAPConnectionHandler extends
       }
 
       LDAPRequestHandler requestHandler =
-          requestHandlers[requestHandlerIndex++];
+          getLeastLoadedRequestHandler(requestHandlerIndex++);
       if (requestHandlerIndex >= numRequestHandlers)
       {
         requestHandlerIndex = 0;
@@ -1140,6 +1200,48 @@ public final class LDAPConnectionHandler extends
     }
   }
 
+  /**
+   * Retrieves the request handler with the lowest load, as reported by
+   * {@link LDAPRequestHandler#getLoad()}. The request handlers are examined
+   * from the provided index so that equally loaded request handlers are used
+   * in turn.
+   *
+   * @param startIndex
+   *          The index of the first request handler to examine.
+   * @return The request handler with the lowest load.
+   */
+  LDAPRequestHandler getLeastLoadedRequestHandler(int startIndex)
+  {
+    return getLeastLoadedRequestHandler(requestHandlers, startIndex);
+  }
+
+  /**
+   * Retrieves the request handler with the lowest load among the provided
+   * ones, examined from the provided index.
+   *
+   * @param requestHandlers
+   *          The request handlers to examine.
+   * @param startIndex
+   *          The index of the first request handler to examine.
+   * @return The request handler with the lowest load.
+   */
+  static LDAPRequestHandler getLeastLoadedRequestHandler(LDAPRequestHandler[] requestHandlers, int startIndex)
+  {
+    LDAPRequestHandler leastLoaded = null;
+    int lowestLoad = Integer.MAX_VALUE;
+    for (int i = 0; i < requestHandlers.length; i++)
+    {
+      LDAPRequestHandler requestHandler = requestHandlers[(startIndex + i) % requestHandlers.length];
+      int load = requestHandler.getLoad();
+      if (leastLoaded == null || load < lowestLoad)
+      {
+        leastLoaded = requestHandler;
+        lowestLoad = load;
+      }
+    }
+    return leastLoaded;
+  }
+
   /**
    * Appends a string representation of this connection handler to the provided
    * buffer.
@@ -1224,7 +1326,7 @@ public final class LDAPConnectionHandler extends
       throws DirectoryException
   {
     SSLEngine sslEngine = createSSLEngine(currentConfig, sslContext);
-    return new TLSByteChannel(channel, sslEngine);
+    return new TLSByteChannel(channel, sslEngine, tlsBufferPool);
   }
 
   private SSLEngine createSSLEngine(LDAPConnectionHandlerCfg config,
@@ -18,6 +18,7 @@ package org.opends.server.protocols.ldap;
 
 import static org.opends.messages.ProtocolMessages.*;
 import static org.opends.server.loggers.AccessLogger.logConnect;
+import static org.opends.server.protocols.ldap.LDAPConstants.*;
 import static org.opends.server.util.StaticUtils.*;
 
 import java.io.IOException;
@@ -28,8 +29,11 @@ import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
@@ -54,6 +58,21 @@ public class LDAPRequestHandler
 {
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
+  /** The interval in milliseconds between two samples of the load of a request handler. */
+  private static final long LOAD_SAMPLE_INTERVAL = 1000;
+  /**
+   * The minimum difference of load with the least loaded request handler
+   * before a connection is moved to it.
+   */
+  static final int MIN_REBALANCING_LOAD_GAP = 64;
+  /**
+   * The interval in milliseconds between two checks of the connections whose
+   * requests are deferred because they have too many operations in progress.
+   */
+  private static final long THROTTLED_CHECK_INTERVAL = 10;
+
+  /** The connection handler with which this request handler is associated. */
+  private final LDAPConnectionHandler connectionHandler;
   /** Indicates whether the Directory Server is in the process of shutting down. */
   private volatile boolean shutdownRequested;
   /** The current set of selection keys. */
@@ -65,16 +84,49 @@ public class LDAPRequestHandler
    * TODO: revisit, see Issue 4202.
    */
   private List<LDAPClientConnection> pendingConnections = new LinkedList<>();
+  /**
+   * The queue of the connections moved from another request handler, which
+   * need to be registered with the selector.
+   */
+  private List<LDAPClientConnection> transferredConnections = new LinkedList<>();
+  /** The number of pending and transferred connections not yet registered with the selector. */
+  private final AtomicInteger unregisteredConnections = new AtomicInteger();
 
   /** Lock object for synchronizing access to the pending connections queue. */
   private final Object pendingConnectionsLock = new Object();
   /** The list of connections ready for request processing. */
   private final LinkedList<LDAPClientConnection> readyConnections = new LinkedList<>();
+  /**
+   * The connections having deferred requests, which are processed as their
+   * operations complete, only accessed by this request handler.
+   */
+  private final Set<LDAPClientConnection> throttledConnections = new LinkedHashSet<>();
   /** The selector that will be used to monitor the client connections. */
   private final Selector selector;
   /** The name to use for this request handler. */
   private final String handlerName;
 
+  /*
+   * Statistics only updated by this request handler thread, and read by the
+   * connection handler and the monitor.
+   */
+
+  /** The number of read readiness events processed by this request handler. */
+  private volatile long readinessEvents;
+  /** The number of bytes read by this request handler. */
+  private volatile long bytesRead;
+  /** The total time in nanoseconds spent reading the data of the readiness events. */
+  private volatile long readTime;
+  /** The number of connections moved from another request handler. */
+  private volatile long connectionsTransferredIn;
+  /** The number of connections moved to another request handler. */
+  private volatile long connectionsTransferredOut;
+  /** The number of read readiness events per second during the last load sample interval. */
+  private volatile int readinessEventsPerSecond;
+  /** The time and number of readiness events of the last load sample. */
+  private long lastLoadSampleTime = System.currentTimeMillis();
+  private long lastLoadSampleReadinessEvents;
+
 
 
   /**
@@ -97,6 +149,7 @@ public class LDAPRequestHandler
           " for connection handler " + connectionHandler);
 
 
+    this.connectionHandler = connectionHandler;
     handlerName        = getName();
 
     try
@@ -148,9 +201,12 @@ public class LDAPRequestHandler
     // loop, check for new requests, then check for new connections.
     while (!shutdownRequested)
     {
+      resumeThrottledConnections();
+
       LDAPClientConnection readyConnection = null;
       while ((readyConnection = readyConnections.poll()) != null)
       {
+        readyConnection.ready = false;
         try
         {
           ASN1Reader asn1Reader = readyConnection.getASN1Reader();
@@ -161,7 +217,7 @@ public class LDAPRequestHandler
             {
               if (!ldapMessageProcessed)
               {
-                if (readyConnection.processLDAPMessage(
+                if (processRequest(readyConnection,
                     LDAPReader.readMessage(asn1Reader)))
                 {
                   ldapMessageProcessed = true;
@@ -173,7 +229,7 @@ public class LDAPRequestHandler
               }
               else
               {
-                readyConnections.add(readyConnection);
+                addReadyConnection(readyConnection);
                 break;
               }
             }
@@ -200,49 +256,13 @@ public class LDAPRequestHandler
         }
       }
 
-      // Check to see if we have any pending connections that need to be
-      // registered with the selector.
-      List<LDAPClientConnection> tmp = null;
-      synchronized (pendingConnectionsLock)
-      {
-        if (!pendingConnections.isEmpty())
-        {
-          tmp = pendingConnections;
-          pendingConnections = new LinkedList<>();
-        }
-      }
-
-      if (tmp != null)
-      {
-        for (LDAPClientConnection c : tmp)
-        {
-          try
-          {
-            SocketChannel socketChannel = c.getSocketChannel();
-            socketChannel.configureBlocking(false);
-            socketChannel.register(selector, SelectionKey.OP_READ, c);
-            logConnect(c);
-          }
-          catch (Exception e)
-          {
-            logger.traceException(e);
-
-            c.disconnect(DisconnectReason.SERVER_ERROR, true,
-                ERR_LDAP_REQHANDLER_CANNOT_REGISTER.get(handlerName, e));
-          }
-        }
-      }
+      registerConnections();
 
-      // Create a copy of the selection keys which can be used in a
-      // thread-safe manner by getClientConnections. This copy is only
-      // updated once per loop, so may not be accurate.
-      keys = selector.keys().toArray(new SelectionKey[0]);
-
-      int selectedKeys = 0;
       try
       {
-        // We timeout every second so that we can refresh the key list.
-        selectedKeys = selector.select(1000);
+        // We timeout every second so that we can refresh the key list, or
+        // sooner to process the deferred requests of the throttled connections.
+        selector.select(throttledConnections.isEmpty() ? 1000 : THROTTLED_CHECK_INTERVAL);
       }
       catch (Exception e)
       {
@@ -257,7 +277,9 @@ public class LDAPRequestHandler
         break;
       }
 
-      if (selectedKeys > 0)
+      // Also process the keys selected while registering the transferred
+      // connections, which select does not count again.
+      if (!selector.selectedKeys().isEmpty())
       {
         Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
         while (iterator.hasNext())
@@ -273,14 +295,19 @@ public class LDAPRequestHandler
               try
               {
                 clientConnection = (LDAPClientConnection) key.attachment();
+                clientConnection.recentReadinessEvents++;
+                readinessEvents++;
 
+                long readStart = System.nanoTime();
                 int readResult = clientConnection.processDataRead();
+                readTime += System.nanoTime() - readStart;
                 if (readResult < 0)
                 {
                   key.cancel();
                 }
                 if (readResult > 0) {
-                  readyConnections.add(clientConnection);
+                  bytesRead += readResult;
+                  addReadyConnection(clientConnection);
                 }
               }
               catch (Exception e)
@@ -333,6 +360,12 @@ public class LDAPRequestHandler
           }
         }
       }
+
+      long now = System.currentTimeMillis();
+      if (now - lastLoadSampleTime >= LOAD_SAMPLE_INTERVAL)
+      {
+        sampleLoad(now, connectionHandler.getLeastLoadedRequestHandler(0));
+      }
     }
 
     // Disconnect all active connections.
@@ -373,7 +406,9 @@ public class LDAPRequestHandler
     // Disconnect all pending connections.
     synchronized (pendingConnectionsLock)
     {
-      for (LDAPClientConnection c : pendingConnections)
+      List<LDAPClientConnection> unregistered = new ArrayList<>(pendingConnections);
+      unregistered.addAll(transferredConnections);
+      for (LDAPClientConnection c : unregistered)
       {
         try
         {
@@ -390,6 +425,227 @@ public class LDAPRequestHandler
 
 
 
+  /**
+   * Registers the pending and transferred connections with the selector, then
+   * refreshes the copy of the selection keys.
+   */
+  void registerConnections()
+  {
+    // Check to see if we have any pending connections that need to be
+    // registered with the selector.
+    List<LDAPClientConnection> tmp = null;
+    List<LDAPClientConnection> transferred = null;
+    synchronized (pendingConnectionsLock)
+    {
+      if (!pendingConnections.isEmpty())
+      {
+        tmp = pendingConnections;
+        pendingConnections = new LinkedList<>();
+      }
+      if (!transferredConnections.isEmpty())
+      {
+        transferred = transferredConnections;
+        transferredConnections = new LinkedList<>();
+      }
+    }
+
+    int registered = 0;
+    if (tmp != null)
+    {
+      for (LDAPClientConnection c : tmp)
+      {
+        try
+        {
+          SocketChannel socketChannel = c.getSocketChannel();
+          socketChannel.configureBlocking(false);
+          socketChannel.register(selector, SelectionKey.OP_READ, c);
+          logConnect(c);
+        }
+        catch (Exception e)
+        {
+          logger.traceException(e);
+
+          c.disconnect(DisconnectReason.SERVER_ERROR, true,
+              ERR_LDAP_REQHANDLER_CANNOT_REGISTER.get(handlerName, e));
+        }
+      }
+      registered += tmp.size();
+    }
+
+    if (transferred != null)
+    {
+      for (LDAPClientConnection c : transferred)
+      {
+        try
+        {
+          // Already non-blocking and logged by the previous request handler
+          SocketChannel socketChannel = c.getSocketChannel();
+          if (socketChannel.keyFor(selector) != null)
+          {
+            // The connection left this request handler so recently that the
+            // key cancelled then is still registered, registering the channel
+            // again would fail: deregister the cancelled keys first.
+            selector.selectNow();
+          }
+          socketChannel.register(selector, SelectionKey.OP_READ, c);
+          connectionsTransferredIn++;
+        }
+        catch (Exception e)
+        {
+          logger.traceException(e);
+
+          c.disconnect(DisconnectReason.SERVER_ERROR, true,
+              ERR_LDAP_REQHANDLER_CANNOT_REGISTER.get(handlerName, e));
+        }
+      }
+      registered += transferred.size();
+    }
+
+    // Create a copy of the selection keys which can be used in a
+    // thread-safe manner by getClientConnections. This copy is only
+    // updated once per loop, so may not be accurate.
+    keys = selector.keys().toArray(new SelectionKey[0]);
+    if (registered > 0)
+    {
+      // Now accounted for by the selection keys
+      unregisteredConnections.addAndGet(-registered);
+    }
+  }
+
+
+
+  /**
+   * Processes a request read from a client connection. The requests of a
+   * connection having as many operations in progress as allowed are deferred
+   * until some of them complete, except the abandon and unbind requests, so
+   * that the client can still cancel its operations or close the connection.
+   *
+   * @param clientConnection
+   *          The client connection from which the request was read.
+   * @param message
+   *          The request read from the client connection.
+   * @return <CODE>true</CODE> if more requests may be read from the client
+   *         connection, or <CODE>false</CODE> if it has been disconnected or
+   *         has as many deferred requests as allowed.
+   */
+  boolean processRequest(LDAPClientConnection clientConnection, LDAPMessage message)
+  {
+    switch (message.getProtocolOpType())
+    {
+    case OP_TYPE_ABANDON_REQUEST:
+      // The abandoned request may not have been processed yet
+      int idToAbandon = message.getAbandonRequestProtocolOp().getIDToAbandon();
+      Iterator<LDAPMessage> iterator = clientConnection.deferredRequests.iterator();
+      while (iterator.hasNext())
+      {
+        if (iterator.next().getMessageID() == idToAbandon)
+        {
+          iterator.remove();
+          break;
+        }
+      }
+      return clientConnection.processLDAPMessage(message);
+
+    case OP_TYPE_UNBIND_REQUEST:
+      clientConnection.deferredRequests.clear();
+      return clientConnection.processLDAPMessage(message);
+
+    default:
+      if (clientConnection.deferredRequests.isEmpty()
+          && !clientConnection.isOperationLimitReached())
+      {
+        return clientConnection.processLDAPMessage(message);
+      }
+      return defer(clientConnection, message);
+    }
+  }
+
+
+
+  /**
+   * Defers a request of a connection having as many operations in progress as
+   * allowed, until some of them complete. The connection is still read, so
+   * that abandon and unbind requests and its closure are noticed, unless it
+   * has as many deferred requests as operations in progress allowed.
+   *
+   * @param clientConnection
+   *          The client connection from which the request was read.
+   * @param message
+   *          The request to defer.
+   * @return <CODE>true</CODE> if more requests may be read from the client
+   *         connection.
+   */
+  private boolean defer(LDAPClientConnection clientConnection, LDAPMessage message)
+  {
+    SelectionKey key = clientConnection.getSocketChannel().keyFor(selector);
+    if (key == null || !key.isValid())
+    {
+      // The connection has been disconnected
+      return false;
+    }
+    throttledConnections.add(clientConnection);
+    clientConnection.deferredRequests.add(message);
+    if (clientConnection.deferredRequests.size() >= connectionHandler.getMaxConcurrentOpsPerConnection())
+    {
+      key.interestOps(0);
+      return false;
+    }
+    return true;
+  }
+
+
+
+  /**
+   * Processes the deferred requests of the throttled connections as their
+   * operations complete, and resumes reading the connections which were no
+   * longer read because they had too many deferred requests.
+   */
+  void resumeThrottledConnections()
+  {
+    Iterator<LDAPClientConnection> iterator = throttledConnections.iterator();
+    while (iterator.hasNext())
+    {
+      LDAPClientConnection c = iterator.next();
+      SelectionKey key = c.getSocketChannel().keyFor(selector);
+      if (key == null || !key.isValid())
+      {
+        c.deferredRequests.clear();
+        iterator.remove();
+        continue;
+      }
+
+      while (!c.deferredRequests.isEmpty() && !c.isOperationLimitReached())
+      {
+        if (!c.processLDAPMessage(c.deferredRequests.poll()))
+        {
+          // The connection has been disconnected
+          c.deferredRequests.clear();
+        }
+      }
+      if (c.deferredRequests.isEmpty())
+      {
+        iterator.remove();
+      }
+
+      try
+      {
+        if (key.interestOps() == 0
+            && c.deferredRequests.size() < connectionHandler.getMaxConcurrentOpsPerConnection())
+        {
+          key.interestOps(SelectionKey.OP_READ);
+          // The selector does not report the requests already read
+          addReadyConnection(c);
+        }
+      }
+      catch (CancelledKeyException e)
+      {
+        logger.traceException(e);
+      }
+    }
+  }
+
+
+
   /**
    * Registers the provided client connection with this request
    * handler so that any requests received from that client will be
@@ -422,6 +678,7 @@ public class LDAPRequestHandler
     synchronized (pendingConnectionsLock)
     {
       pendingConnections.add(clientConnection);
+      unregisteredConnections.incrementAndGet();
     }
 
     selector.wakeup();
@@ -430,6 +687,224 @@ public class LDAPRequestHandler
 
 
 
+  /**
+   * Registers a client connection moved from another request handler of the
+   * same connection handler. Unlike {@link #registerClient}, the connection
+   * is not logged again.
+   *
+   * @param clientConnection
+   *          The client connection deregistered from the other request
+   *          handler.
+   */
+  void transferClient(LDAPClientConnection clientConnection)
+  {
+    if (shutdownRequested)
+    {
+      clientConnection.disconnect(DisconnectReason.SERVER_SHUTDOWN, true,
+           ERR_LDAP_REQHANDLER_DEREGISTER_DUE_TO_SHUTDOWN.get());
+      return;
+    }
+
+    synchronized (pendingConnectionsLock)
+    {
+      transferredConnections.add(clientConnection);
+      unregisteredConnections.incrementAndGet();
+    }
+
+    selector.wakeup();
+  }
+
+
+
+  /**
+   * Computes the readiness events rate of the last sample interval, then
+   * moves one connection to the least loaded request handler if this request
+   * handler is significantly more loaded.
+   *
+   * @param now
+   *          The current time in milliseconds.
+   * @param target
+   *          The least loaded request handler of the connection handler.
+   */
+  void sampleLoad(long now, LDAPRequestHandler target)
+  {
+    long elapsed = now - lastLoadSampleTime;
+    long events = readinessEvents;
+    readinessEventsPerSecond = (int) Math.min((events - lastLoadSampleReadinessEvents) * 1000 / elapsed,
+        Integer.MAX_VALUE);
+    lastLoadSampleTime = now;
+    lastLoadSampleReadinessEvents = events;
+
+    int loadGap = target != null && target != this ? getLoad() - target.getLoad() : 0;
+
+    // Moving a connection contributing a load L changes the gap to (gap - 2L):
+    // pick the connection bringing it closest to zero, if any reduces it
+    SelectionKey transferKey = null;
+    long bestRemainingGap = loadGap;
+    for (SelectionKey key : keys)
+    {
+      LDAPClientConnection c = (LDAPClientConnection) key.attachment();
+      if (c == null)
+      {
+        continue;
+      }
+      long connectionLoad = 1 + c.recentReadinessEvents * 1000L / elapsed;
+      c.recentReadinessEvents = 0;
+
+      long remainingGap = Math.abs(loadGap - 2 * connectionLoad);
+      if (loadGap >= MIN_REBALANCING_LOAD_GAP
+          && remainingGap < bestRemainingGap
+          && key.isValid()
+          && c.deferredRequests.isEmpty()
+          && !c.ready)
+      {
+        transferKey = key;
+        bestRemainingGap = remainingGap;
+      }
+    }
+
+    if (transferKey != null)
+    {
+      moveConnection((LDAPClientConnection) transferKey.attachment(), target);
+    }
+  }
+
+
+
+  /**
+   * Deregisters a connection from this request handler and registers it with
+   * another one.
+   *
+   * @param clientConnection
+   *          The client connection to move, registered with this request
+   *          handler.
+   * @param target
+   *          The request handler to which the connection is moved.
+   */
+  void moveConnection(LDAPClientConnection clientConnection, LDAPRequestHandler target)
+  {
+    SelectionKey key = clientConnection.getSocketChannel().keyFor(selector);
+    key.cancel();
+    key.attach(null);
+    connectionsTransferredOut++;
+    target.transferClient(clientConnection);
+  }
+
+
+
+  /**
+   * Adds a connection to the connections ready for request processing, unless
+   * it is already there.
+   *
+   * @param clientConnection
+   *          The client connection having data to process.
+   */
+  private void addReadyConnection(LDAPClientConnection clientConnection)
+  {
+    if (!clientConnection.ready)
+    {
+      clientConnection.ready = true;
+      readyConnections.add(clientConnection);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the current load of this request handler, used for assigning
+   * the new connections and balancing the existing ones between the request
+   * handlers of a connection handler. Each connection counts for one, and
+   * each read readiness event during the last second counts for one more, so
+   * that a few busy connections weigh as much as many idle ones.
+   *
+   * @return The current load of this request handler.
+   */
+  int getLoad()
+  {
+    long load = (long) keys.length + unregisteredConnections.get() + readinessEventsPerSecond;
+    return (int) Math.min(load, Integer.MAX_VALUE);
+  }
+
+
+
+  /**
+   * Retrieves the number of read readiness events processed by this request
+   * handler.
+   *
+   * @return The number of read readiness events processed by this request
+   *         handler.
+   */
+  long getReadinessEvents()
+  {
+    return readinessEvents;
+  }
+
+
+
+  /**
+   * Retrieves the number of read readiness events per second during the last
+   * load sample interval.
+   *
+   * @return The number of read readiness events per second during the last
+   *         load sample interval.
+   */
+  int getReadinessEventsPerSecond()
+  {
+    return readinessEventsPerSecond;
+  }
+
+
+
+  /**
+   * Retrieves the number of bytes read by this request handler.
+   *
+   * @return The number of bytes read by this request handler.
+   */
+  long getBytesRead()
+  {
+    return bytesRead;
+  }
+
+
+
+  /**
+   * Retrieves the total time in nanoseconds spent reading the data of the
+   * read readiness events.
+   *
+   * @return The total time in nanoseconds spent reading the data of the read
+   *         readiness events.
+   */
+  long getReadTime()
+  {
+    return readTime;
+  }
+
+
+
+  /**
+   * Retrieves the number of connections moved from another request handler.
+   *
+   * @return The number of connections moved from another request handler.
+   */
+  long getConnectionsTransferredIn()
+  {
+    return connectionsTransferredIn;
+  }
+
+
+
+  /**
+   * Retrieves the number of connections moved to another request handler.
+   *
+   * @return The number of connections moved to another request handler.
+   */
+  long getConnectionsTransferredOut()
+  {
+    return connectionsTransferredOut;
+  }
+
+
+
   /**
    * Retrieves the set of all client connections that are currently registered
    * with this request handler.
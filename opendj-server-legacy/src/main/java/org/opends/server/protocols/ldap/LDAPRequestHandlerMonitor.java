@@ -0,0 +1,103 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.protocols.ldap;
+
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.types.InitializationException;
+
+/**
+ * The monitor provider reporting the activity of an {@link LDAPRequestHandler}:
+ * its connections and load, the read readiness events it processed and the
+ * time spent reading their data. The rates and the average read time are
+ * computed since the previous monitor data request.
+ */
+final class LDAPRequestHandlerMonitor extends MonitorProvider<MonitorProviderCfg>
+{
+  private final String instanceName;
+  private final LDAPRequestHandler requestHandler;
+
+  /** The time and counters of the previous monitor data, for computing the rates. */
+  private long lastSampleTime = System.currentTimeMillis();
+  private long lastReadinessEvents;
+  private long lastBytesRead;
+  private long lastReadTime;
+
+  /**
+   * Creates a new monitor provider for a request handler.
+   *
+   * @param instanceName
+   *          The name of the monitor instance.
+   * @param requestHandler
+   *          The request handler to monitor.
+   */
+  LDAPRequestHandlerMonitor(String instanceName, LDAPRequestHandler requestHandler)
+  {
+    this.instanceName = instanceName;
+    this.requestHandler = requestHandler;
+  }
+
+  @Override
+  public void initializeMonitorProvider(MonitorProviderCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    // No initialization is required.
+  }
+
+  @Override
+  public String getMonitorInstanceName()
+  {
+    return instanceName;
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    final long readinessEvents = requestHandler.getReadinessEvents();
+    final long bytesRead = requestHandler.getBytesRead();
+    final long readTime = requestHandler.getReadTime();
+    final long readinessEventsPerSecond;
+    final long bytesReadPerSecond;
+    final long averageReadTimeMicros;
+    synchronized (this)
+    {
+      final long now = System.currentTimeMillis();
+      final long elapsed = Math.max(now - lastSampleTime, 1);
+      final long events = readinessEvents - lastReadinessEvents;
+      readinessEventsPerSecond = events * 1000 / elapsed;
+      bytesReadPerSecond = (bytesRead - lastBytesRead) * 1000 / elapsed;
+      averageReadTimeMicros = events > 0 ? (readTime - lastReadTime) / events / 1000 : 0;
+      lastSampleTime = now;
+      lastReadinessEvents = readinessEvents;
+      lastBytesRead = bytesRead;
+      lastReadTime = readTime;
+    }
+
+    final MonitorData monitorAttrs = new MonitorData(9);
+    monitorAttrs.add("connections", requestHandler.getClientConnections().size());
+    monitorAttrs.add("load", requestHandler.getLoad());
+    monitorAttrs.add("readinessEvents", readinessEvents);
+    monitorAttrs.add("readinessEventsPerSecond", readinessEventsPerSecond);
+    monitorAttrs.add("bytesRead", bytesRead);
+    monitorAttrs.add("bytesReadPerSecond", bytesReadPerSecond);
+    monitorAttrs.add("averageReadTimeMicros", averageReadTimeMicros);
+    monitorAttrs.add("connectionsTransferredIn", requestHandler.getConnectionsTransferredIn());
+    monitorAttrs.add("connectionsTransferredOut", requestHandler.getConnectionsTransferredOut());
+    return monitorAttrs;
+  }
+}
@@ -46,6 +46,8 @@ import org.opends.server.types.OperationType;
  * broken down by message type.</LI>
  * <LI>The total number of bytes read from LDAP clients.</LI>
  * <LI>The total number of bytes written to LDAP clients.</LI>
+ * <LI>The total number of writes to LDAP clients, and the average
+ * number of bytes per write and of writes per operation.</LI>
  * </UL>
  * <BR>
  * <BR>
@@ -65,6 +67,7 @@ public class LDAPStatistics extends MonitorProvider<MonitorProviderCfg>
   private AtomicLong bindResponses = new AtomicLong(0);
   private AtomicLong bytesRead = new AtomicLong(0);
   private AtomicLong bytesWritten = new AtomicLong(0);
+  private AtomicLong networkWrites = new AtomicLong(0);
   private AtomicLong compareRequests = new AtomicLong(0);
   private AtomicLong compareResponses = new AtomicLong(0);
   private AtomicLong connectionsClosed = new AtomicLong(0);
@@ -167,11 +170,14 @@ public class LDAPStatistics extends MonitorProvider<MonitorProviderCfg>
      *        and associated with their objectclass
      *        OC_MONITOR_CONNHANDLERSTATS
      */
-    final MonitorData attrs = new MonitorData(31 + 10 * 2);
+    final MonitorData attrs = new MonitorData(34 + 10 * 2);
     attrs.add("connectionsEstablished", connectionsEstablished);
     attrs.add("connectionsClosed", connectionsClosed);
     attrs.add("bytesRead", bytesRead);
     attrs.add("bytesWritten", bytesWritten);
+    attrs.add("networkWrites", networkWrites);
+    attrs.add("averageBytesPerWrite", average(bytesWritten, networkWrites));
+    attrs.add("averageWritesPerOperation", average(networkWrites, operationsCompleted));
     attrs.add("ldapMessagesRead", messagesRead);
     attrs.add("ldapMessagesWritten", messagesWritten);
     attrs.add("operationsAbandoned", operationsAbandoned);
@@ -243,6 +249,12 @@ public class LDAPStatistics extends MonitorProvider<MonitorProviderCfg>
     return attrs;
   }
 
+  private long average(AtomicLong total, AtomicLong count)
+  {
+    final long c = count.get();
+    return c > 0 ? total.get() / c : 0;
+  }
+
   /** Clears any statistical information collected to this point. */
   public void clearStatistics()
   {
@@ -253,6 +265,7 @@ public class LDAPStatistics extends MonitorProvider<MonitorProviderCfg>
       bindResponses.set(0);
       bytesRead.set(0);
       bytesWritten.set(0);
+      networkWrites.set(0);
       compareRequests.set(0);
       compareResponses.set(0);
       connectionsClosed.set(0);
@@ -329,7 +342,8 @@ public class LDAPStatistics extends MonitorProvider<MonitorProviderCfg>
 
   /**
    * Updates the appropriate set of counters to indicate that the
-   * specified number of bytes have been written to the client.
+   * specified number of bytes have been written to the client in a
+   * single write.
    *
    * @param bytesWritten
    *          The number of bytes written to the client.
@@ -337,6 +351,7 @@ public class LDAPStatistics extends MonitorProvider<MonitorProviderCfg>
   public void updateBytesWritten(int bytesWritten)
   {
      this.bytesWritten.getAndAdd(bytesWritten);
+     networkWrites.getAndIncrement();
   }
 
   /**
@@ -526,6 +541,16 @@ public class LDAPStatistics extends MonitorProvider<MonitorProviderCfg>
       return bytesWritten.get();
   }
 
+  /**
+   * Retrieves the number of writes to clients.
+   *
+   * @return The number of writes to clients.
+   */
+  public long getNetworkWrites()
+  {
+      return networkWrites.get();
+  }
+
   /**
    * Retrieves the number of LDAP messages that have been received from
    * clients.
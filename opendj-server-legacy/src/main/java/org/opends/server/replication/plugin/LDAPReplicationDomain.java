@@ -55,6 +55,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.DataFormatException;
 
 import org.forgerock.i18n.LocalizableMessage;
@@ -309,6 +310,19 @@ public final class LDAPReplicationDomain extends ReplicationDomain
       new AtomicInteger();
   /** The number of updates replayed successfully by the replication. */
   private final AtomicInteger numReplayedPostOpCalled = new AtomicInteger();
+  /** The number of updates which had to wait for an earlier update on the same entries before being replayed. */
+  private final AtomicInteger numContendedReplays = new AtomicInteger();
+  /** The time elapsed between the origin and the replay of the last replayed update, in milliseconds. */
+  private volatile long replayLagMillis;
+  /** The number of replay batches committed in a single backend transaction. */
+  private final AtomicInteger numReplayBatches = new AtomicInteger();
+  /** The number of replay batches rolled back, whose updates have been replayed one by one. */
+  private final AtomicInteger numRolledBackReplayBatches = new AtomicInteger();
+  /**
+   * Lock held while replaying a batch of updates and saving the server state once it has been
+   * committed, so that the periodic saves of the server state do not interleave with it.
+   */
+  private final ReentrantLock replayBatchLock = new ReentrantLock();
 
   private final PersistentServerState state;
   private volatile boolean generationIdSavedStatus;
@@ -446,7 +460,7 @@ public final class LDAPReplicationDomain extends ReplicationDomain
             wait(1000);
             if (!disabled && !ieRunning())
             {
-              state.save();
+              saveState();
             }
           }
         }
@@ -456,12 +470,26 @@ public final class LDAPReplicationDomain extends ReplicationDomain
           Thread.currentThread().interrupt();
         }
       }
-      state.save();
+      saveState();
 
       done = true;
     }
   }
 
+  /** Saves the server state, waiting for the batch of updates being replayed to complete, if any. */
+  private void saveState()
+  {
+    replayBatchLock.lock();
+    try
+    {
+      state.save();
+    }
+    finally
+    {
+      replayBatchLock.unlock();
+    }
+  }
+
   /**
    * The thread that is responsible to update the RS to which this domain is
    * connected in case it is late and there is no RS which is up to date.
@@ -1983,12 +2011,12 @@ public final class LDAPReplicationDomain extends ReplicationDomain
    * Also update the list of pending changes and the server RUV
    * @param op the operation
    */
-  void synchronize(PostOperationOperation op)
+  void synchronize(final PostOperationOperation op)
   {
     ResultCode result = op.getResultCode();
     // Note that a failed non-replication operation might not have a change
     // number.
-    CSN curCSN = OperationContext.getCSN(op);
+    final CSN curCSN = OperationContext.getCSN(op);
     if (curCSN != null && config.isLogChangenumber())
     {
       op.addAdditionalLogItem(AdditionalLogItem.unquotedKeyValue(getClass(),
@@ -2000,15 +2028,22 @@ public final class LDAPReplicationDomain extends ReplicationDomain
       if (op.isSynchronizationOperation())
       { // Replaying a sync operation
         numReplayedPostOpCalled.incrementAndGet();
-        try
+        // The server state must not cover the updates of a write batch until it is committed
+        LocalBackend.runAfterWriteBatch(new Runnable()
         {
-          remotePendingChanges.commit(curCSN);
-        }
-        catch (NoSuchElementException e)
-        {
-          logger.error(ERR_OPERATION_NOT_FOUND_IN_PENDING, op, curCSN);
-          return;
-        }
+          @Override
+          public void run()
+          {
+            try
+            {
+              remotePendingChanges.commit(curCSN);
+            }
+            catch (NoSuchElementException e)
+            {
+              logger.error(ERR_OPERATION_NOT_FOUND_IN_PENDING, op, curCSN);
+            }
+          }
+        });
       }
       else
       {
@@ -2274,6 +2309,38 @@ public final class LDAPReplicationDomain extends ReplicationDomain
     remotePendingChanges.markInProgress(msg);
   }
 
+  /**
+   * Records that an update received for this domain cannot be replayed immediately because an
+   * update received before it and affecting the same entries is still queued or being replayed.
+   */
+  void replayContended()
+  {
+    numContendedReplays.incrementAndGet();
+  }
+
+  /**
+   * Records that a replay thread is done with the provided message, so as to compute the replay lag.
+   *
+   * @param msg
+   *          the message which has been replayed
+   */
+  void replayCompleted(LDAPUpdateMsg msg)
+  {
+    // the clocks of the servers may not be perfectly in sync
+    replayLagMillis = Math.max(TimeThread.getTime() - msg.getCSN().getTime(), 0);
+  }
+
+  /**
+   * Returns the maximum number of independent updates which may be replayed in a single backend
+   * transaction.
+   *
+   * @return the maximum number of updates of a replay batch, 1 if batching is disabled
+   */
+  int getReplayBatchSize()
+  {
+    return config.getReplayBatchSize();
+  }
+
   /**
    * Create and replay a synchronized Operation from an UpdateMsg.
    *
@@ -2283,6 +2350,101 @@ public final class LDAPReplicationDomain extends ReplicationDomain
    *          whether the server initiated shutdown
    */
   void replay(LDAPUpdateMsg msg, AtomicBoolean shutdown)
+  {
+    replay(msg, shutdown, null);
+  }
+
+  /**
+   * Replays independent updates in a single backend transaction, and saves the server state once
+   * they have been committed. If the backend cannot commit the updates together, they are replayed
+   * one by one.
+   * <p>
+   * The side effects of the updates, such as committing them in the pending changes, which updates
+   * the server state, or notifying the persistent searches, are only run once the transaction has
+   * been committed, and are discarded if it is rolled back. The client updates of the entries and
+   * index records written by the batch wait for its transaction locks until the whole batch has
+   * been committed, so large batches can delay them.
+   *
+   * @param msgs
+   *          The independent updates to be replayed.
+   * @param shutdown
+   *          whether the server initiated shutdown
+   */
+  void replay(final List<LDAPUpdateMsg> msgs, final AtomicBoolean shutdown)
+  {
+    final LocalBackend<?> backend = getBackend();
+    if (backend == null || !backend.supportsWriteBatches())
+    {
+      for (LDAPUpdateMsg msg : msgs)
+      {
+        replay(msg, shutdown);
+      }
+      return;
+    }
+
+    // Acks and flow control credits are only sent once the updates are committed
+    final Map<LDAPUpdateMsg, String> replayedMsgs = new LinkedHashMap<>();
+    replayBatchLock.lock();
+    try
+    {
+      try
+      {
+        backend.executeWriteBatch(new Runnable()
+        {
+          @Override
+          public void run()
+          {
+            for (LDAPUpdateMsg msg : msgs)
+            {
+              replay(msg, shutdown, replayedMsgs);
+            }
+          }
+        });
+        numReplayBatches.incrementAndGet();
+        state.save();
+
+        // The updates depending on the updates of the batch could not be replayed until now
+        final LDAPUpdateMsg nextMsg = remotePendingChanges.getNextUpdate();
+        if (nextMsg != null)
+        {
+          replay(nextMsg, shutdown);
+        }
+      }
+      catch (DirectoryException e)
+      {
+        logger.traceException(e);
+        numRolledBackReplayBatches.incrementAndGet();
+        // The rolled back updates are still in progress in the pending changes
+        final List<LDAPUpdateMsg> rolledBackMsgs = new ArrayList<>(replayedMsgs.keySet());
+        replayedMsgs.clear();
+        for (LDAPUpdateMsg msg : rolledBackMsgs)
+        {
+          replay(msg, shutdown);
+        }
+      }
+    }
+    finally
+    {
+      replayBatchLock.unlock();
+      for (Map.Entry<LDAPUpdateMsg, String> replayedMsg : replayedMsgs.entrySet())
+      {
+        processUpdateDone(replayedMsg.getKey(), replayedMsg.getValue());
+      }
+    }
+  }
+
+  /**
+   * Create and replay a synchronized Operation from an UpdateMsg.
+   *
+   * @param msg
+   *          The UpdateMsg to be replayed.
+   * @param shutdown
+   *          whether the server initiated shutdown
+   * @param replayedMsgs
+   *          where to record the replayed updates and their replay error message until their
+   *          write batch is committed, or {@code null} to process them right away
+   */
+  private void replay(LDAPUpdateMsg msg, AtomicBoolean shutdown, Map<LDAPUpdateMsg, String> replayedMsgs)
   {
     // Try replay the operation, then flush (replaying) any pending operation
     // whose dependency has been replayed until no more left.
@@ -2458,7 +2620,14 @@ public final class LDAPReplicationDomain extends ReplicationDomain
       {
         if (!dependency)
         {
-          processUpdateDone(msg, replayErrorMsg);
+          if (replayedMsgs != null)
+          {
+            replayedMsgs.put(msg, replayErrorMsg);
+          }
+          else
+          {
+            processUpdateDone(msg, replayErrorMsg);
+          }
         }
       }
 
@@ -2485,23 +2654,30 @@ public final class LDAPReplicationDomain extends ReplicationDomain
    *
    * @param csn the CSN of the operation with error.
    */
-  private void updateError(CSN csn)
+  private void updateError(final CSN csn)
   {
-    try
-    {
-      remotePendingChanges.commit(csn);
-    }
-    catch (NoSuchElementException e)
+    LocalBackend.runAfterWriteBatch(new Runnable()
     {
-      // A failure occurred after the change had been removed from the pending
-      // changes table.
-      if (logger.isTraceEnabled())
+      @Override
+      public void run()
       {
-        logger.trace(
-            "LDAPReplicationDomain.updateError: Unable to find remote "
-                + "pending change for CSN %s", csn);
+        try
+        {
+          remotePendingChanges.commit(csn);
+        }
+        catch (NoSuchElementException e)
+        {
+          // A failure occurred after the change had been removed from the pending
+          // changes table.
+          if (logger.isTraceEnabled())
+          {
+            logger.trace(
+                "LDAPReplicationDomain.updateError: Unable to find remote "
+                    + "pending change for CSN %s", csn);
+          }
+        }
       }
-    }
+    });
   }
 
   /**
@@ -4306,6 +4482,10 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
     attributes.add("remote-pending-changes-size", remotePendingChanges.getQueueSize());
     attributes.add("dependent-changes-size", remotePendingChanges.getDependentChangesSize());
     attributes.add("changes-in-progress-size", remotePendingChanges.changesInProgressSize());
+    attributes.add("replay-lag", replayLagMillis);
+    attributes.add("contended-replays", numContendedReplays);
+    attributes.add("replay-batches", numReplayBatches);
+    attributes.add("rolled-back-replay-batches", numRolledBackReplayBatches);
   }
 
   /**
@@ -29,7 +29,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -99,7 +98,7 @@ public class MultimasterReplication
   private static final Map<DN, LDAPReplicationDomain> domains = new ConcurrentHashMap<>(4);
   private static final DSRSShutdownSync dsrsShutdownSync = new DSRSShutdownSync();
   /** The queue of received update messages, to be treated by the ReplayThread threads. */
-  private static final BlockingQueue<UpdateToReplay> updateToReplayQueue = new LinkedBlockingQueue<>(10000);
+  private static final ReplayScheduler updateToReplayQueue = new ReplayScheduler(10000);
   /** The list of ReplayThread threads. */
   private static final List<ReplayThread> replayThreads = new ArrayList<>();
   /** The configurable number of replay threads. */
@@ -0,0 +1,615 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.plugin;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.util.Reject;
+import org.opends.server.replication.protocol.AddMsg;
+import org.opends.server.replication.protocol.DeleteMsg;
+import org.opends.server.replication.protocol.LDAPUpdateMsg;
+import org.opends.server.replication.protocol.ModifyMsg;
+
+/**
+ * The queue of updates received from the replication servers, which hands the updates to the
+ * {@link ReplayThread}s as soon as they can be replayed concurrently with the updates already
+ * being replayed.
+ * <p>
+ * Each update locks the entries it depends on, in the order the updates are received:
+ * <ul>
+ * <li>a modify locks its target entry exclusively,</li>
+ * <li>an add or a delete locks its target entry exclusively and the parent entry in shared mode,
+ * so that adding or deleting siblings can proceed concurrently but not concurrently with an
+ * update of their parent,</li>
+ * <li>a modify DN and a subtree delete, which may affect any entry of the subtree, lock the whole
+ * replication domain exclusively, while all other updates lock their domain in shared mode.</li>
+ * </ul>
+ * An update is handed to a replay thread once it has acquired all its locks, i.e. when no update
+ * received before it and still queued or being replayed holds a conflicting lock. Consequently,
+ * updates to the same entry are replayed in the order they were received, parents are added before
+ * their children and deleted after them, while updates to unrelated entries are replayed
+ * concurrently. The dependency checks of {@link RemotePendingChanges} remain in place for the
+ * situations not covered here.
+ * <p>
+ * Replay threads must call {@link #replayDone(UpdateToReplay)} once they are done with an update
+ * obtained from this queue, in order to release its locks.
+ */
+final class ReplayScheduler extends AbstractQueue<UpdateToReplay> implements BlockingQueue<UpdateToReplay>
+{
+  /** An update in the scheduler, with the locks it needs. */
+  private static final class Node
+  {
+    private final UpdateToReplay update;
+    private final long sequence;
+    private final Object[] keys;
+    private final boolean[] exclusive;
+    private boolean ready;
+
+    private Node(UpdateToReplay update, long sequence, Object[] keys, boolean[] exclusive)
+    {
+      this.update = update;
+      this.sequence = sequence;
+      this.keys = keys;
+      this.exclusive = exclusive;
+    }
+  }
+
+  /** The lock requests on an entry or a domain, in the order the updates were received. */
+  private static final class KeyQueue
+  {
+    private final LinkedHashSet<Node> requests = new LinkedHashSet<>();
+    /** The exclusive requests among {@link #requests}, in the same order. */
+    private final ArrayDeque<Node> exclusiveRequests = new ArrayDeque<>();
+  }
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+
+  /** The maximum number of updates waiting to be replayed. */
+  private final int capacity;
+  @GuardedBy("lock")
+  private final Map<Object, KeyQueue> keyQueues = new HashMap<>();
+  /** The updates whose locks are all acquired, waiting for a replay thread. */
+  @GuardedBy("lock")
+  private final ArrayDeque<Node> readyUpdates = new ArrayDeque<>();
+  @GuardedBy("lock")
+  private final Map<UpdateToReplay, Node> updatesInProgress = new IdentityHashMap<>();
+  /** The updates waiting for a replay thread, whether ready or not. */
+  @GuardedBy("lock")
+  private int size;
+  @GuardedBy("lock")
+  private long nextSequence;
+
+  /**
+   * Creates a scheduler holding at most the provided number of updates waiting to be replayed.
+   *
+   * @param capacity
+   *          the maximum number of updates waiting to be replayed
+   */
+  ReplayScheduler(int capacity)
+  {
+    Reject.ifFalse(capacity > 0, "capacity must be positive");
+    this.capacity = capacity;
+  }
+
+  /**
+   * Releases the locks held by an update obtained from this scheduler, allowing the updates which
+   * depend on it to be replayed.
+   *
+   * @param update
+   *          an update obtained from this scheduler, which has been replayed
+   */
+  void replayDone(UpdateToReplay update)
+  {
+    lock.lock();
+    try
+    {
+      final Node node = updatesInProgress.remove(update);
+      if (node == null)
+      {
+        return;
+      }
+      final List<Node> candidates = new ArrayList<>();
+      for (int i = 0; i < node.keys.length; i++)
+      {
+        final Object key = node.keys[i];
+        final KeyQueue queue = keyQueues.get(key);
+        queue.requests.remove(node);
+        if (node.exclusive[i])
+        {
+          queue.exclusiveRequests.remove(node);
+        }
+        if (queue.requests.isEmpty())
+        {
+          keyQueues.remove(key);
+        }
+        else
+        {
+          addUnblockedRequests(queue, node.exclusive[i], candidates);
+        }
+      }
+      for (Node candidate : candidates)
+      {
+        if (!candidate.ready && canAcquireLocks(candidate))
+        {
+          setReady(candidate);
+        }
+      }
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /** Collects the requests which may have been blocked by a request released from the provided queue. */
+  @GuardedBy("lock")
+  private void addUnblockedRequests(KeyQueue queue, boolean releasedExclusive, List<Node> candidates)
+  {
+    final Iterator<Node> it = queue.requests.iterator();
+    final Node head = it.next();
+    if (isExclusiveRequest(head, queue))
+    {
+      candidates.add(head);
+    }
+    else if (releasedExclusive)
+    {
+      // all the shared requests up to the next exclusive request were blocked by the released one
+      candidates.add(head);
+      while (it.hasNext())
+      {
+        final Node next = it.next();
+        if (isExclusiveRequest(next, queue))
+        {
+          break;
+        }
+        candidates.add(next);
+      }
+    }
+  }
+
+  private boolean isExclusiveRequest(Node node, KeyQueue queue)
+  {
+    return !queue.exclusiveRequests.isEmpty() && queue.exclusiveRequests.peekFirst() == node;
+  }
+
+  @GuardedBy("lock")
+  private boolean canAcquireLocks(Node node)
+  {
+    for (int i = 0; i < node.keys.length; i++)
+    {
+      final KeyQueue queue = keyQueues.get(node.keys[i]);
+      if (node.exclusive[i])
+      {
+        if (queue.requests.iterator().next() != node)
+        {
+          return false;
+        }
+      }
+      else
+      {
+        final Node firstExclusive = queue.exclusiveRequests.peekFirst();
+        if (firstExclusive != null && firstExclusive.sequence < node.sequence)
+        {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @GuardedBy("lock")
+  private void setReady(Node node)
+  {
+    node.ready = true;
+    readyUpdates.add(node);
+    notEmpty.signal();
+  }
+
+  /** Returns the locks to acquire before replaying the provided update, along with their mode. */
+  private static void computeLocks(UpdateToReplay update, List<Object> keys, List<Boolean> exclusive)
+  {
+    final LDAPUpdateMsg msg = update.getUpdateMessage();
+    final LDAPReplicationDomain domain = update.getReplicationDomain();
+    final DN dn = msg.getDN();
+    if (dn == null || (!(msg instanceof ModifyMsg) && !(msg instanceof AddMsg) && !(msg instanceof DeleteMsg))
+        || (msg instanceof DeleteMsg && ((DeleteMsg) msg).isSubtreeDelete()))
+    {
+      // modify DN, subtree delete or unknown update: may affect any entry of the domain
+      keys.add(domain);
+      exclusive.add(true);
+      return;
+    }
+
+    keys.add(domain);
+    exclusive.add(false);
+    keys.add(dn);
+    exclusive.add(true);
+    if (!(msg instanceof ModifyMsg))
+    {
+      final DN parentDN = dn.parent();
+      if (parentDN != null)
+      {
+        keys.add(parentDN);
+        exclusive.add(false);
+      }
+    }
+  }
+
+  @GuardedBy("lock")
+  private void enqueue(UpdateToReplay update)
+  {
+    final List<Object> keyList = new ArrayList<>(3);
+    final List<Boolean> exclusiveList = new ArrayList<>(3);
+    computeLocks(update, keyList, exclusiveList);
+    final boolean[] exclusive = new boolean[exclusiveList.size()];
+    for (int i = 0; i < exclusive.length; i++)
+    {
+      exclusive[i] = exclusiveList.get(i);
+    }
+    final Node node = new Node(update, nextSequence++, keyList.toArray(), exclusive);
+    for (int i = 0; i < node.keys.length; i++)
+    {
+      KeyQueue queue = keyQueues.get(node.keys[i]);
+      if (queue == null)
+      {
+        queue = new KeyQueue();
+        keyQueues.put(node.keys[i], queue);
+      }
+      queue.requests.add(node);
+      if (exclusive[i])
+      {
+        queue.exclusiveRequests.add(node);
+      }
+    }
+    size++;
+    if (canAcquireLocks(node))
+    {
+      setReady(node);
+    }
+    else if (update.getReplicationDomain() != null)
+    {
+      update.getReplicationDomain().replayContended();
+    }
+  }
+
+  @GuardedBy("lock")
+  private UpdateToReplay dequeue()
+  {
+    final Node node = readyUpdates.poll();
+    if (node == null)
+    {
+      return null;
+    }
+    return startReplay(node);
+  }
+
+  @GuardedBy("lock")
+  private UpdateToReplay startReplay(Node node)
+  {
+    updatesInProgress.put(node.update, node);
+    size--;
+    notFull.signal();
+    return node.update;
+  }
+
+  /**
+   * Retrieves and removes, without waiting, the updates of the provided replication domain which
+   * can be replayed right now, in the order they were received. All these updates are independent
+   * from each other and from the updates being replayed.
+   *
+   * @param domain
+   *          the replication domain of the updates to retrieve
+   * @param maxUpdates
+   *          the maximum number of updates to retrieve
+   * @return the updates ready to be replayed, possibly empty
+   */
+  List<UpdateToReplay> pollReady(LDAPReplicationDomain domain, int maxUpdates)
+  {
+    final List<UpdateToReplay> updates = new ArrayList<>();
+    lock.lock();
+    try
+    {
+      final Iterator<Node> it = readyUpdates.iterator();
+      while (it.hasNext() && updates.size() < maxUpdates)
+      {
+        final Node node = it.next();
+        if (node.update.getReplicationDomain() == domain)
+        {
+          it.remove();
+          updates.add(startReplay(node));
+        }
+      }
+      return updates;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(UpdateToReplay update)
+  {
+    Reject.ifNull(update);
+    lock.lock();
+    try
+    {
+      if (size >= capacity)
+      {
+        return false;
+      }
+      enqueue(update);
+      return true;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(UpdateToReplay update, long timeout, TimeUnit unit) throws InterruptedException
+  {
+    Reject.ifNull(update);
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try
+    {
+      while (size >= capacity)
+      {
+        if (nanos <= 0)
+        {
+          return false;
+        }
+        nanos = notFull.awaitNanos(nanos);
+      }
+      enqueue(update);
+      return true;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void put(UpdateToReplay update) throws InterruptedException
+  {
+    Reject.ifNull(update);
+    lock.lockInterruptibly();
+    try
+    {
+      while (size >= capacity)
+      {
+        notFull.await();
+      }
+      enqueue(update);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public UpdateToReplay poll()
+  {
+    lock.lock();
+    try
+    {
+      return dequeue();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public UpdateToReplay poll(long timeout, TimeUnit unit) throws InterruptedException
+  {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try
+    {
+      while (readyUpdates.isEmpty())
+      {
+        if (nanos <= 0)
+        {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return dequeue();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public UpdateToReplay take() throws InterruptedException
+  {
+    lock.lockInterruptibly();
+    try
+    {
+      while (readyUpdates.isEmpty())
+      {
+        notEmpty.await();
+      }
+      return dequeue();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public UpdateToReplay peek()
+  {
+    lock.lock();
+    try
+    {
+      final Node node = readyUpdates.peek();
+      return node != null ? node.update : null;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size()
+  {
+    lock.lock();
+    try
+    {
+      return size;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int remainingCapacity()
+  {
+    lock.lock();
+    try
+    {
+      return capacity - size;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of updates which cannot be replayed yet because an update received
+   * before them and affecting the same entries is still queued or being replayed.
+   *
+   * @return the number of updates waiting for an earlier update to be replayed
+   */
+  int getNumberOfBlockedUpdates()
+  {
+    lock.lock();
+    try
+    {
+      return size - readyUpdates.size();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super UpdateToReplay> c)
+  {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Only the updates ready to be replayed are drained. The caller is responsible for calling
+   * {@link #replayDone(UpdateToReplay)} for each of them.
+   */
+  @Override
+  public int drainTo(Collection<? super UpdateToReplay> c, int maxElements)
+  {
+    Reject.ifTrue(c == this);
+    lock.lock();
+    try
+    {
+      int count = 0;
+      for (UpdateToReplay update = null; count < maxElements && (update = dequeue()) != null; count++)
+      {
+        c.add(update);
+      }
+      return count;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} Returns a snapshot of the queued updates, in the order they were received. */
+  @Override
+  public Iterator<UpdateToReplay> iterator()
+  {
+    lock.lock();
+    try
+    {
+      final Map<Node, Boolean> queued = new IdentityHashMap<>();
+      for (KeyQueue queue : keyQueues.values())
+      {
+        for (Node node : queue.requests)
+        {
+          if (!updatesInProgress.containsKey(node.update))
+          {
+            queued.put(node, Boolean.TRUE);
+          }
+        }
+      }
+      final List<Node> nodes = new ArrayList<>(queued.keySet());
+      Collections.sort(nodes, new Comparator<Node>()
+      {
+        @Override
+        public int compare(Node n1, Node n2)
+        {
+          return Long.compare(n1.sequence, n2.sequence);
+        }
+      });
+      final List<UpdateToReplay> updates = new ArrayList<>(nodes.size());
+      for (Node node : nodes)
+      {
+        updates.add(node.update);
+      }
+      return Collections.unmodifiableList(updates).iterator();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+}
@@ -19,7 +19,8 @@ package org.opends.server.replication.plugin;
 import static org.opends.messages.ReplicationMessages.*;
 import static org.opends.server.util.StaticUtils.*;
 
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
@@ -39,7 +40,7 @@ public class ReplayThread extends DirectoryThread
 {
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
-  private final BlockingQueue<UpdateToReplay> updateToReplayQueue;
+  private final ReplayScheduler updateToReplayQueue;
   private final ReentrantLock switchQueueLock;
   private AtomicBoolean shutdown = new AtomicBoolean(false);
   private static int count;
@@ -50,7 +51,7 @@ public class ReplayThread extends DirectoryThread
    * @param updateToReplayQueue The queue of update messages we have to replay
    * @param switchQueueLock lock to ensure moving updates from one queue to another is atomic
    */
-  public ReplayThread(BlockingQueue<UpdateToReplay> updateToReplayQueue, ReentrantLock switchQueueLock)
+  ReplayThread(ReplayScheduler updateToReplayQueue, ReentrantLock switchQueueLock)
   {
     super("Replica replay thread " + count++);
     this.updateToReplayQueue = updateToReplayQueue;
@@ -82,8 +83,8 @@ public class ReplayThread extends DirectoryThread
       {
         if (switchQueueLock.tryLock(1L, TimeUnit.SECONDS))
         {
+          final List<UpdateToReplay> updates = new ArrayList<>();
           LDAPReplicationDomain domain;
-          LDAPUpdateMsg updateMsg;
           try
           {
             if (shutdown.get())
@@ -96,15 +97,35 @@ public class ReplayThread extends DirectoryThread
               continue;
             }
             // Find replication domain for that update message and mark it as "in progress"
-            updateMsg = updateToreplay.getUpdateMessage();
             domain = updateToreplay.getReplicationDomain();
-            domain.markInProgress(updateMsg);
+            updates.add(updateToreplay);
+            final int batchSize = domain.getReplayBatchSize();
+            if (batchSize > 1)
+            {
+              // catching up: take along the independent updates already waiting for this domain
+              updates.addAll(updateToReplayQueue.pollReady(domain, batchSize - 1));
+            }
+            for (UpdateToReplay update : updates)
+            {
+              domain.markInProgress(update.getUpdateMessage());
+            }
           }
           finally
           {
             switchQueueLock.unlock();
           }
-          domain.replay(updateMsg, shutdown);
+          try
+          {
+            replay(domain, updates);
+          }
+          finally
+          {
+            // let the updates depending on these ones be replayed
+            for (UpdateToReplay update : updates)
+            {
+              updateToReplayQueue.replayDone(update);
+            }
+          }
         }
       }
       catch (Exception e)
@@ -121,4 +142,25 @@ public class ReplayThread extends DirectoryThread
       logger.trace("Replication Replay thread stopping.");
     }
   }
+
+  private void replay(LDAPReplicationDomain domain, List<UpdateToReplay> updates)
+  {
+    final List<LDAPUpdateMsg> updateMsgs = new ArrayList<>(updates.size());
+    for (UpdateToReplay update : updates)
+    {
+      updateMsgs.add(update.getUpdateMessage());
+    }
+    if (updateMsgs.size() == 1)
+    {
+      domain.replay(updateMsgs.get(0), shutdown);
+    }
+    else
+    {
+      domain.replay(updateMsgs, shutdown);
+    }
+    for (LDAPUpdateMsg updateMsg : updateMsgs)
+    {
+      domain.replayCompleted(updateMsg);
+    }
+  }
 }
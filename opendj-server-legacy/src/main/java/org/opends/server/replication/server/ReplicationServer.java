@@ -425,6 +425,7 @@ public class ReplicationServer
     try
     {
       this.changelogDB.initializeDB();
+      applyChangelogGroupCommit();
 
       setServerURL();
       listenSocket = new ServerSocket();
@@ -824,6 +825,12 @@ public class ReplicationServer
     return this.config.getReplicationPurgeDelay() * 1000;
   }
 
+  private void applyChangelogGroupCommit()
+  {
+    this.changelogDB.setGroupCommit(config.isChangelogGroupCommitEnabled(),
+        config.getChangelogGroupCommitMaxLatency(), config.getChangelogGroupCommitMaxBatchSize());
+  }
+
   /**
    * Check if the provided configuration is acceptable for add.
    *
@@ -874,6 +881,12 @@ public class ReplicationServer
     {
       this.changelogDB.setPurgeDelay(getPurgeDelay());
     }
+    if (config.isChangelogGroupCommitEnabled() != oldConfig.isChangelogGroupCommitEnabled()
+        || config.getChangelogGroupCommitMaxLatency() != oldConfig.getChangelogGroupCommitMaxLatency()
+        || config.getChangelogGroupCommitMaxBatchSize() != oldConfig.getChangelogGroupCommitMaxBatchSize())
+    {
+      applyChangelogGroupCommit();
+    }
     final boolean computeCN = config.isComputeChangeNumber();
     if (computeCN != oldConfig.isComputeChangeNumber())
     {
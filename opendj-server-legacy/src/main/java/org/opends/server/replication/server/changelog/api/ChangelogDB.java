@@ -58,6 +58,23 @@ public interface ChangelogDB
   void setComputeChangeNumber(boolean computeChangeNumber)
       throws ChangelogException;
 
+  /**
+   * Sets whether updates added to the replication database must be persisted
+   * before being acknowledged, sharing a single sync between the updates
+   * received during a short window. Can be called while the database is
+   * running.
+   *
+   * @param enabled
+   *          whether updates must be persisted before being acknowledged
+   * @param maxLatencyInMillis
+   *          the maximum time an update waits for other updates to share its
+   *          sync
+   * @param maxBatchSize
+   *          the number of updates which triggers a sync without waiting any
+   *          longer
+   */
+  void setGroupCommit(boolean enabled, long maxLatencyInMillis, int maxBatchSize);
+
   /**
    * Shutdown the replication database.
    *
@@ -24,6 +24,7 @@ import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ByteStringBuilder;
@@ -44,6 +45,10 @@ import org.opends.server.util.StaticUtils;
  * <p>
  * The reader provides both sequential access, using the {@code readRecord()} method,
  * and reasonably fast random access, using the {@code seekToRecord(K, boolean)} method.
+ * <p>
+ * The log file is either read through a {@link RandomAccessFile}, or from a buffer
+ * mapping the whole file in memory. The latter is only suitable for log files that are
+ * no longer written to, but turns positioning and reading into plain memory accesses.
  *
  * @param <K>
  *          Type of the key of a record, which must be comparable.
@@ -69,7 +74,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
 
   private final RecordParser<K, V> parser;
 
-  private final RandomAccessFile reader;
+  private final Input reader;
 
   private final File file;
 
@@ -91,7 +96,32 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   static <K extends Comparable<K>, V> BlockLogReader<K, V> newReader(
       final File file, final RandomAccessFile reader, final RecordParser<K, V> parser)
   {
-    return new BlockLogReader<>(file, reader, parser, BLOCK_SIZE);
+    return new BlockLogReader<>(file, new FileInput(reader), parser, BLOCK_SIZE);
+  }
+
+  /**
+   * Creates a reader for the provided file, memory mapped content and parser.
+   * <p>
+   * The content must not change while it is read, so the file must not be
+   * write-enabled.
+   *
+   * @param <K>
+   *          Type of the key of a record, which must be comparable.
+   * @param <V>
+   *          Type of the value of a record.
+   * @param file
+   *          The log file to read.
+   * @param content
+   *          The whole content of the log file, this reader reads from a
+   *          duplicate of this buffer which can thus be shared between readers.
+   * @param parser
+   *          The parser to decode the records read.
+   * @return a new log reader
+   */
+  static <K extends Comparable<K>, V> BlockLogReader<K, V> newMappedReader(
+      final File file, final ByteBuffer content, final RecordParser<K, V> parser)
+  {
+    return new BlockLogReader<>(file, new MappedInput(content), parser, BLOCK_SIZE);
   }
 
   /**
@@ -117,11 +147,37 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   static <K extends Comparable<K>, V> BlockLogReader<K, V> newReaderForTests(
       final File file, final RandomAccessFile reader, final RecordParser<K, V> parser, int blockSize)
   {
-    return new BlockLogReader<>(file, reader, parser, blockSize);
+    return new BlockLogReader<>(file, new FileInput(reader), parser, blockSize);
+  }
+
+  /**
+   * Creates a reader for the provided file, memory mapped content, parser and block size.
+   * <p>
+   * This method is intended for tests only, to allow tuning of the block size.
+   *
+   * @param <K>
+   *          Type of the key of a record, which must be comparable.
+   * @param <V>
+   *          Type of the value of a record.
+   * @param file
+   *          The log file to read.
+   * @param content
+   *          The whole content of the log file.
+   * @param parser
+   *          The parser to decode the records read.
+   * @param blockSize
+   *          The size of each block, or frequency at which the record offset is
+   *          present in the log file.
+   * @return a new log reader
+   */
+  static <K extends Comparable<K>, V> BlockLogReader<K, V> newMappedReaderForTests(
+      final File file, final ByteBuffer content, final RecordParser<K, V> parser, int blockSize)
+  {
+    return new BlockLogReader<>(file, new MappedInput(content), parser, blockSize);
   }
 
   private BlockLogReader(
-      final File file, final RandomAccessFile reader, final RecordParser<K, V> parser, final int blockSize)
+      final File file, final Input reader, final RecordParser<K, V> parser, final int blockSize)
   {
     this.file = file;
     this.reader = reader;
@@ -206,7 +262,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   {
     try
     {
-      return reader.getFilePointer();
+      return reader.getPosition();
     }
     catch (IOException e)
     {
@@ -215,6 +271,17 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
     }
   }
 
+  /**
+   * Indicates whether this reader reads the log file from memory.
+   *
+   * @return {@code true} if the log file is mapped in memory, {@code false}
+   *         if it is read through a file handle
+   */
+  boolean isMapped()
+  {
+    return reader instanceof MappedInput;
+  }
+
   /** {@inheritDoc} */
   @Override
   public void close() throws IOException
@@ -265,9 +332,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
     reader.seek(blockStartPosition);
     if (blockStartPosition > 0)
     {
-      final byte[] offsetData = new byte[SIZE_OF_BLOCK_OFFSET];
-      reader.readFully(offsetData);
-      final int offsetToRecord = ByteString.wrap(offsetData).toInt();
+      final int offsetToRecord = reader.readInt();
       if (offsetToRecord > 0)
       {
         reader.seek(blockStartPosition - offsetToRecord);
@@ -287,7 +352,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
     try
     {
       // read length of record if not already at EOF
-      final long filePosition = reader.getFilePointer();
+      final long filePosition = reader.getPosition();
       if (reader.length() == filePosition)
       {
         return null;
@@ -296,7 +361,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
       final int recordLength = readRecordLength(distanceToBlockStart);
 
       // read the record
-      long currentPosition = reader.getFilePointer();
+      long currentPosition = reader.getPosition();
       distanceToBlockStart = getDistanceToNextBlockStart(currentPosition, blockSize);
       final ByteStringBuilder recordBytes =
           new ByteStringBuilder(getLengthOfStoredRecord(recordLength, distanceToBlockStart));
@@ -305,7 +370,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
       {
         if (distanceToBlockStart != 0)
         {
-          recordBytes.appendBytes(reader, distanceToBlockStart);
+          reader.readBytes(recordBytes, distanceToBlockStart);
         }
         // skip the offset
         reader.skipBytes(SIZE_OF_BLOCK_OFFSET);
@@ -318,7 +383,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
       if (remainingBytesToRead > 0)
       {
         // last bytes of the record
-        recordBytes.appendBytes(reader, remainingBytesToRead);
+        reader.readBytes(recordBytes, remainingBytesToRead);
       }
       return recordBytes.toByteString();
     }
@@ -357,10 +422,10 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
     final ByteStringBuilder lengthBytes = new ByteStringBuilder(SIZE_OF_RECORD_SIZE);
     if (distanceToBlockStart > 0 && distanceToBlockStart < SIZE_OF_RECORD_SIZE)
     {
-      lengthBytes.appendBytes(reader, distanceToBlockStart);
+      reader.readBytes(lengthBytes, distanceToBlockStart);
       // skip the offset
       reader.skipBytes(SIZE_OF_BLOCK_OFFSET);
-      lengthBytes.appendBytes(reader, SIZE_OF_RECORD_SIZE - distanceToBlockStart);
+      reader.readBytes(lengthBytes, SIZE_OF_RECORD_SIZE - distanceToBlockStart);
     }
     else
     {
@@ -369,7 +434,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
         // skip the offset
         reader.skipBytes(SIZE_OF_BLOCK_OFFSET);
       }
-      lengthBytes.appendBytes(reader, SIZE_OF_RECORD_SIZE);
+      reader.readBytes(lengthBytes, SIZE_OF_RECORD_SIZE);
     }
     return lengthBytes.toByteString().toInt();
   }
@@ -606,7 +671,7 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
      long lastValidPosition = lastBlockStart;
      for (ByteString recordData = readNextRecord(); recordData != null; recordData = readNextRecord()) {
        parser.decodeRecord(recordData);
-       lastValidPosition = reader.getFilePointer();
+       lastValidPosition = reader.getPosition();
      }
 
      final boolean isFileValid = lastValidPosition == getFileLength();
@@ -639,4 +704,163 @@ Record<K, V> getNewestRecord() throws ChangelogException
      throw new ChangelogException(ERR_CHANGELOG_CANNOT_READ_NEWEST_RECORD.get(file.getPath()), e);
    }
  }
+
+  /** Random access to the content of the log file read by a {@link BlockLogReader}. */
+  private abstract static class Input implements Closeable
+  {
+    /** Returns the length of the log file. */
+    abstract long length() throws IOException;
+
+    /** Returns the current position in the log file. */
+    abstract long getPosition() throws IOException;
+
+    /** Moves to the provided position in the log file. */
+    abstract void seek(long position) throws IOException;
+
+    /** Skips the provided number of bytes, or less if the end of file is reached. */
+    abstract void skipBytes(int length) throws IOException;
+
+    /** Reads a big-endian integer, throws {@link EOFException} if the end of file is reached. */
+    abstract int readInt() throws IOException;
+
+    /** Appends the next bytes to the builder, throws {@link EOFException} if the end of file is reached. */
+    abstract void readBytes(ByteStringBuilder builder, int length) throws IOException;
+  }
+
+  /** Reads the log file through a {@link RandomAccessFile}, each operation is a system call. */
+  private static final class FileInput extends Input
+  {
+    private final RandomAccessFile file;
+
+    private FileInput(final RandomAccessFile file)
+    {
+      this.file = file;
+    }
+
+    @Override
+    long length() throws IOException
+    {
+      return file.length();
+    }
+
+    @Override
+    long getPosition() throws IOException
+    {
+      return file.getFilePointer();
+    }
+
+    @Override
+    void seek(final long position) throws IOException
+    {
+      file.seek(position);
+    }
+
+    @Override
+    void skipBytes(final int length) throws IOException
+    {
+      file.skipBytes(length);
+    }
+
+    @Override
+    int readInt() throws IOException
+    {
+      return file.readInt();
+    }
+
+    @Override
+    void readBytes(final ByteStringBuilder builder, final int length) throws IOException
+    {
+      builder.appendBytes(file, length);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      file.close();
+    }
+
+    @Override
+    public String toString()
+    {
+      return String.valueOf(file);
+    }
+  }
+
+  /**
+   * Reads the log file from a buffer mapping its whole content in memory.
+   * <p>
+   * Each input uses its own duplicate of the buffer, so the mapping can be shared by all the
+   * readers of the file without synchronization.
+   */
+  private static final class MappedInput extends Input
+  {
+    private final ByteBuffer content;
+
+    private MappedInput(final ByteBuffer content)
+    {
+      this.content = content.duplicate();
+      this.content.clear();
+    }
+
+    @Override
+    long length()
+    {
+      return content.limit();
+    }
+
+    @Override
+    long getPosition()
+    {
+      return content.position();
+    }
+
+    @Override
+    void seek(final long position) throws IOException
+    {
+      if (position < 0)
+      {
+        throw new IOException("Negative seek offset");
+      }
+      // like a file, allow positioning beyond the end, where any read fails
+      content.position((int) Math.min(position, content.limit()));
+    }
+
+    @Override
+    void skipBytes(final int length)
+    {
+      content.position(Math.min(content.position() + length, content.limit()));
+    }
+
+    @Override
+    int readInt() throws IOException
+    {
+      if (content.remaining() < 4)
+      {
+        throw new EOFException();
+      }
+      return content.getInt();
+    }
+
+    @Override
+    void readBytes(final ByteStringBuilder builder, final int length) throws IOException
+    {
+      if (content.remaining() < length)
+      {
+        throw new EOFException();
+      }
+      builder.appendBytes(content, length);
+    }
+
+    @Override
+    public void close()
+    {
+      // the mapping is shared and released when no longer referenced
+    }
+
+    @Override
+    public String toString()
+    {
+      return "mapped content, position " + content.position() + " of " + content.limit();
+    }
+  }
 }
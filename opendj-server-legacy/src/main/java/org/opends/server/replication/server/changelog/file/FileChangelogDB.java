@@ -579,6 +579,16 @@ public class FileChangelogDB implements ChangelogDB, ReplicationDomainDB
     }
   }
 
+  @Override
+  public void setGroupCommit(final boolean enabled, final long maxLatencyInMillis, final int maxBatchSize)
+  {
+    final ReplicationEnvironment env = replicationEnv;
+    if (env != null)
+    {
+      env.setGroupCommit(enabled, maxLatencyInMillis, maxBatchSize);
+    }
+  }
+
   private void startCNPurger()
   {
     final ChangelogDBPurger newPurger = new ChangelogDBPurger();
@@ -0,0 +1,347 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.server.changelog.file;
+
+import static org.opends.messages.ReplicationMessages.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.api.DirectoryThread;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.replication.server.changelog.api.ChangelogException;
+import org.opends.server.types.InitializationException;
+
+/**
+ * Makes the records appended to a set of logs durable in batches.
+ * <p>
+ * Appending a record to a {@link Log} only hands it to the operating system: it reaches the disk once the
+ * head log file is synced. When a log is attached to a group committer, each append waits until the log has
+ * been synced. Appends received from all the replica DBs during a short window are grouped in a batch and
+ * each log touched by the batch is synced exactly once, so that the cost of a sync is shared by all the
+ * updates of the batch.
+ * <p>
+ * A batch is committed as soon as it contains the maximum number of appends, or when the maximum latency
+ * has elapsed since its first append. Appends received while a batch is being synced go to the next batch.
+ */
+final class GroupCommitter extends DirectoryThread
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The appends waiting for the same sync. */
+  private static final class Batch
+  {
+    /** The logs to sync, in the order of their first append. */
+    private final Set<Log<?, ?>> logs = new LinkedHashSet<>();
+    private final Map<Log<?, ?>, ChangelogException> failures = new HashMap<>();
+    private long firstAppendNanos;
+    private int size;
+    @GuardedBy("this")
+    private boolean committed;
+
+    private boolean isEmpty()
+    {
+      return size == 0;
+    }
+  }
+
+  /** Lock protecting the current batch and the configuration, signalled when the committer has work to do. */
+  private final Object lock = new Object();
+  @GuardedBy("lock")
+  private Batch currentBatch = new Batch();
+  /** Set once the committer thread has committed its last batch, appends are then synced by their caller. */
+  @GuardedBy("lock")
+  private boolean stopped;
+  @GuardedBy("lock")
+  private long maxLatencyInNanos;
+  @GuardedBy("lock")
+  private int maxBatchSize;
+
+  /** Statistics, only written by the committer thread. */
+  private volatile long batchCount;
+  private volatile long appendCount;
+  private volatile long syncCount;
+  private volatile long syncFailureCount;
+  private volatile int lastBatchSize;
+  private volatile int largestBatchSize;
+  private volatile long lastSyncTimeInNanos;
+  private volatile long maxSyncTimeInNanos;
+  private volatile long totalSyncTimeInNanos;
+
+  private final String monitorInstanceName;
+  private final GroupCommitMonitorProvider monitor = new GroupCommitMonitorProvider();
+
+  /**
+   * Creates a group committer. The committer must be started before logs are attached to it.
+   *
+   * @param monitorInstanceName
+   *          the name of the monitor entry publishing the statistics of this committer
+   * @param maxLatencyInMillis
+   *          the maximum time a batch waits for more appends before being synced
+   * @param maxBatchSize
+   *          the number of appends which triggers the sync of a batch without waiting any longer
+   */
+  GroupCommitter(final String monitorInstanceName, final long maxLatencyInMillis, final int maxBatchSize)
+  {
+    super("Changelog group commit");
+    this.monitorInstanceName = monitorInstanceName;
+    setParameters(maxLatencyInMillis, maxBatchSize);
+  }
+
+  /**
+   * Changes the window used to build batches. The new values apply to the batches not yet committed.
+   *
+   * @param maxLatencyInMillis
+   *          the maximum time a batch waits for more appends before being synced
+   * @param maxBatchSize
+   *          the number of appends which triggers the sync of a batch without waiting any longer
+   */
+  void setParameters(final long maxLatencyInMillis, final int maxBatchSize)
+  {
+    synchronized (lock)
+    {
+      this.maxLatencyInNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(maxLatencyInMillis, 0));
+      this.maxBatchSize = Math.max(maxBatchSize, 1);
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Returns the monitor provider publishing the batch sizes and sync latencies of this committer.
+   *
+   * @return the monitor provider of this committer
+   */
+  MonitorProvider<MonitorProviderCfg> getMonitorProvider()
+  {
+    return monitor;
+  }
+
+  /**
+   * Waits until all the records appended to the provided log so far have been synced to the file system.
+   *
+   * @param log
+   *          the log a record has just been appended to
+   * @throws ChangelogException
+   *           if the log could not be synced, or if the calling thread was interrupted while waiting
+   */
+  void awaitDurable(final Log<?, ?> log) throws ChangelogException
+  {
+    final Batch batch;
+    synchronized (lock)
+    {
+      if (stopped)
+      {
+        batch = null;
+      }
+      else
+      {
+        batch = currentBatch;
+        if (batch.isEmpty())
+        {
+          batch.firstAppendNanos = System.nanoTime();
+        }
+        batch.logs.add(log);
+        batch.size++;
+        if (batch.size == 1 || batch.size >= maxBatchSize)
+        {
+          lock.notifyAll();
+        }
+      }
+    }
+
+    if (batch == null)
+    {
+      log.syncToFileSystem();
+      return;
+    }
+
+    synchronized (batch)
+    {
+      try
+      {
+        while (!batch.committed)
+        {
+          batch.wait();
+        }
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_SYNC.get(log.getPath()), e);
+      }
+    }
+    final ChangelogException failure = batch.failures.get(log);
+    if (failure != null)
+    {
+      throw failure;
+    }
+  }
+
+  @Override
+  public void run()
+  {
+    try
+    {
+      while (!isShutdownInitiated())
+      {
+        final Batch batch = nextBatch();
+        if (batch != null)
+        {
+          commit(batch);
+        }
+      }
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+    finally
+    {
+      final Batch lastBatch;
+      synchronized (lock)
+      {
+        stopped = true;
+        lastBatch = currentBatch;
+        currentBatch = new Batch();
+      }
+      commit(lastBatch);
+    }
+  }
+
+  /** Waits for the current batch to be full or to reach the maximum latency and returns it. */
+  private Batch nextBatch() throws InterruptedException
+  {
+    synchronized (lock)
+    {
+      while (currentBatch.isEmpty())
+      {
+        if (isShutdownInitiated())
+        {
+          return null;
+        }
+        lock.wait();
+      }
+      while (currentBatch.size < maxBatchSize && !isShutdownInitiated())
+      {
+        final long remainingNanos = currentBatch.firstAppendNanos + maxLatencyInNanos - System.nanoTime();
+        if (remainingNanos <= 0)
+        {
+          break;
+        }
+        TimeUnit.NANOSECONDS.timedWait(lock, remainingNanos);
+      }
+      final Batch batch = currentBatch;
+      currentBatch = new Batch();
+      return batch;
+    }
+  }
+
+  /** Syncs each log of the batch once, then releases the appends waiting for it. */
+  private void commit(final Batch batch)
+  {
+    if (!batch.isEmpty())
+    {
+      final long startNanos = System.nanoTime();
+      for (Log<?, ?> log : batch.logs)
+      {
+        try
+        {
+          log.syncToFileSystem();
+        }
+        catch (ChangelogException e)
+        {
+          logger.traceException(e);
+          batch.failures.put(log, e);
+        }
+      }
+      recordBatch(batch, System.nanoTime() - startNanos);
+    }
+
+    synchronized (batch)
+    {
+      batch.committed = true;
+      batch.notifyAll();
+    }
+  }
+
+  private void recordBatch(final Batch batch, final long syncTimeInNanos)
+  {
+    batchCount++;
+    appendCount += batch.size;
+    syncCount += batch.logs.size();
+    syncFailureCount += batch.failures.size();
+    lastBatchSize = batch.size;
+    largestBatchSize = Math.max(largestBatchSize, batch.size);
+    lastSyncTimeInNanos = syncTimeInNanos;
+    maxSyncTimeInNanos = Math.max(maxSyncTimeInNanos, syncTimeInNanos);
+    totalSyncTimeInNanos += syncTimeInNanos;
+  }
+
+  @Override
+  public void initiateShutdown()
+  {
+    super.initiateShutdown();
+    synchronized (lock)
+    {
+      lock.notifyAll();
+    }
+  }
+
+  /** Publishes the batch sizes and sync latencies observed by the committer. */
+  private final class GroupCommitMonitorProvider extends MonitorProvider<MonitorProviderCfg>
+  {
+    @Override
+    public void initializeMonitorProvider(MonitorProviderCfg configuration)
+        throws ConfigException, InitializationException
+    {
+      // Nothing to do for now
+    }
+
+    @Override
+    public String getMonitorInstanceName()
+    {
+      return monitorInstanceName;
+    }
+
+    @Override
+    public MonitorData getMonitorData()
+    {
+      final long batches = batchCount;
+      final MonitorData attributes = new MonitorData(10);
+      attributes.add("batch-count", batches);
+      attributes.add("append-count", appendCount);
+      attributes.add("sync-count", syncCount);
+      attributes.add("sync-failure-count", syncFailureCount);
+      attributes.add("last-batch-size", lastBatchSize);
+      attributes.add("largest-batch-size", largestBatchSize);
+      attributes.add("average-batch-size", batches > 0 ? appendCount / batches : 0);
+      attributes.add("last-sync-time-micros", TimeUnit.NANOSECONDS.toMicros(lastSyncTimeInNanos));
+      attributes.add("max-sync-time-micros", TimeUnit.NANOSECONDS.toMicros(maxSyncTimeInNanos));
+      attributes.add("average-sync-time-micros",
+          batches > 0 ? TimeUnit.NANOSECONDS.toMicros(totalSyncTimeInNanos / batches) : 0);
+      return attributes;
+    }
+  }
+}
@@ -170,6 +170,9 @@ final class Log<K extends Comparable<K>, V> implements Closeable
   /** The last time a log file was rotated. */
   private long lastRotationTime;
 
+  /** Makes the appended records durable in batches, {@code null} if appends do not wait for a sync. */
+  private volatile GroupCommitter groupCommitter;
+
   /**
    * The exclusive lock used for log rotation and lifecycle operations on this log:
    * initialize, clear, sync and close.
@@ -407,7 +410,8 @@ final class Log<K extends Comparable<K>, V> implements Closeable
    * <p>
    * In order to ensure that record is written out of buffers and persisted
    * to file system, it is necessary to explicitly call the
-   * {@code syncToFileSystem()} method.
+   * {@code syncToFileSystem()} method, unless a group committer is attached to
+   * this log, in which case this method only returns once the record is persisted.
    *
    * @param record
    *          The record to add.
@@ -415,6 +419,16 @@ final class Log<K extends Comparable<K>, V> implements Closeable
    *           If an error occurs while adding the record to the log.
    */
   public void append(final Record<K, V> record) throws ChangelogException
+  {
+    appendRecord(record);
+    final GroupCommitter committer = groupCommitter;
+    if (committer != null)
+    {
+      committer.awaitDurable(this);
+    }
+  }
+
+  private void appendRecord(final Record<K, V> record) throws ChangelogException
   {
     // Fast-path - assume that no rotation is needed and use shared lock.
     sharedLock.lock();
@@ -505,17 +519,35 @@ final class Log<K extends Comparable<K>, V> implements Closeable
    */
   public void syncToFileSystem() throws ChangelogException
   {
-    exclusiveLock.lock();
+    // Shared lock: only rotation and close must be excluded, appends can proceed during the sync
+    sharedLock.lock();
     try
     {
+      if (isClosed)
+      {
+        return;
+      }
       getHeadLogFile().syncToFileSystem();
     }
     finally
     {
-      exclusiveLock.unlock();
+      sharedLock.unlock();
     }
   }
 
+  /**
+   * Attaches this log to the provided group committer, so that each append waits until the
+   * appended record is persisted to the file system.
+   *
+   * @param groupCommitter
+   *          the group committer batching the syncs of this log, or {@code null} to return from
+   *          appends without waiting for a sync
+   */
+  void setGroupCommitter(final GroupCommitter groupCommitter)
+  {
+    this.groupCommitter = groupCommitter;
+  }
+
   /**
    * Returns a cursor that allows to retrieve the records from this log,
    * starting at the first position.
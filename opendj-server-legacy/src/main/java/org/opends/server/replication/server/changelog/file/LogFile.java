@@ -108,7 +108,7 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
     sharedLock = rwLock.readLock();
     createLogFileIfNotExists();
 
-    readerPool = new LogReaderPool<>(logfile, parser);
+    readerPool = new LogReaderPool<>(logfile, parser, isWriteEnabled);
     if (isWriteEnabled)
     {
       ensureLogFileIsValid(parser);
@@ -321,7 +321,8 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
   void syncToFileSystem() throws ChangelogException
   {
     checkLogIsEnabledForWrite();
-    sharedLock.lock();
+    // No lock: each appended record is flushed to the file descriptor, so the sync
+    // can proceed concurrently with appends. The enclosing Log prevents a concurrent close.
     try
     {
       writer.sync();
@@ -330,10 +331,6 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
     {
       throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_SYNC.get(getPath()), e);
     }
-    finally
-    {
-      sharedLock.unlock();
-    }
   }
 
   /**
@@ -395,7 +392,9 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
 
   private void initializeNewestRecord() throws ChangelogException
   {
-    try (BlockLogReader<K, V> reader = getReader())
+    // Released to the pool rather than closed, so that a mapping of the file can be released
+    final BlockLogReader<K, V> reader = getReader();
+    try
     {
       sharedLock.lock();
       try
@@ -407,10 +406,9 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
         sharedLock.unlock();
       }
     }
-    catch (IOException ioe)
+    finally
     {
-      throw new ChangelogException(ERR_CHANGELOG_CANNOT_READ_NEWEST_RECORD.get(logfile.getAbsolutePath() + "- " +
-          StaticUtils.stackTraceToSingleLineString(ioe) + "-" + Thread.currentThread()), ioe);
+      releaseReader(reader);
     }
   }
 
@@ -17,29 +17,94 @@ package org.opends.server.replication.server.changelog.file;
 
 import java.io.File;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
+import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.opends.server.replication.server.changelog.api.ChangelogException;
 import org.opends.server.util.StaticUtils;
 
+import com.forgerock.opendj.util.OperatingSystem;
+
 import static org.opends.messages.ReplicationMessages.*;
 
 /**
  * A Pool of readers to a log file.
-
+ * <p>
+ * Readers of a write-enabled log file use a {@link RandomAccessFile}, which is kept opened
+ * when the reader is released so that the next cursor can reuse it.
+ * <p>
+ * Readers of a read-only log file, whose content does not change any more, read from a
+ * single read-only mapping of the whole file shared by all the readers. Acquiring and
+ * releasing such a reader does not involve any system call, and positioning a cursor
+ * becomes a binary search in memory. The mapping is released once the pool is shut down
+ * and its last reader is released, so that the disk space of a purged file is freed.
  *
  * @param <K>
  *          Type of the key of a record, which must be comparable.
  * @param <V>
  *          Type of the value of a record.
  */
-// TODO : implement a real pool - reusing readers instead of opening-closing them each time
 class LogReaderPool<K extends Comparable<K>, V>
 {
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** Maximum number of idle readers kept opened on a write-enabled log file. */
+  private static final int MAX_IDLE_READERS = 8;
+
+  /**
+   * Mapping a file prevents deleting it on Windows until the mapping is garbage collected,
+   * which would break purging of the log files.
+   */
+  private static final boolean CAN_MAP_FILES = !OperatingSystem.isWindows();
+
+  /** The methods releasing a mapping right away, or {@code null} if the JVM does not provide them. */
+  private static final Method directBufferCleanerMethod;
+  private static final Method directBufferCleanerCleanMethod;
+
+  static
+  {
+    Method tmpDirectBufferCleanerMethod = null;
+    Method tmpDirectBufferCleanerCleanMethod = null;
+    try
+    {
+      tmpDirectBufferCleanerMethod = Class.forName("java.nio.DirectByteBuffer").getMethod("cleaner");
+      tmpDirectBufferCleanerMethod.setAccessible(true);
+      tmpDirectBufferCleanerCleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      tmpDirectBufferCleanerCleanMethod.setAccessible(true);
+    }
+    catch (Exception e)
+    {
+      tmpDirectBufferCleanerMethod = null;
+      tmpDirectBufferCleanerCleanMethod = null;
+    }
+    directBufferCleanerMethod = tmpDirectBufferCleanerMethod;
+    directBufferCleanerCleanMethod = tmpDirectBufferCleanerCleanMethod;
+  }
+
   /** The file to read. */
   private final File file;
 
   private final RecordParser<K, V> parser;
 
+  /** Whether the file content may still change, in which case it is not mapped in memory. */
+  private final boolean isWriteEnabled;
+
+  /** The idle readers, ready to be reused. */
+  private final BlockingQueue<BlockLogReader<K, V>> idleReaders = new ArrayBlockingQueue<>(MAX_IDLE_READERS);
+
+  /** The mapped content of a read-only file, lazily mapped on first read, guarded by this pool. */
+  private ByteBuffer mappedContent;
+
+  /** The number of acquired readers using the mapped content, guarded by this pool. */
+  private int mappedReaders;
+
+  private volatile boolean isShutdown;
+
   /**
    * Creates a pool of readers for provided file.
    *
@@ -47,15 +112,20 @@ class LogReaderPool<K extends Comparable<K>, V>
    *          The file to read.
    * @param parser
    *          The parser to decode the records read.
+   * @param isWriteEnabled
+   *          {@code true} if the file may still be appended to, {@code false} if its
+   *          content does not change any more
    */
-  LogReaderPool(File file, RecordParser<K, V> parser)
+  LogReaderPool(File file, RecordParser<K, V> parser, boolean isWriteEnabled)
   {
     this.file = file;
     this.parser = parser;
+    this.isWriteEnabled = isWriteEnabled;
   }
 
   /**
-   * Returns a random access reader on the provided file.
+   * Returns a random access reader on the provided file, positioned at the
+   * beginning of the file.
    * <p>
    * The acquired reader must be released with the {@code release()}
    * method.
@@ -66,6 +136,18 @@ class LogReaderPool<K extends Comparable<K>, V>
    */
   BlockLogReader<K, V> get() throws ChangelogException
   {
+    final BlockLogReader<K, V> mappedReader = getMappedReader();
+    if (mappedReader != null)
+    {
+      return mappedReader;
+    }
+
+    final BlockLogReader<K, V> reader = idleReaders.poll();
+    if (reader != null)
+    {
+      reader.seekToPosition(0);
+      return reader;
+    }
     return getReader(file);
   }
 
@@ -80,7 +162,20 @@ class LogReaderPool<K extends Comparable<K>, V>
    */
   void release(BlockLogReader<K, V> reader)
   {
-    StaticUtils.close(reader);
+    if (reader.isMapped())
+    {
+      releaseMappedReader();
+      return;
+    }
+    if (isShutdown || !idleReaders.offer(reader))
+    {
+      StaticUtils.close(reader);
+    }
+    else if (isShutdown && idleReaders.remove(reader))
+    {
+      // shutdown happened concurrently
+      StaticUtils.close(reader);
+    }
   }
 
   /** Returns a random access file to read this log. */
@@ -96,13 +191,110 @@ class LogReaderPool<K extends Comparable<K>, V>
     }
   }
 
+  /**
+   * Returns a reader on the content of the file mapped in memory, or {@code null} if the
+   * file must be read with a {@link RandomAccessFile}.
+   * <p>
+   * Acquiring and releasing a mapped reader only takes the uncontended lock of this pool,
+   * which ensures the mapping is never released while a reader uses it.
+   */
+  private synchronized BlockLogReader<K, V> getMappedReader() throws ChangelogException
+  {
+    if (isWriteEnabled || !CAN_MAP_FILES || isShutdown)
+    {
+      return null;
+    }
+    if (mappedContent == null)
+    {
+      mappedContent = mapFile();
+      if (mappedContent == null)
+      {
+        return null;
+      }
+    }
+    mappedReaders++;
+    return BlockLogReader.newMappedReader(file, mappedContent, parser);
+  }
+
+  private synchronized void releaseMappedReader()
+  {
+    mappedReaders--;
+    if (isShutdown && mappedReaders == 0)
+    {
+      unmapFile();
+    }
+  }
+
+  private ByteBuffer mapFile() throws ChangelogException
+  {
+    // The mapping remains valid once the channel is closed
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+        FileChannel channel = raf.getChannel())
+    {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE)
+      {
+        // cannot be mapped in a single buffer, should never happen as log files are rotated much earlier
+        return null;
+      }
+      return channel.map(MapMode.READ_ONLY, 0, size);
+    }
+    catch (Exception e)
+    {
+      throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_OPEN_READER_ON_LOG_FILE.get(file.getPath()), e);
+    }
+  }
+
+  /**
+   * Indicates whether the content of the file is currently mapped in memory.
+   *
+   * @return {@code true} if the content of the file is mapped in memory
+   */
+  synchronized boolean isFileMapped()
+  {
+    return mappedContent != null;
+  }
+
+  /** Releases the mapping of the file, which must no longer be used by any reader. */
+  private void unmapFile()
+  {
+    final ByteBuffer content = mappedContent;
+    mappedContent = null;
+    if (content != null && directBufferCleanerMethod != null)
+    {
+      try
+      {
+        directBufferCleanerCleanMethod.invoke(directBufferCleanerMethod.invoke(content));
+      }
+      catch (Exception e)
+      {
+        // the mapping is released by the garbage collector
+        logger.traceException(e);
+      }
+    }
+  }
+
   /**
    * Shutdown this pool, releasing all files handles opened
    * on the file.
+   * <p>
+   * Readers still in use are closed when released. The mapping of the file is released
+   * along with the last reader using it.
    */
   void shutdown()
   {
-    // Nothing to do yet as no file handle is kept opened.
+    synchronized (this)
+    {
+      isShutdown = true;
+      if (mappedReaders == 0)
+      {
+        unmapFile();
+      }
+    }
+    for (BlockLogReader<K, V> reader = idleReaders.poll(); reader != null; reader = idleReaders.poll())
+    {
+      StaticUtils.close(reader);
+    }
   }
 
 }
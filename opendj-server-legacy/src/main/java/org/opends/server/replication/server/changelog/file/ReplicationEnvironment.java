@@ -48,6 +48,7 @@ import org.forgerock.i18n.LocalizedIllegalArgumentException;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.util.time.TimeService;
+import org.opends.server.core.DirectoryServer;
 import org.opends.server.crypto.CryptoSuite;
 import org.opends.server.replication.common.CSN;
 import org.opends.server.replication.protocol.UpdateMsg;
@@ -244,6 +245,16 @@ class ReplicationEnvironment implements ChangelogStateProvider
    */
   private long cnIndexDBRotationInterval;
 
+  /**
+   * Makes the records appended to the Replica DBs durable in batches.
+   * It is {@code null} if group commit is disabled.
+   */
+  @GuardedBy("groupCommitLock")
+  private GroupCommitter groupCommitter;
+
+  /** Lock to synchronize the start and stop of the group committer with the opening of Replica DBs. */
+  private final Object groupCommitLock = new Object();
+
   /**
    * For CN Index DB, the last time a log file was rotated.
    * It is persisted to file each time it changes and read at server start. */
@@ -286,6 +297,65 @@ class ReplicationEnvironment implements ChangelogStateProvider
     }
   }
 
+  /**
+   * Enables, disables or reconfigures group commit for the Replica DBs.
+   * <p>
+   * When group commit is enabled, an update added to a Replica DB is only acknowledged once it has been
+   * persisted to the file system, and a single sync is issued for all the updates received during the
+   * configured window. The CN Index DB is not affected as it can be rebuilt from the Replica DBs.
+   *
+   * @param enabled
+   *          whether updates must be persisted before being acknowledged
+   * @param maxLatencyInMillis
+   *          the maximum time an update waits for other updates to share its sync
+   * @param maxBatchSize
+   *          the number of updates which triggers a sync without waiting any longer
+   */
+  void setGroupCommit(final boolean enabled, final long maxLatencyInMillis, final int maxBatchSize)
+  {
+    synchronized (groupCommitLock)
+    {
+      if (enabled && groupCommitter != null)
+      {
+        groupCommitter.setParameters(maxLatencyInMillis, maxBatchSize);
+      }
+      else if (enabled && !isShuttingDown.get())
+      {
+        groupCommitter = new GroupCommitter(
+            "Changelog group commit " + replicationServer.getMonitorInstanceName(), maxLatencyInMillis, maxBatchSize);
+        groupCommitter.start();
+        DirectoryServer.registerMonitorProvider(groupCommitter.getMonitorProvider());
+        setGroupCommitter(groupCommitter);
+      }
+      else if (!enabled)
+      {
+        stopGroupCommitter();
+      }
+    }
+  }
+
+  @GuardedBy("groupCommitLock")
+  private void stopGroupCommitter()
+  {
+    final GroupCommitter committer = groupCommitter;
+    if (committer != null)
+    {
+      groupCommitter = null;
+      setGroupCommitter(null);
+      DirectoryServer.deregisterMonitorProvider(committer.getMonitorProvider());
+      // appends still waiting are released by the last batch
+      committer.initiateShutdown();
+    }
+  }
+
+  private void setGroupCommitter(final GroupCommitter committer)
+  {
+    for (Log<CSN, UpdateMsg> log : logsReplicaDB)
+    {
+      log.setGroupCommitter(committer);
+    }
+  }
+
   /**
    * Returns the state of the replication changelog.
    *
@@ -368,8 +438,13 @@ class ReplicationEnvironment implements ChangelogStateProvider
         ensureGenerationIdFileExists(generationIdPath);
         changelogState.setDomainGenerationId(domainDN, generationId);
 
-        return openLog(serverIdPath, FileReplicaDB.newReplicaDBParser(cryptoSuite),
+        final Log<CSN, UpdateMsg> log = openLog(serverIdPath, FileReplicaDB.newReplicaDBParser(cryptoSuite),
             new LogRotationParameters(REPLICA_DB_MAX_LOG_FILE_SIZE_IN_BYTES, 0, 0), logsReplicaDB);
+        synchronized (groupCommitLock)
+        {
+          log.setGroupCommitter(groupCommitter);
+        }
+        return log;
       }
     }
     catch (Exception e)
@@ -417,6 +492,10 @@ class ReplicationEnvironment implements ChangelogStateProvider
   {
     if (isShuttingDown.compareAndSet(false, true))
     {
+      synchronized (groupCommitLock)
+      {
+        stopGroupCommitter();
+      }
       logsReplicaDB.clear();
       logsCNIndexDB.clear();
     }
@@ -533,7 +533,18 @@ public abstract class AbstractOperation
   }
 
   @Override
-  public final synchronized void checkIfCanceled(boolean signalTooLate)
+  public final void checkIfCanceled(boolean signalTooLate)
+      throws CanceledOperationException
+  {
+    checkIfCanceled0(signalTooLate);
+
+    // The loops processing an operation check for cancellation regularly:
+    // do not keep the responses already sent waiting for the next one.
+    // Not synchronized, since writing them may block.
+    clientConnection.flushBufferedResponses(messageID, false);
+  }
+
+  private synchronized void checkIfCanceled0(boolean signalTooLate)
       throws CanceledOperationException
   {
     if(cancelRequest != null)
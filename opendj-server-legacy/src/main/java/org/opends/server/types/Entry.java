@@ -4323,6 +4323,45 @@ public class Entry
 
 
 
+  /**
+   * Returns an entry containing the object classes and the non-empty
+   * user attributes of this entry, like
+   * {@code filterEntry(null, false, false, false)}, but without copying
+   * them: the returned entry shares the object classes and the attribute
+   * lists of this entry, so neither entry must be modified while the
+   * returned entry is in use.
+   *
+   * @return An entry containing the object classes and the user
+   *         attributes of this entry.
+   */
+  public Entry getUserAttributesView()
+  {
+    final Map<AttributeType, List<Attribute>> userAttrsView = new LinkedHashMap<>(userAttributes.size() + 1);
+    final Attribute ocAttr = getObjectClassAttribute();
+    if (ocAttr != null)
+    {
+      userAttrsView.put(CoreSchema.getObjectClassAttributeType(), newArrayList(ocAttr));
+    }
+
+    for (Map.Entry<AttributeType, List<Attribute>> mapEntry : userAttributes.entrySet())
+    {
+      final List<Attribute> attrList = mapEntry.getValue();
+      if (attrList.size() == 1 && !attrList.get(0).isEmpty())
+      {
+        userAttrsView.put(mapEntry.getKey(), attrList);
+      }
+      else
+      {
+        // Rare case: drop the empty attributes and merge the duplicate ones
+        deepCopy(Collections.singletonMap(mapEntry.getKey(), attrList), userAttrsView,
+            false, true, false, false, true);
+      }
+    }
+    return new Entry(dn, objectClasses, userAttrsView, new LinkedHashMap<AttributeType, List<Attribute>>(0));
+  }
+
+
+
   /**
    * Returns an entry containing only those attributes of this entry
    * which match the provided criteria.
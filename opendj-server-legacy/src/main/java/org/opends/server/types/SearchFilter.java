@@ -2049,6 +2049,19 @@ public final class SearchFilter
 
 
 
+  /**
+   * Retrieves the attribute description for this filter.
+   *
+   * @return  The attribute description for this filter, or
+   *          <CODE>null</CODE> if there is none.
+   */
+  public AttributeDescription getAttributeDescription()
+  {
+    return attributeDescription;
+  }
+
+
+
   /**
    * Retrieves the assertion value for this filter.
    *
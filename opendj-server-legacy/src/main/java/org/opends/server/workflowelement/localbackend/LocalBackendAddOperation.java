@@ -57,7 +57,6 @@ import org.opends.server.core.AddOperationWrapper;
 import org.opends.server.core.BackendConfigManager;
 import org.opends.server.core.DirectoryServer;
 import org.opends.server.core.PasswordPolicy;
-import org.opends.server.core.PersistentSearch;
 import org.opends.server.core.ServerContext;
 import org.opends.server.schema.AuthPasswordSyntax;
 import org.opends.server.schema.UserPasswordSyntax;
@@ -167,7 +166,15 @@ public class LocalBackendAddOperation
       {
         if (getResultCode() == ResultCode.SUCCESS)
         {
-          getPluginConfigManager().invokePostSynchronizationAddPlugins(this);
+          // The in-memory state is only updated once the replayed updates of a write batch are committed
+          LocalBackend.runAfterWriteBatch(new Runnable()
+          {
+            @Override
+            public void run()
+            {
+              getPluginConfigManager().invokePostSynchronizationAddPlugins(LocalBackendAddOperation.this);
+            }
+          });
         }
       }
       else if (executePostOpPlugins.get())
@@ -188,15 +195,12 @@ public class LocalBackendAddOperation
     // searches and change listeners.
     if (getResultCode() == ResultCode.SUCCESS)
     {
-      registerPostResponseCallback(new Runnable()
+      registerPostCommitCallback(this, new Runnable()
       {
         @Override
         public void run()
         {
-          for (PersistentSearch psearch : backend.getPersistentSearches())
-          {
-            psearch.processAdd(entry);
-          }
+          DirectoryServer.getPersistentSearchDispatcher().processAdd(backend, entry);
         }
       });
     }
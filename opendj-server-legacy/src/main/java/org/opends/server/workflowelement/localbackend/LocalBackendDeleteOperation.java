@@ -32,7 +32,6 @@ import org.opends.server.core.BackendConfigManager;
 import org.opends.server.core.DeleteOperation;
 import org.opends.server.core.DeleteOperationWrapper;
 import org.opends.server.core.DirectoryServer;
-import org.opends.server.core.PersistentSearch;
 import org.opends.server.types.CanceledOperationException;
 import org.opends.server.types.Control;
 import org.forgerock.opendj.ldap.DN;
@@ -141,7 +140,15 @@ public class LocalBackendDeleteOperation
       {
         if (getResultCode() == ResultCode.SUCCESS)
         {
-          getPluginConfigManager().invokePostSynchronizationDeletePlugins(this);
+          // The in-memory state is only updated once the replayed updates of a write batch are committed
+          LocalBackend.runAfterWriteBatch(new Runnable()
+          {
+            @Override
+            public void run()
+            {
+              getPluginConfigManager().invokePostSynchronizationDeletePlugins(LocalBackendDeleteOperation.this);
+            }
+          });
         }
       }
       else if (executePostOpPlugins.get())
@@ -161,15 +168,12 @@ public class LocalBackendDeleteOperation
     // searches and change listeners.
     if (getResultCode() == ResultCode.SUCCESS)
     {
-      registerPostResponseCallback(new Runnable()
+      registerPostCommitCallback(this, new Runnable()
       {
         @Override
         public void run()
         {
-          for (PersistentSearch psearch : backend.getPersistentSearches())
-          {
-            psearch.processDelete(entry);
-          }
+          DirectoryServer.getPersistentSearchDispatcher().processDelete(backend, entry);
         }
       });
     }
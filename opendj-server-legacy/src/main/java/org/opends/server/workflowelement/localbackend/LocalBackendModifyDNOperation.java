@@ -41,7 +41,6 @@ import org.opends.server.core.BackendConfigManager;
 import org.opends.server.core.DirectoryServer;
 import org.opends.server.core.ModifyDNOperation;
 import org.opends.server.core.ModifyDNOperationWrapper;
-import org.opends.server.core.PersistentSearch;
 import org.opends.server.types.Attribute;
 import org.opends.server.types.Attributes;
 import org.opends.server.types.CanceledOperationException;
@@ -181,7 +180,15 @@ public class LocalBackendModifyDNOperation
       {
         if (getResultCode() == ResultCode.SUCCESS)
         {
-          getPluginConfigManager().invokePostSynchronizationModifyDNPlugins(this);
+          // The in-memory state is only updated once the replayed updates of a write batch are committed
+          LocalBackend.runAfterWriteBatch(new Runnable()
+          {
+            @Override
+            public void run()
+            {
+              getPluginConfigManager().invokePostSynchronizationModifyDNPlugins(LocalBackendModifyDNOperation.this);
+            }
+          });
         }
       }
       else if (executePostOpPlugins.get())
@@ -201,15 +208,12 @@ public class LocalBackendModifyDNOperation
     // searches and change listeners.
     if (getResultCode() == ResultCode.SUCCESS)
     {
-      registerPostResponseCallback(new Runnable()
+      registerPostCommitCallback(this, new Runnable()
       {
         @Override
         public void run()
         {
-          for (PersistentSearch psearch : backend.getPersistentSearches())
-          {
-            psearch.processModifyDN(newEntry, currentEntry.getName());
-          }
+          DirectoryServer.getPersistentSearchDispatcher().processModifyDN(backend, newEntry, currentEntry.getName());
         }
       });
     }
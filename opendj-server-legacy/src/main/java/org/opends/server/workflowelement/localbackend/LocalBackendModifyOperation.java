@@ -56,7 +56,6 @@ import org.opends.server.core.ModifyOperation;
 import org.opends.server.core.ModifyOperationWrapper;
 import org.opends.server.core.PasswordPolicy;
 import org.opends.server.core.PasswordPolicyState;
-import org.opends.server.core.PersistentSearch;
 import org.opends.server.schema.AuthPasswordSyntax;
 import org.opends.server.schema.UserPasswordSyntax;
 import org.opends.server.types.AcceptRejectWarn;
@@ -295,15 +294,12 @@ public class LocalBackendModifyOperation
     // searches and change listeners.
     if (getResultCode() == ResultCode.SUCCESS)
     {
-      registerPostResponseCallback(new Runnable()
+      registerPostCommitCallback(this, new Runnable()
       {
         @Override
         public void run()
         {
-          for (PersistentSearch psearch : backend.getPersistentSearches())
-          {
-            psearch.processModify(modifiedEntry, currentEntry);
-          }
+          DirectoryServer.getPersistentSearchDispatcher().processModify(backend, modifiedEntry, currentEntry);
         }
       });
     }
@@ -328,7 +324,15 @@ public class LocalBackendModifyOperation
     {
       if (getResultCode() == ResultCode.SUCCESS)
       {
-        getPluginConfigManager().invokePostSynchronizationModifyPlugins(this);
+        // The in-memory state is only updated once the replayed updates of a write batch are committed
+        LocalBackend.runAfterWriteBatch(new Runnable()
+        {
+          @Override
+          public void run()
+          {
+            getPluginConfigManager().invokePostSynchronizationModifyPlugins(LocalBackendModifyOperation.this);
+          }
+        });
       }
     }
     else if (preOperationPluginsExecuted)
@@ -474,6 +474,29 @@ public class LocalBackendWorkflowElement
     }
   }
 
+  /**
+   * Registers a post-response callback running the provided action. The
+   * updates replayed in a write batch only run it once the batch has been
+   * committed, so that its effects are never seen if it is rolled back.
+   *
+   * @param operation
+   *          the update operation
+   * @param action
+   *          the action to run once the update has been committed and
+   *          its response sent
+   */
+  static void registerPostCommitCallback(Operation operation, final Runnable action)
+  {
+    operation.registerPostResponseCallback(new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        LocalBackend.runAfterWriteBatch(action);
+      }
+    });
+  }
+
   /**
    * Removes the matchedDN from the supplied operation if ACIs prevent its
    * disclosure.
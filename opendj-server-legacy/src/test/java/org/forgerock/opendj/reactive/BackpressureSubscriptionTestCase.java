@@ -0,0 +1,197 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.reactive;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.Thread.State;
+import java.nio.channels.ClosedChannelException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.responses.Response;
+import org.forgerock.opendj.ldap.responses.Responses;
+import org.opends.server.DirectoryServerTestCase;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests the bounded buffering of the responses of an operation of a reactive LDAP connection. */
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit" }, sequential = true)
+public class BackpressureSubscriptionTestCase extends DirectoryServerTestCase {
+    private static final int MAX_PENDING_RESPONSES = 4;
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    private AtomicInteger pendingResponses;
+    private AtomicLong backpressureWaits;
+    private Subscription upstreamSubscription;
+    private RecordingSubscriber downstream;
+
+    /** Records what the client receives, and lets the test play the client demand. */
+    private static final class RecordingSubscriber implements Subscriber<Response> {
+        private final List<Response> responses = new CopyOnWriteArrayList<>();
+        private volatile Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(final Subscription s) {
+            subscription = s;
+        }
+
+        @Override
+        public void onNext(final Response response) {
+            responses.add(response);
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() {
+        pendingResponses = new AtomicInteger();
+        backpressureWaits = new AtomicLong();
+        upstreamSubscription = mock(Subscription.class);
+        downstream = new RecordingSubscriber();
+    }
+
+    @Test
+    public void testResponsesAreSentOnDemand() {
+        final BackpressureSubscription subscription = newSubscription(TIMEOUT_MILLIS);
+        subscription.onNext(newResponse());
+        subscription.onNext(newResponse());
+        assertThat(downstream.responses).isEmpty();
+        assertThat(pendingResponses.get()).isEqualTo(2);
+
+        downstream.subscription.request(1);
+        assertThat(downstream.responses).hasSize(1);
+        subscription.onComplete();
+        assertThat(downstream.completed).isFalse();
+
+        downstream.subscription.request(1);
+        assertThat(downstream.responses).hasSize(2);
+        assertThat(downstream.completed).isTrue();
+        assertThat(pendingResponses.get()).isEqualTo(0);
+        assertThat(backpressureWaits.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void testTimeoutDiscardsPendingResponsesAndFailsTheStream() {
+        final BackpressureSubscription subscription = newSubscription(100);
+        for (int i = 0; i < MAX_PENDING_RESPONSES; i++) {
+            // The last one waits for the client, which never reads
+            subscription.onNext(newResponse());
+        }
+
+        assertThat(backpressureWaits.get()).isEqualTo(1);
+        assertThat(pendingResponses.get()).isEqualTo(0);
+        assertThat(downstream.error).isInstanceOf(ClosedChannelException.class);
+        assertThat(downstream.responses).isEmpty();
+
+        // The responses produced afterwards are dropped
+        subscription.onNext(newResponse());
+        downstream.subscription.request(Long.MAX_VALUE);
+        assertThat(pendingResponses.get()).isEqualTo(0);
+        assertThat(downstream.responses).isEmpty();
+    }
+
+    @Test
+    public void testCancelWakesUpBlockedProducer() throws Exception {
+        final BackpressureSubscription subscription = newSubscription(60000);
+        final Thread producer = startProducer(subscription, MAX_PENDING_RESPONSES);
+        waitForBlockedProducer(producer);
+
+        downstream.subscription.cancel();
+        producer.join(TIMEOUT_MILLIS);
+        assertThat(producer.isAlive()).isFalse();
+        verify(upstreamSubscription).cancel();
+        assertThat(pendingResponses.get()).isEqualTo(0);
+        assertThat(downstream.responses).isEmpty();
+    }
+
+    @Test
+    public void testProducerResumesAtHalfThreshold() throws Exception {
+        final BackpressureSubscription subscription = newSubscription(60000);
+        final Thread producer = startProducer(subscription, MAX_PENDING_RESPONSES);
+        waitForBlockedProducer(producer);
+
+        // Still above half of the maximum number of pending responses
+        downstream.subscription.request(1);
+        producer.join(200);
+        assertThat(producer.isAlive()).isTrue();
+
+        downstream.subscription.request(1);
+        producer.join(TIMEOUT_MILLIS);
+        assertThat(producer.isAlive()).isFalse();
+        assertThat(downstream.responses).hasSize(2);
+        assertThat(downstream.error).isNull();
+        assertThat(pendingResponses.get()).isEqualTo(MAX_PENDING_RESPONSES / 2);
+        assertThat(backpressureWaits.get()).isEqualTo(1);
+    }
+
+    private BackpressureSubscription newSubscription(final long timeoutMillis) {
+        final Publisher<Response> upstream = new Publisher<Response>() {
+            @Override
+            public void subscribe(final Subscriber<? super Response> subscriber) {
+                subscriber.onSubscribe(upstreamSubscription);
+            }
+        };
+        final BackpressureSubscription subscription = new BackpressureSubscription(
+                timeoutMillis, MAX_PENDING_RESPONSES, pendingResponses, backpressureWaits, upstream);
+        subscription.subscribe(downstream);
+        return subscription;
+    }
+
+    private Thread startProducer(final BackpressureSubscription subscription, final int nbResponses) {
+        final Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < nbResponses; i++) {
+                    subscription.onNext(newResponse());
+                }
+            }
+        }, "BackpressureSubscription producer");
+        producer.start();
+        return producer;
+    }
+
+    private void waitForBlockedProducer(final Thread producer) throws Exception {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (backpressureWaits.get() == 0 || producer.getState() != State.TIMED_WAITING) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static Response newResponse() {
+        return Responses.newResult(ResultCode.SUCCESS);
+    }
+}
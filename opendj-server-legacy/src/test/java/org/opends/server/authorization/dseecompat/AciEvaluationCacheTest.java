@@ -0,0 +1,141 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.authorization.dseecompat.Aci.*;
+
+import java.util.Collections;
+import java.util.TreeSet;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.core.DirectoryServer;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class AciEvaluationCacheTest extends DirectoryServerTestCase
+{
+  private static final DN ACI_DN = DN.valueOf("ou=people,dc=example,dc=com");
+  private static final DN USER_DN = DN.valueOf("uid=user.1,ou=people,dc=example,dc=com");
+
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @Test
+  public void testIdentityBasedAciIsCached() throws Exception
+  {
+    final AciList aciList = new AciList(DN.valueOf("cn=config"));
+    final AciEvaluationCache cache = new AciEvaluationCache(aciList, true);
+    final Aci aci = decode("(version 3.0; acl \"user read\"; allow(read) userdn=\"ldap:///" + USER_DN + "\";)");
+    final AciEvalContext evalCtx = mockEvalContext(USER_DN);
+
+    assertThat(cache.evaluate(evalCtx, aci)).isEqualTo(EnumEvalResult.TRUE);
+    assertThat(cache.evaluate(evalCtx, aci)).isEqualTo(EnumEvalResult.TRUE);
+    assertThat(cache.getCacheMisses()).isEqualTo(1);
+    assertThat(cache.getCacheHits()).isEqualTo(1);
+
+    // Other clients get their own decision
+    final AciEvalContext otherCtx = mockEvalContext(DN.valueOf("uid=user.2,ou=people,dc=example,dc=com"));
+    assertThat(cache.evaluate(otherCtx, aci)).isEqualTo(EnumEvalResult.FALSE);
+    assertThat(cache.getCacheMisses()).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testResultsAreNotCachedWhenDisabled() throws Exception
+  {
+    final AciList aciList = new AciList(DN.valueOf("cn=config"));
+    final AciEvaluationCache cache = new AciEvaluationCache(aciList, false);
+    final Aci aci = decode("(version 3.0; acl \"user read\"; allow(read) userdn=\"ldap:///" + USER_DN + "\";)");
+    final AciEvalContext evalCtx = mockEvalContext(USER_DN);
+
+    assertThat(cache.evaluate(evalCtx, aci)).isEqualTo(EnumEvalResult.TRUE);
+    assertThat(cache.evaluate(evalCtx, aci)).isEqualTo(EnumEvalResult.TRUE);
+    assertThat(cache.getCacheHits()).isZero();
+    assertThat(cache.getCacheMisses()).isZero();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void testEntryDependentAciIsNotCached() throws Exception
+  {
+    final AciList aciList = new AciList(DN.valueOf("cn=config"));
+    final AciEvaluationCache cache = new AciEvaluationCache(aciList, true);
+    final Aci aci = decode("(version 3.0; acl \"self read\"; allow(read) userdn=\"ldap:///self\";)");
+    final AciEvalContext evalCtx = mockEvalContext(USER_DN);
+
+    cache.evaluate(evalCtx, aci);
+    cache.evaluate(evalCtx, aci);
+    assertThat(cache.getUncacheableEvaluations()).isEqualTo(2);
+    assertThat(cache.getCacheHits()).isZero();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void testAciChangeInvalidatesCache() throws Exception
+  {
+    final AciList aciList = new AciList(DN.valueOf("cn=config"));
+    final AciEvaluationCache cache = new AciEvaluationCache(aciList, true);
+    final Aci aci = decode("(version 3.0; acl \"all read\"; allow(read) userdn=\"ldap:///all\";)");
+    final AciEvalContext evalCtx = mockEvalContext(USER_DN);
+
+    cache.evaluate(evalCtx, aci);
+    aciList.addAci(ACI_DN, new TreeSet<>(Collections.singleton(aci)));
+    cache.evaluate(evalCtx, aci);
+    assertThat(cache.getCacheMisses()).isEqualTo(2);
+    assertThat(cache.getCacheHits()).isZero();
+  }
+
+  @Test
+  public void testMembershipChangeInvalidatesCache() throws Exception
+  {
+    final AciList aciList = new AciList(DN.valueOf("cn=config"));
+    final AciEvaluationCache cache = new AciEvaluationCache(aciList, true);
+    final Aci aci = decode("(version 3.0; acl \"group read\"; allow(read) "
+        + "groupdn=\"ldap:///cn=group,ou=groups,dc=example,dc=com\";)");
+    final AciEvalContext evalCtx = mockEvalContext(USER_DN);
+
+    cache.evaluate(evalCtx, aci);
+    DirectoryServer.getGroupManager().membershipChanged();
+    cache.evaluate(evalCtx, aci);
+    assertThat(cache.getCacheMisses()).isEqualTo(2);
+    cache.evaluate(evalCtx, aci);
+    assertThat(cache.getCacheHits()).isEqualTo(1);
+  }
+
+  private Aci decode(String aci) throws Exception
+  {
+    return Aci.decode(ByteString.valueOfUtf8(aci), ACI_DN);
+  }
+
+  private AciEvalContext mockEvalContext(DN clientDN)
+  {
+    final AciEvalContext evalCtx = mock(AciEvalContext.class);
+    when(evalCtx.getClientDN()).thenReturn(clientDN);
+    when(evalCtx.getResourceDN()).thenReturn(USER_DN);
+    when(evalCtx.getRights()).thenReturn(ACI_READ);
+    when(evalCtx.hasRights(ACI_READ)).thenReturn(true);
+    return evalCtx;
+  }
+}
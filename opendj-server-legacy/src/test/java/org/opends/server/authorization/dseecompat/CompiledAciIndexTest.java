@@ -0,0 +1,140 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.authorization.dseecompat.Aci.*;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.types.Entry;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class CompiledAciIndexTest extends DirectoryServerTestCase
+{
+  private static final DN PEOPLE_DN = DN.valueOf("ou=people,dc=example,dc=com");
+  private static final DN GROUPS_DN = DN.valueOf("ou=groups,dc=example,dc=com");
+  private static final DN USER_DN = DN.valueOf("uid=user.1,ou=people,dc=example,dc=com");
+
+  private Aci readPeople;
+  private Aci writePeople;
+  private Aci readGroupsTarget;
+  private Aci passwordModify;
+  private Aci globalRead;
+  private Aci globalReadGroups;
+  private AciList aciList;
+
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startServer();
+    readPeople = decode("(version 3.0; acl \"read people\"; allow(read) userdn=\"ldap:///all\";)", PEOPLE_DN);
+    writePeople = decode("(version 3.0; acl \"write people\"; allow(write) userdn=\"ldap:///self\";)", PEOPLE_DN);
+    readGroupsTarget = decode("(target=\"ldap:///" + GROUPS_DN + "\")"
+        + "(version 3.0; acl \"read groups\"; allow(read) userdn=\"ldap:///all\";)", PEOPLE_DN.parent());
+    passwordModify = decode("(extop=\"1.3.6.1.4.1.4203.1.11.1\")"
+        + "(version 3.0; acl \"password modify\"; allow(read) userdn=\"ldap:///all\";)", PEOPLE_DN.parent());
+    globalRead = decode("(targetattr=\"*\")"
+        + "(version 3.0; acl \"global read\"; allow(read,search) userdn=\"ldap:///anyone\";)", DN.rootDN());
+    globalReadGroups = decode("(target=\"ldap:///" + GROUPS_DN + "\")"
+        + "(version 3.0; acl \"global read groups\"; allow(read) userdn=\"ldap:///anyone\";)", DN.rootDN());
+
+    aciList = new AciList(DN.valueOf("cn=config"));
+    aciList.addAci(PEOPLE_DN, new TreeSet<>(Arrays.asList(readPeople, writePeople)));
+    aciList.addAci(PEOPLE_DN.parent(), new TreeSet<>(Arrays.asList(readGroupsTarget, passwordModify)));
+    aciList.addAci(DN.rootDN(), new TreeSet<>(Arrays.asList(globalRead, globalReadGroups)));
+  }
+
+  @Test
+  public void testCandidatesAreIndexedByTargetAndRights() throws Exception
+  {
+    final CompiledAciIndex index = aciList.compile();
+
+    assertThat(index.getCandidateAcis(mockMatchContext(USER_DN, ACI_READ)))
+        .containsExactly(readPeople, globalRead);
+    assertThat(index.getCandidateAcis(mockMatchContext(USER_DN, ACI_SEARCH)))
+        .containsExactly(readPeople, globalRead);
+    assertThat(index.getCandidateAcis(mockMatchContext(USER_DN, ACI_WRITE)))
+        .containsExactly(writePeople);
+    assertThat(index.getCandidateAcis(mockMatchContext(USER_DN, ACI_EXT_OP)))
+        .containsExactly(passwordModify);
+    assertThat(index.getCandidateAcis(mockMatchContext(USER_DN, ACI_CONTROL))).isEmpty();
+    assertThat(index.getCandidateAcis(mockMatchContext(GROUPS_DN, ACI_READ)))
+        .containsOnly(readGroupsTarget, globalRead, globalReadGroups);
+    assertThat(index.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testCandidatesAreApplicableSubsetOfAciListCandidates() throws Exception
+  {
+    final CompiledAciIndex index = aciList.compile();
+    for (DN dn : Arrays.asList(USER_DN, PEOPLE_DN, GROUPS_DN, DN.valueOf("dc=example,dc=com")))
+    {
+      for (int rights : new int[] { ACI_READ, ACI_SEARCH, ACI_WRITE, ACI_ADD, ACI_EXT_OP, ACI_CONTROL })
+      {
+        final AciTargetMatchContext matchCtx = mockMatchContext(dn, rights);
+        assertThat(aciList.getCandidateAcis(dn)).containsSubsequence(index.getCandidateAcis(matchCtx));
+        for (Aci aci : aciList.getCandidateAcis(dn))
+        {
+          if (!index.getCandidateAcis(matchCtx).contains(aci))
+          {
+            assertThat(Aci.isApplicable(aci, matchCtx)).as(aci.getName() + " on " + dn).isFalse();
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAciChangeChangesGeneration() throws Exception
+  {
+    final AciList acis = new AciList(DN.valueOf("cn=config"));
+    final CompiledAciIndex before = acis.compile();
+    acis.addAci(PEOPLE_DN, new TreeSet<>(Arrays.asList(readPeople)));
+    final CompiledAciIndex after = acis.compile();
+
+    assertThat(after.getGeneration()).isNotEqualTo(before.getGeneration());
+    assertThat(before.getCandidateAcis(mockMatchContext(USER_DN, ACI_READ))).isEmpty();
+    assertThat(after.getCandidateAcis(mockMatchContext(USER_DN, ACI_READ))).containsExactly(readPeople);
+  }
+
+  private Aci decode(String aci, DN dn) throws Exception
+  {
+    return Aci.decode(ByteString.valueOfUtf8(aci), dn);
+  }
+
+  private AciTargetMatchContext mockMatchContext(DN resourceDN, final int rights)
+  {
+    final AciTargetMatchContext matchCtx = mock(AciTargetMatchContext.class);
+    final Entry entry = new Entry(resourceDN, null, null, null);
+    when(matchCtx.getResourceEntry()).thenReturn(entry);
+    when(matchCtx.getRights()).thenReturn(rights);
+    for (int right : new int[] { ACI_READ, ACI_SEARCH, ACI_WRITE, ACI_ADD, ACI_EXT_OP, ACI_CONTROL })
+    {
+      when(matchCtx.hasRights(right)).thenReturn((rights & right) != 0);
+    }
+    when(matchCtx.hasRights(ACI_SEARCH | ACI_READ)).thenReturn((rights & (ACI_SEARCH | ACI_READ)) != 0);
+    return matchCtx;
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.config.ConfigConstants.*;
+import static org.opends.server.util.ServerConstants.*;
+
+import java.util.Map;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.ClientConnection;
+import org.opends.server.controls.GetEffectiveRightsRequestControl;
+import org.opends.server.core.SearchOperation;
+import org.opends.server.types.Privilege;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the searches returning all the user attributes of their entries, which
+ * are sent without access control evaluation nor filtering copy when the user
+ * has the bypass-acl privilege.
+ */
+@SuppressWarnings("javadoc")
+public class UnfilteredSearchEntriesTestCase extends AciTestCase
+{
+  private static final String user1 = "uid=user.1,ou=People,o=test";
+  private static final String user2 = "uid=user.2,ou=People,o=test";
+  private static final String user5 = "uid=user.5,ou=People,o=test";
+  private static final String virtualAttrRuleDN = "cn=Unfiltered Entries Test,cn=Virtual Attributes,cn=config";
+
+  private static final String partialReadAci = "(targetattr=\"objectClass||cn||sn||uid\")"
+      + "(version 3.0; acl \"partial read\"; allow (read, search) userdn=\"ldap:///anyone\";)";
+
+  @BeforeClass
+  public void setupClass() throws Exception
+  {
+    deleteAttrFromAdminEntry(ACCESS_HANDLER_DN, ATTR_AUTHZ_GLOBAL_ACI);
+    addEntries("o=test");
+    TestCaseUtils.applyModifications(false,
+        "dn: " + user2,
+        "changetype: modify",
+        "add: ds-privilege-name",
+        "ds-privilege-name: bypass-acl");
+    // A virtual user attribute, overridden by the real description of user.5
+    TestCaseUtils.addEntry(
+        "dn: " + virtualAttrRuleDN,
+        "objectClass: top",
+        "objectClass: ds-cfg-virtual-attribute",
+        "objectClass: ds-cfg-user-defined-virtual-attribute",
+        "cn: Unfiltered Entries Test",
+        "ds-cfg-java-class: org.opends.server.extensions.UserDefinedVirtualAttributeProvider",
+        "ds-cfg-enabled: true",
+        "ds-cfg-attribute-type: description",
+        "ds-cfg-conflict-behavior: real-overrides-virtual",
+        "ds-cfg-value: virtual description");
+  }
+
+  @AfterClass(alwaysRun = true)
+  public void tearDownClass() throws Exception
+  {
+    TestCaseUtils.deleteEntry(DN.valueOf(virtualAttrRuleDN));
+  }
+
+  @BeforeMethod
+  public void removeAcis() throws Exception
+  {
+    deleteAttrFromEntry("ou=People,o=test", "aci");
+  }
+
+  @Test
+  public void testUserWithoutBypassAclGetsFilteredAttributes() throws Exception
+  {
+    LDIFModify(makeAddLDIF("aci", "ou=People,o=test", partialReadAci), DIR_MGR_DN, PWD);
+
+    // Requesting no attribute at all also returns all the user attributes
+    for (String attrs : new String[] { "*", null })
+    {
+      Map<String, String> attrMap = getAttrMap(LDAPSearchParams(user1, PWD, null, null, null, user5, filter, attrs));
+      assertThat(attrMap).containsKeys("objectclass", "cn", "sn", "uid");
+      assertThat(attrMap).doesNotContainKeys("givenname", "l", "mail", "description", "userpassword");
+    }
+
+    // Virtual attributes are filtered too
+    Map<String, String> attrMap = getAttrMap(LDAPSearchParams(user1, PWD, null, null, null, user1, filter, "*"));
+    assertThat(attrMap).containsEntry("uid", "user.1");
+    assertThat(attrMap).doesNotContainKeys("description", "l", "userpassword");
+  }
+
+  @Test
+  public void testUserWithBypassAclGetsUnfilteredEntries() throws Exception
+  {
+    for (String bindDN : new String[] { DIR_MGR_DN, user2 })
+    {
+      // No ACI grants any access to the entries
+      Map<String, String> attrMap = getAttrMap(LDAPSearchParams(bindDN, PWD, null, null, null, user5, filter, "*"));
+      assertThat(attrMap).containsEntry("uid", "user.5")
+                         .containsEntry("mail", "user.5@test")
+                         .containsEntry("description", "user.5 description")
+                         .containsKeys("objectclass", "cn", "sn", "givenname", "l", "userpassword");
+      assertThat(attrMap).doesNotContainKeys("entrydn", "ds-privilege-name", "aclrights;entrylevel");
+
+      attrMap = getAttrMap(LDAPSearchParams(bindDN, PWD, null, null, null, user1, filter, "*"));
+      assertThat(attrMap).containsEntry("uid", "user.1")
+                         .containsEntry("description", "virtual description")
+                         .containsKeys("objectclass", "manager", "userpassword");
+      assertThat(attrMap).doesNotContainKeys("entrydn");
+    }
+  }
+
+  @Test
+  public void testRealAndVirtualAttributesOnlyControlsAreFiltered() throws Exception
+  {
+    Map<String, String> attrMap =
+        getAttrMap(LDAPSearchCtrl(DIR_MGR_DN, PWD, null, OID_REAL_ATTRS_ONLY, user1, filter, "*"));
+    assertThat(attrMap).containsEntry("uid", "user.1");
+    assertThat(attrMap).doesNotContainKeys("description");
+
+    attrMap = getAttrMap(LDAPSearchCtrl(DIR_MGR_DN, PWD, null, OID_VIRTUAL_ATTRS_ONLY, user1, filter, "*"));
+    assertThat(attrMap).containsEntry("description", "virtual description");
+    assertThat(attrMap).doesNotContainKeys("uid", "sn", "userpassword");
+  }
+
+  @Test
+  public void testGetEffectiveRightsOfUserWithBypassAcl() throws Exception
+  {
+    Map<String, String> attrMap =
+        getAttrMap(LDAPSearchParams(DIR_MGR_DN, PWD, null, "dn: " + user1, null, user5, filter, "* aclRights"));
+    assertThat(attrMap).containsEntry("uid", "user.5")
+                       .containsEntry("mail", "user.5@test")
+                       .containsKeys("aclrights;entrylevel", "aclrights;attributelevel;mail");
+
+    // The control alone does not return the rights
+    attrMap = getAttrMap(LDAPSearchCtrl(user2, PWD, null, OID_GET_EFFECTIVE_RIGHTS, user5, filter, "*"));
+    assertThat(attrMap).containsEntry("uid", "user.5")
+                       .containsEntry("description", "user.5 description")
+                       .containsKeys("objectclass", "userpassword");
+    assertThat(attrMap).doesNotContainKeys("aclrights;entrylevel");
+  }
+
+  @Test
+  public void testUnfilteredEntriesNeedBypassAclWithoutGetEffectiveRights() throws Exception
+  {
+    final AciHandler handler = new AciHandler();
+    final SearchOperation searchOperation = mock(SearchOperation.class);
+    final ClientConnection clientConnection = mock(ClientConnection.class);
+    when(searchOperation.getClientConnection()).thenReturn(clientConnection);
+    assertThat(handler.mayReturnUnfilteredEntries(searchOperation)).isFalse();
+
+    when(clientConnection.hasPrivilege(Privilege.BYPASS_ACL, searchOperation)).thenReturn(true);
+    assertThat(handler.mayReturnUnfilteredEntries(searchOperation)).isTrue();
+
+    // The geteffectiverights control adds the rights to the returned entries
+    when(searchOperation.getAttachment(OID_GET_EFFECTIVE_RIGHTS))
+        .thenReturn(new GetEffectiveRightsRequestControl(false, DN.valueOf(user1), null));
+    assertThat(handler.mayReturnUnfilteredEntries(searchOperation)).isFalse();
+  }
+}
@@ -98,6 +98,39 @@ public class DefaultIndexTest extends DirectoryServerTestCase
     assertThat(txn.read(index.getName(), valueOfUtf8("key"))).isNull();
   }
 
+  @Test
+  public void testNewIndexUsesBitmapEncoding() {
+    final State state = newState(EnumSet.of(COMPACTED));
+    final DefaultIndex newIndex = newIndex("new", 5, state);
+    newIndex.open(txn, true);
+
+    verify(state).addFlagsToIndex(txn, newIndex.getName(), COMPACTED, BITMAP);
+  }
+
+  @Test
+  public void testExistingIndexKeepsItsEncoding() {
+    final State state = newState(EnumSet.of(TRUSTED, COMPACTED));
+    final DefaultIndex existingIndex = newIndex("existing", 5, state);
+    txn.openTree(existingIndex.getName(), true);
+    txn.put(existingIndex.getName(), valueOfUtf8("key"), CODEC_V2.encode(newDefinedSet(1)));
+    existingIndex.open(txn, true);
+
+    verify(state, never()).addFlagsToIndex(txn, existingIndex.getName(), COMPACTED, BITMAP);
+    assertIdsEquals(existingIndex.get(txn, valueOfUtf8("key")), 1);
+  }
+
+  @Test
+  public void testRebuiltIndexUsesBitmapEncoding() {
+    final State state = newState(EnumSet.of(TRUSTED, COMPACTED));
+    final DefaultIndex rebuiltIndex = newIndex("rebuilt", 5, state);
+    txn.openTree(rebuiltIndex.getName(), true);
+    txn.put(rebuiltIndex.getName(), valueOfUtf8("key"), CODEC_V2.encode(newDefinedSet(1)));
+    rebuiltIndex.open(txn, true);
+    rebuiltIndex.delete(txn);
+
+    verify(state).addFlagsToIndex(txn, rebuiltIndex.getName(), COMPACTED, BITMAP);
+  }
+
   private void update(EntryIDSet deletedIDSet, EntryIDSet addedIDSet) {
     index.update(txn, valueOfUtf8("key"), deletedIDSet, addedIDSet);
   }
@@ -116,9 +149,19 @@ public class DefaultIndexTest extends DirectoryServerTestCase
   }
 
   private static DefaultIndex newIndex(String name, int indexLimit, EnumSet<IndexFlag> indexFlags)
+  {
+    return newIndex(name, indexLimit, newState(indexFlags));
+  }
+
+  private static State newState(EnumSet<IndexFlag> indexFlags)
   {
     final State state = mock(State.class);
     when(state.getIndexFlags(any(ReadableTransaction.class), any(TreeName.class))).thenReturn(indexFlags);
+    return state;
+  }
+
+  private static DefaultIndex newIndex(String name, int indexLimit, State state)
+  {
     final CryptoSuite cryptoSuite = mock(CryptoSuite.class);
     when(cryptoSuite.isEncrypted()).thenReturn(false);
     return new DefaultIndex(new TreeName("dc=example,dc=com", name), state, indexLimit, mock(EntryContainer.class),
@@ -251,7 +294,10 @@ public class DefaultIndexTest extends DirectoryServerTestCase
     @Override
     public void openTree(TreeName name, boolean createOnDemand)
     {
-      storage.put(name, new TreeMap<ByteString, ByteString>());
+      if (!storage.containsKey(name))
+      {
+        storage.put(name, new TreeMap<ByteString, ByteString>());
+      }
     }
 
     @Override
@@ -292,7 +292,125 @@ public class EntryIDSetTest extends DirectoryServerTestCase
 
   @DataProvider(name = "codecs")
   public static Object[][] codecs() {
-     return new Object[][] { { CODEC_V1 }, { CODEC_V2 } };
+     return new Object[][] { { CODEC_V1 }, { CODEC_V2 }, { CODEC_V4 } };
+  }
+
+  @Test
+  public void testCodecV4LargeSets()
+  {
+    final long[] dense = range(1, 200000, 1);
+    final EntryIDSet decodedDense = CODEC_V4.decode(KEY, CODEC_V4.encode(newDefinedSet(dense)));
+    assertThat(decodedDense.toLongArray()).isEqualTo(dense);
+    assertThat(CODEC_V4.encode(newDefinedSet(dense)).length())
+        .isLessThan(CODEC_V2.encode(newDefinedSet(dense)).length() / 4);
+
+    final long[] sparse = concat(range(3, 30000, 7), range(1L << 33, (1L << 33) + 100000, 3));
+    assertThat(CODEC_V4.decode(KEY, CODEC_V4.encode(newDefinedSet(sparse))).toLongArray()).isEqualTo(sparse);
+  }
+
+  @Test
+  public void testBitmapAddRemoveContains()
+  {
+    final EntryIDSet set = newBitmapSet(range(1, 10000, 2));
+    assertThat(set.size()).isEqualTo(5000);
+    assertThat(set.contains(id(3))).isTrue();
+    assertThat(set.contains(id(4))).isFalse();
+
+    assertThat(set.add(id(4))).isTrue();
+    assertThat(set.add(id(4))).isFalse();
+    assertThat(set.add(id(1L << 40))).isTrue();
+    assertThat(set.remove(id(3))).isTrue();
+    assertThat(set.remove(id(3))).isFalse();
+    assertThat(set.size()).isEqualTo(5001);
+
+    final long[] ids = set.toLongArray();
+    assertThat(ids[0]).isEqualTo(1);
+    assertThat(ids[1]).isEqualTo(4);
+    assertThat(ids[2]).isEqualTo(5);
+    assertThat(ids[ids.length - 1]).isEqualTo(1L << 40);
+    assertIdsEquals(set.iterator(), 1, 4, 5, 7, 9999, 1L << 40);
+  }
+
+  @Test
+  public void testBitmapRetainAll()
+  {
+    final long[] multiplesOf2 = range(0, 100000, 2);
+    final long[] multiplesOf3 = range(0, 100000, 3);
+    final long[] multiplesOf6 = range(0, 100000, 6);
+
+    EntryIDSet retained = newBitmapSet(multiplesOf2);
+    retained.retainAll(newBitmapSet(multiplesOf3));
+    assertThat(retained.toLongArray()).isEqualTo(multiplesOf6);
+
+    retained = newBitmapSet(multiplesOf2);
+    retained.retainAll(newDefinedSet(1, 2, 3, 4, 99998, 100001));
+    assertThat(retained.toLongArray()).isEqualTo(new long[] { 2, 4, 99998 });
+
+    retained = newDefinedSet(1, 2, 3, 4, 99998, 100001);
+    retained.retainAll(newBitmapSet(multiplesOf2));
+    assertThat(retained.toLongArray()).isEqualTo(new long[] { 2, 4, 99998 });
+
+    retained = newUndefinedSet();
+    retained.retainAll(newBitmapSet(multiplesOf3));
+    assertThat(retained.toLongArray()).isEqualTo(multiplesOf3);
+  }
+
+  @Test
+  public void testBitmapAddAllAndRemoveAll()
+  {
+    final long[] multiplesOf2 = range(0, 100000, 2);
+    final long[] odds = range(1, 100000, 2);
+
+    EntryIDSet set = newBitmapSet(multiplesOf2);
+    set.addAll(newBitmapSet(odds));
+    assertThat(set.toLongArray()).isEqualTo(range(0, 100000, 1));
+    set.removeAll(newBitmapSet(odds));
+    assertThat(set.toLongArray()).isEqualTo(multiplesOf2);
+
+    set = newDefinedSet(1, 3);
+    set.addAll(newBitmapSet(multiplesOf2));
+    assertThat(set.size()).isEqualTo(multiplesOf2.length + 2);
+    assertThat(set.contains(id(3))).isTrue();
+    set.removeAll(newDefinedSet(0, 1, 2));
+    assertThat(set.size()).isEqualTo(multiplesOf2.length - 1);
+
+    set = newDefinedSet(1, 2, 3, 4);
+    set.removeAll(newBitmapSet(multiplesOf2));
+    assertThat(set.toLongArray()).isEqualTo(new long[] { 1, 3 });
+  }
+
+  @Test
+  public void testNewSetFromUnionWithBitmaps()
+  {
+    final EntryIDSet union = newSetFromUnion(
+        Arrays.asList(newBitmapSet(range(0, 100000, 2)), newDefinedSet(1, 3), newBitmapSet(range(1, 100000, 2))));
+    assertThat(union.toLongArray()).isEqualTo(range(0, 100000, 1));
+
+    assertThat(newSetFromUnion(Arrays.asList(newBitmapSet(range(0, 100000, 2)), newUndefinedSet())).isDefined())
+        .isFalse();
+  }
+
+  private static EntryIDSet newBitmapSet(long... ids)
+  {
+    assertThat(ids.length).isGreaterThan(BITMAP_THRESHOLD);
+    return CODEC_V4.decode(KEY, CODEC_V4.encode(newDefinedSet(ids)));
+  }
+
+  private static long[] range(long from, long to, int step)
+  {
+    final long[] ids = new long[(int) ((to - from + step - 1) / step)];
+    for (int i = 0; i < ids.length; i++)
+    {
+      ids[i] = from + i * step;
+    }
+    return ids;
+  }
+
+  private static long[] concat(long[] first, long[] second)
+  {
+    final long[] ids = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, ids, first.length, second.length);
+    return ids;
   }
 
 }
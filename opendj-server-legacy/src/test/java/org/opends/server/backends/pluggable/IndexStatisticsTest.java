@@ -0,0 +1,111 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.backends.pluggable.EntryIDSet.*;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.DirectoryServerTestCase;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend", "unit" }, sequential=true)
+public class IndexStatisticsTest extends DirectoryServerTestCase
+{
+  private static final ByteString KEY1 = ByteString.valueOfUtf8("key1");
+  private static final ByteString KEY2 = ByteString.valueOfUtf8("key2");
+
+  @Test
+  public void testUnknownIndexHasNoEstimate()
+  {
+    final IndexStatistics statistics = new IndexStatistics();
+    assertThat(statistics.estimate("equality", KEY1)).isEqualTo(-1);
+    assertThat(statistics.toMonitorValues("cn")).isEmpty();
+  }
+
+  @Test
+  public void testEqualityKeysAreEstimatedIndividually()
+  {
+    final IndexStatistics statistics = new IndexStatistics();
+    statistics.record("equality", KEY1, newDefinedSet(1, 2, 3, 4, 5));
+    statistics.record("equality", KEY2, newDefinedSet(1));
+
+    assertThat(statistics.estimate("equality", KEY1)).isEqualTo(5);
+    assertThat(statistics.estimate("equality", KEY2)).isEqualTo(1);
+    // Unknown keys are estimated from the moving average
+    assertThat(statistics.estimate("equality", ByteString.valueOfUtf8("other"))).isBetween(1L, 5L);
+  }
+
+  @Test
+  public void testLimitExceededKeys()
+  {
+    final IndexStatistics statistics = new IndexStatistics();
+    statistics.record("equality", KEY1, newUndefinedSetWithKey(KEY1));
+
+    assertThat(statistics.estimate("equality", KEY1)).isEqualTo(IndexStatistics.LIMIT_EXCEEDED_ESTIMATE);
+    assertThat(statistics.toMonitorValues("cn")).containsExactly(
+        "cn.equality reads:1 avgentries:" + IndexStatistics.LIMIT_EXCEEDED_ESTIMATE + " limitexceeded:1");
+  }
+
+  @Test
+  public void testInvalidatedKeysAreEstimatedFromTheAverage()
+  {
+    final IndexStatistics statistics = new IndexStatistics();
+    statistics.record("equality", KEY1, newDefinedSet(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    statistics.record("equality", KEY2, newDefinedSet(1));
+    assertThat(statistics.hasEqualityKeys()).isTrue();
+
+    statistics.invalidate(KEY2);
+    assertThat(statistics.estimate("equality", KEY1)).isEqualTo(10);
+    assertThat(statistics.estimate("equality", KEY2)).isEqualTo(8);
+
+    statistics.invalidate(null);
+    assertThat(statistics.hasEqualityKeys()).isFalse();
+    assertThat(statistics.estimate("equality", KEY1)).isEqualTo(8);
+  }
+
+  @Test
+  public void testTrackedKeysAreBounded()
+  {
+    final IndexStatistics statistics = new IndexStatistics();
+    for (int i = 0; i < 1000; i++)
+    {
+      statistics.record("equality", ByteString.valueOfUtf8("key" + i), newDefinedSet(i));
+    }
+    // Move the average away from the number of entry IDs of the keys
+    statistics.record("equality", null, newDefinedSet(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11));
+    int nbTrackedKeys = 0;
+    for (int i = 0; i < 1000; i++)
+    {
+      if (statistics.estimate("equality", ByteString.valueOfUtf8("key" + i)) == 1)
+      {
+        nbTrackedKeys++;
+      }
+    }
+    assertThat(nbTrackedKeys).isBetween(1, 256);
+    assertThat(statistics.toMonitorValues("cn")).containsExactly("cn.equality reads:1001 avgentries:3 limitexceeded:0");
+  }
+
+  @Test
+  public void testUnusableIndexIsIgnored()
+  {
+    final IndexStatistics statistics = new IndexStatistics();
+    statistics.record("substring", null, newUndefinedSet());
+
+    assertThat(statistics.estimate("substring", null)).isEqualTo(-1);
+  }
+}
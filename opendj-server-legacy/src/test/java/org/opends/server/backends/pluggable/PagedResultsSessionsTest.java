@@ -0,0 +1,116 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.backends.pluggable.PagedResultsSessions.Session;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class PagedResultsSessionsTest extends DirectoryServerTestCase
+{
+  private static final String SIGNATURE = "1 cn=Directory Manager dc=example,dc=com sub (objectClass=*)";
+  private static final long[] ENTRY_IDS = { 5, 3, 8, 1, 9 };
+
+  private PagedResultsSessions sessions;
+
+  @BeforeMethod
+  public void setUp()
+  {
+    sessions = new PagedResultsSessions();
+    sessions.setLimits(60000, 1024 * 1024);
+  }
+
+  @Test
+  public void testCookieReferencesTheSession()
+  {
+    final Session session = sessions.add(SIGNATURE, ENTRY_IDS, true, null);
+    assertThat(session).isNotNull();
+
+    final ByteString cookie = session.newCookie(2);
+    assertThat(PagedResultsSessions.getEntryID(cookie)).isEqualTo(8);
+    assertThat(PagedResultsSessions.getIndex(cookie)).isEqualTo(2);
+    assertThat(sessions.get(cookie, SIGNATURE)).isSameAs(session);
+    assertThat(session.getEntryIDs()).isEqualTo(ENTRY_IDS);
+    assertThat(session.isCandidatesAreInScope()).isTrue();
+
+    sessions.remove(session);
+    assertThat(sessions.get(cookie, SIGNATURE)).isNull();
+    assertThat(sessions.size()).isZero();
+  }
+
+  @Test
+  public void testSessionIsNotReusedForAnotherSearch()
+  {
+    final Session session = sessions.add(SIGNATURE, ENTRY_IDS, false, null);
+    assertThat(sessions.get(session.newCookie(1), SIGNATURE + "(cn=*)")).isNull();
+  }
+
+  @Test
+  public void testEntryIDCookiesAreStillSupported()
+  {
+    final ByteString cookie = new EntryID(42).toByteString();
+    assertThat(PagedResultsSessions.getEntryID(cookie)).isEqualTo(42);
+    assertThat(PagedResultsSessions.getIndex(cookie)).isEqualTo(-1);
+    assertThat(sessions.get(cookie, SIGNATURE)).isNull();
+  }
+
+  @Test
+  public void testLeastRecentlyUsedSessionsAreEvictedBeyondMemoryLimit()
+  {
+    sessions.setLimits(60000, 4096);
+    final long[] entryIDs = new long[200];
+    final Session first = sessions.add(SIGNATURE, entryIDs, false, null);
+    final Session second = sessions.add(SIGNATURE, entryIDs, false, null);
+    // Using the first session makes the second one the least recently used
+    assertThat(sessions.get(first.newCookie(0), SIGNATURE)).isSameAs(first);
+    final Session third = sessions.add(SIGNATURE, entryIDs, false, null);
+
+    assertThat(sessions.get(second.newCookie(0), SIGNATURE)).isNull();
+    assertThat(sessions.get(first.newCookie(0), SIGNATURE)).isSameAs(first);
+    assertThat(sessions.get(third.newCookie(0), SIGNATURE)).isSameAs(third);
+  }
+
+  @Test
+  public void testCandidatesAboveMemoryLimitAreNotKept()
+  {
+    sessions.setLimits(60000, 1024);
+    assertThat(sessions.add(SIGNATURE, new long[1000], false, null)).isNull();
+  }
+
+  @Test
+  public void testDisabledSessions()
+  {
+    sessions.setLimits(0, 1024 * 1024);
+    assertThat(sessions.isEnabled()).isFalse();
+    assertThat(sessions.add(SIGNATURE, ENTRY_IDS, false, null)).isNull();
+  }
+
+  @Test
+  public void testExpiredSessionsAreEvicted() throws Exception
+  {
+    sessions.setLimits(1, 1024 * 1024);
+    final Session session = sessions.add(SIGNATURE, ENTRY_IDS, false, null);
+    Thread.sleep(10);
+    assertThat(sessions.get(session.newCookie(0), SIGNATURE)).isNull();
+    assertThat(sessions.size()).isZero();
+  }
+}
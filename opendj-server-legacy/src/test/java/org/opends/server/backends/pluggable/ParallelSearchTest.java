@@ -0,0 +1,173 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.backends.pluggable.ParallelSearch.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.backends.pluggable.ParallelSearch.Candidate;
+import org.opends.server.backends.pluggable.ParallelSearch.CandidateMatcher;
+import org.opends.server.backends.pluggable.ParallelSearch.CandidateSource;
+import org.opends.server.backends.pluggable.spi.ReadOperation;
+import org.opends.server.backends.pluggable.spi.ReadableTransaction;
+import org.opends.server.backends.pluggable.spi.Storage;
+import org.opends.server.core.SearchOperation;
+import org.opends.server.types.Entry;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class ParallelSearchTest extends DirectoryServerTestCase
+{
+  private static final int PARALLELISM = 4;
+
+  private ForkJoinPool pool;
+  private Storage storage;
+  private ReadableTransaction txn;
+  private ReadableTransaction workerTxn;
+  private SearchOperation searchOperation;
+  private Entry matchingEntry;
+  private Entry otherEntry;
+
+  @BeforeClass
+  public void createPool()
+  {
+    pool = new ForkJoinPool(PARALLELISM);
+  }
+
+  @AfterClass
+  public void shutdownPool()
+  {
+    pool.shutdown();
+  }
+
+  @BeforeMethod
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception
+  {
+    txn = mock(ReadableTransaction.class);
+    workerTxn = mock(ReadableTransaction.class);
+    searchOperation = mock(SearchOperation.class);
+    matchingEntry = mock(Entry.class);
+    otherEntry = mock(Entry.class);
+    storage = mock(Storage.class);
+    when(storage.read(any(ReadOperation.class))).thenAnswer(new Answer<Object>()
+    {
+      @Override
+      public Object answer(InvocationOnMock invocation) throws Throwable
+      {
+        return ((ReadOperation<?>) invocation.getArguments()[0]).run(workerTxn);
+      }
+    });
+  }
+
+  @Test
+  public void testMatchesAreReturnedInCandidateOrder() throws Exception
+  {
+    final int nbCandidates = 10 * CHUNK_SIZE + 17;
+    final List<Long> expected = new ArrayList<>();
+    for (long id = 1; id <= nbCandidates; id += 2)
+    {
+      expected.add(id);
+    }
+
+    try (ParallelSearch scan = newScan(nbCandidates, 0))
+    {
+      assertThat(matchingIDs(scan)).isEqualTo(expected);
+      assertThat(scan.isLookthroughLimitExceeded()).isFalse();
+    }
+    verify(storage, atLeastOnce()).read(any(ReadOperation.class));
+  }
+
+  @Test
+  public void testLookthroughLimit() throws Exception
+  {
+    try (ParallelSearch scan = newScan(10 * CHUNK_SIZE, CHUNK_SIZE + 10))
+    {
+      final List<Long> matchingIDs = matchingIDs(scan);
+      // The candidates up to the one after the limit are looked through
+      assertThat(matchingIDs).hasSize((CHUNK_SIZE + 12) / 2);
+      assertThat(scan.isLookthroughLimitExceeded()).isTrue();
+    }
+  }
+
+  @Test
+  public void testSmallSearchIsScannedWithTheSearchTransaction() throws Exception
+  {
+    try (ParallelSearch scan = newScan(CHUNK_SIZE - 1, 0))
+    {
+      assertThat(matchingIDs(scan)).hasSize(CHUNK_SIZE / 2);
+    }
+    verify(storage, never()).read(any(ReadOperation.class));
+  }
+
+  private List<Long> matchingIDs(ParallelSearch scan) throws Exception
+  {
+    final List<Long> ids = new ArrayList<>();
+    for (Candidate match = scan.nextMatch(); match != null; match = scan.nextMatch())
+    {
+      ids.add(match.getCookie().toLong());
+    }
+    return ids;
+  }
+
+  /** Creates a scan of the candidates 1 to nbCandidates, matching the odd ones. */
+  private ParallelSearch newScan(final int nbCandidates, int lookthroughLimit)
+  {
+    final CandidateSource source = new CandidateSource()
+    {
+      private long next = 1;
+
+      @Override
+      public List<Candidate> nextChunk()
+      {
+        final List<Candidate> chunk = new ArrayList<>();
+        for (; next <= nbCandidates && chunk.size() < CHUNK_SIZE; next++)
+        {
+          chunk.add(new Candidate(new EntryID(next), null));
+        }
+        return !chunk.isEmpty() ? chunk : null;
+      }
+    };
+    final CandidateMatcher matcher = new CandidateMatcher()
+    {
+      @Override
+      public Entry getEntry(ReadableTransaction txn, EntryID entryID)
+      {
+        return entryID.longValue() % 2 == 1 ? matchingEntry : otherEntry;
+      }
+
+      @Override
+      public boolean matches(Entry entry)
+      {
+        return entry == matchingEntry;
+      }
+    };
+    return new ParallelSearch(pool, PARALLELISM, storage, txn, searchOperation, source, matcher, lookthroughLimit);
+  }
+}
@@ -35,6 +35,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ConditionResult;
@@ -54,8 +55,11 @@ import org.mockito.stubbing.Answer;
 import org.opends.server.DirectoryServerTestCase;
 import org.opends.server.TestCaseUtils;
 import org.opends.server.api.ClientConnection;
+import org.opends.server.api.EntryCache;
+import org.opends.server.api.LocalBackend;
 import org.opends.server.api.LocalBackend.BackendOperation;
 import org.opends.server.backends.RebuildConfig;
+import org.opends.server.backends.pluggable.AttributeIndex.IndexFilterType;
 import org.opends.server.backends.RebuildConfig.RebuildMode;
 import org.opends.server.backends.VerifyConfig;
 import org.opends.server.backends.pluggable.spi.AccessMode;
@@ -68,6 +72,7 @@ import org.opends.server.backends.pluggable.spi.WriteOperation;
 import org.opends.server.backends.pluggable.spi.WriteableTransaction;
 import org.opends.server.core.AddOperation;
 import org.opends.server.core.DeleteOperation;
+import org.opends.server.core.DirectoryServer;
 import org.opends.server.core.ModifyDNOperation;
 import org.opends.server.core.ModifyOperation;
 import org.opends.server.core.SearchOperation;
@@ -122,6 +127,7 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
   private String[] backendVlvIndexes = { "people" };
   private AttributeType modifyAttribute;
   private final ByteString modifyValue = ByteString.valueOfUtf8("foo");
+  private static final int NB_PLANNER_ENTRIES = 20;
   private BackupDirectory backupDirectory;
 
   /**
@@ -768,6 +774,253 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     }
   }
 
+  @Test
+  public void testWriteBatch() throws Exception
+  {
+    final Entry entry1 = newBatchEntry("batch.1");
+    final Entry entry2 = newBatchEntry("batch.2");
+    assertTrue(backend.supportsWriteBatches());
+    backend.executeWriteBatch(new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        addEntry(entry1);
+        addEntry(entry2);
+        try
+        {
+          // reads see the uncommitted updates of the batch
+          assertNotNull(backend.getEntry(entry1.getName()));
+        }
+        catch (DirectoryException e)
+        {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+
+    try
+    {
+      final List<Entry> returnedEntries = new ArrayList<>();
+      backend.search(createSearchOperation(
+          testBaseDN, SearchScope.WHOLE_SUBTREE, "(sn=Batch)", returnedEntries));
+      assertThat(returnedEntries).hasSize(2);
+    }
+    finally
+    {
+      backend.deleteEntry(entry1.getName(), mock(DeleteOperation.class));
+      backend.deleteEntry(entry2.getName(), mock(DeleteOperation.class));
+    }
+  }
+
+  @Test
+  public void testWriteBatchIsRolledBackAsAWhole() throws Exception
+  {
+    final Entry entry = newBatchEntry("batch.3");
+    final Entry existingEntry = workEntries.get(0);
+    try
+    {
+      backend.executeWriteBatch(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          addEntry(entry);
+          try
+          {
+            addEntry(existingEntry);
+            fail("Expected the add of an existing entry to fail");
+          }
+          catch (RuntimeException expected)
+          {
+            // the batch can no longer be committed
+          }
+        }
+      });
+      fail("Expected the write batch to be rolled back");
+    }
+    catch (DirectoryException expected)
+    {
+      assertNull(backend.getEntry(entry.getName()));
+    }
+  }
+
+  @Test
+  public void testRolledBackWriteBatchLeavesEntryCacheClean() throws Exception
+  {
+    final Entry entry = newBatchEntry("batch.4");
+    final Entry existingEntry = workEntries.get(0);
+    final Set<DN> cachedDNs = Collections.synchronizedSet(new HashSet<DN>());
+    final EntryCache<?> previousEntryCache = DirectoryServer.getEntryCache();
+    DirectoryServer.setEntryCache(newRecordingEntryCache(cachedDNs));
+    try
+    {
+      backend.executeWriteBatch(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          addEntry(entry);
+          try
+          {
+            // both reads join the batch transaction and populate the entry cache
+            assertNotNull(backend.getEntry(entry.getName()));
+            assertNotNull(backend.getEntry(existingEntry.getName()));
+          }
+          catch (DirectoryException e)
+          {
+            throw new RuntimeException(e);
+          }
+          assertThat(cachedDNs).contains(entry.getName(), existingEntry.getName());
+          try
+          {
+            addEntry(existingEntry);
+            fail("Expected the add of an existing entry to fail");
+          }
+          catch (RuntimeException expected)
+          {
+            // the batch can no longer be committed
+          }
+        }
+      });
+      fail("Expected the write batch to be rolled back");
+    }
+    catch (DirectoryException expected)
+    {
+      assertThat(cachedDNs).isEmpty();
+    }
+    finally
+    {
+      DirectoryServer.setEntryCache(previousEntryCache);
+    }
+  }
+
+  @Test
+  public void testActionsAfterWriteBatchOnlyRunOnceCommitted() throws Exception
+  {
+    final Entry entry = newBatchEntry("batch.5");
+    final List<String> actions = Collections.synchronizedList(new ArrayList<String>());
+    try
+    {
+      backend.executeWriteBatch(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          addEntry(entry);
+          LocalBackend.runAfterWriteBatch(newRecordingAction(actions, "committed"));
+          assertThat(actions).isEmpty();
+        }
+      });
+      assertThat(actions).containsExactly("committed");
+    }
+    finally
+    {
+      backend.deleteEntry(entry.getName(), mock(DeleteOperation.class));
+    }
+
+    // outside of a write batch, actions run right away
+    LocalBackend.runAfterWriteBatch(newRecordingAction(actions, "immediate"));
+    assertThat(actions).containsExactly("committed", "immediate");
+  }
+
+  @Test
+  public void testActionsAfterRolledBackWriteBatchAreDiscarded() throws Exception
+  {
+    final Entry entry = newBatchEntry("batch.6");
+    final Entry existingEntry = workEntries.get(0);
+    final List<String> actions = Collections.synchronizedList(new ArrayList<String>());
+    try
+    {
+      backend.executeWriteBatch(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          addEntry(entry);
+          LocalBackend.runAfterWriteBatch(newRecordingAction(actions, "rolled back"));
+          try
+          {
+            addEntry(existingEntry);
+            fail("Expected the add of an existing entry to fail");
+          }
+          catch (RuntimeException expected)
+          {
+            // the batch can no longer be committed
+          }
+        }
+      });
+      fail("Expected the write batch to be rolled back");
+    }
+    catch (DirectoryException expected)
+    {
+      assertThat(actions).isEmpty();
+    }
+  }
+
+  private Runnable newRecordingAction(final List<String> actions, final String name)
+  {
+    return new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        actions.add(name);
+      }
+    };
+  }
+
+  /** Returns an entry cache mock keeping track of the DNs of the entries it holds. */
+  private EntryCache<?> newRecordingEntryCache(final Set<DN> cachedDNs)
+  {
+    final Answer<Boolean> put = new Answer<Boolean>()
+    {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) throws Throwable
+      {
+        return cachedDNs.add(((Entry) invocation.getArguments()[0]).getName());
+      }
+    };
+    final EntryCache<?> entryCache = mock(EntryCache.class);
+    doAnswer(put).when(entryCache).putEntry(any(Entry.class), anyString(), anyLong());
+    doAnswer(put).when(entryCache).putEntryIfAbsent(any(Entry.class), anyString(), anyLong());
+    doAnswer(new Answer<Void>()
+    {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable
+      {
+        cachedDNs.remove(invocation.getArguments()[0]);
+        return null;
+      }
+    }).when(entryCache).removeEntry(any(DN.class));
+    return entryCache;
+  }
+
+  private Entry newBatchEntry(String uid) throws Exception
+  {
+    return TestCaseUtils.makeEntry(
+        "dn: uid=" + uid + ",ou=People," + testBaseDN,
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: " + uid,
+        "cn: " + uid,
+        "sn: Batch");
+  }
+
+  private void addEntry(Entry entry)
+  {
+    try
+    {
+      backend.addEntry(entry, mock(AddOperation.class));
+    }
+    catch (Exception e)
+    {
+      throw new RuntimeException(e);
+    }
+  }
+
   private void deleteEntry(DN dn) throws Exception
   {
     DeleteOperation op = mock(DeleteOperation.class);
@@ -823,6 +1076,15 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     assertThat(runSearch(request, false)).isEmpty();
   }
 
+  @Test
+  public void testVirtualAttributeOverriddenByRealValuesIsIndexed() throws Exception
+  {
+    // The entryUUID virtual attribute rule lets the real values override the virtual ones
+    final String debugSearchIndex = debugSearchIndex("(entryUUID=" + UUID.randomUUID() + ")");
+    assertThat(debugSearchIndex).contains("[INDEX:entryUUID.");
+    assertThat(debugSearchIndex).doesNotContain("[VIRTUAL:", "[NOT-INDEXED]");
+  }
+
   @DataProvider
   protected Object[][] subStringSearchFilter()
   {
@@ -843,6 +1105,152 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     assertThat(runSearch(request, false)).hasSize(numberOfEntries);
   }
 
+  @Test
+  public void testFilterUsingNegatedComponent() throws Exception
+  {
+    final int nbEntriesWithSn = runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "sn=*"), false).size();
+    final int nbMatchingEntries =
+        runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "sn=abadines"), false).size();
+    assertThat(nbMatchingEntries).isEqualTo(1);
+
+    SearchRequest request = newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "(&(sn=*)(!(sn=abadines)))");
+    assertThat(runSearch(request, false)).hasSize(nbEntriesWithSn - nbMatchingEntries);
+
+    // Attribute options are not indexed: the negated component must not remove any candidate
+    request = newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "(&(sn=*)(!(sn;lang-fr=abadines)))");
+    assertThat(runSearch(request, false)).hasSize(nbEntriesWithSn);
+  }
+
+  @Test
+  public void testPlannerReadsMostSelectiveComponentFirst() throws Exception
+  {
+    final List<Entry> planEntries = addPlannerEntries();
+    try
+    {
+      // Warm up the statistics of the indexes
+      assertThat(runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "sn=Planner"), false))
+          .hasSize(NB_PLANNER_ENTRIES);
+      assertThat(runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "uid=plan.3"), false)).hasSize(1);
+
+      assertThat(debugSearchIndex("(&(sn=Planner)(uid=plan.3))"))
+          .contains("[PLAN:(uid=plan.3):1,(sn=Planner):" + NB_PLANNER_ENTRIES + "]");
+      assertThat(runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "(&(sn=Planner)(uid=plan.3))"),
+          false)).hasSize(1);
+    }
+    finally
+    {
+      deleteEntries(planEntries);
+    }
+  }
+
+  @Test
+  public void testPlannerPrunesUnselectiveComponents() throws Exception
+  {
+    final List<Entry> planEntries = addPlannerEntries();
+    try
+    {
+      assertThat(runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "sn=Planner"), false))
+          .hasSize(NB_PLANNER_ENTRIES);
+      // Make the presence index look like it is matching far more entries than the equality index
+      final AttributeIndex snIndex = getAttributeIndex("sn");
+      snIndex.getStatistics().record(IndexFilterType.PRESENCE.toString(), null,
+          EntryIDSet.newUndefinedSetWithKey(AttributeIndex.PRESENCE_KEY));
+
+      final String debugSearchIndex = debugSearchIndex("(&(sn=Planner)(sn=*))");
+      assertThat(debugSearchIndex).contains("[PLAN:(sn=Planner):" + NB_PLANNER_ENTRIES + ",(sn=*):", "(sn=*)[PRUNED]");
+      // The pruned component is still checked against the candidate entries
+      assertThat(runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "(&(sn=Planner)(sn=*))"), false))
+          .hasSize(NB_PLANNER_ENTRIES);
+    }
+    finally
+    {
+      deleteEntries(planEntries);
+    }
+  }
+
+  @Test
+  public void testStatisticsOfChangedKeysAreInvalidated() throws Exception
+  {
+    final List<Entry> planEntries = addPlannerEntries();
+    try
+    {
+      final AttributeIndex snIndex = getAttributeIndex("sn");
+      final IndexStatistics statistics = snIndex.getStatistics();
+      final String equality = IndexFilterType.EQUALITY.toString();
+      final ByteString key = snIndex.getStatisticsKey(ByteString.valueOfUtf8("Planner"));
+      assertThat(runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "sn=Planner"), false))
+          .hasSize(NB_PLANNER_ENTRIES);
+      assertThat(statistics.estimate(equality, key)).isEqualTo(NB_PLANNER_ENTRIES);
+      // The statistics are keyed by normalized value
+      assertThat(statistics.estimate(equality, snIndex.getStatisticsKey(ByteString.valueOfUtf8("PLANNER"))))
+          .isEqualTo(NB_PLANNER_ENTRIES);
+
+      // Remember an estimate of the key which the moving average cannot reach
+      statistics.record(equality, key, EntryIDSet.newUndefinedSetWithKey(key));
+      final Entry entry = newPlannerEntry(NB_PLANNER_ENTRIES);
+      addEntry(entry);
+      planEntries.add(entry);
+      assertThat(statistics.estimate(equality, key)).isLessThan(IndexStatistics.LIMIT_EXCEEDED_ESTIMATE);
+
+      assertThat(runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "sn=Planner"), false))
+          .hasSize(NB_PLANNER_ENTRIES + 1);
+      assertThat(statistics.estimate(equality, key)).isEqualTo(NB_PLANNER_ENTRIES + 1);
+    }
+    finally
+    {
+      deleteEntries(planEntries);
+    }
+  }
+
+  private List<Entry> addPlannerEntries() throws Exception
+  {
+    final List<Entry> planEntries = new ArrayList<>();
+    for (int i = 0; i < NB_PLANNER_ENTRIES; i++)
+    {
+      final Entry entry = newPlannerEntry(i);
+      addEntry(entry);
+      planEntries.add(entry);
+    }
+    return planEntries;
+  }
+
+  private Entry newPlannerEntry(int i) throws Exception
+  {
+    return TestCaseUtils.makeEntry(
+        "dn: uid=plan." + i + ",ou=People," + testBaseDN,
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: plan." + i,
+        "cn: plan." + i,
+        "sn: Planner");
+  }
+
+  private void deleteEntries(List<Entry> entries) throws Exception
+  {
+    for (Entry entry : entries)
+    {
+      backend.deleteEntry(entry.getName(), mock(DeleteOperation.class));
+    }
+  }
+
+  private AttributeIndex getAttributeIndex(String attributeName)
+  {
+    final AttributeType attributeType = TestCaseUtils.getServerContext().getSchema().getAttributeType(attributeName);
+    return backend.getRootContainer().getEntryContainer(testBaseDN).getAttributeIndex(attributeType);
+  }
+
+  private String debugSearchIndex(String filter) throws Exception
+  {
+    final SearchRequest request = newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, filter)
+        .addAttribute(SuffixContainer.ATTR_DEBUG_SEARCH_INDEX);
+    final List<SearchResultEntry> result = runSearch(request, false);
+    assertThat(result).hasSize(1);
+    return result.get(0).getAllAttributes(SuffixContainer.ATTR_DEBUG_SEARCH_INDEX).iterator().next()
+        .iterator().next().toString();
+  }
+
   @Test
   public void testSearchIsConsideredUnindexedBasedOnLookThroughLimit() throws DirectoryException {
     final int nbEntries = topEntries.size() + entries.size() + workEntries.size();
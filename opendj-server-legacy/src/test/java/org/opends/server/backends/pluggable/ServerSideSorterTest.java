@@ -0,0 +1,93 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.backends.pluggable.spi.SequentialCursor;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class ServerSideSorterTest extends DirectoryServerTestCase
+{
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @DataProvider
+  public Object[][] memoryLimits()
+  {
+    return new Object[][] {
+      { ServerSideSorter.DEFAULT_MEMORY_LIMIT, false },
+      // Spills the records to several runs
+      { 4096, true },
+    };
+  }
+
+  @Test(dataProvider = "memoryLimits")
+  public void testRecordsAreReturnedInSortKeyOrder(int memoryLimit, boolean spilled) throws Exception
+  {
+    final int nbRecords = 1000;
+    final Random random = new Random(0);
+    try (ServerSideSorter sorter = new ServerSideSorter("sorterTest", memoryLimit))
+    {
+      for (long id = 1; id <= nbRecords; id++)
+      {
+        sorter.add(sortKey(random.nextInt(100), id), new EntryID(id));
+      }
+      assertThat(sorter.size()).isEqualTo(nbRecords);
+      assertThat(sorter.isSpilled()).isEqualTo(spilled);
+
+      final List<ByteString> sortKeys = new ArrayList<>();
+      final SequentialCursor<ByteString, EntryID> cursor = sorter.flip();
+      while (cursor.next())
+      {
+        final long sortKeyEntryID = cursor.getKey().subSequence(4, 12).toByteString().toLong();
+        assertThat(sortKeyEntryID).isEqualTo(cursor.getValue().longValue());
+        sortKeys.add(cursor.getKey());
+      }
+      assertThat(sortKeys).hasSize(nbRecords).isSorted();
+    }
+  }
+
+  @Test
+  public void testEmptySort() throws Exception
+  {
+    try (ServerSideSorter sorter = new ServerSideSorter("sorterTest", 4096))
+    {
+      assertThat(sorter.flip().next()).isFalse();
+    }
+  }
+
+  /** Mimics the VLV keys, where the entry ID follows the encoded sort values. */
+  private ByteString sortKey(int value, long entryID)
+  {
+    return new ByteStringBuilder().appendInt(value).appendLong(entryID).toByteString();
+  }
+}
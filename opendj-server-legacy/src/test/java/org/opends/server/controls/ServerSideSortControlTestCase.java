@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.SearchScope;
@@ -39,6 +40,7 @@ import org.testng.annotations.Test;
 import static org.opends.server.TestCaseUtils.*;
 import static org.opends.server.protocols.internal.InternalClientConnection.*;
 import static org.opends.server.protocols.internal.Requests.*;
+import static org.opends.server.util.ServerConstants.*;
 import static org.testng.Assert.*;
 
 /**
@@ -394,6 +396,96 @@ public class ServerSideSortControlTestCase
     assertNoAttributeTypeForSort(internalSearch);
   }
 
+  /**
+   * Tests performing an unindexed internal search using the server-side sort
+   * control, returning the entries one page at a time.
+   *
+   * @throws  Exception  If an unexpected problem occurred.
+   */
+  @Test
+  public void testUnindexedSearchWithSortAndPagedResults() throws Exception
+  {
+    populateDB();
+
+    List<DN> expectedDNOrder = Arrays.asList(
+        aaccfJohnsonDN,    // Aaccf
+        aaronZimmermanDN,  // Aaron
+        albertZimmermanDN, // Albert, lower entry ID
+        albertSmithDN,     // Albert, higher entry ID
+        lowercaseMcGeeDN,  // lowercase
+        margaretJonesDN,   // Maggie
+        maryJonesDN,       // Mary
+        samZweckDN,        // Sam
+        zorroDN);          // No first name
+    List<DN> dns = new ArrayList<>();
+    ByteString cookie = ByteString.empty();
+    int nbPages = 0;
+    // There is no ordering index for cn, and the scope cannot be used instead
+    // as it holds more entries than the lookthrough limit: the search is unindexed.
+    int lookthroughLimit = getRootConnection().getLookthroughLimit();
+    getRootConnection().setLookthroughLimit(expectedDNOrder.size());
+    try
+    {
+      do
+      {
+        SearchRequest request = newSearchRequest("dc=example,dc=com", SearchScope.WHOLE_SUBTREE, "(cn>=A)")
+            .addControl(new ServerSideSortRequestControl("givenName"))
+            .addControl(new PagedResultsControl(false, 4, cookie));
+        InternalSearchOperation internalSearch = getRootConnection().processSearch(request);
+        assertEquals(internalSearch.getResultCode(), ResultCode.SUCCESS);
+        nbPages++;
+
+        List<DN> page = getDNs(internalSearch.getSearchEntries());
+        dns.addAll(page);
+        List<Control> responseControls = internalSearch.getResponseControls();
+        assertEquals(responseControls.size(), 2);
+        assertEquals(getServerSideSortResponseControl(responseControls).getResultCode(),
+            ResultCode.SUCCESS.intValue());
+        cookie = getPagedResultsControl(responseControls).getCookie();
+        assertEquals(cookie.length() == 0, dns.size() == expectedDNOrder.size(), "Unexpected cookie after " + page);
+      }
+      while (cookie.length() != 0 && nbPages < expectedDNOrder.size());
+    }
+    finally
+    {
+      getRootConnection().setLookthroughLimit(lookthroughLimit);
+    }
+
+    assertEquals(nbPages, 3);
+    assertEquals(dns, expectedDNOrder);
+  }
+
+  /**
+   * Tests performing an unindexed internal search using the server-side sort
+   * control which looks through more entries than allowed.
+   *
+   * @throws  Exception  If an unexpected problem occurred.
+   */
+  @Test
+  public void testUnindexedSearchWithSortLookthroughLimitExceeded() throws Exception
+  {
+    populateDB();
+
+    // The scope holds more entries than the lookthrough limit, so the search is unindexed.
+    int lookthroughLimit = getRootConnection().getLookthroughLimit();
+    getRootConnection().setLookthroughLimit(5);
+    try
+    {
+      SearchRequest request = newSearchRequest("dc=example,dc=com", SearchScope.WHOLE_SUBTREE, "(cn>=A)")
+          .addControl(new ServerSideSortRequestControl("givenName"));
+      InternalSearchOperation internalSearch = getRootConnection().processSearch(request);
+      assertEquals(internalSearch.getResultCode(), ResultCode.ADMIN_LIMIT_EXCEEDED);
+      assertEquals(internalSearch.getSearchEntries().size(), 0);
+
+      ServerSideSortResponseControl responseControl = getServerSideSortResponseControl(internalSearch);
+      assertEquals(responseControl.getResultCode(), ResultCode.ADMIN_LIMIT_EXCEEDED.intValue());
+    }
+    finally
+    {
+      getRootConnection().setLookthroughLimit(lookthroughLimit);
+    }
+  }
+
   /**
    * Tests performing an internal search using the CRITICAL server-side sort control with
    * an undefined attribute type.
@@ -471,7 +563,7 @@ public class ServerSideSortControlTestCase
   private ServerSideSortResponseControl getServerSideSortResponseControl(List<Control> responseControls)
       throws DirectoryException
   {
-    Control c = responseControls.get(0);
+    Control c = getResponseControl(responseControls, OID_SERVER_SIDE_SORT_RESPONSE_CONTROL);
     if (c instanceof ServerSideSortResponseControl)
     {
       return (ServerSideSortResponseControl) c;
@@ -479,6 +571,29 @@ public class ServerSideSortControlTestCase
     return ServerSideSortResponseControl.DECODER.decode(c.isCritical(), ((LDAPControl) c).getValue());
   }
 
+  private PagedResultsControl getPagedResultsControl(List<Control> responseControls) throws DirectoryException
+  {
+    Control c = getResponseControl(responseControls, OID_PAGED_RESULTS_CONTROL);
+    if (c instanceof PagedResultsControl)
+    {
+      return (PagedResultsControl) c;
+    }
+    return PagedResultsControl.DECODER.decode(c.isCritical(), ((LDAPControl) c).getValue());
+  }
+
+  private Control getResponseControl(List<Control> responseControls, String oid)
+  {
+    for (Control c : responseControls)
+    {
+      if (c.getOID().equals(oid))
+      {
+        return c;
+      }
+    }
+    fail("Expected a response control with OID " + oid + " in " + responseControls);
+    return null;
+  }
+
   private ArrayList<DN> getDNs(LinkedList<SearchResultEntry> searchEntries)
   {
     ArrayList<DN> results = new ArrayList<>();
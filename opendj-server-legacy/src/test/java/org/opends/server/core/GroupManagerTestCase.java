@@ -21,6 +21,8 @@ import java.util.List;
 import java.util.Set;
 
 import org.forgerock.opendj.ldap.DN;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.RDN;
 import org.forgerock.opendj.ldap.SearchScope;
@@ -46,10 +48,12 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import static org.forgerock.opendj.ldap.ModificationType.*;
+import static org.mockito.Mockito.*;
 import static org.forgerock.opendj.ldap.requests.Requests.*;
 import static org.opends.server.protocols.internal.InternalClientConnection.*;
 import static org.opends.server.protocols.internal.Requests.*;
 import static org.opends.server.types.NullOutputStream.nullPrintStream;
+import static org.opends.server.util.CollectionUtils.*;
 import static org.opends.server.util.ServerConstants.*;
 import static org.testng.Assert.*;
 
@@ -200,6 +204,127 @@ public class GroupManagerTestCase
     assertTrue(group1Instance.isMember(user5DN));
   }
 
+  /**
+   * Tests the retrieval of the groups of a member through the reverse
+   * membership index, with nested static groups and a nested dynamic group.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test
+  public void testGroupDNsOfMember() throws Exception {
+    TestCaseUtils.initializeTestBackend(true);
+    GroupManager groupManager = DirectoryServer.getGroupManager();
+    groupManager.deregisterAllGroups();
+    addNestedGroupTestEntries();
+    DN group1DN = DN.valueOf("cn=group 1,ou=Groups,o=test");
+    DN group2DN = DN.valueOf("cn=group 2,ou=Groups,o=test");
+    DN group3DN = DN.valueOf("cn=group 3,ou=Groups,o=test");
+    DN group4DN = DN.valueOf("cn=group 4,ou=Groups,o=test");
+    DN user1DN = DN.valueOf("uid=user.1,ou=People,o=test");
+    DN user3DN = DN.valueOf("uid=user.3,ou=People,o=test");
+    DN user5DN = DN.valueOf("uid=user.5,ou=People,o=test");
+    Group<?> group1Instance = groupManager.getGroupInstance(group1DN);
+    Group<?> group2Instance = groupManager.getGroupInstance(group2DN);
+    Group<?> group3Instance = groupManager.getGroupInstance(group3DN);
+    group1Instance.addNestedGroup(group2DN);
+    group2Instance.addNestedGroup(group3DN);
+    group3Instance.addNestedGroup(group4DN);
+    group1Instance.addMember(DirectoryServer.getEntry(user1DN));
+    group3Instance.addMember(DirectoryServer.getEntry(user3DN));
+
+    assertEquals(groupManager.getGroupDNsOfMember(user1DN), newHashSet(group1DN));
+    assertEquals(groupManager.getGroupDNsOfMember(DirectoryServer.getEntry(user3DN)),
+        newHashSet(group3DN, group2DN, group1DN));
+    //User 5 only matches the URL of the dynamic group "group 4".
+    assertEquals(groupManager.getGroupDNsOfMember(DirectoryServer.getEntry(user5DN)),
+        newHashSet(group4DN, group3DN, group2DN, group1DN));
+    assertTrue(groupManager.isMember(group1Instance, user3DN));
+    assertFalse(groupManager.isMember(group2Instance, user1DN));
+
+    group2Instance.removeNestedGroup(group3DN);
+    assertEquals(groupManager.getGroupDNsOfMember(user3DN), newHashSet(group3DN));
+    assertFalse(groupManager.isMember(group1Instance, user3DN));
+  }
+
+  /**
+   * Tests that the members removed while the members of a group are being
+   * indexed are not left in the membership index.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test
+  public void testMemberRemovedWhileIndexingGroup() throws Exception {
+    final GroupManager groupManager = DirectoryServer.getGroupManager();
+    groupManager.deregisterAllGroups();
+    final DN groupDN = DN.valueOf("cn=indexed,ou=Groups,o=test");
+    final DN user1DN = DN.valueOf("uid=user.1,ou=People,o=test");
+    final DN user2DN = DN.valueOf("uid=user.2,ou=People,o=test");
+    final Group<?> group = mock(Group.class);
+    when(group.getGroupDN()).thenReturn(groupDN);
+    when(group.hasExplicitMemberList()).thenReturn(true);
+    when(group.getExplicitMemberDNs()).thenAnswer(new Answer<List<DN>>()
+    {
+      @Override
+      public List<DN> answer(InvocationOnMock invocation) throws Throwable
+      {
+        // The member list is read, then user 1 is removed before the group manager gets it
+        List<DN> memberDNs = newArrayList(user1DN, user2DN);
+        groupManager.memberRemoved(group, user1DN);
+        return memberDNs;
+      }
+    });
+
+    try
+    {
+      groupManager.indexGroup(group);
+      assertEquals(groupManager.getGroupDNsOfMember(user1DN), newHashSet());
+      assertEquals(groupManager.getGroupDNsOfMember(user2DN), newHashSet(groupDN));
+
+      // Once indexed, the changes are applied directly
+      groupManager.memberAdded(group, user1DN);
+      assertEquals(groupManager.getGroupDNsOfMember(user1DN), newHashSet(groupDN));
+    }
+    finally
+    {
+      groupManager.deregisterAllGroups();
+    }
+  }
+
+  /**
+   * Tests that the groups keeping their members in memory are checked by DN
+   * when looking for the groups of an entry.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test
+  public void testGroupsWithCachedMembersAreCheckedByDN() throws Exception {
+    GroupManager groupManager = DirectoryServer.getGroupManager();
+    groupManager.deregisterAllGroups();
+    DN groupDN = DN.valueOf("cn=cached,ou=Groups,o=test");
+    Entry userEntry = TestCaseUtils.makeEntry(
+        "dn: uid=user.1,ou=People,o=test",
+        "objectClass: top",
+        "objectClass: person",
+        "uid: user.1",
+        "cn: User 1",
+        "sn: 1");
+    Group<?> group = mock(Group.class);
+    when(group.getGroupDN()).thenReturn(groupDN);
+    when(group.hasCachedMembers()).thenReturn(true);
+    when(group.isMember(userEntry.getName())).thenReturn(true);
+
+    try
+    {
+      groupManager.indexGroup(group);
+      assertEquals(groupManager.getGroupDNsOfMember(userEntry), newHashSet(groupDN));
+      verify(group, never()).isMember(any(Entry.class));
+    }
+    finally
+    {
+      groupManager.deregisterAllGroups();
+    }
+  }
+
   /**
    * Invokes membership and nested group APIs using a group instance that has
    * been changed by the group manager via ldap modify.
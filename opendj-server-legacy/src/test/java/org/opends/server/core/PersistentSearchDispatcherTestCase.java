@@ -0,0 +1,284 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.core;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.ClientConnection;
+import org.opends.server.api.LocalBackend;
+import org.opends.server.controls.PersistentSearchChangeType;
+import org.opends.server.types.Control;
+import org.opends.server.types.DisconnectReason;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchFilter;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/** A set of test cases for the persistent search dispatcher. */
+@SuppressWarnings("javadoc")
+public class PersistentSearchDispatcherTestCase extends CoreTestCase
+{
+  private static final long TIMEOUT_MILLIS = 10000;
+
+  private final LocalBackend<?> backend = mock(LocalBackend.class);
+  private final LocalBackend<?> otherBackend = mock(LocalBackend.class);
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @Test
+  public void testMatchingChangesAreSentSynchronouslyByDefault() throws Exception
+  {
+    final PersistentSearchDispatcher dispatcher = new PersistentSearchDispatcher();
+    final LocalBackend<?> synchronousBackend = mock(LocalBackend.class);
+    try
+    {
+      final SearchOperation searchOperation = mockSearch(5, "(uid=user.1)");
+      final PersistentSearch psearch = newPersistentSearch(searchOperation);
+      when(synchronousBackend.getPersistentSearches()).thenReturn(new ArrayDeque<>(Arrays.asList(psearch)));
+      dispatcher.register(psearch, synchronousBackend);
+
+      final Entry user1 = makeUser("user.1");
+      dispatcher.processAdd(synchronousBackend, user1);
+      dispatcher.processAdd(synchronousBackend, makeUser("user.2"));
+
+      verify(searchOperation).returnEntry(same(user1), anyListOf(Control.class));
+      verify(searchOperation, times(1)).returnEntry(any(Entry.class), anyListOf(Control.class));
+    }
+    finally
+    {
+      dispatcher.shutdown();
+    }
+  }
+
+  @Test
+  public void testMatchingChangesAreSent() throws Exception
+  {
+    final PersistentSearchDispatcher dispatcher = newAsynchronousDispatcher();
+    try
+    {
+      final SearchOperation byValue = mockSearch(1, "(&(objectClass=person)(uid=user.1))");
+      final SearchOperation byBaseDN = mockSearch(2, "(objectClass=person)");
+      dispatcher.register(newPersistentSearch(byValue), backend);
+      dispatcher.register(newPersistentSearch(byBaseDN), backend);
+
+      final Entry user1 = makeUser("user.1");
+      final Entry user2 = makeUser("user.2");
+      dispatcher.processAdd(backend, user1);
+      dispatcher.processAdd(backend, user2);
+      // Changes to the other backends are ignored
+      dispatcher.processAdd(otherBackend, makeUser("user.3"));
+
+      verify(byValue, timeout(TIMEOUT_MILLIS)).returnEntry(same(user1), anyListOf(Control.class));
+      verify(byBaseDN, timeout(TIMEOUT_MILLIS)).returnEntry(same(user1), anyListOf(Control.class));
+      verify(byBaseDN, timeout(TIMEOUT_MILLIS)).returnEntry(same(user2), anyListOf(Control.class));
+      dispatcher.processDelete(backend, user2);
+      verify(byBaseDN, timeout(TIMEOUT_MILLIS).times(2)).returnEntry(same(user2), anyListOf(Control.class));
+
+      verify(byValue, times(1)).returnEntry(any(Entry.class), anyListOf(Control.class));
+      verify(byBaseDN, times(3)).returnEntry(any(Entry.class), anyListOf(Control.class));
+    }
+    finally
+    {
+      dispatcher.shutdown();
+    }
+  }
+
+  @Test
+  public void testSlowConsumerIsDisconnected() throws Exception
+  {
+    final PersistentSearchDispatcher dispatcher = newAsynchronousDispatcher();
+    final CountDownLatch release = new CountDownLatch(1);
+    try
+    {
+      final SearchOperation searchOperation = mockSearch(3, "(objectClass=person)");
+      when(searchOperation.returnEntry(any(Entry.class), anyListOf(Control.class))).thenAnswer(new Answer<Boolean>()
+      {
+        @Override
+        public Boolean answer(InvocationOnMock invocation) throws Throwable
+        {
+          release.await();
+          return true;
+        }
+      });
+      dispatcher.register(newPersistentSearch(searchOperation), backend);
+
+      final Entry user = makeUser("user.1");
+      for (int i = 0; i <= PersistentSearchDispatcher.MAX_PENDING_NOTIFICATIONS + 1; i++)
+      {
+        dispatcher.processModify(backend, user, user);
+      }
+
+      verify(searchOperation.getClientConnection(), timeout(TIMEOUT_MILLIS)).disconnect(
+          eq(DisconnectReason.ADMIN_LIMIT_EXCEEDED), eq(true), any(LocalizableMessage.class));
+    }
+    finally
+    {
+      release.countDown();
+      dispatcher.shutdown();
+    }
+  }
+
+  @Test
+  public void testStalledConsumersDoNotDelayOtherConsumers() throws Exception
+  {
+    final PersistentSearchDispatcher dispatcher = newAsynchronousDispatcher();
+    final CountDownLatch release = new CountDownLatch(1);
+    final Answer<Boolean> stalled = new Answer<Boolean>()
+    {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) throws Throwable
+      {
+        release.await();
+        return true;
+      }
+    };
+    try
+    {
+      // Fewer stalled clients than the delivery threads
+      final int nbStalled = PersistentSearchDispatcher.DEFAULT_MAX_DELIVERY_THREADS - 1;
+      for (int i = 0; i < nbStalled; i++)
+      {
+        final SearchOperation stalledSearch = mockSearch(100 + i, "(objectClass=person)");
+        when(stalledSearch.returnEntry(any(Entry.class), anyListOf(Control.class))).thenAnswer(stalled);
+        dispatcher.register(newPersistentSearch(stalledSearch), backend);
+      }
+      final SearchOperation healthySearch = mockSearch(4, "(objectClass=person)");
+      dispatcher.register(newPersistentSearch(healthySearch), backend);
+
+      final Entry user = makeUser("user.1");
+      final int nbChanges = 2 * PersistentSearchDispatcher.MAX_PENDING_NOTIFICATIONS;
+      for (int i = 0; i < nbChanges; i++)
+      {
+        dispatcher.processModify(backend, user, user);
+      }
+
+      verify(healthySearch, timeout(TIMEOUT_MILLIS).times(nbChanges))
+          .returnEntry(same(user), anyListOf(Control.class));
+      verify(healthySearch.getClientConnection(), never()).disconnect(
+          any(DisconnectReason.class), anyBoolean(), any(LocalizableMessage.class));
+    }
+    finally
+    {
+      release.countDown();
+      dispatcher.shutdown();
+    }
+  }
+
+  @Test
+  public void testUpdatesWaitForTheDispatcherWhenItsQueueIsFull() throws Exception
+  {
+    final PersistentSearchDispatcher dispatcher = newAsynchronousDispatcher();
+    final CountDownLatch release = new CountDownLatch(1);
+    try
+    {
+      // No entry matches the filter, but matching the first change stalls the dispatcher thread
+      final SearchOperation searchOperation = mockSearch(6, "(!(objectClass=person))");
+      when(searchOperation.getScope()).thenAnswer(new Answer<SearchScope>()
+      {
+        @Override
+        public SearchScope answer(InvocationOnMock invocation) throws Throwable
+        {
+          release.await();
+          return SearchScope.WHOLE_SUBTREE;
+        }
+      });
+      dispatcher.register(newPersistentSearch(searchOperation), backend);
+
+      final Entry user = makeUser("user.1");
+      final Thread writer = new Thread(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          for (int i = 0; i <= PersistentSearchDispatcher.MAX_PENDING_CHANGES + 1; i++)
+          {
+            dispatcher.processModify(backend, user, user);
+          }
+        }
+      });
+      writer.start();
+      writer.join(1000);
+      assertThat(writer.isAlive()).isTrue();
+
+      release.countDown();
+      writer.join(TIMEOUT_MILLIS);
+      assertThat(writer.isAlive()).isFalse();
+      verify(searchOperation.getClientConnection(), never()).disconnect(
+          any(DisconnectReason.class), anyBoolean(), any(LocalizableMessage.class));
+    }
+    finally
+    {
+      release.countDown();
+      dispatcher.shutdown();
+    }
+  }
+
+  private PersistentSearchDispatcher newAsynchronousDispatcher()
+  {
+    final PersistentSearchDispatcher dispatcher = new PersistentSearchDispatcher();
+    dispatcher.configure(true, PersistentSearchDispatcher.DEFAULT_MAX_DELIVERY_THREADS);
+    return dispatcher;
+  }
+
+  private PersistentSearch newPersistentSearch(SearchOperation searchOperation)
+  {
+    return new PersistentSearch(searchOperation, EnumSet.allOf(PersistentSearchChangeType.class), true, false);
+  }
+
+  private SearchOperation mockSearch(long connectionID, String filter) throws Exception
+  {
+    final SearchOperation searchOperation = mock(SearchOperation.class);
+    // The constructor initializes the persistent searches of the connection, which are used when cancelling
+    final ClientConnection clientConnection = mock(ClientConnection.class, withSettings().useConstructor());
+    when(searchOperation.getConnectionID()).thenReturn(connectionID);
+    when(searchOperation.getClientConnection()).thenReturn(clientConnection);
+    when(searchOperation.getBaseDN()).thenReturn(DN.valueOf("ou=people,dc=example,dc=com"));
+    when(searchOperation.getScope()).thenReturn(SearchScope.WHOLE_SUBTREE);
+    when(searchOperation.getFilter()).thenReturn(SearchFilter.createFilterFromString(filter));
+    when(searchOperation.returnEntry(any(Entry.class), anyListOf(Control.class))).thenReturn(true);
+    return searchOperation;
+  }
+
+  private Entry makeUser(String uid) throws Exception
+  {
+    return TestCaseUtils.makeEntry(
+        "dn: uid=" + uid + ",ou=people,dc=example,dc=com",
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: " + uid,
+        "cn: " + uid,
+        "sn: " + uid);
+  }
+}
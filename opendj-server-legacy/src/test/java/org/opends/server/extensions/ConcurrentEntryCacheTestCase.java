@@ -0,0 +1,446 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import java.util.ArrayList;
+
+import org.opends.server.TestCaseUtils;
+import org.testng.annotations.BeforeClass;
+import org.forgerock.opendj.server.config.meta.*;
+import org.forgerock.opendj.server.config.server.ConcurrentEntryCacheCfg;
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.types.Entry;
+import org.opends.server.util.ServerConstants;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterGroups;
+import org.testng.annotations.BeforeGroups;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * A set of test cases for the concurrent entry cache implementation.
+ */
+@Test(groups = "entrycache", sequential=true)
+public class ConcurrentEntryCacheTestCase
+       extends CommonEntryCacheTestCase<ConcurrentEntryCacheCfg>
+{
+  /**
+   * Initialize the entry cache test.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @BeforeClass
+  public void entryCacheTestInit()
+         throws Exception
+  {
+    // Ensure that the server is running.
+    TestCaseUtils.startServer();
+
+    // Configure this entry cache.
+    Entry cacheConfigEntry = TestCaseUtils.makeEntry(
+      "dn: cn=Concurrent,cn=Entry Caches,cn=config",
+      "objectClass: ds-cfg-concurrent-entry-cache",
+      "objectClass: ds-cfg-entry-cache",
+      "objectClass: top",
+      "cn: Concurrent",
+      "ds-cfg-cache-level: 3",
+      "ds-cfg-java-class: org.opends.server.extensions.ConcurrentEntryCache",
+      "ds-cfg-enabled: true",
+      "ds-cfg-shard-count: 1",
+      "ds-cfg-max-entries: " + super.MAXENTRIES);
+    super.configuration = InitializationUtils.getConfiguration(
+      ConcurrentEntryCacheCfgDefn.getInstance(), cacheConfigEntry);
+
+    // Initialize the cache.
+    super.cache = new ConcurrentEntryCache();
+    super.cache.initializeEntryCache(TestCaseUtils.getServerContext(), configuration);
+
+    // Make some dummy test entries.
+    super.testEntriesList = new ArrayList<>(super.NUMTESTENTRIES);
+    for(int i = 0; i < super.NUMTESTENTRIES; i++ ) {
+      super.testEntriesList.add(TestCaseUtils.makeEntry(
+        "dn: uid=test" + i + ".user" + i + ",ou=test" + i + ",o=test",
+        "objectClass: person",
+        "objectClass: inetorgperson",
+        "objectClass: top",
+        "objectClass: organizationalperson",
+        "postalAddress: somewhere in Testville" + i,
+        "street: Under Construction Street" + i,
+        "l: Testcounty" + i,
+        "st: Teststate" + i,
+        "telephoneNumber: +878 8378 8378" + i,
+        "mobile: +878 8378 8378" + i,
+        "homePhone: +878 8378 8378" + i,
+        "pager: +878 8378 8378" + i,
+        "mail: test" + i + ".user" + i + "@testdomain.net",
+        "postalCode: 8378" + i,
+        "userPassword: testpassword" + i,
+        "description: description for Test" + i + "User" + i,
+        "cn: Test" + i + "User" + i,
+        "sn: User" + i,
+        "givenName: Test" + i,
+        "initials: TST" + i,
+        "employeeNumber: 8378" + i,
+        "uid: test" + i + ".user" + i)
+      );
+    }
+  }
+
+
+
+  /**
+   * Finalize the entry cache test.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @AfterClass
+  public void entryCacheTestFini()
+         throws Exception
+  {
+    super.cache.finalizeEntryCache();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testContainsEntry()
+         throws Exception
+  {
+    super.testContainsEntry();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testGetEntry1()
+         throws Exception
+  {
+    super.testGetEntry1();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testGetEntry2()
+         throws Exception
+  {
+    super.testGetEntry2();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testGetEntry3()
+         throws Exception
+  {
+    super.testGetEntry3();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testGetEntryID()
+         throws Exception
+  {
+    super.testGetEntryID();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testPutEntry()
+         throws Exception
+  {
+    super.testPutEntry();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testPutEntryIfAbsent()
+         throws Exception
+  {
+    super.testPutEntryIfAbsent();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testRemoveEntry()
+         throws Exception
+  {
+    super.testRemoveEntry();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testClear()
+         throws Exception
+  {
+    super.testClear();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testClearBackend()
+         throws Exception
+  {
+    super.testClearBackend();
+  }
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testHandleLowMemory()
+         throws Exception
+  {
+    assertNull(cache.toVerboseString(),
+      "Expected empty cache.  " + "Cache contents:" + ServerConstants.EOL +
+      cache.toVerboseString());
+
+    String b = TestCaseUtils.getServerContext().getBackendConfigManager()
+        .findLocalBackendForEntry(DN.valueOf("o=test")).getBackendID();
+
+    for(int i = 0; i < super.NUMTESTENTRIES; i++ ) {
+      super.cache.putEntry(super.testEntriesList.get(i), b, i);
+    }
+
+    super.cache.handleLowMemory();
+
+    // Make sure that the entries put previously on the
+    // cache are no longer there after handleLowMemory.
+    for(int i = 0; i < super.NUMTESTENTRIES; i++ ) {
+      assertFalse(super.cache.containsEntry(
+        super.testEntriesList.get(i).getName()), "Not expected to find " +
+        super.testEntriesList.get(i).getName() + " in the " +
+        "cache.  Cache contents:" + ServerConstants.EOL +
+        cache.toVerboseString());
+    }
+
+    // Clear the cache so that other tests can start from scratch.
+    super.cache.clear();
+  }
+
+
+
+  @BeforeGroups(groups = "testConcurrentCacheConcurrency")
+  public void cacheConcurrencySetup()
+         throws Exception
+  {
+    assertNull(cache.toVerboseString(),
+      "Expected empty cache.  " + "Cache contents:" + ServerConstants.EOL +
+      cache.toVerboseString());
+  }
+
+
+
+  @AfterGroups(groups = "testConcurrentCacheConcurrency")
+  public void cacheConcurrencyCleanup()
+         throws Exception
+  {
+    // Clear the cache so that other tests can start from scratch.
+    super.cache.clear();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test(groups = { "slow", "testConcurrentCacheConcurrency" },
+        threadPoolSize = 10,
+        invocationCount = 10,
+        timeOut = 60000)
+  @Override
+  public void testCacheConcurrency()
+         throws Exception
+  {
+    super.testCacheConcurrency();
+  }
+
+
+
+  /**
+   * Tests that the cache never holds more than the configured number of entries.
+   */
+  @Test
+  public void testCacheCapping()
+         throws Exception
+  {
+    assertNull(cache.toVerboseString(),
+      "Expected empty cache.  " + "Cache contents:" + ServerConstants.EOL +
+      cache.toVerboseString());
+
+    String b = TestCaseUtils.getServerContext().getBackendConfigManager()
+        .findLocalBackendForEntry(DN.valueOf("o=test")).getBackendID();
+
+    for(int i = 0; i < super.NUMTESTENTRIES; i++ ) {
+      super.cache.putEntry(super.testEntriesList.get(i), b, i);
+      assertTrue(super.cache.getCacheCount() <= super.MAXENTRIES,
+        "Expected at most " + super.MAXENTRIES + " entries.  Cache contents:" +
+        ServerConstants.EOL + cache.toVerboseString());
+    }
+
+    // The most recently cached entry is always present.
+    Entry last = super.testEntriesList.get(super.NUMTESTENTRIES - 1);
+    assertTrue(super.cache.containsEntry(last.getName()), "Expected to find " +
+      last.getName() + " in the cache.  Cache contents:" +
+      ServerConstants.EOL + cache.toVerboseString());
+
+    // Clear the cache so that other tests can start from scratch.
+    super.cache.clear();
+    assertEquals(super.cache.getCacheCount().longValue(), 0L);
+  }
+
+
+
+  /**
+   * Tests that frequently read entries are not evicted by a burst of
+   * entries read only once.
+   */
+  @Test
+  public void testFrequentEntriesSurviveScan()
+         throws Exception
+  {
+    assertNull(cache.toVerboseString(),
+      "Expected empty cache.  " + "Cache contents:" + ServerConstants.EOL +
+      cache.toVerboseString());
+
+    String b = TestCaseUtils.getServerContext().getBackendConfigManager()
+        .findLocalBackendForEntry(DN.valueOf("o=test")).getBackendID();
+
+    // Fill the cache, then read all but the last entry several times.
+    for(int i = 0; i < super.MAXENTRIES; i++ ) {
+      super.cache.putEntry(super.testEntriesList.get(i), b, i);
+    }
+    for(int loops = 0; loops < 10; loops++) {
+      for(int i = 0; i < super.MAXENTRIES - 1; i++ ) {
+        assertNotNull(super.cache.getEntry(super.testEntriesList.get(i).getName()));
+      }
+    }
+
+    // Scan through the remaining entries once.
+    for(int i = super.MAXENTRIES; i < super.NUMTESTENTRIES; i++ ) {
+      super.cache.putEntry(super.testEntriesList.get(i), b, i);
+    }
+
+    for(int i = 0; i < super.MAXENTRIES - 1; i++ ) {
+      assertTrue(super.cache.containsEntry(
+        super.testEntriesList.get(i).getName()), "Expected to find " +
+        super.testEntriesList.get(i).getName() + " in the " +
+        "cache.  Cache contents:" + ServerConstants.EOL +
+        cache.toVerboseString());
+    }
+
+    // Clear the cache so that other tests can start from scratch.
+    super.cache.clear();
+  }
+
+
+
+  /**
+   * Tests that each shard evicts its own entries to stay within its share of
+   * the configured number of entries.
+   */
+  @Test
+  public void testShardsKeepTheirShareOfTheCache()
+         throws Exception
+  {
+    Entry cacheConfigEntry = TestCaseUtils.makeEntry(
+      "dn: cn=Sharded Concurrent,cn=Entry Caches,cn=config",
+      "objectClass: ds-cfg-concurrent-entry-cache",
+      "objectClass: ds-cfg-entry-cache",
+      "objectClass: top",
+      "cn: Sharded Concurrent",
+      "ds-cfg-cache-level: 3",
+      "ds-cfg-java-class: org.opends.server.extensions.ConcurrentEntryCache",
+      "ds-cfg-enabled: true",
+      "ds-cfg-shard-count: 4",
+      "ds-cfg-max-entries: 10");
+    ConcurrentEntryCache shardedCache = new ConcurrentEntryCache();
+    shardedCache.initializeEntryCache(TestCaseUtils.getServerContext(),
+      InitializationUtils.getConfiguration(
+        ConcurrentEntryCacheCfgDefn.getInstance(), cacheConfigEntry));
+    try
+    {
+      String b = TestCaseUtils.getServerContext().getBackendConfigManager()
+          .findLocalBackendForEntry(DN.valueOf("o=test")).getBackendID();
+
+      // 10 entries split between 4 shards
+      long[] maxShardEntries = { 3, 3, 2, 2 };
+      for(int i = 0; i < super.NUMTESTENTRIES; i++ ) {
+        Entry entry = super.testEntriesList.get(i);
+        shardedCache.putEntry(entry, b, i);
+        assertTrue(shardedCache.containsEntry(entry.getName()),
+          "Expected to find " + entry.getName() + " in the cache.");
+
+        long[] shardEntries = shardedCache.getShardEntryCounts();
+        long total = 0;
+        for (int j = 0; j < shardEntries.length; j++) {
+          assertTrue(shardEntries[j] <= maxShardEntries[j], "Expected at most " +
+            maxShardEntries[j] + " entries in shard " + j + ", got " + shardEntries[j]);
+          total += shardEntries[j];
+        }
+        assertEquals(shardedCache.getCacheCount().longValue(), total);
+      }
+    }
+    finally
+    {
+      shardedCache.finalizeEntryCache();
+    }
+  }
+
+
+
+  /**
+   * Tests that the memory estimate grows with the entry contents.
+   */
+  @Test
+  public void testEstimateSize()
+         throws Exception
+  {
+    Entry small = TestCaseUtils.makeEntry(
+      "dn: uid=small,o=test",
+      "objectClass: top",
+      "objectClass: person",
+      "cn: small",
+      "sn: small");
+    long smallSize = ConcurrentEntryCache.estimateSize(small);
+    assertTrue(smallSize > 0);
+    assertTrue(ConcurrentEntryCache.estimateSize(super.testEntriesList.get(0)) > smallSize);
+  }
+}
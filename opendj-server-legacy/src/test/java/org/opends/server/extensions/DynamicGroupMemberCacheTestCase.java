@@ -0,0 +1,98 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.server.util.CollectionUtils.*;
+import static org.testng.Assert.*;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.types.Entry;
+import org.opends.server.types.LDAPURL;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/** A set of test cases for the members of dynamic groups kept in memory. */
+@SuppressWarnings("javadoc")
+public class DynamicGroupMemberCacheTestCase extends ExtensionsTestCase
+{
+  private static final DN GROUP_DN = DN.valueOf("cn=dynamic,o=test");
+  private static final DN USER1_DN = DN.valueOf("uid=user.1,ou=People,o=test");
+  private static final DN USER2_DN = DN.valueOf("uid=user.2,ou=People,o=test");
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @Test
+  public void testMembersAreMaintainedFromChanges() throws Exception
+  {
+    TestCaseUtils.initializeTestBackend(true);
+    Entry people = TestCaseUtils.addEntry(
+        "dn: ou=People,o=test",
+        "objectClass: top",
+        "objectClass: organizationalUnit",
+        "ou: People");
+    TestCaseUtils.addEntry(
+        "dn: uid=user.1,ou=People,o=test",
+        "objectClass: top",
+        "objectClass: person",
+        "uid: user.1",
+        "cn: User 1",
+        "sn: 1");
+
+    DynamicGroupMemberCache cache = newCache("ldap:///ou=People,o=test??sub?(objectClass=person)");
+    assertTrue(cache.contains(USER1_DN));
+    assertFalse(cache.contains(USER2_DN));
+
+    Entry user2 = TestCaseUtils.addEntry(
+        "dn: uid=user.2,ou=People,o=test",
+        "objectClass: top",
+        "objectClass: person",
+        "uid: user.2",
+        "cn: User 2",
+        "sn: 2");
+    cache.entryChanged(null, user2);
+    assertTrue(cache.contains(USER2_DN));
+    assertEquals(cache.getMemberDNs().size(), 2);
+
+    // Removing the parent entry removes the subordinate members
+    cache.entryChanged(people, null);
+    assertTrue(cache.getMemberDNs().isEmpty());
+
+    // The members are loaded again once cleared
+    cache.clear();
+    assertTrue(cache.contains(USER1_DN));
+    assertTrue(cache.contains(USER2_DN));
+  }
+
+  @Test
+  public void testVirtualAttributeFiltersAreNotCacheable() throws Exception
+  {
+    assertTrue(DynamicGroupMemberCache.isCacheable(
+        newLinkedHashSet(LDAPURL.decode("ldap:///o=test??sub?(objectClass=person)", true))));
+    assertFalse(DynamicGroupMemberCache.isCacheable(
+        newLinkedHashSet(LDAPURL.decode("ldap:///o=test??sub?(isMemberOf=cn=group,o=test)", true))));
+  }
+
+  private DynamicGroupMemberCache newCache(String memberURL) throws Exception
+  {
+    return new DynamicGroupMemberCache(
+        TestCaseUtils.getServerContext(), GROUP_DN, newLinkedHashSet(LDAPURL.decode(memberURL, true)));
+  }
+}
@@ -17,8 +17,10 @@
 package org.opends.server.extensions;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ConditionResult;
@@ -866,6 +868,61 @@ public class IsMemberOfVirtualAttributeProviderTestCase
   }
 
 
+  /**
+   * Tests the {@code getEntryDNsWithValue} method, which lets the backends
+   * evaluate isMemberOf equality filters from the member lists of the groups.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test
+  public void testGetEntryDNsWithValue() throws Exception
+  {
+    TestCaseUtils.initializeTestBackend(true);
+    TestCaseUtils.addEntries(
+        "dn: ou=Groups,o=test",
+        "objectClass: top",
+        "objectClass: organizationalUnit",
+        "ou: Groups",
+        "",
+        "dn: cn=Test Group 1,ou=Groups,o=test",
+        "objectClass: top",
+        "objectClass: groupOfNames",
+        "cn: Test Group 1",
+        "member: uid=test.user,ou=People,o=test",
+        "",
+        "dn: cn=Test Group 2,ou=Groups,o=test",
+        "objectClass: top",
+        "objectClass: groupOfNames",
+        "cn: Test Group 2",
+        "member: cn=Test Group 1,ou=Groups,o=test",
+        "member: uid=test.user2,ou=People,o=test",
+        "",
+        "dn: cn=Test Group 3,ou=Groups,o=test",
+        "objectClass: top",
+        "objectClass: groupOfURLs",
+        "cn: Test Group 3",
+        "memberURL: ldap:///ou=People,o=test??sub?(objectClass=person)");
+
+    IsMemberOfVirtualAttributeProvider provider = new IsMemberOfVirtualAttributeProvider();
+    VirtualAttributeRule rule = buildRule(provider);
+
+    Set<DN> memberDNs = new HashSet<>(
+        provider.getEntryDNsWithValue(rule, ByteString.valueOfUtf8("cn=Test Group 2,ou=Groups,o=test"), 10));
+    assertEquals(memberDNs, newHashSet(DN.valueOf("cn=Test Group 1,ou=Groups,o=test"),
+                   DN.valueOf("uid=test.user,ou=People,o=test"),
+                   DN.valueOf("uid=test.user2,ou=People,o=test")));
+    assertNull(provider.getEntryDNsWithValue(rule, ByteString.valueOfUtf8("cn=Test Group 2,ou=Groups,o=test"), 2),
+        "The limit should be enforced");
+    assertNull(provider.getEntryDNsWithValue(rule, ByteString.valueOfUtf8("cn=Test Group 3,ou=Groups,o=test"), 10),
+        "The members of dynamic groups cannot be enumerated");
+    assertTrue(provider.getEntryDNsWithValue(rule, ByteString.valueOfUtf8("cn=missing,ou=Groups,o=test"), 10)
+        .isEmpty());
+
+    delete("cn=test group 1,ou=groups,o=test",
+        "cn=test group 2,ou=groups,o=test",
+        "cn=test group 3,ou=groups,o=test");
+  }
+
   /**
    * Tests if a search using ismemberof works for a dynamic group with large
    * number of entries to simulate unindexed searches.
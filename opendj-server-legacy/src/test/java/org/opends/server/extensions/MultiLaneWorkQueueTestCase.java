@@ -0,0 +1,230 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.opends.messages.CoreMessages.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.forgerock.opendj.server.config.server.MultiLaneWorkQueueCfg;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.SearchOperation;
+import org.opends.server.extensions.MultiLaneWorkQueue.Lane;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Operation;
+import org.opends.server.types.OperationType;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/** A set of test cases for the multi-lane work queue. */
+@SuppressWarnings("javadoc")
+public class MultiLaneWorkQueueTestCase extends ExtensionsTestCase
+{
+  /** The monitor of the work queue of the server, which is replaced by the monitor of the tested work queues. */
+  private MonitorProvider<? extends MonitorProviderCfg> workQueueMonitor;
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+    workQueueMonitor = DirectoryServer.getMonitorProviders().get("work queue");
+  }
+
+  @AfterClass
+  public void restoreWorkQueueMonitor()
+  {
+    if (workQueueMonitor != null)
+    {
+      DirectoryServer.registerMonitorProvider(workQueueMonitor);
+    }
+  }
+
+  @Test
+  public void testGetLane()
+  {
+    assertThat(MultiLaneWorkQueue.getLane(mockOperation(OperationType.BIND, "bind", null))).isEqualTo(Lane.BIND);
+    assertThat(MultiLaneWorkQueue.getLane(mockOperation(OperationType.COMPARE, "cmp", null))).isEqualTo(Lane.READ);
+    assertThat(MultiLaneWorkQueue.getLane(mockSearch(SearchScope.BASE_OBJECT, "base", null))).isEqualTo(Lane.READ);
+    assertThat(MultiLaneWorkQueue.getLane(mockSearch(SearchScope.WHOLE_SUBTREE, "sub", null))).isEqualTo(Lane.SEARCH);
+    assertThat(MultiLaneWorkQueue.getLane(mockOperation(OperationType.MODIFY, "mod", null))).isEqualTo(Lane.WRITE);
+    assertThat(MultiLaneWorkQueue.getLane(mockOperation(OperationType.EXTENDED, "ext", null))).isEqualTo(Lane.ADMIN);
+  }
+
+  @Test(timeOut = 30000)
+  public void testLanesAreWeighted() throws Exception
+  {
+    final MultiLaneWorkQueue workQueue = newWorkQueue(100);
+    try
+    {
+      final List<String> processed = new CopyOnWriteArrayList<>();
+      final CountDownLatch release = blockWorkerThread(workQueue, processed);
+      for (int i = 1; i <= 3; i++)
+      {
+        workQueue.submitOperation(mockSearch(SearchScope.WHOLE_SUBTREE, "s" + i, processed));
+      }
+      for (int i = 1; i <= 3; i++)
+      {
+        workQueue.submitOperation(mockOperation(OperationType.BIND, "b" + i, processed));
+      }
+      assertThat(workQueue.size(Lane.SEARCH)).isEqualTo(3);
+      assertThat(workQueue.size(Lane.BIND)).isEqualTo(3);
+      release.countDown();
+
+      waitUntilIdle(workQueue);
+      // The bind lane has twice the weight of the search lane
+      assertThat(processed).containsExactly("w", "b1", "s1", "b2", "b3", "s2", "s3");
+      assertThat(workQueue.getOpsSubmitted(Lane.BIND)).isEqualTo(3);
+      assertThat(sum(workQueue.getLatencyHistogram(Lane.SEARCH))).isEqualTo(3);
+    }
+    finally
+    {
+      workQueue.finalizeWorkQueue(INFO_CANCELED_BY_SHUTDOWN.get());
+    }
+  }
+
+  @Test(timeOut = 30000)
+  public void testFullLaneRejectsOperations() throws Exception
+  {
+    final MultiLaneWorkQueue workQueue = newWorkQueue(1);
+    try
+    {
+      final List<String> processed = new CopyOnWriteArrayList<>();
+      final CountDownLatch release = blockWorkerThread(workQueue, processed);
+      workQueue.submitOperation(mockSearch(SearchScope.WHOLE_SUBTREE, "s1", processed));
+      assertThat(workQueue.trySubmitOperation(mockSearch(SearchScope.WHOLE_SUBTREE, "s2", processed))).isFalse();
+      try
+      {
+        workQueue.submitOperation(mockSearch(SearchScope.WHOLE_SUBTREE, "s3", processed));
+        failBecauseExceptionWasNotThrown(DirectoryException.class);
+      }
+      catch (DirectoryException e)
+      {
+        assertThat(e.getResultCode()).isEqualTo(ResultCode.BUSY);
+      }
+      // Other lanes are not affected
+      workQueue.submitOperation(mockOperation(OperationType.BIND, "b1", processed));
+      assertThat(workQueue.getOpsRejectedDueToQueueFull(Lane.SEARCH)).isEqualTo(2);
+      release.countDown();
+
+      waitUntilIdle(workQueue);
+      assertThat(processed).containsOnly("w", "s1", "b1");
+    }
+    finally
+    {
+      workQueue.finalizeWorkQueue(INFO_CANCELED_BY_SHUTDOWN.get());
+    }
+  }
+
+  private long sum(long[] values)
+  {
+    long sum = 0;
+    for (long value : values)
+    {
+      sum += value;
+    }
+    return sum;
+  }
+
+  private MultiLaneWorkQueue newWorkQueue(int laneCapacity) throws Exception
+  {
+    final MultiLaneWorkQueueCfg cfg = mock(MultiLaneWorkQueueCfg.class);
+    when(cfg.getNumWorkerThreads()).thenReturn(1);
+    when(cfg.getBindLaneWeight()).thenReturn(2);
+    when(cfg.getReadLaneWeight()).thenReturn(1);
+    when(cfg.getSearchLaneWeight()).thenReturn(1);
+    when(cfg.getWriteLaneWeight()).thenReturn(1);
+    when(cfg.getAdminLaneWeight()).thenReturn(1);
+    when(cfg.getBindLaneCapacity()).thenReturn(laneCapacity);
+    when(cfg.getReadLaneCapacity()).thenReturn(laneCapacity);
+    when(cfg.getSearchLaneCapacity()).thenReturn(laneCapacity);
+    when(cfg.getWriteLaneCapacity()).thenReturn(laneCapacity);
+    when(cfg.getAdminLaneCapacity()).thenReturn(laneCapacity);
+
+    final MultiLaneWorkQueue workQueue = new MultiLaneWorkQueue();
+    workQueue.initializeWorkQueue(cfg);
+    return workQueue;
+  }
+
+  /** Keeps the only worker thread busy until the returned latch is released. */
+  private CountDownLatch blockWorkerThread(MultiLaneWorkQueue workQueue, List<String> processed) throws Exception
+  {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Operation operation = mock(Operation.class);
+    when(operation.getOperationType()).thenReturn(OperationType.MODIFY);
+    doAnswer(record("w", processed, started, release)).when(operation).run();
+    workQueue.submitOperation(operation);
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    return release;
+  }
+
+  private Operation mockOperation(OperationType type, String name, List<String> processed)
+  {
+    final Operation operation = mock(Operation.class);
+    when(operation.getOperationType()).thenReturn(type);
+    doAnswer(record(name, processed, new CountDownLatch(1), new CountDownLatch(0))).when(operation).run();
+    return operation;
+  }
+
+  private SearchOperation mockSearch(SearchScope scope, String name, List<String> processed)
+  {
+    final SearchOperation operation = mock(SearchOperation.class);
+    when(operation.getOperationType()).thenReturn(OperationType.SEARCH);
+    when(operation.getScope()).thenReturn(scope);
+    doAnswer(record(name, processed, new CountDownLatch(1), new CountDownLatch(0))).when(operation).run();
+    return operation;
+  }
+
+  private Answer<Void> record(final String name, final List<String> processed, final CountDownLatch started,
+      final CountDownLatch release)
+  {
+    return new Answer<Void>()
+    {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable
+      {
+        if (processed != null)
+        {
+          processed.add(name);
+        }
+        started.countDown();
+        release.await();
+        return null;
+      }
+    };
+  }
+
+  private void waitUntilIdle(MultiLaneWorkQueue workQueue) throws InterruptedException
+  {
+    while (!workQueue.isIdle())
+    {
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,372 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import java.util.ArrayList;
+
+import org.opends.server.TestCaseUtils;
+import org.testng.annotations.BeforeClass;
+import org.forgerock.opendj.server.config.meta.*;
+import org.forgerock.opendj.server.config.server.OffHeapEntryCacheCfg;
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.types.Entry;
+import org.opends.server.util.ServerConstants;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterGroups;
+import org.testng.annotations.BeforeGroups;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * A set of test cases for the off-heap entry cache implementation.
+ */
+@Test(groups = "entrycache", sequential=true)
+public class OffHeapEntryCacheTestCase
+       extends CommonEntryCacheTestCase<OffHeapEntryCacheCfg>
+{
+  /**
+   * Initialize the entry cache test.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @BeforeClass
+  public void entryCacheTestInit()
+         throws Exception
+  {
+    // Ensure that the server is running.
+    TestCaseUtils.startServer();
+
+    // Configure this entry cache.
+    Entry cacheConfigEntry = TestCaseUtils.makeEntry(
+      "dn: cn=Off Heap,cn=Entry Caches,cn=config",
+      "objectClass: ds-cfg-off-heap-entry-cache",
+      "objectClass: ds-cfg-entry-cache",
+      "objectClass: top",
+      "cn: Off Heap",
+      "ds-cfg-cache-level: 4",
+      "ds-cfg-java-class: org.opends.server.extensions.OffHeapEntryCache",
+      "ds-cfg-enabled: true",
+      "ds-cfg-max-memory-size: 1mb",
+      "ds-cfg-segment-size: 64kb");
+    super.configuration = InitializationUtils.getConfiguration(
+      OffHeapEntryCacheCfgDefn.getInstance(), cacheConfigEntry);
+
+    // Initialize the cache.
+    super.cache = new OffHeapEntryCache();
+    super.cache.initializeEntryCache(TestCaseUtils.getServerContext(), configuration);
+
+    // Make some dummy test entries.
+    super.testEntriesList = new ArrayList<>(super.NUMTESTENTRIES);
+    for(int i = 0; i < super.NUMTESTENTRIES; i++ ) {
+      super.testEntriesList.add(TestCaseUtils.makeEntry(
+        "dn: uid=test" + i + ".user" + i + ",ou=test" + i + ",o=test",
+        "objectClass: person",
+        "objectClass: inetorgperson",
+        "objectClass: top",
+        "objectClass: organizationalperson",
+        "postalAddress: somewhere in Testville" + i,
+        "street: Under Construction Street" + i,
+        "l: Testcounty" + i,
+        "st: Teststate" + i,
+        "telephoneNumber: +878 8378 8378" + i,
+        "mobile: +878 8378 8378" + i,
+        "homePhone: +878 8378 8378" + i,
+        "pager: +878 8378 8378" + i,
+        "mail: test" + i + ".user" + i + "@testdomain.net",
+        "postalCode: 8378" + i,
+        "userPassword: testpassword" + i,
+        "description: description for Test" + i + "User" + i,
+        "cn: Test" + i + "User" + i,
+        "sn: User" + i,
+        "givenName: Test" + i,
+        "initials: TST" + i,
+        "employeeNumber: 8378" + i,
+        "uid: test" + i + ".user" + i)
+      );
+    }
+  }
+
+
+
+  /**
+   * Finalize the entry cache test.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @AfterClass
+  public void entryCacheTestFini()
+         throws Exception
+  {
+    super.cache.finalizeEntryCache();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testContainsEntry()
+         throws Exception
+  {
+    super.testContainsEntry();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testGetEntry1()
+         throws Exception
+  {
+    super.testGetEntry1();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testGetEntry2()
+         throws Exception
+  {
+    super.testGetEntry2();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testGetEntry3()
+         throws Exception
+  {
+    super.testGetEntry3();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testGetEntryID()
+         throws Exception
+  {
+    super.testGetEntryID();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testPutEntry()
+         throws Exception
+  {
+    super.testPutEntry();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testPutEntryIfAbsent()
+         throws Exception
+  {
+    super.testPutEntryIfAbsent();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testRemoveEntry()
+         throws Exception
+  {
+    super.testRemoveEntry();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testClear()
+         throws Exception
+  {
+    super.testClear();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testClearBackend()
+         throws Exception
+  {
+    super.testClearBackend();
+  }
+
+  /** {@inheritDoc} */
+  @Test
+  @Override
+  public void testHandleLowMemory()
+         throws Exception
+  {
+    assertNull(cache.toVerboseString(),
+      "Expected empty cache.  " + "Cache contents:" + ServerConstants.EOL +
+      cache.toVerboseString());
+
+    String b = TestCaseUtils.getServerContext().getBackendConfigManager()
+        .findLocalBackendForEntry(DN.valueOf("o=test")).getBackendID();
+
+    for(int i = 0; i < super.NUMTESTENTRIES; i++ ) {
+      super.cache.putEntry(super.testEntriesList.get(i), b, i);
+    }
+
+    super.cache.handleLowMemory();
+
+    // Make sure that the entries put previously on the
+    // cache are no longer there after handleLowMemory.
+    for(int i = 0; i < super.NUMTESTENTRIES; i++ ) {
+      assertFalse(super.cache.containsEntry(
+        super.testEntriesList.get(i).getName()), "Not expected to find " +
+        super.testEntriesList.get(i).getName() + " in the " +
+        "cache.  Cache contents:" + ServerConstants.EOL +
+        cache.toVerboseString());
+    }
+
+    // Clear the cache so that other tests can start from scratch.
+    super.cache.clear();
+  }
+
+
+
+  @BeforeGroups(groups = "testOffHeapCacheConcurrency")
+  public void cacheConcurrencySetup()
+         throws Exception
+  {
+    assertNull(cache.toVerboseString(),
+      "Expected empty cache.  " + "Cache contents:" + ServerConstants.EOL +
+      cache.toVerboseString());
+  }
+
+
+
+  @AfterGroups(groups = "testOffHeapCacheConcurrency")
+  public void cacheConcurrencyCleanup()
+         throws Exception
+  {
+    // Clear the cache so that other tests can start from scratch.
+    super.cache.clear();
+  }
+
+
+
+  /** {@inheritDoc} */
+  @Test(groups = { "slow", "testOffHeapCacheConcurrency" },
+        threadPoolSize = 10,
+        invocationCount = 10,
+        timeOut = 60000)
+  @Override
+  public void testCacheConcurrency()
+         throws Exception
+  {
+    super.testCacheConcurrency();
+  }
+
+
+
+  /**
+   * Tests that cached entries are decoded back to identical entries.
+   */
+  @Test
+  public void testEntriesRoundTrip()
+         throws Exception
+  {
+    assertNull(cache.toVerboseString(),
+      "Expected empty cache.  " + "Cache contents:" + ServerConstants.EOL +
+      cache.toVerboseString());
+
+    String b = TestCaseUtils.getServerContext().getBackendConfigManager()
+        .findLocalBackendForEntry(DN.valueOf("o=test")).getBackendID();
+
+    for(int i = 0; i < super.NUMTESTENTRIES; i++ ) {
+      super.cache.putEntry(super.testEntriesList.get(i), b, i);
+    }
+    for(int i = 0; i < super.NUMTESTENTRIES; i++ ) {
+      Entry entry = super.testEntriesList.get(i);
+      assertEquals(super.cache.getEntry(entry.getName()), entry);
+      assertEquals(super.cache.getEntryID(entry.getName()), i);
+      assertEquals(super.cache.getEntryDN(b, i), entry.getName());
+    }
+    assertEquals(super.cache.getCacheCount().longValue(), super.NUMTESTENTRIES);
+
+    // Clear the cache so that other tests can start from scratch.
+    super.cache.clear();
+    assertEquals(super.cache.getCacheCount().longValue(), 0L);
+  }
+
+
+
+  /**
+   * Tests that the oldest segments are reused once the cache is full.
+   */
+  @Test
+  public void testSegmentRotation()
+         throws Exception
+  {
+    assertNull(cache.toVerboseString(),
+      "Expected empty cache.  " + "Cache contents:" + ServerConstants.EOL +
+      cache.toVerboseString());
+
+    String b = TestCaseUtils.getServerContext().getBackendConfigManager()
+        .findLocalBackendForEntry(DN.valueOf("o=test")).getBackendID();
+
+    // Cache about twice the configured maximum memory size.
+    StringBuilder description = new StringBuilder();
+    for (int i = 0; i < 50; i++) {
+      description.append("rotation ");
+    }
+    int numEntries = 5000;
+    Entry first = null;
+    Entry last = null;
+    for (int i = 0; i < numEntries; i++) {
+      last = TestCaseUtils.makeEntry(
+        "dn: cn=rotation" + i + ",o=test",
+        "objectClass: top",
+        "objectClass: device",
+        "cn: rotation" + i,
+        "description: " + description);
+      if (first == null) {
+        first = last;
+      }
+      super.cache.putEntry(last, b, i);
+    }
+
+    assertFalse(super.cache.containsEntry(first.getName()), "Not expected to find " +
+      first.getName() + " in the cache.");
+    assertEquals(super.cache.getEntry(last.getName()), last);
+    assertTrue(super.cache.getCacheCount() < numEntries);
+
+    // Clear the cache so that other tests can start from scratch.
+    super.cache.clear();
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+/** Tests for {@link TLSBufferPool} class. */
+@SuppressWarnings("javadoc")
+public class TLSBufferPoolTestCase extends ExtensionsTestCase
+{
+  private static final int MAX_IDLE_BUFFERS = 16;
+
+  @Test
+  public void testReleasedBuffersAreReused() throws Exception
+  {
+    final TLSBufferPool pool = new TLSBufferPool("test", MAX_IDLE_BUFFERS);
+    final ByteBuffer buffer = pool.acquire(1024);
+    assertThat(buffer.isDirect()).isTrue();
+    assertThat(buffer.capacity()).isEqualTo(1024);
+    assertThat(pool.getBuffersInUse()).isEqualTo(1);
+
+    buffer.put((byte) 1);
+    pool.release(buffer);
+    assertThat(pool.getBuffersInUse()).isZero();
+    assertThat(pool.getIdleBuffers()).isEqualTo(1);
+
+    final ByteBuffer reused = pool.acquire(512);
+    assertThat(reused).isSameAs(buffer);
+    assertThat(reused.position()).isZero();
+    assertThat(reused.remaining()).isEqualTo(1024);
+    assertThat(pool.getBuffersAllocated()).isEqualTo(1);
+  }
+
+  @Test
+  public void testSmallerBuffersAreDroppedOnceLargerOnesAreRequested() throws Exception
+  {
+    final TLSBufferPool pool = new TLSBufferPool("test", MAX_IDLE_BUFFERS);
+    final ByteBuffer small = pool.acquire(1024);
+    final ByteBuffer large = pool.acquire(2048);
+    pool.release(small);
+    pool.release(large);
+
+    assertThat(pool.getIdleBuffers()).isEqualTo(1);
+    assertThat(pool.getBuffersDiscarded()).isEqualTo(1);
+    assertThat(pool.acquire(1024)).isSameAs(large);
+  }
+
+  @Test
+  public void testIdleBuffersAreBounded() throws Exception
+  {
+    final TLSBufferPool pool = new TLSBufferPool("test", MAX_IDLE_BUFFERS);
+    final List<ByteBuffer> buffers = new ArrayList<>();
+    for (int i = 0; i < MAX_IDLE_BUFFERS + 10; i++)
+    {
+      buffers.add(pool.acquire(16));
+    }
+    for (ByteBuffer buffer : buffers)
+    {
+      pool.release(buffer);
+    }
+
+    assertThat(pool.getBuffersInUse()).isZero();
+    assertThat(pool.getIdleBuffers()).isEqualTo(MAX_IDLE_BUFFERS);
+    assertThat(pool.getBuffersDiscarded()).isEqualTo(10);
+  }
+
+  @Test
+  public void testIdleBuffersAreTrimmedWhenTheLimitIsLowered() throws Exception
+  {
+    final TLSBufferPool pool = new TLSBufferPool("test", MAX_IDLE_BUFFERS);
+    final List<ByteBuffer> buffers = new ArrayList<>();
+    for (int i = 0; i < MAX_IDLE_BUFFERS; i++)
+    {
+      buffers.add(pool.acquire(16));
+    }
+    for (ByteBuffer buffer : buffers)
+    {
+      pool.release(buffer);
+    }
+
+    pool.setMaxIdleBuffers(4);
+    assertThat(pool.getIdleBuffers()).isEqualTo(4);
+    assertThat(pool.getBuffersDiscarded()).isEqualTo(MAX_IDLE_BUFFERS - 4);
+
+    pool.setMaxIdleBuffers(0);
+    pool.release(pool.acquire(16));
+    assertThat(pool.getIdleBuffers()).isZero();
+    assertThat(pool.getBuffersAllocated()).isEqualTo(MAX_IDLE_BUFFERS + 1);
+    assertThat(pool.getAllocationFailures()).isZero();
+  }
+}
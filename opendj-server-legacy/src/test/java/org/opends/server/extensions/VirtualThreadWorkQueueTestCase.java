@@ -0,0 +1,211 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.extensions;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.opends.messages.CoreMessages.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.forgerock.opendj.server.config.server.VirtualThreadWorkQueueCfg;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Operation;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/** A set of test cases for the virtual thread work queue. */
+@SuppressWarnings("javadoc")
+public class VirtualThreadWorkQueueTestCase extends ExtensionsTestCase
+{
+  /** The monitor of the work queue of the server, which is replaced by the monitor of the tested work queues. */
+  private MonitorProvider<? extends MonitorProviderCfg> workQueueMonitor;
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+    workQueueMonitor = DirectoryServer.getMonitorProviders().get("work queue");
+  }
+
+  @AfterClass
+  public void restoreWorkQueueMonitor()
+  {
+    if (workQueueMonitor != null)
+    {
+      DirectoryServer.registerMonitorProvider(workQueueMonitor);
+    }
+  }
+
+  @Test(timeOut = 30000)
+  public void testConcurrencyIsBounded() throws Exception
+  {
+    final VirtualThreadWorkQueue workQueue = newWorkQueue(2, 2, 100);
+    try
+    {
+      final AtomicInteger nbRunning = new AtomicInteger();
+      final AtomicInteger maxRunning = new AtomicInteger();
+      final CountDownLatch done = new CountDownLatch(10);
+      for (int i = 0; i < 10; i++)
+      {
+        final Operation operation = mockOperation(i);
+        doAnswer(new Answer<Void>()
+        {
+          @Override
+          public Void answer(InvocationOnMock invocation) throws Throwable
+          {
+            final int running = nbRunning.incrementAndGet();
+            synchronized (maxRunning)
+            {
+              maxRunning.set(Math.max(maxRunning.get(), running));
+            }
+            Thread.sleep(20);
+            nbRunning.decrementAndGet();
+            done.countDown();
+            return null;
+          }
+        }).when(operation).run();
+        workQueue.submitOperation(operation);
+      }
+
+      assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+      waitUntilIdle(workQueue);
+      assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+      assertThat(workQueue.getOpsSubmitted()).isEqualTo(10);
+      assertThat(workQueue.size()).isEqualTo(0);
+      assertThat(workQueue.getAverageWaitTime()).isGreaterThan(0);
+    }
+    finally
+    {
+      workQueue.finalizeWorkQueue(INFO_CANCELED_BY_SHUTDOWN.get());
+    }
+  }
+
+  @Test(timeOut = 30000)
+  public void testConnectionsTakeTurns() throws Exception
+  {
+    final VirtualThreadWorkQueue workQueue = newWorkQueue(1, 1, 100);
+    try
+    {
+      final List<String> processed = new CopyOnWriteArrayList<>();
+      final CountDownLatch firstOperationStarted = new CountDownLatch(1);
+      final CountDownLatch releaseFirstOperation = new CountDownLatch(1);
+      workQueue.submitOperation(blockingOperation(1, "a1", processed, firstOperationStarted, releaseFirstOperation));
+      assertThat(firstOperationStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+      workQueue.submitOperation(recordingOperation(1, "a2", processed));
+      workQueue.submitOperation(recordingOperation(1, "a3", processed));
+      workQueue.submitOperation(recordingOperation(2, "b1", processed));
+      releaseFirstOperation.countDown();
+
+      waitUntilIdle(workQueue);
+      assertThat(processed).containsExactly("a1", "a2", "b1", "a3");
+    }
+    finally
+    {
+      workQueue.finalizeWorkQueue(INFO_CANCELED_BY_SHUTDOWN.get());
+    }
+  }
+
+  @Test(timeOut = 30000)
+  public void testTrySubmitWhenFull() throws Exception
+  {
+    final VirtualThreadWorkQueue workQueue = newWorkQueue(1, 1, 1);
+    try
+    {
+      final List<String> processed = new CopyOnWriteArrayList<>();
+      final CountDownLatch firstOperationStarted = new CountDownLatch(1);
+      final CountDownLatch releaseFirstOperation = new CountDownLatch(1);
+      workQueue.submitOperation(blockingOperation(1, "a1", processed, firstOperationStarted, releaseFirstOperation));
+      assertThat(firstOperationStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+      assertThat(workQueue.trySubmitOperation(recordingOperation(2, "b1", processed))).isTrue();
+      assertThat(workQueue.trySubmitOperation(recordingOperation(3, "c1", processed))).isFalse();
+      assertThat(workQueue.getOpsRejectedDueToQueueFull()).isEqualTo(1);
+      assertThat(workQueue.size()).isEqualTo(1);
+      assertThat(workQueue.isIdle()).isFalse();
+
+      releaseFirstOperation.countDown();
+      waitUntilIdle(workQueue);
+      assertThat(processed).containsExactly("a1", "b1");
+    }
+    finally
+    {
+      workQueue.finalizeWorkQueue(INFO_CANCELED_BY_SHUTDOWN.get());
+    }
+  }
+
+  private VirtualThreadWorkQueue newWorkQueue(int maxConcurrentOperations, int maxConcurrentOperationsPerConnection,
+      int maxCapacity) throws Exception
+  {
+    final VirtualThreadWorkQueueCfg cfg = mock(VirtualThreadWorkQueueCfg.class);
+    when(cfg.getMaxConcurrentOperations()).thenReturn(maxConcurrentOperations);
+    when(cfg.getMaxConcurrentOperationsPerConnection()).thenReturn(maxConcurrentOperationsPerConnection);
+    when(cfg.getMaxWorkQueueCapacity()).thenReturn(maxCapacity);
+
+    final VirtualThreadWorkQueue workQueue = new VirtualThreadWorkQueue();
+    workQueue.initializeWorkQueue(cfg);
+    return workQueue;
+  }
+
+  private Operation mockOperation(long connectionID)
+  {
+    final Operation operation = mock(Operation.class);
+    when(operation.getConnectionID()).thenReturn(connectionID);
+    return operation;
+  }
+
+  private Operation recordingOperation(long connectionID, final String name, final List<String> processed)
+  {
+    return blockingOperation(connectionID, name, processed, new CountDownLatch(1), new CountDownLatch(0));
+  }
+
+  private Operation blockingOperation(long connectionID, final String name, final List<String> processed,
+      final CountDownLatch started, final CountDownLatch release)
+  {
+    final Operation operation = mockOperation(connectionID);
+    doAnswer(new Answer<Void>()
+    {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable
+      {
+        processed.add(name);
+        started.countDown();
+        release.await();
+        return null;
+      }
+    }).when(operation).run();
+    return operation;
+  }
+
+  private void waitUntilIdle(VirtualThreadWorkQueue workQueue) throws InterruptedException
+  {
+    while (!workQueue.isIdle())
+    {
+      Thread.sleep(10);
+    }
+  }
+}
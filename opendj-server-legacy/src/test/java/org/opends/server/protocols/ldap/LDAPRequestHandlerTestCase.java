@@ -0,0 +1,289 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.protocols.ldap;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.opendj.ldap.ByteString;
+import org.mockito.ArgumentCaptor;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.core.AbandonOperation;
+import org.opends.server.core.DeleteOperation;
+import org.opends.server.core.QueueingStrategy;
+import org.opends.server.core.ServerContext;
+import org.opends.server.types.Operation;
+import org.opends.server.types.DisconnectReason;
+import org.opends.server.types.Entry;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the balancing of the connections between the request handlers of the
+ * selector based LDAP connection handler, and the throttling of the connections
+ * with too many operations in progress. The request handlers are not started:
+ * the tests drive their registration, load sampling and request processing
+ * steps.
+ */
+@SuppressWarnings("javadoc")
+public class LDAPRequestHandlerTestCase extends LdapTestCase
+{
+  private LDAPConnectionHandler connectionHandler;
+  private ServerSocketChannel serverChannel;
+  private final List<LDAPClientConnection> connections = new ArrayList<>();
+  private final List<SocketChannel> clientChannels = new ArrayList<>();
+
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startServer();
+    connectionHandler = new LDAPConnectionHandler();
+    connectionHandler.initializeConnectionHandler(mock(ServerContext.class),
+        getConfiguration(newConnectionHandlerEntry("Balanced LDAP Connection Handler")));
+
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+  }
+
+  @AfterClass
+  public void tearDown() throws Exception
+  {
+    serverChannel.close();
+    connectionHandler.finalizeConnectionHandler(LocalizableMessage.raw("test done"));
+  }
+
+  @AfterMethod
+  public void closeConnections() throws Exception
+  {
+    for (LDAPClientConnection c : connections)
+    {
+      c.disconnect(DisconnectReason.SERVER_SHUTDOWN, false, null);
+    }
+    connections.clear();
+    for (SocketChannel channel : clientChannels)
+    {
+      channel.close();
+    }
+    clientChannels.clear();
+  }
+
+  @Test
+  public void testLeastLoadedRequestHandler() throws Exception
+  {
+    LDAPRequestHandler first = newRequestHandler(0);
+    LDAPRequestHandler second = newRequestHandler(1);
+    LDAPRequestHandler[] requestHandlers = { first, second };
+
+    // Equally loaded request handlers are used in turn
+    assertThat(LDAPConnectionHandler.getLeastLoadedRequestHandler(requestHandlers, 0)).isSameAs(first);
+    assertThat(LDAPConnectionHandler.getLeastLoadedRequestHandler(requestHandlers, 1)).isSameAs(second);
+
+    first.transferClient(newConnection());
+    // Not registered yet, but already accounted for
+    assertThat(first.getLoad()).isEqualTo(1);
+    assertThat(LDAPConnectionHandler.getLeastLoadedRequestHandler(requestHandlers, 0)).isSameAs(second);
+
+    first.registerConnections();
+    second.transferClient(newConnection());
+    second.transferClient(newConnection());
+    second.registerConnections();
+    assertThat(first.getLoad()).isEqualTo(1);
+    assertThat(second.getLoad()).isEqualTo(2);
+    assertThat(LDAPConnectionHandler.getLeastLoadedRequestHandler(requestHandlers, 1)).isSameAs(first);
+  }
+
+  @Test
+  public void testSampleLoadMovesBusyConnection() throws Exception
+  {
+    LDAPRequestHandler loaded = newRequestHandler(0);
+    LDAPRequestHandler idle = newRequestHandler(1);
+    int nbConnections = LDAPRequestHandler.MIN_REBALANCING_LOAD_GAP + 2;
+    List<LDAPClientConnection> loadedConnections = new ArrayList<>();
+    for (int i = 0; i < nbConnections; i++)
+    {
+      LDAPClientConnection c = newConnection();
+      loaded.transferClient(c);
+      loadedConnections.add(c);
+    }
+    loaded.registerConnections();
+    assertThat(loaded.getLoad()).isEqualTo(nbConnections);
+
+    // Moving the connection contributing half of the load gap balances the
+    // request handlers best, but its data is waiting to be processed
+    LDAPClientConnection ready = loadedConnections.get(0);
+    ready.recentReadinessEvents = nbConnections / 2 - 1;
+    ready.ready = true;
+    LDAPClientConnection busy = loadedConnections.get(1);
+    busy.recentReadinessEvents = nbConnections / 2 - 4;
+
+    loaded.sampleLoad(System.currentTimeMillis() + 1000, idle);
+    idle.registerConnections();
+
+    assertThat(loaded.getConnectionsTransferredOut()).isEqualTo(1);
+    assertThat(idle.getConnectionsTransferredIn()).isEqualTo(1);
+    assertThat(idle.getClientConnections()).containsExactly(busy);
+    assertThat(loaded.getClientConnections()).doesNotContain(busy).contains(ready);
+    assertThat(ready.recentReadinessEvents).isEqualTo(0);
+    assertThat(busy.recentReadinessEvents).isEqualTo(0);
+  }
+
+  @Test
+  public void testConnectionMovedStraightBack() throws Exception
+  {
+    LDAPRequestHandler first = newRequestHandler(0);
+    LDAPRequestHandler second = newRequestHandler(1);
+    LDAPClientConnection c = newConnection();
+    first.transferClient(c);
+    first.registerConnections();
+
+    for (int i = 0; i < 2; i++)
+    {
+      // Neither request handler runs a selection between the moves, so the
+      // cancelled keys are still registered when the connection comes back
+      first.moveConnection(c, second);
+      second.registerConnections();
+      assertThat(second.getClientConnections()).containsExactly(c);
+      assertThat(first.getClientConnections()).isEmpty();
+
+      second.moveConnection(c, first);
+      first.registerConnections();
+      assertThat(first.getClientConnections()).containsExactly(c);
+      assertThat(second.getClientConnections()).isEmpty();
+    }
+
+    assertThat(c.isConnectionValid()).isTrue();
+    assertThat(first.getConnectionsTransferredOut()).isEqualTo(2);
+    assertThat(second.getConnectionsTransferredIn()).isEqualTo(2);
+    assertThat(second.getConnectionsTransferredOut()).isEqualTo(2);
+    // Including the initial registration
+    assertThat(first.getConnectionsTransferredIn()).isEqualTo(3);
+  }
+
+  @Test
+  public void testAbandonAndUnbindAreProcessedWhenOperationLimitReached() throws Exception
+  {
+    // The enqueued operations stay in progress until they are removed by the test
+    QueueingStrategy strategy = mock(QueueingStrategy.class);
+    LDAPConnectionHandler throttledHandler = new LDAPConnectionHandler(strategy, null);
+    Entry handlerEntry = newConnectionHandlerEntry("Throttled LDAP Connection Handler",
+        "ds-cfg-max-concurrent-ops-per-connection: 2");
+    throttledHandler.initializeConnectionHandler(mock(ServerContext.class), getConfiguration(handlerEntry));
+    try
+    {
+      LDAPRequestHandler requestHandler = new LDAPRequestHandler(throttledHandler, 0);
+      LDAPClientConnection c = newConnection(throttledHandler);
+      requestHandler.transferClient(c);
+      requestHandler.registerConnections();
+
+      assertThat(requestHandler.processRequest(c, newDeleteRequest(1))).isTrue();
+      assertThat(requestHandler.processRequest(c, newDeleteRequest(2))).isTrue();
+      assertThat(c.isOperationLimitReached()).isTrue();
+      assertThat(requestHandler.processRequest(c, newDeleteRequest(3))).isTrue();
+      assertThat(c.deferredRequests).hasSize(1);
+
+      // Abandoning a deferred request discards it
+      assertThat(requestHandler.processRequest(c, new LDAPMessage(4, new AbandonRequestProtocolOp(3)))).isTrue();
+      assertThat(c.deferredRequests).isEmpty();
+
+      // The connection is no longer read once as many requests are deferred
+      assertThat(requestHandler.processRequest(c, newDeleteRequest(5))).isTrue();
+      assertThat(requestHandler.processRequest(c, newDeleteRequest(6))).isFalse();
+
+      c.removeOperationInProgress(1);
+      c.removeOperationInProgress(4);
+      requestHandler.resumeThrottledConnections();
+      assertThat(c.deferredRequests).hasSize(1);
+      assertThat(c.deferredRequests.peek().getMessageID()).isEqualTo(6);
+      assertThat(c.ready).isTrue();
+
+      ArgumentCaptor<Operation> enqueued = ArgumentCaptor.forClass(Operation.class);
+      verify(strategy, times(4)).enqueueRequest(enqueued.capture());
+      List<Integer> enqueuedMessageIDs = new ArrayList<>();
+      for (Operation op : enqueued.getAllValues())
+      {
+        enqueuedMessageIDs.add(op.getMessageID());
+      }
+      assertThat(enqueuedMessageIDs).containsExactly(1, 2, 4, 5);
+      assertThat(enqueued.getAllValues().get(2)).isInstanceOf(AbandonOperation.class);
+      assertThat(enqueued.getAllValues().get(3)).isInstanceOf(DeleteOperation.class);
+
+      assertThat(requestHandler.processRequest(c, new LDAPMessage(7, new UnbindRequestProtocolOp()))).isFalse();
+      assertThat(c.deferredRequests).isEmpty();
+      assertThat(c.isConnectionValid()).isFalse();
+    }
+    finally
+    {
+      throttledHandler.finalizeConnectionHandler(LocalizableMessage.raw("test done"));
+    }
+  }
+
+  private Entry newConnectionHandlerEntry(String cn, String... attributes) throws Exception
+  {
+    List<String> lines = new ArrayList<>(Arrays.asList(
+        "dn: cn=" + cn + ",cn=Connection Handlers,cn=config",
+        "objectClass: top",
+        "objectClass: ds-cfg-connection-handler",
+        "objectClass: ds-cfg-ldap-connection-handler",
+        "cn: " + cn,
+        "ds-cfg-java-class: org.opends.server.protocols.ldap.LDAPConnectionHandler",
+        "ds-cfg-enabled: true",
+        "ds-cfg-listen-address: 127.0.0.1",
+        "ds-cfg-listen-port: " + TestCaseUtils.findFreePort(),
+        "ds-cfg-keep-stats: false",
+        "ds-cfg-num-request-handlers: 1",
+        "ds-cfg-allow-start-tls: false",
+        "ds-cfg-use-ssl: false"));
+    lines.addAll(Arrays.asList(attributes));
+    return TestCaseUtils.makeEntry(lines.toArray(new String[lines.size()]));
+  }
+
+  private LDAPMessage newDeleteRequest(int messageID)
+  {
+    return new LDAPMessage(messageID, new DeleteRequestProtocolOp(ByteString.valueOfUtf8("o=test")));
+  }
+
+  private LDAPRequestHandler newRequestHandler(int requestHandlerID) throws Exception
+  {
+    return new LDAPRequestHandler(connectionHandler, requestHandlerID);
+  }
+
+  private LDAPClientConnection newConnection() throws Exception
+  {
+    return newConnection(connectionHandler);
+  }
+
+  /** Returns a new non-blocking client connection, not registered with any request handler. */
+  private LDAPClientConnection newConnection(LDAPConnectionHandler handler) throws Exception
+  {
+    clientChannels.add(SocketChannel.open(serverChannel.socket().getLocalSocketAddress()));
+    SocketChannel channel = serverChannel.accept();
+    channel.configureBlocking(false);
+    LDAPClientConnection c = new LDAPClientConnection(handler, channel, "LDAP");
+    connections.add(c);
+    return c;
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.protocols.ldap;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.protocols.ldap.LDAPConstants.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.opends.server.TestCaseUtils;
+import org.opends.server.types.Attribute;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/** Tests the write statistics of {@link LDAPStatistics}. */
+@SuppressWarnings("javadoc")
+public class LDAPStatisticsTestCase extends LdapTestCase
+{
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @Test
+  public void testWriteAverages() throws Exception
+  {
+    final LDAPStatistics stats = new LDAPStatistics("test statistics");
+    assertThat(monitorData(stats)).containsEntry("averageBytesPerWrite", "0")
+                                  .containsEntry("averageWritesPerOperation", "0");
+
+    // Two searches returning their results in three writes
+    stats.updateBytesWritten(4000);
+    stats.updateBytesWritten(3000);
+    stats.updateBytesWritten(2000);
+    stats.updateMessageWritten(OP_TYPE_SEARCH_RESULT_DONE, 1);
+    stats.updateMessageWritten(OP_TYPE_SEARCH_RESULT_DONE, 2);
+
+    assertThat(stats.getNetworkWrites()).isEqualTo(3);
+    assertThat(monitorData(stats)).containsEntry("bytesWritten", "9000")
+                                  .containsEntry("networkWrites", "3")
+                                  .containsEntry("averageBytesPerWrite", "3000")
+                                  .containsEntry("averageWritesPerOperation", "1");
+
+    stats.clearStatistics();
+    assertThat(stats.getNetworkWrites()).isZero();
+  }
+
+  private Map<String, String> monitorData(LDAPStatistics stats)
+  {
+    final Map<String, String> data = new HashMap<>();
+    for (Attribute attr : stats.getMonitorData())
+    {
+      data.put(attr.getAttributeDescription().getNameOrOID(), attr.iterator().next().toString());
+    }
+    return data;
+  }
+}
@@ -281,6 +281,12 @@ public class DomainFakeCfg implements ReplicationDomainCfg
     return 100;
   }
 
+  @Override
+  public int getReplayBatchSize()
+  {
+    return 1;
+  }
+
   /**
    * Gets the ECL Domain if it is present.
    *
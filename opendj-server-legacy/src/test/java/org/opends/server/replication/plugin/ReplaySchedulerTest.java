@@ -0,0 +1,131 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.plugin;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.replication.common.CSNGenerator;
+import org.opends.server.replication.protocol.AddMsg;
+import org.opends.server.replication.protocol.LDAPUpdateMsg;
+import org.opends.server.replication.protocol.ModifyDNMsg;
+import org.opends.server.replication.protocol.ModifyMsg;
+import org.opends.server.types.Entry;
+import org.opends.server.types.Modification;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class ReplaySchedulerTest extends DirectoryServerTestCase
+{
+  private final CSNGenerator csnGen = new CSNGenerator(1, 0);
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @Test
+  public void testUpdatesOfTheSameEntryAreReplayedInOrder() throws Exception
+  {
+    final ReplayScheduler scheduler = new ReplayScheduler(10);
+    final UpdateToReplay modifyA1 = update(modify("cn=a,o=test"));
+    final UpdateToReplay modifyA2 = update(modify("cn=a,o=test"));
+    final UpdateToReplay modifyB = update(modify("cn=b,o=test"));
+    scheduler.offer(modifyA1);
+    scheduler.offer(modifyA2);
+    scheduler.offer(modifyB);
+    assertThat(scheduler.getNumberOfBlockedUpdates()).isEqualTo(1);
+
+    assertThat(scheduler.poll()).isSameAs(modifyA1);
+    assertThat(scheduler.poll()).isSameAs(modifyB);
+    assertThat(scheduler.poll()).isNull();
+
+    scheduler.replayDone(modifyA1);
+    assertThat(scheduler.poll()).isSameAs(modifyA2);
+    scheduler.replayDone(modifyB);
+    scheduler.replayDone(modifyA2);
+    assertThat(scheduler).isEmpty();
+  }
+
+  @Test
+  public void testChildrenAreAddedAfterTheirParent() throws Exception
+  {
+    final ReplayScheduler scheduler = new ReplayScheduler(10);
+    final UpdateToReplay addParent = update(add("ou=parent,o=test"));
+    final UpdateToReplay addChild1 = update(add("cn=child1,ou=parent,o=test"));
+    final UpdateToReplay addChild2 = update(add("cn=child2,ou=parent,o=test"));
+    scheduler.offer(addParent);
+    scheduler.offer(addChild1);
+    scheduler.offer(addChild2);
+
+    assertThat(scheduler.poll()).isSameAs(addParent);
+    assertThat(scheduler.poll()).isNull();
+
+    scheduler.replayDone(addParent);
+    // siblings only share their parent and can be replayed concurrently
+    assertThat(scheduler.poll()).isSameAs(addChild1);
+    assertThat(scheduler.poll()).isSameAs(addChild2);
+  }
+
+  @Test
+  public void testModifyDNIsABarrier() throws Exception
+  {
+    final ReplayScheduler scheduler = new ReplayScheduler(10);
+    final UpdateToReplay modifyA = update(modify("cn=a,o=test"));
+    final UpdateToReplay modifyDN = update(new ModifyDNMsg(DN.valueOf("cn=b,o=test"), csnGen.newCSN(),
+        "uuid-b", null, true, null, "cn=c"));
+    final UpdateToReplay modifyD = update(modify("cn=d,o=test"));
+    scheduler.offer(modifyA);
+    scheduler.offer(modifyDN);
+    scheduler.offer(modifyD);
+
+    assertThat(scheduler.poll()).isSameAs(modifyA);
+    assertThat(scheduler.poll()).isNull();
+
+    scheduler.replayDone(modifyA);
+    assertThat(scheduler.poll()).isSameAs(modifyDN);
+    assertThat(scheduler.poll()).isNull();
+
+    scheduler.replayDone(modifyDN);
+    assertThat(scheduler.poll()).isSameAs(modifyD);
+  }
+
+  private UpdateToReplay update(final LDAPUpdateMsg msg)
+  {
+    return new UpdateToReplay(msg, null);
+  }
+
+  private ModifyMsg modify(final String dn)
+  {
+    return new ModifyMsg(csnGen.newCSN(), DN.valueOf(dn), Collections.<Modification> emptyList(), "uuid-" + dn);
+  }
+
+  private AddMsg add(final String dn) throws Exception
+  {
+    final Entry entry = TestCaseUtils.makeEntry(
+        "dn: " + dn,
+        "objectClass: top",
+        "objectClass: organizationalUnit");
+    return new AddMsg(csnGen.newCSN(), entry.getName(), "uuid-" + dn, null,
+        entry.getObjectClassAttribute(), entry.getAllAttributes(), null);
+  }
+}
@@ -60,6 +60,7 @@ public class ReplServerFakeConfiguration implements ReplicationServerCfg
   /** The monitoring publisher period. */
   private long monitoringPeriod = 3000;
   private boolean computeChangenumber;
+  private boolean groupCommitEnabled;
 
   /** Constructor without group id, assured info and weight. */
   public ReplServerFakeConfiguration(
@@ -276,4 +277,27 @@ public class ReplServerFakeConfiguration implements ReplicationServerCfg
   {
     this.confidentialityEnabled = confidentialityEnabled;
   }
+
+  @Override
+  public boolean isChangelogGroupCommitEnabled()
+  {
+    return groupCommitEnabled;
+  }
+
+  public void setChangelogGroupCommitEnabled(boolean groupCommitEnabled)
+  {
+    this.groupCommitEnabled = groupCommitEnabled;
+  }
+
+  @Override
+  public long getChangelogGroupCommitMaxLatency()
+  {
+    return 2;
+  }
+
+  @Override
+  public int getChangelogGroupCommitMaxBatchSize()
+  {
+    return 256;
+  }
 }
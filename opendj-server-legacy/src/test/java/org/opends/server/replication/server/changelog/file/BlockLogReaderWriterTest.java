@@ -25,6 +25,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -114,6 +116,47 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
     }
   }
 
+  @Test(dataProvider="recordsData")
+  public void testWriteThenReadMapped(int blockSize, int expectedSizeOfFile,
+      List<Record<Integer, Integer>> records) throws Exception
+  {
+    writeRecords(blockSize, records);
+
+    try (BlockLogReader<Integer, Integer> reader = newMappedReader(blockSize))
+    {
+      assertThat(reader.isMapped()).isTrue();
+      for (int i = 0; i < records.size(); i++)
+      {
+         Record<Integer, Integer> record = reader.readRecord();
+         assertThat(record).isEqualTo(records.get(i));
+      }
+      assertThat(reader.readRecord()).isNull();
+      assertThat(reader.getFilePosition()).isEqualTo(expectedSizeOfFile);
+    }
+  }
+
+  @Test
+  public void testReaderPoolReleasesMappingWithLastReader() throws Exception
+  {
+    writeRecords(BLOCK_SIZE, records(1, 2, 3));
+    LogReaderPool<Integer, Integer> pool = new LogReaderPool<>(TEST_FILE, RECORD_PARSER, false);
+
+    BlockLogReader<Integer, Integer> reader = pool.get();
+    // files are not mapped on Windows
+    final boolean isMapped = reader.isMapped();
+    assertThat(pool.isFileMapped()).isEqualTo(isMapped);
+    pool.release(pool.get());
+    assertThat(pool.isFileMapped()).isEqualTo(isMapped);
+
+    // the reader still in use can read the file once the pool is shut down
+    pool.shutdown();
+    assertThat(pool.isFileMapped()).isEqualTo(isMapped);
+    assertThat(reader.readRecord()).isEqualTo(record(1));
+
+    pool.release(reader);
+    assertThat(pool.isFileMapped()).isFalse();
+  }
+
   @DataProvider(name = "recordsForSeek")
   Object[][] recordsForSeek()
   {
@@ -251,6 +294,24 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
     }
   }
 
+  @Test(dataProvider = "recordsForSeek")
+  public void testSeekToRecordMapped(int blockSize, List<Record<Integer, Integer>> records, int key,
+      KeyMatchingStrategy matchingStrategy, PositionStrategy positionStrategy, Record<Integer, Integer> expectedRecord,
+      boolean shouldBeFound) throws Exception
+  {
+    writeRecords(blockSize, records);
+
+    try (BlockLogReader<Integer, Integer> reader = newMappedReader(blockSize))
+    {
+      Pair<Boolean, Record<Integer, Integer>> result = reader.seekToRecord(key, matchingStrategy, positionStrategy);
+
+      final SoftAssertions softly = new SoftAssertions();
+      softly.assertThat(result.getFirst()).isEqualTo(shouldBeFound);
+      softly.assertThat(result.getSecond()).isEqualTo(expectedRecord);
+      softly.assertAll();
+    }
+  }
+
   @Test
   public void testGetClosestBlockStartBeforeOrAtPosition() throws Exception
   {
@@ -518,6 +579,16 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
         RECORD_PARSER, blockSize);
   }
 
+  private BlockLogReader<Integer, Integer> newMappedReader(int blockSize) throws IOException
+  {
+    try (RandomAccessFile file = new RandomAccessFile(TEST_FILE, "r");
+        FileChannel channel = file.getChannel())
+    {
+      return BlockLogReader.newMappedReaderForTests(TEST_FILE, channel.map(MapMode.READ_ONLY, 0, channel.size()),
+          RECORD_PARSER, blockSize);
+    }
+  }
+
   private BlockLogReader<Integer, Integer> newReaderWithNullFile(int blockSize) throws FileNotFoundException
   {
     return BlockLogReader.newReaderForTests(null, null, RECORD_PARSER, blockSize);
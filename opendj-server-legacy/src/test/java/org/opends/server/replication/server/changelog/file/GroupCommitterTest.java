@@ -0,0 +1,170 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.server.changelog.file;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.replication.server.changelog.file.LogFileTest.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.MonitorData;
+import org.opends.server.replication.server.changelog.file.Log.LogRotationParameters;
+import org.opends.server.types.Attribute;
+import org.opends.server.util.StaticUtils;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(sequential=true)
+public class GroupCommitterTest extends DirectoryServerTestCase
+{
+  private static final File LOG_DIRECTORY = new File(TestCaseUtils.getUnitTestRootPath(), "changelog-group-commit");
+
+  /** Long enough for batches to be only committed when full or on shutdown. */
+  private static final long NEVER_EXPIRES = TimeUnit.MINUTES.toMillis(10);
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @BeforeMethod
+  public void initialize() throws Exception
+  {
+    if (LOG_DIRECTORY.exists())
+    {
+      StaticUtils.recursiveDelete(LOG_DIRECTORY);
+    }
+  }
+
+  private Log<String, String> openLog(final String name) throws Exception
+  {
+    final LogRotationParameters rotationParams = new LogRotationParameters(1024 * 1024, 0, 0);
+    return Log.openLog(mock(ReplicationEnvironment.class), new File(LOG_DIRECTORY, name), RECORD_PARSER,
+        rotationParams);
+  }
+
+  @Test
+  public void testFullBatchIsCommittedWithoutWaitingForMaxLatency() throws Exception
+  {
+    // one log per appender, like the replica DBs of several replicas
+    final int nbAppenders = 4;
+    final GroupCommitter committer = new GroupCommitter("test", NEVER_EXPIRES, nbAppenders);
+    final ExecutorService executor = Executors.newFixedThreadPool(nbAppenders);
+    final List<Log<String, String>> logs = new ArrayList<>();
+    committer.start();
+    try
+    {
+      final List<Future<Void>> appends = new ArrayList<>();
+      for (int i = 1; i <= nbAppenders; i++)
+      {
+        final Log<String, String> log = openLog("replica" + i);
+        logs.add(log);
+        log.setGroupCommitter(committer);
+        appends.add(executor.submit(append(log, i)));
+      }
+      for (Future<Void> append : appends)
+      {
+        append.get(30, TimeUnit.SECONDS);
+      }
+
+      final MonitorData monitorData = committer.getMonitorProvider().getMonitorData();
+      assertThat(getValue(monitorData, "batch-count")).isEqualTo("1");
+      assertThat(getValue(monitorData, "last-batch-size")).isEqualTo(String.valueOf(nbAppenders));
+      assertThat(getValue(monitorData, "sync-count")).isEqualTo(String.valueOf(nbAppenders));
+      assertThat(getValue(monitorData, "sync-failure-count")).isEqualTo("0");
+      for (int i = 1; i <= nbAppenders; i++)
+      {
+        assertThat(logs.get(i - 1).getNewestRecord().getKey()).isEqualTo(String.format("key%03d", i));
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+      committer.initiateShutdown();
+      committer.join();
+      for (Log<String, String> log : logs)
+      {
+        log.close();
+      }
+    }
+  }
+
+  @Test
+  public void testShutdownReleasesPendingAppends() throws Exception
+  {
+    final GroupCommitter committer = new GroupCommitter("test", NEVER_EXPIRES, Integer.MAX_VALUE);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    committer.start();
+    try (final Log<String, String> log = openLog("replica"))
+    {
+      log.setGroupCommitter(committer);
+      final Future<Void> pendingAppend = executor.submit(append(log, 1));
+      Thread.sleep(100);
+      assertThat(pendingAppend.isDone()).isFalse();
+
+      committer.initiateShutdown();
+      committer.join(TimeUnit.SECONDS.toMillis(30));
+      pendingAppend.get(30, TimeUnit.SECONDS);
+
+      // once stopped, appends are synced by the appending thread
+      log.append(Record.from(String.format("key%03d", 2), "value2"));
+      assertThat(log.getNewestRecord().getKey()).isEqualTo("key002");
+    }
+    finally
+    {
+      executor.shutdownNow();
+      committer.initiateShutdown();
+    }
+  }
+
+  private Callable<Void> append(final Log<String, String> log, final int i)
+  {
+    return new Callable<Void>()
+    {
+      @Override
+      public Void call() throws Exception
+      {
+        log.append(Record.from(String.format("key%03d", i), "value" + i));
+        return null;
+      }
+    };
+  }
+
+  private String getValue(final MonitorData monitorData, final String attributeName)
+  {
+    for (Attribute attribute : monitorData)
+    {
+      if (attribute.getAttributeDescription().getNameOrOID().equalsIgnoreCase(attributeName))
+      {
+        return attribute.iterator().next().toString();
+      }
+    }
+    return null;
+  }
+}
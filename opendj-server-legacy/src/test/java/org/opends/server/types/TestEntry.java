@@ -729,6 +729,31 @@ public final class TestEntry extends TypesTestCase {
     System.out.println();
   }
 
+  @Test
+  public void testGetUserAttributesView() throws Exception
+  {
+    Entry e = TestCaseUtils.makeEntry(
+         "dn: cn=Test User,ou=People,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: person",
+         "cn: Test User",
+         "cn;lang-en-US: Test User",
+         "sn: User",
+         "creatorsName: cn=Directory Manager");
+    e.addAttribute(Attributes.empty(getDescriptionAttributeType()), null);
+
+    Entry view = e.getUserAttributesView();
+    Entry copy = e.filterEntry(null, false, false, false);
+    assertEquals(view.getName(), copy.getName());
+    assertEquals(view.getObjectClasses(), copy.getObjectClasses());
+    assertEquals(view.getUserAttributes(), copy.getUserAttributes());
+    assertThat(getNames(view.getAllAttributes())).containsExactly("objectClass", "cn", "cn;lang-en-US", "sn");
+    assertThat(view.getOperationalAttributes()).isEmpty();
+    // The attributes are not copied
+    assertSame(view.getObjectClasses(), e.getObjectClasses());
+    assertSame(view.getUserAttributes().get(getSNAttributeType()), e.getUserAttributes().get(getSNAttributeType()));
+  }
+
   private List<String> getNames(Iterable<Attribute> allAttributes)
   {
     List<String> results = new ArrayList<>();